@@ -0,0 +1,193 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, writes the results as JSON and compares them with a
+ * baseline.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [--result file] [--baseline file] [--threshold 0.10] [JMH options]
+ * java -jar target/benchmarks.jar --compare current.json baseline.json [--threshold 0.10]
+ * </pre>
+ *
+ * The results go to <code>bench-result.json</code> by default; keep one from
+ * a known good build as the baseline. A benchmark regresses when it is slower
+ * than its baseline by more than the threshold, a fraction: lower throughput,
+ * or a higher time per operation. The runner exits with status 1 if any
+ * benchmark regressed, so it can gate a build. Benchmarks missing from either
+ * file are listed but do not fail.
+ */
+public final class BenchRunner {
+	private static final String USAGE = "Usage: java -jar target/benchmarks.jar"
+			+ " [--result file] [--baseline file] [--threshold 0.10] [JMH options]\n"
+			+ "       java -jar target/benchmarks.jar --compare current.json baseline.json [--threshold 0.10]";
+	private static final Options OPTIONS = new Options(USAGE);
+
+	private BenchRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		String result = "bench-result.json";
+		String baseline = null;
+		String compare = null;
+		double threshold = 0.10;
+
+		List<String> jmhArgs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--result":
+				result = OPTIONS.value(args, ++i, "--result");
+				break;
+			case "--baseline":
+				baseline = OPTIONS.value(args, ++i, "--baseline");
+				break;
+			case "--threshold":
+				threshold = threshold(OPTIONS.value(args, ++i, "--threshold"));
+				break;
+			case "--compare":
+				compare = OPTIONS.value(args, ++i, "--compare");
+				baseline = OPTIONS.value(args, ++i, "--compare");
+				break;
+			default:
+				jmhArgs.add(args[i]);
+			}
+		}
+
+		if (compare == null) {
+			CommandLineOptions options;
+			try {
+				options = new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()]));
+			} catch (CommandLineOptionException e) {
+				System.err.println("Error parsing command line: " + e.getMessage());
+				System.exit(2);
+				return;
+			}
+			new Runner(new OptionsBuilder().parent(options).resultFormat(ResultFormatType.JSON).result(result).build())
+					.run();
+			compare = result;
+		}
+
+		if (baseline != null) {
+			int regressed = compare(read(new File(compare)), read(new File(baseline)), threshold);
+			if (regressed > 0) {
+				System.err.println(regressed + " benchmark(s) regressed by more than "
+						+ Math.round(threshold * 100) + "%");
+				System.exit(1);
+			}
+		}
+	}
+
+	private static double threshold(String value) {
+		try {
+			double threshold = Double.parseDouble(value);
+			if (threshold >= 0) {
+				return threshold;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below
+		}
+		OPTIONS.usage("The threshold must be a fraction of at least 0, e.g. 0.10, not " + value);
+		return 0;
+	}
+
+	/**
+	 * Print the change of every benchmark against its baseline.
+	 *
+	 * @return the number of benchmarks that regressed past the threshold
+	 */
+	static int compare(Map<String, Score> current, Map<String, Score> baseline, double threshold) {
+		int regressed = 0;
+		for (Map.Entry<String, Score> entry : current.entrySet()) {
+			Score now = entry.getValue();
+			Score then = baseline.get(entry.getKey());
+			if (then == null) {
+				System.out.println(String.format(Locale.ROOT, "  new      %s: %.3f %s", entry.getKey(), now.value,
+						now.unit));
+				continue;
+			}
+			double slowdown = now.slowdown(then);
+			boolean bad = slowdown > threshold;
+			if (bad) {
+				regressed++;
+			}
+			System.out.println(String.format(Locale.ROOT, "%s %+7.1f%% %s: %.3f -> %.3f %s", bad ? "!" : " ",
+					slowdown * 100, entry.getKey(), then.value, now.value, now.unit));
+		}
+		for (String key : baseline.keySet()) {
+			if (!current.containsKey(key)) {
+				System.out.println("  missing  " + key);
+			}
+		}
+		return regressed;
+	}
+
+	/**
+	 * Read the primary scores of a JMH result file, keyed by benchmark and
+	 * parameters.
+	 */
+	@SuppressWarnings("unchecked")
+	static Map<String, Score> read(File file) throws IOException {
+		String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		Map<String, Score> scores = new TreeMap<>();
+		for (Object item : (List<Object>) Json.parse(text)) {
+			Map<String, Object> run = (Map<String, Object>) item;
+			StringBuilder key = new StringBuilder((String) run.get("benchmark"));
+			Object params = run.get("params");
+			if (params != null) {
+				// Sorted, so the key does not depend on the order in the file
+				key.append(new TreeMap<>((Map<String, Object>) params));
+			}
+			key.append(" [").append(run.get("mode")).append(']');
+
+			Map<String, Object> metric = (Map<String, Object>) run.get("primaryMetric");
+			Object score = metric.get("score");
+			double value = (score instanceof Double) ? (Double) score : Double.NaN;
+			scores.put(key.toString(),
+					new Score((String) run.get("mode"), value, (String) metric.get("scoreUnit")));
+		}
+		return scores;
+	}
+
+	static final class Score {
+		final String mode;
+		final double value;
+		final String unit;
+
+		Score(String mode, double value, String unit) {
+			this.mode = mode;
+			this.value = value;
+			this.unit = unit;
+		}
+
+		/**
+		 * @return how much slower this score is than the baseline, as a
+		 *         fraction; negative if it is faster
+		 */
+		double slowdown(Score baseline) {
+			if (baseline.value == 0 || Double.isNaN(value) || Double.isNaN(baseline.value)) {
+				return 0;
+			}
+			if ("thrpt".equals(mode)) {
+				return (baseline.value - value) / baseline.value;
+			}
+			return (value - baseline.value) / baseline.value;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.commands.Command;
+import com.cptingle.BoardGamesX.commands.CommandIndex;
+
+/**
+ * Compares the command dispatch index against the old linear scan, which
+ * called String.matches on every registered pattern.
+ * <p>
+ * Every tenth command uses a pattern that needs the regex engine, the rest use
+ * plain aliases and literal prefixes, like the built-in commands do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandDispatchBenchmark {
+	@Param({ "10", "100", "1000" })
+	public int commands;
+
+	private Map<String, Command> linear;
+	private CommandIndex<Command> index;
+	private String[] args;
+	private int next;
+
+	@Setup
+	public void setup() {
+		linear = new LinkedHashMap<>();
+		index = new CommandIndex<>();
+
+		for (int i = 0; i < commands; i++) {
+			String pattern;
+			if (i % 10 == 9) {
+				pattern = "(x" + i + ")((.*))?|xcommand" + i;
+			} else {
+				pattern = "c" + i + "|cmd" + i + ".*|command" + i;
+			}
+			Command command = (gm, sender, params) -> true;
+			linear.put(pattern, command);
+			index.add(pattern, command);
+		}
+
+		// A mix of exact aliases, prefixes, regex hits and misses
+		args = new String[] { "c0", "cmd1abc", "command" + (commands / 2), "x9", "nothing", "c" + (commands - 1),
+				"commandx", "?" };
+		next = 0;
+	}
+
+	private String nextArg() {
+		String arg = args[next];
+		next = (next + 1) % args.length;
+		return arg;
+	}
+
+	@Benchmark
+	public List<Command> linearScan() {
+		String arg = nextArg();
+		List<Command> result = new ArrayList<>();
+		for (Entry<String, Command> entry : linear.entrySet()) {
+			if (arg.matches(entry.getKey())) {
+				result.add(entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<Command> commandIndex() {
+		return index.lookup(nextArg());
+	}
+}
@@ -0,0 +1,65 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.CommandSender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+import com.cptingle.BoardGamesX.commands.CommandHandler;
+
+/**
+ * A full /bg command, from the executor to the reply: matching, the permission
+ * check, the command itself and rendering its messages.
+ * <p>
+ * Unlike {@link CommandDispatchBenchmark}, which only measures the index, this
+ * runs the registered commands of the plugin, enabled headless.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandHandlerBenchmark {
+	@Param({ "top", "top 5", "perf nothing", "nothing", "help" })
+	public String line;
+
+	@Param({ "console", "player" })
+	public String sender;
+
+	private BoardGamesX plugin;
+	private CommandHandler handler;
+	private CommandSender target;
+	private String[] args;
+
+	@Setup
+	public void setup() throws Exception {
+		plugin = Headless.enable(Headless.CONFIG);
+		handler = plugin.getCommandHandler();
+		target = sender.equals("console") ? Headless.console() : Headless.player(new UUID(4L, 0L), "bencher");
+		args = line.split(" ");
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Headless.disable(plugin);
+	}
+
+	@Benchmark
+	public boolean dispatch() {
+		return handler.onCommand(target, null, "bg", args);
+	}
+}
@@ -0,0 +1,84 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.config.ConfigLoader;
+import com.cptingle.BoardGamesX.config.ConfigSnapshot;
+
+/**
+ * Loading and saving the config-file, with a number of game sections.
+ * <p>
+ * {@link #load()} is what a reload costs the background thread: reading,
+ * checking for tabs, parsing and hashing. {@link #diff()} is the part done
+ * when the new snapshot is applied, and {@link #save()} the part of a save
+ * that runs on the main thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigBenchmark {
+	@Param({ "10", "100" })
+	public int games;
+
+	private File file;
+	private ConfigSnapshot previous;
+	private YamlConfiguration config;
+
+	@Setup
+	public void setup() throws Exception {
+		StringBuilder yaml = new StringBuilder(Headless.CONFIG);
+		yaml.append("  prefix: '&c[BoardGamesX]'\n  tick-budget-ms: 5.0\n");
+		yaml.append("games:\n");
+		for (int i = 0; i < games; i++) {
+			yaml.append("  table").append(i).append(":\n");
+			yaml.append("    type: connect-four\n    enabled: true\n    turn-time-ms: 30000\n");
+			yaml.append("    board: {world: world, x: ").append(i * 16).append(", y: 64, z: 0}\n");
+		}
+
+		file = File.createTempFile("bgx-config", ".yml");
+		Files.write(file.toPath(), yaml.toString().getBytes(StandardCharsets.UTF_8));
+		previous = ConfigLoader.load(file);
+		config = previous.getConfig();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Files.delete(file.toPath());
+	}
+
+	@Benchmark
+	public ConfigSnapshot load() throws Exception {
+		return ConfigLoader.load(file);
+	}
+
+	@Benchmark
+	public Set<String> diff() throws Exception {
+		return ConfigLoader.load(file).diff(previous);
+	}
+
+	@Benchmark
+	public String save() {
+		return config.saveToString();
+	}
+}
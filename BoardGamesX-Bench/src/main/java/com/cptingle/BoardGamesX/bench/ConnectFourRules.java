@@ -0,0 +1,116 @@
+package com.cptingle.BoardGamesX.bench;
+
+import com.cptingle.BoardGamesX.framework.BitGameboard;
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * Connect four on a 7x6 bitboard, used as a reference game by the benchmarks.
+ * <p>
+ * Side 0 plays piece 1 and side 1 plays piece 2. A move is the cell a piece
+ * drops into.
+ */
+public class ConnectFourRules implements GameRules {
+	public static final int WIDTH = 7;
+	public static final int HEIGHT = 6;
+
+	private static final long BOTTOM_ROW = (1L << WIDTH) - 1;
+	private static final long LEFT_COLUMNS;
+	private static final long RIGHT_COLUMNS;
+	private static final int[] CENTER_WEIGHTS = { 0, 1, 2, 4, 2, 1, 0 };
+
+	static {
+		long left = 0L;
+		long right = 0L;
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				long bit = 1L << (y * WIDTH + x);
+				if (x <= WIDTH - 4) {
+					left |= bit;
+				}
+				if (x >= 3) {
+					right |= bit;
+				}
+			}
+		}
+		LEFT_COLUMNS = left;
+		RIGHT_COLUMNS = right;
+	}
+
+	@Override
+	public int getSides() {
+		return 2;
+	}
+
+	@Override
+	public Gameboard createBoard() {
+		return new BitGameboard(WIDTH, HEIGHT, 2);
+	}
+
+	@Override
+	public int getMaxMoves(Gameboard board) {
+		return WIDTH;
+	}
+
+	@Override
+	public int generateMoves(Gameboard board, int[] moves) {
+		BitGameboard bits = (BitGameboard) board;
+		long drops = ((bits.getOccupied() << WIDTH) | BOTTOM_ROW) & bits.getEmpty();
+		int count = 0;
+		while (drops != 0) {
+			moves[count++] = Long.numberOfTrailingZeros(drops);
+			drops &= drops - 1;
+		}
+		return count;
+	}
+
+	@Override
+	public void makeMove(Gameboard board, int move) {
+		int side = board.getSideToMove();
+		board.beginMove();
+		board.set(move, side + 1);
+		board.setSideToMove(1 - side);
+		board.endMove();
+	}
+
+	@Override
+	public boolean isFinished(Gameboard board) {
+		BitGameboard bits = (BitGameboard) board;
+		return bits.getEmpty() == 0 || getWinner(board) >= 0;
+	}
+
+	@Override
+	public int getWinner(Gameboard board) {
+		BitGameboard bits = (BitGameboard) board;
+		if (hasFour(bits.getPieces(1))) {
+			return 0;
+		}
+		if (hasFour(bits.getPieces(2))) {
+			return 1;
+		}
+		return -1;
+	}
+
+	@Override
+	public int evaluate(Gameboard board) {
+		BitGameboard bits = (BitGameboard) board;
+		int score = 0;
+		for (int x = 0; x < WIDTH; x++) {
+			long column = 0L;
+			for (int y = 0; y < HEIGHT; y++) {
+				column |= 1L << (y * WIDTH + x);
+			}
+			score += CENTER_WEIGHTS[x] * (Long.bitCount(bits.getPieces(1) & column)
+					- Long.bitCount(bits.getPieces(2) & column));
+		}
+		return (board.getSideToMove() == 0) ? score : -score;
+	}
+
+	private static boolean hasFour(long b) {
+		long horizontal = b & (b >>> 1) & (b >>> 2) & (b >>> 3) & LEFT_COLUMNS;
+		long vertical = b & (b >>> WIDTH) & (b >>> 2 * WIDTH) & (b >>> 3 * WIDTH);
+		long rising = b & (b >>> (WIDTH + 1)) & (b >>> 2 * (WIDTH + 1)) & (b >>> 3 * (WIDTH + 1)) & LEFT_COLUMNS;
+		long falling = b & (b >>> (WIDTH - 1)) & (b >>> 2 * (WIDTH - 1)) & (b >>> 3 * (WIDTH - 1)) & RIGHT_COLUMNS;
+		return (horizontal | vertical | rising | falling) != 0;
+	}
+}
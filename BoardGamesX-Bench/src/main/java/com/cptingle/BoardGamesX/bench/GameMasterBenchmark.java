@@ -0,0 +1,113 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.framework.Game;
+
+/**
+ * Lookups of the game master, with the plugin enabled headless and a number of
+ * tables with two players each.
+ * <p>
+ * Most events come from players who are not playing, so
+ * {@link #isPlayingMiss()} is the case that matters most.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameMasterBenchmark {
+	@Param({ "16", "1024" })
+	public int games;
+
+	private BoardGamesX plugin;
+	private GameMaster gm;
+	private String[] names;
+	private UUID[] playing;
+	private UUID[] idle;
+	private Player player;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		plugin = Headless.enable(Headless.CONFIG);
+		gm = plugin.getGameMaster();
+
+		names = new String[games];
+		playing = new UUID[games * 2];
+		idle = new UUID[1024];
+		for (int i = 0; i < games; i++) {
+			Game game = new Game("table" + i) {
+				@Override
+				public void forceEnd() {
+					removeAllPlayers();
+				}
+			};
+			gm.addGame(game);
+			game.setEnabled(true);
+			playing[2 * i] = new UUID(2L, 2 * i);
+			playing[2 * i + 1] = new UUID(2L, 2 * i + 1);
+			game.addPlayer(playing[2 * i]);
+			game.addPlayer(playing[2 * i + 1]);
+			// Names are typed by players, in any case
+			names[i] = (i % 2 == 0) ? "table" + i : "TABLE" + i;
+		}
+		for (int i = 0; i < idle.length; i++) {
+			idle[i] = new UUID(3L, i);
+		}
+		player = Headless.player(idle[0], "idle");
+	}
+
+	@TearDown
+	public void tearDown() throws Exception {
+		Headless.disable(plugin);
+	}
+
+	@Benchmark
+	public Game byName() {
+		next++;
+		return gm.getGameWithName(names[next % names.length]);
+	}
+
+	@Benchmark
+	public Game byPlayer() {
+		next++;
+		return gm.getGameWithPlayer(playing[next % playing.length]);
+	}
+
+	@Benchmark
+	public boolean isPlayingMiss() {
+		next++;
+		return gm.isPlaying(idle[next % idle.length]);
+	}
+
+	@Benchmark
+	public Collection<Game> joinableGames() {
+		return gm.getJoinableGames();
+	}
+
+	@Benchmark
+	public List<Game> permittedGames() {
+		return gm.getPermittedGames(player);
+	}
+}
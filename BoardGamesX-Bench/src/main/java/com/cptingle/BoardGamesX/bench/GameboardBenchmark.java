@@ -0,0 +1,130 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.framework.ArrayGameboard;
+import com.cptingle.BoardGamesX.framework.BitGameboard;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * Move generation and apply/undo throughput of the board implementations.
+ * <p>
+ * Move generation uses a connect-four position: the legal moves are the lowest
+ * empty cell of each column. Run with <code>-prof gc</code> to confirm that
+ * apply/undo does not allocate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameboardBenchmark {
+	private static final int WIDTH = 7;
+	private static final int HEIGHT = 6;
+
+	private BitGameboard bitboard;
+	private ArrayGameboard array;
+	private ArrayGameboard large;
+	private long bottomRow;
+	private int[] moves;
+
+	@Setup
+	public void setup() {
+		bitboard = new BitGameboard(WIDTH, HEIGHT, 2);
+		array = new ArrayGameboard(WIDTH, HEIGHT, 2);
+		large = new ArrayGameboard(15, 15, 2);
+		moves = new int[large.getCellCount()];
+		bottomRow = (1L << WIDTH) - 1;
+
+		// Drop a fixed sequence of pieces for a mid-game position
+		Random random = new Random(42);
+		int[] heights = new int[WIDTH];
+		for (int i = 0; i < 16; i++) {
+			int x = random.nextInt(WIDTH);
+			if (heights[x] < HEIGHT - 1) {
+				int piece = 1 + (i & 1);
+				bitboard.set(x, heights[x], piece);
+				array.set(x, heights[x], piece);
+				heights[x]++;
+			}
+		}
+		for (int i = 0; i < 60; i++) {
+			large.set(random.nextInt(large.getCellCount()), 1 + (i & 1));
+		}
+	}
+
+	@Benchmark
+	public int bitboardMoveGeneration() {
+		long drops = ((bitboard.getOccupied() << WIDTH) | bottomRow) & bitboard.getEmpty();
+		int count = 0;
+		while (drops != 0) {
+			moves[count++] = Long.numberOfTrailingZeros(drops);
+			drops &= drops - 1;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int arrayMoveGeneration() {
+		int count = 0;
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				if (array.get(x, y) == Gameboard.EMPTY) {
+					moves[count++] = array.cell(x, y);
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int bitboardApplyUndo() {
+		return applyUndo(bitboard, bitboardMoveGeneration());
+	}
+
+	@Benchmark
+	public int arrayApplyUndo() {
+		return applyUndo(array, arrayMoveGeneration());
+	}
+
+	@Benchmark
+	public int largeArrayApplyUndo() {
+		int count = 0;
+		for (int cell = 0; cell < large.getCellCount() && count < 16; cell++) {
+			if (large.get(cell) == Gameboard.EMPTY) {
+				moves[count++] = cell;
+			}
+		}
+		return applyUndo(large, count);
+	}
+
+	/**
+	 * Apply every generated move on top of the previous ones, then undo them all.
+	 */
+	private int applyUndo(Gameboard board, int count) {
+		for (int i = 0; i < count; i++) {
+			board.beginMove();
+			board.set(moves[i], 1 + (i & 1));
+			board.endMove();
+		}
+		int undone = 0;
+		while (board.undo()) {
+			undone++;
+		}
+		return undone;
+	}
+}
@@ -0,0 +1,230 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+
+/**
+ * Runs the plugin without a server, so the benchmarks work on any machine with
+ * a JDK.
+ * <p>
+ * The server, its scheduler and plugin manager, players and the console are
+ * all proxies. Methods answer with a fixed value or with nothing; scheduled
+ * tasks never run, so benchmarks call whatever they measure themselves.
+ */
+public final class Headless {
+	private static final Logger LOGGER = Logger.getLogger("Headless");
+	private static final Map<UUID, Player> PLAYERS = new ConcurrentHashMap<>();
+	private static Server server;
+	private static BoardGamesX current;
+
+	/**
+	 * The config-file the plugin is enabled with. The config is not watched,
+	 * since nothing would apply the changes.
+	 */
+	public static final String CONFIG = "global-settings:\n  enabled: true\n  watch-config: false\n  metrics: true\n";
+
+	private Headless() {
+	}
+
+	/**
+	 * @return the server, installed as the Bukkit server on first use
+	 */
+	public static synchronized Server server() {
+		if (server == null) {
+			LOGGER.setLevel(Level.WARNING);
+			Map<String, Answer> answers = new HashMap<>();
+			answers.put("getLogger", args -> LOGGER);
+			answers.put("getName", args -> "Headless");
+			answers.put("getVersion", args -> "bench");
+			answers.put("getBukkitVersion", args -> "1.15.2-R0.1-SNAPSHOT");
+			answers.put("isPrimaryThread", args -> true);
+			answers.put("getOnlinePlayers", args -> Collections.unmodifiableCollection(PLAYERS.values()));
+			answers.put("getPlayer", args -> (args[0] instanceof UUID) ? PLAYERS.get(args[0]) : null);
+			answers.put("getScheduler", args -> scheduler());
+			answers.put("getPluginManager", args -> stub(PluginManager.class, new HashMap<>()));
+			answers.put("getPluginCommand", args -> command((String) args[0]));
+			server = stub(Server.class, answers);
+			Bukkit.setServer(server);
+		}
+		return server;
+	}
+
+	/**
+	 * Enable the plugin in a new data folder.
+	 *
+	 * @param config the contents of the config-file
+	 */
+	public static synchronized BoardGamesX enable(String config) throws IOException {
+		File folder = Files.createTempDirectory("bgx-bench").toFile();
+		Files.write(new File(folder, "config.yml").toPath(), config.getBytes(StandardCharsets.UTF_8));
+
+		PluginDescriptionFile description = new PluginDescriptionFile("BoardGamesX", "bench",
+				BoardGamesX.class.getName());
+		@SuppressWarnings("deprecation")
+		JavaPluginLoader loader = new JavaPluginLoader(server());
+		BoardGamesX plugin = new BoardGamesX(loader, description, folder, new File(folder, "BoardGamesX.jar")) {
+		};
+		current = plugin;
+		plugin.onEnable();
+		return plugin;
+	}
+
+	/**
+	 * Disable the plugin and delete its data folder.
+	 */
+	public static synchronized void disable(BoardGamesX plugin) throws IOException {
+		plugin.onDisable();
+		if (current == plugin) {
+			current = null;
+		}
+		PLAYERS.clear();
+		Files.walkFileTree(plugin.getDataFolder().toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 * An online player with every permission.
+	 */
+	public static Player player(UUID id, String name) {
+		Map<String, Answer> answers = new HashMap<>();
+		answers.put("getUniqueId", args -> id);
+		answers.put("getName", args -> name);
+		answers.put("getDisplayName", args -> name);
+		answers.put("hasPermission", args -> true);
+		answers.put("isOnline", args -> true);
+		answers.put("getServer", args -> server());
+		Player player = stub(Player.class, answers);
+		PLAYERS.put(id, player);
+		return player;
+	}
+
+	/**
+	 * The console, which drops every message.
+	 */
+	public static ConsoleCommandSender console() {
+		Map<String, Answer> answers = new HashMap<>();
+		answers.put("getName", args -> "CONSOLE");
+		answers.put("hasPermission", args -> true);
+		answers.put("isOp", args -> true);
+		answers.put("getServer", args -> server());
+		return stub(ConsoleCommandSender.class, answers);
+	}
+
+	private static BukkitScheduler scheduler() {
+		Map<String, Answer> answers = new HashMap<>();
+		Answer task = args -> stub(BukkitTask.class, new HashMap<>());
+		answers.put("runTask", task);
+		answers.put("runTaskLater", task);
+		answers.put("runTaskTimer", task);
+		answers.put("runTaskAsynchronously", task);
+		answers.put("runTaskLaterAsynchronously", task);
+		answers.put("runTaskTimerAsynchronously", task);
+		return stub(BukkitScheduler.class, answers);
+	}
+
+	private static PluginCommand command(String name) {
+		if (current == null) {
+			return null;
+		}
+		int colon = name.indexOf(':');
+		return new PluginCommand(name.substring(colon + 1), current) {
+		};
+	}
+
+	/**
+	 * The answer of a stubbed method.
+	 */
+	interface Answer {
+		Object answer(Object[] args);
+	}
+
+	/**
+	 * A proxy that answers the given methods, by name, and returns zero, false
+	 * or null from all others.
+	 */
+	static <T> T stub(Class<T> type, Map<String, Answer> answers) {
+		InvocationHandler handler = new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if (method.getDeclaringClass() == Object.class) {
+					switch (name) {
+					case "equals":
+						return proxy == args[0];
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					default:
+						return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+					}
+				}
+				Answer answer = answers.get(name);
+				if (answer != null) {
+					return answer.answer((args == null) ? new Object[0] : args);
+				}
+				return zero(method.getReturnType());
+			}
+		};
+		return type.cast(Proxy.newProxyInstance(Headless.class.getClassLoader(), new Class<?>[] { type }, handler));
+	}
+
+	private static Object zero(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) {
+			return null;
+		} else if (type == boolean.class) {
+			return false;
+		} else if (type == char.class) {
+			return '\0';
+		} else if (type == byte.class) {
+			return (byte) 0;
+		} else if (type == short.class) {
+			return (short) 0;
+		} else if (type == int.class) {
+			return 0;
+		} else if (type == long.class) {
+			return 0L;
+		} else if (type == float.class) {
+			return 0f;
+		}
+		return 0d;
+	}
+}
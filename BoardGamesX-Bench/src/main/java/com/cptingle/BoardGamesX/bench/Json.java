@@ -0,0 +1,178 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A small reader for the JSON results of JMH. Objects become maps, arrays
+ * lists, numbers doubles; strings, booleans and null are kept as they are.
+ */
+final class Json {
+	private final String text;
+	private int pos;
+
+	private Json(String text) {
+		this.text = text;
+	}
+
+	static Object parse(String text) {
+		Json json = new Json(text);
+		Object value = json.value();
+		json.skipSpace();
+		if (json.pos != text.length()) {
+			throw json.error("Trailing characters");
+		}
+		return value;
+	}
+
+	private Object value() {
+		skipSpace();
+		if (pos >= text.length()) {
+			throw error("Unexpected end");
+		}
+		char c = text.charAt(pos);
+		switch (c) {
+		case '{':
+			return object();
+		case '[':
+			return array();
+		case '"':
+			return string();
+		case 't':
+			return literal("true", Boolean.TRUE);
+		case 'f':
+			return literal("false", Boolean.FALSE);
+		case 'n':
+			return literal("null", null);
+		default:
+			return number();
+		}
+	}
+
+	private Map<String, Object> object() {
+		Map<String, Object> map = new LinkedHashMap<>();
+		pos++;
+		skipSpace();
+		if (peek() == '}') {
+			pos++;
+			return map;
+		}
+		while (true) {
+			skipSpace();
+			String key = string();
+			skipSpace();
+			expect(':');
+			map.put(key, value());
+			skipSpace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect('}');
+				return map;
+			}
+		}
+	}
+
+	private List<Object> array() {
+		List<Object> list = new ArrayList<>();
+		pos++;
+		skipSpace();
+		if (peek() == ']') {
+			pos++;
+			return list;
+		}
+		while (true) {
+			list.add(value());
+			skipSpace();
+			if (peek() == ',') {
+				pos++;
+			} else {
+				expect(']');
+				return list;
+			}
+		}
+	}
+
+	private String string() {
+		expect('"');
+		StringBuilder out = new StringBuilder();
+		while (true) {
+			if (pos >= text.length()) {
+				throw error("Unterminated string");
+			}
+			char c = text.charAt(pos++);
+			if (c == '"') {
+				return out.toString();
+			} else if (c != '\\') {
+				out.append(c);
+				continue;
+			}
+			char escaped = text.charAt(pos++);
+			switch (escaped) {
+			case 'n':
+				out.append('\n');
+				break;
+			case 't':
+				out.append('\t');
+				break;
+			case 'r':
+				out.append('\r');
+				break;
+			case 'b':
+				out.append('\b');
+				break;
+			case 'f':
+				out.append('\f');
+				break;
+			case 'u':
+				out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+				pos += 4;
+				break;
+			default:
+				out.append(escaped);
+			}
+		}
+	}
+
+	private Double number() {
+		int start = pos;
+		while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+			pos++;
+		}
+		if (start == pos) {
+			throw error("Unexpected character");
+		}
+		return Double.valueOf(text.substring(start, pos));
+	}
+
+	private Object literal(String word, Object value) {
+		if (!text.startsWith(word, pos)) {
+			throw error("Unexpected character");
+		}
+		pos += word.length();
+		return value;
+	}
+
+	private char peek() {
+		return (pos < text.length()) ? text.charAt(pos) : '\0';
+	}
+
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		pos++;
+	}
+
+	private void skipSpace() {
+		while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at offset " + pos);
+	}
+}
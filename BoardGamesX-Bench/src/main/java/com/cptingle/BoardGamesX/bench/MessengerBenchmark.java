@@ -0,0 +1,70 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+
+/**
+ * Rendering messages: a line without arguments, which is cached, a line with
+ * placeholders, and the same line sent to a full server.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessengerBenchmark {
+	private Messenger messenger;
+	private CommandSender console;
+	private List<Player> players;
+	private int next;
+
+	@Setup
+	public void setup() {
+		messenger = new Messenger("&c[BoardGamesX]");
+		console = Headless.console();
+		players = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			players.add(Headless.player(new UUID(1L, i), "player" + i));
+		}
+	}
+
+	@Benchmark
+	public String renderPlain() {
+		return messenger.render(Msg.TOP_HEADER);
+	}
+
+	@Benchmark
+	public String renderArgs() {
+		next++;
+		return messenger.render(Msg.TOP_ENTRY, next & 15, "player" + (next & 15), 1500 + (next & 255));
+	}
+
+	@Benchmark
+	public boolean tell() {
+		return messenger.tell(console, Msg.QUEUE_MATCHED, "table1");
+	}
+
+	@Benchmark
+	public int broadcast() {
+		return messenger.broadcast(players, Msg.QUEUE_MATCHED, "table1");
+	}
+}
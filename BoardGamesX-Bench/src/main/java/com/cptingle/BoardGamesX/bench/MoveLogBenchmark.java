@@ -0,0 +1,179 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.persistence.MoveLog;
+import com.cptingle.BoardGamesX.persistence.MoveLogWriter;
+
+/**
+ * Write throughput and random-seek latency of the binary move log, on a 15x15
+ * board with a log of 100,000 moves.
+ * <p>
+ * <code>append</code> is moves per microsecond, including the periodic board
+ * snapshots. <code>seek</code> is the time to set up the board at a random move,
+ * which grows with the snapshot interval. <code>openAndReadMoves</code> is the
+ * time to load a whole replay.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveLogBenchmark {
+	private static final int MOVES = 100000;
+
+	@Param({ "16", "64", "256" })
+	public int interval;
+
+	private GameRules rules;
+	private Path dir;
+	private Path replayFile;
+	private MoveLog replay;
+	private Gameboard replayBoard;
+	private SplittableRandom random;
+
+	private Path writeFile;
+	private MoveLogWriter writer;
+	private Gameboard writeBoard;
+	private int nextMove;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		rules = new ToggleRules(15);
+		dir = Files.createTempDirectory("bgx-movelog");
+		random = new SplittableRandom(42);
+
+		// A long match to seek in
+		replayFile = dir.resolve("replay.log");
+		Gameboard board = rules.createBoard();
+		try (MoveLogWriter log = MoveLogWriter.create(replayFile, board, interval)) {
+			for (int i = 0; i < MOVES; i++) {
+				int move = random.nextInt(board.getCellCount());
+				rules.makeMove(board, move);
+				log.append(move, board);
+			}
+		}
+		replay = MoveLog.open(replayFile);
+		replayBoard = rules.createBoard();
+	}
+
+	@Setup(Level.Iteration)
+	public void startWriter() throws IOException {
+		writeFile = dir.resolve("write.log");
+		writeBoard = rules.createBoard();
+		writer = MoveLogWriter.create(writeFile, writeBoard, interval);
+	}
+
+	@TearDown(Level.Iteration)
+	public void stopWriter() throws IOException {
+		writer.close();
+		Files.delete(writeFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		replay.close();
+		Files.delete(replayFile);
+		Files.delete(dir);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int append() throws IOException {
+		int move = nextMove;
+		nextMove = (nextMove + 37) % writeBoard.getCellCount();
+		writer.append(move, writeBoard);
+		return move;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long seek() {
+		replay.seek(random.nextInt(MOVES + 1), replayBoard, rules);
+		return replayBoard.getHash();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int openAndReadMoves() throws IOException {
+		try (MoveLog log = MoveLog.open(replayFile)) {
+			return log.readMoves().length;
+		}
+	}
+
+	/**
+	 * Every move toggles a cell between empty and the mover's piece, so a match
+	 * never ends.
+	 */
+	static class ToggleRules implements GameRules {
+		private final int size;
+
+		ToggleRules(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public int getSides() {
+			return 2;
+		}
+
+		@Override
+		public Gameboard createBoard() {
+			return Gameboard.create(size, size, 2);
+		}
+
+		@Override
+		public int generateMoves(Gameboard board, int[] moves) {
+			for (int i = 0; i < board.getCellCount(); i++) {
+				moves[i] = i;
+			}
+			return board.getCellCount();
+		}
+
+		@Override
+		public void makeMove(Gameboard board, int move) {
+			int side = board.getSideToMove();
+			board.beginMove();
+			board.set(move, (board.get(move) == Gameboard.EMPTY) ? side + 1 : Gameboard.EMPTY);
+			board.setSideToMove(1 - side);
+			board.endMove();
+		}
+
+		@Override
+		public boolean isFinished(Gameboard board) {
+			return false;
+		}
+
+		@Override
+		public int getWinner(Gameboard board) {
+			return -1;
+		}
+
+		@Override
+		public int evaluate(Gameboard board) {
+			return 0;
+		}
+	}
+}
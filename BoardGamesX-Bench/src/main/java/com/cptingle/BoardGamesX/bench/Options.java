@@ -0,0 +1,54 @@
+package com.cptingle.BoardGamesX.bench;
+
+/**
+ * Reads the values of command line options. A missing or malformed value
+ * prints the error and the usage, and exits with status 2.
+ */
+final class Options {
+	private final String usage;
+
+	/**
+	 * @param usage printed after every error
+	 */
+	Options(String usage) {
+		this.usage = usage;
+	}
+
+	/**
+	 * @return the value of an option, the argument at the given index; exits
+	 *         with the usage if it is missing
+	 */
+	String value(String[] args, int i, String option) {
+		if (i >= args.length || args[i].startsWith("--")) {
+			usage("Missing value for " + option);
+		}
+		return args[i];
+	}
+
+	/**
+	 * @return the value of an option as a whole number of at least min; exits
+	 *         with the usage if it is missing, not a number or too small
+	 */
+	int intValue(String[] args, int i, String option, int min) {
+		String value = value(args, i, option);
+		try {
+			int number = Integer.parseInt(value);
+			if (number >= min) {
+				return number;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below
+		}
+		usage(option + " must be a whole number of at least " + min + ", not " + value);
+		return min;
+	}
+
+	/**
+	 * Print the error and the usage, and exit with status 2.
+	 */
+	void usage(String error) {
+		System.err.println(error);
+		System.err.println(usage);
+		System.exit(2);
+	}
+}
@@ -0,0 +1,87 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GamePlayer;
+import com.cptingle.BoardGamesX.framework.GamePlayerPool;
+
+/**
+ * Player churn at a table: two players join, play a few turns and leave, over
+ * and over.
+ * <p>
+ * A pool size of 0 creates a new session on every join, as before sessions
+ * were pooled. Run with <code>-prof gc</code> and compare
+ * <code>gc.alloc.rate.norm</code> between the pool sizes to see the
+ * allocation saved per rematch.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerChurnBenchmark {
+	private static final int TURNS = 8;
+
+	@Param({ "0", "256" })
+	public int poolSize;
+
+	private Game game;
+	private UUID[] players;
+	private int next;
+
+	@Setup
+	public void setup() {
+		game = new Game("churn", new GamePlayerPool(poolSize)) {
+			@Override
+			public void forceEnd() {
+				removeAllPlayers();
+			}
+		};
+
+		// Reuse the ids, so only the sessions are allocated
+		players = new UUID[64];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new UUID(0L, i);
+		}
+	}
+
+	@Benchmark
+	public int rematch() {
+		UUID first = players[next];
+		UUID second = players[(next + 1) & 63];
+		next = (next + 2) & 63;
+
+		game.addPlayer(first);
+		game.addPlayer(second);
+		GamePlayer a = game.getGamePlayer(first);
+		GamePlayer b = game.getGamePlayer(second);
+
+		long now = 1L;
+		for (int i = 0; i < TURNS; i++) {
+			GamePlayer mover = ((i & 1) == 0) ? a : b;
+			mover.startTurn(now);
+			now += 1000L;
+			mover.endTurn(now);
+		}
+		int moves = a.getMoves() + b.getSide();
+
+		game.removePlayer(first);
+		game.removePlayer(second);
+		return moves;
+	}
+}
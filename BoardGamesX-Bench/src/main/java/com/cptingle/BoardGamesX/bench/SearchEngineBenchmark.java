@@ -0,0 +1,83 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.framework.ai.AlphaBetaEngine;
+import com.cptingle.BoardGamesX.framework.ai.MctsEngine;
+import com.cptingle.BoardGamesX.framework.ai.SearchEngine;
+import com.cptingle.BoardGamesX.framework.ai.SearchLimits;
+import com.cptingle.BoardGamesX.framework.ai.SearchResult;
+
+/**
+ * Nodes per second of the search engines versus thread count, searching the
+ * opening of connect four with a fixed budget per move. The
+ * <code>nodes</code> counter in the output is the nodes-per-second figure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchEngineBenchmark {
+	@Param({ "1", "2", "4", "8" })
+	public int threads;
+
+	@Param({ "alphabeta", "mcts" })
+	public String engine;
+
+	@Param({ "40" })
+	public long budgetMs;
+
+	private ConnectFourRules rules;
+	private Gameboard board;
+	private SearchEngine searchEngine;
+	private SearchLimits limits;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Counters {
+		public long nodes;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			nodes = 0;
+		}
+	}
+
+	@Setup
+	public void setup() {
+		rules = new ConnectFourRules();
+		board = rules.createBoard();
+		limits = SearchLimits.millis(budgetMs);
+		searchEngine = engine.equals("mcts") ? new MctsEngine(threads) : new AlphaBetaEngine(threads, 16);
+	}
+
+	@TearDown
+	public void tearDown() {
+		searchEngine.shutdown();
+	}
+
+	@Benchmark
+	public int search(Counters counters) {
+		SearchResult result = searchEngine.search(rules, board, limits);
+		counters.nodes += result.getNodes();
+		return result.getMove();
+	}
+}
@@ -0,0 +1,399 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.framework.BoardGame;
+import com.cptingle.BoardGamesX.framework.GameState;
+import com.cptingle.BoardGamesX.framework.ai.AlphaBetaEngine;
+import com.cptingle.BoardGamesX.framework.ai.SearchEngine;
+import com.cptingle.BoardGamesX.framework.ai.SearchLimits;
+
+/**
+ * Plays thousands of games on simulated servers, to size a real one.
+ * <p>
+ * Every simulated server is the plugin enabled headless, with its own main
+ * thread that calls the game scheduler once per tick. Tables of connect four
+ * are filled with scripted players, who think for a random number of ticks and
+ * then play a random legal move, or with one scripted player against a
+ * computer. Finished tables are left and filled again by players from a fixed
+ * population, so sessions, stats and indexes churn as they would on a busy
+ * night.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.cptingle.BoardGamesX.bench.Simulator [--servers n] [--tables n]
+ *     [--ticks n] [--ai-percent n] [--ai-millis n] [--think-ticks n] [--realtime]
+ * </pre>
+ *
+ * By default there is one server per core, and ticks follow each other as fast
+ * as the games allow. Games run on a simulated clock that advances 50 ms per
+ * tick, so turn timers expire after as many ticks as on a server. With
+ * <code>--realtime</code> every tick also takes at least 50 ms of wall time;
+ * use it when computer opponents should think for as many ticks as they would
+ * in a real game. The report lists matches and moves per second, the
+ * distribution of the time spent in the scheduler per tick, and what the main
+ * threads and the background threads of the plugin, computer opponents
+ * included, allocated.
+ */
+public final class Simulator {
+	private static final Options OPTIONS = new Options("Usage: java -cp target/benchmarks.jar"
+			+ " com.cptingle.BoardGamesX.bench.Simulator [--servers n] [--tables n]\n"
+			+ "       [--ticks n] [--ai-percent n] [--ai-millis n] [--think-ticks n] [--realtime]");
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private int servers = Runtime.getRuntime().availableProcessors();
+	private int tables = 250;
+	private int ticks = 6000;
+	private int aiPercent = 10;
+	private int aiMillis = 20;
+	private int thinkTicks = 40;
+	private boolean realtime;
+
+	private Simulator() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Simulator simulator = new Simulator();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--servers":
+				simulator.servers = OPTIONS.intValue(args, ++i, "--servers", 1);
+				break;
+			case "--tables":
+				simulator.tables = OPTIONS.intValue(args, ++i, "--tables", 1);
+				break;
+			case "--ticks":
+				simulator.ticks = OPTIONS.intValue(args, ++i, "--ticks", 1);
+				break;
+			case "--ai-percent":
+				simulator.aiPercent = Math.min(100, OPTIONS.intValue(args, ++i, "--ai-percent", 0));
+				break;
+			case "--ai-millis":
+				simulator.aiMillis = OPTIONS.intValue(args, ++i, "--ai-millis", 1);
+				break;
+			case "--think-ticks":
+				simulator.thinkTicks = OPTIONS.intValue(args, ++i, "--think-ticks", 1);
+				break;
+			case "--realtime":
+				simulator.realtime = true;
+				break;
+			default:
+				OPTIONS.usage("Unknown option " + args[i]);
+			}
+		}
+		simulator.run();
+		System.exit(0);
+	}
+
+	private void run() throws Exception {
+		final Shard[] shards = new Shard[servers];
+		for (int i = 0; i < servers; i++) {
+			shards[i] = new Shard(i);
+		}
+
+		final CountDownLatch ready = new CountDownLatch(servers);
+		final CountDownLatch go = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> threads = new ArrayList<>();
+		for (final Shard shard : shards) {
+			Thread thread = new Thread(() -> {
+				try {
+					shard.setup();
+					ready.countDown();
+					go.await();
+					shard.run();
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+					ready.countDown();
+				}
+			}, "Server-" + shard.index);
+			threads.add(thread);
+			thread.start();
+		}
+
+		ready.await();
+		Map<Long, Long> background = backgroundAllocations();
+		long start = System.nanoTime();
+		go.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long elapsed = System.nanoTime() - start;
+		long backgroundAllocated = allocatedSince(background);
+
+		for (Shard shard : shards) {
+			shard.tearDown();
+		}
+		if (failure.get() != null) {
+			throw new IllegalStateException("A simulated server failed", failure.get());
+		}
+		report(shards, elapsed, backgroundAllocated);
+	}
+
+	private void report(Shard[] shards, long elapsed, long backgroundAllocated) {
+		long matches = 0;
+		long moves = 0;
+		long allocated = 0;
+		long[] all = new long[servers * ticks];
+		for (Shard shard : shards) {
+			matches += shard.matches;
+			moves += shard.moves;
+			allocated = (allocated < 0 || shard.allocated < 0) ? -1L : allocated + shard.allocated;
+			System.arraycopy(shard.tickNanos, 0, all, shard.index * ticks, ticks);
+		}
+		Arrays.sort(all);
+		long over = 0;
+		for (long nanos : all) {
+			if (nanos > TICK_NANOS) {
+				over++;
+			}
+		}
+
+		double seconds = elapsed / 1e9;
+		System.out.println(String.format(Locale.ROOT,
+				"Simulated %d server(s) x %d tables for %d ticks (%.0f s of server time each) in %.1f s", servers,
+				tables, ticks, ticks * TICK_NANOS / 1e9, seconds));
+		System.out.println(String.format(Locale.ROOT, "Matches: %d (%.1f/s), moves: %d (%.0f/s)", matches,
+				matches / seconds, moves, moves / seconds));
+		System.out.println(String.format(Locale.ROOT,
+				"Scheduler time per tick: p50=%s p90=%s p99=%s p99.9=%s max=%s, over 50 ms: %d", time(all, 0.5),
+				time(all, 0.9), time(all, 0.99), time(all, 0.999), time(all, 1.0), over));
+		if (allocated >= 0) {
+			System.out.println(String.format(Locale.ROOT, "Main threads allocated %.1f MB/s, %.1f KB per tick",
+					allocated / seconds / (1 << 20), allocated / (double) all.length / 1024));
+		}
+		if (backgroundAllocated >= 0) {
+			System.out.println(String.format(Locale.ROOT,
+					"Background threads (computer opponents, saving, events) allocated %.1f MB/s",
+					backgroundAllocated / seconds / (1 << 20)));
+		}
+	}
+
+	private static String time(long[] sorted, double quantile) {
+		long nanos = sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+		return (nanos < 10000000L) ? (nanos / 1000L) + "us" : String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread so far, or -1 if the
+	 *         JVM does not tell
+	 */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1L;
+	}
+
+	/**
+	 * @return the bytes allocated so far by the live background threads of the
+	 *         plugin, by thread id, or null if the JVM does not tell
+	 */
+	private static Map<Long, Long> backgroundAllocations() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+		Map<Long, Long> bytes = new HashMap<>();
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("BoardGamesX-")) {
+				long allocated = ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(thread.getId());
+				if (allocated >= 0) {
+					bytes.put(thread.getId(), allocated);
+				}
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return the bytes the background threads of the plugin allocated since
+	 *         the given counts were taken, not counting threads that ended in
+	 *         between, or -1 if the JVM does not tell
+	 */
+	private static long allocatedSince(Map<Long, Long> before) {
+		Map<Long, Long> after = backgroundAllocations();
+		if (before == null || after == null) {
+			return -1L;
+		}
+		long total = 0;
+		for (Map.Entry<Long, Long> entry : after.entrySet()) {
+			Long start = before.get(entry.getKey());
+			total += entry.getValue() - (start == null ? 0L : start);
+		}
+		return total;
+	}
+
+	/**
+	 * A simulated server, run by a single thread.
+	 */
+	private final class Shard {
+		private final int index;
+		private final Random random;
+		private final long[] tickNanos;
+		private BoardGamesX plugin;
+		private GameMaster gm;
+		private SearchEngine engine;
+
+		// Players who are not seated, taken in turn
+		private UUID[] population;
+		private int nextPlayer;
+
+		private long tick;
+		private long matches;
+		private long moves;
+		private long allocated;
+
+		Shard(int index) {
+			this.index = index;
+			this.random = new Random(index);
+			this.tickNanos = new long[ticks];
+		}
+
+		void setup() throws Exception {
+			plugin = Headless.enable(Headless.CONFIG);
+			gm = plugin.getGameMaster();
+			engine = new AlphaBetaEngine(1, 16);
+
+			population = new UUID[tables * 4];
+			for (int i = 0; i < population.length; i++) {
+				population[i] = new UUID(100L + index, i);
+			}
+
+			SearchLimits limits = SearchLimits.millis(aiMillis);
+			for (int i = 0; i < tables; i++) {
+				Table table = new Table(this, "s" + index + "t" + i);
+				if (i * 100L / tables < aiPercent) {
+					table.setComputer(1, engine, limits);
+				}
+				gm.addGame(table);
+				table.setEnabled(true);
+			}
+		}
+
+		void run() throws InterruptedException {
+			long before = allocatedBytes();
+			long next = System.nanoTime();
+			for (int i = 0; i < ticks; i++) {
+				tick = i;
+				long start = System.nanoTime();
+				gm.getScheduler().run();
+				tickNanos[i] = System.nanoTime() - start;
+
+				if (realtime) {
+					next += TICK_NANOS;
+					long sleep = next - System.nanoTime();
+					if (sleep > 0) {
+						TimeUnit.NANOSECONDS.sleep(sleep);
+					}
+				}
+			}
+			long after = allocatedBytes();
+			allocated = (before < 0 || after < 0) ? -1L : after - before;
+		}
+
+		void tearDown() throws Exception {
+			engine.shutdown();
+			Headless.disable(plugin);
+		}
+
+		UUID nextPlayer() {
+			UUID player = population[nextPlayer];
+			nextPlayer = (nextPlayer + 1) % population.length;
+			return player;
+		}
+	}
+
+	/**
+	 * A table of connect four that seats new players as soon as a match is
+	 * over.
+	 */
+	private final class Table extends BoardGame {
+		private final Shard shard;
+		private final int[] legal;
+		private long nextMove;
+		private long rematch;
+
+		Table(Shard shard, String name) {
+			super(name, new ConnectFourRules());
+			this.shard = shard;
+			this.legal = new int[ConnectFourRules.WIDTH];
+		}
+
+		@Override
+		public void tick(long now) {
+			// The simulated clock, not the wall clock of the scheduler
+			super.tick(nanoTime());
+
+			if (getPlayers().isEmpty()) {
+				seat();
+			} else if (isFinished() || getState() != GameState.RUNNING) {
+				if (shard.tick >= rematch) {
+					forceEnd();
+				}
+			} else if (!isComputer(getBoard().getSideToMove()) && shard.tick >= nextMove) {
+				int count = getRules().generateMoves(getBoard(), legal);
+				makeMove(legal[shard.random.nextInt(count)]);
+			}
+		}
+
+		private void seat() {
+			getBoard().clear();
+			getBoard().setSideToMove(0);
+			int seats = isComputer(1) ? 1 : 2;
+			for (int i = 0; i < seats; i++) {
+				UUID player = shard.nextPlayer();
+				// Still seated at another table
+				while (shard.gm.isPlaying(player)) {
+					player = shard.nextPlayer();
+				}
+				addPlayer(player);
+			}
+			setState(GameState.RUNNING);
+			// Restarts the turn timer; a player who runs out of time ends the match
+			setTurnTime(30000L);
+			think();
+		}
+
+		/**
+		 * @return the simulated time of the current tick, starting one tick in,
+		 *         as 0 stands for no timer
+		 */
+		@Override
+		protected long nanoTime() {
+			return (shard.tick + 1) * TICK_NANOS;
+		}
+
+		private void think() {
+			nextMove = shard.tick + 1 + shard.random.nextInt(thinkTicks);
+		}
+
+		@Override
+		protected void onMoveMade(int side, int move) {
+			shard.moves++;
+			think();
+		}
+
+		@Override
+		protected void onFinished(int winner) {
+			shard.matches++;
+			// Players look at the board for a few seconds
+			rematch = shard.tick + 60;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import com.cptingle.BoardGamesX.bench.BenchRunner.Score;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the comparison of benchmark results with a baseline.
+ */
+public class BenchRunnerTest extends TestCase {
+
+	public void testReadKeysByBenchmarkAndParameters() throws IOException {
+		Map<String, Score> scores = read(run("a.Bench.move", "{\"size\": \"8\", \"depth\": \"2\"}", "avgt", "12.5"),
+				run("a.Bench.move", null, "thrpt", "\"NaN\""));
+		assertEquals(2, scores.size());
+
+		Score avgt = scores.get("a.Bench.move{depth=2, size=8} [avgt]");
+		assertEquals(12.5, avgt.value);
+		assertEquals("us/op", avgt.unit);
+		assertTrue(Double.isNaN(scores.get("a.Bench.move [thrpt]").value));
+	}
+
+	public void testSlowdownFollowsTheMode() {
+		assertEquals(0.5, new Score("avgt", 15, "us/op").slowdown(new Score("avgt", 10, "us/op")), 1e-9);
+		assertEquals(0.5, new Score("thrpt", 5, "ops/s").slowdown(new Score("thrpt", 10, "ops/s")), 1e-9);
+		assertEquals(-1.0, new Score("thrpt", 20, "ops/s").slowdown(new Score("thrpt", 10, "ops/s")), 1e-9);
+		assertEquals(0.0, new Score("avgt", 15, "us/op").slowdown(new Score("avgt", 0, "us/op")));
+	}
+
+	public void testCompareCountsRegressionsPastTheThreshold() throws IOException {
+		Map<String, Score> baseline = read(run("a.Fast", null, "avgt", "10"), run("a.Slow", null, "avgt", "10"),
+				run("a.Gone", null, "avgt", "10"), run("a.Ops", null, "thrpt", "100"));
+		Map<String, Score> current = read(run("a.Fast", null, "avgt", "10.5"), run("a.Slow", null, "avgt", "12"),
+				run("a.New", null, "avgt", "99"), run("a.Ops", null, "thrpt", "80"));
+
+		// Slow and Ops are 20% slower, Fast only 5%; new and missing ones do not fail
+		assertEquals(2, BenchRunner.compare(current, baseline, 0.10));
+		assertEquals(0, BenchRunner.compare(current, baseline, 0.25));
+		assertEquals(3, BenchRunner.compare(current, baseline, 0.0));
+	}
+
+	private static String run(String benchmark, String params, String mode, String score) {
+		return "{\"benchmark\": \"" + benchmark + "\", \"mode\": \"" + mode + "\""
+				+ (params == null ? "" : ", \"params\": " + params)
+				+ ", \"primaryMetric\": {\"score\": " + score + ", \"scoreUnit\": \""
+				+ ("thrpt".equals(mode) ? "ops/s" : "us/op") + "\"}}";
+	}
+
+	private static Map<String, Score> read(String... runs) throws IOException {
+		File file = File.createTempFile("bench", ".json");
+		try {
+			Files.write(file.toPath(), ("[" + String.join(",", runs) + "]").getBytes(StandardCharsets.UTF_8));
+			return BenchRunner.read(file);
+		} finally {
+			file.delete();
+		}
+	}
+}
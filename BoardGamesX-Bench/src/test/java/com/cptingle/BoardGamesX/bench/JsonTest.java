@@ -0,0 +1,41 @@
+package com.cptingle.BoardGamesX.bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the reader of JMH results.
+ */
+public class JsonTest extends TestCase {
+
+	@SuppressWarnings("unchecked")
+	public void testValues() {
+		Map<String, Object> map = (Map<String, Object>) Json.parse(
+				" { \"a\" : [1, -2.5e3, true, false, null], \"b\": {}, \"c\": [], \"d\": \"x\\\"y\\n\\u0041\" } ");
+		assertEquals(Arrays.asList("a", "b", "c", "d"), Arrays.asList(map.keySet().toArray()));
+
+		List<Object> a = (List<Object>) map.get("a");
+		assertEquals(1.0, a.get(0));
+		assertEquals(-2500.0, a.get(1));
+		assertEquals(Boolean.TRUE, a.get(2));
+		assertEquals(Boolean.FALSE, a.get(3));
+		assertNull(a.get(4));
+		assertTrue(((Map<String, Object>) map.get("b")).isEmpty());
+		assertTrue(((List<Object>) map.get("c")).isEmpty());
+		assertEquals("x\"y\nA", map.get("d"));
+	}
+
+	public void testMalformed() {
+		for (String text : new String[] { "", "{", "[1,]", "{\"a\" 1}", "\"open", "nul", "[1] 2", "@" }) {
+			try {
+				Json.parse(text);
+				fail("Parsed " + text);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+	}
+}
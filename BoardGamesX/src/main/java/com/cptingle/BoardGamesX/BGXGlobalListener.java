@@ -0,0 +1,172 @@
+package com.cptingle.BoardGamesX;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.ServerCommandEvent;
+import org.bukkit.inventory.EquipmentSlot;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.metrics.Counter;
+import com.cptingle.BoardGamesX.metrics.Histogram;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+import com.cptingle.BoardGamesX.region.BoardRegion;
+
+/**
+ * Server-wide listener of the plugin.
+ * <p>
+ * Most events come from players who are not in any game. Handlers of such
+ * events check {@link GameMaster#isPlaying(UUID)} first and return right away
+ * for everyone else; clicked blocks are looked up in the chunk index of board
+ * regions rather than in every game.
+ */
+public class BGXGlobalListener implements Listener {
+	private final BoardGamesX plugin;
+	private final GameMaster gm;
+
+	// Events dropped by the fast path, and events passed on to a game
+	private final Counter filtered;
+	private final Counter handled;
+
+	// Time spent in games on clicks
+	private final MetricsRegistry metrics;
+	private final Histogram interactTimes;
+
+	public BGXGlobalListener(BoardGamesX plugin, GameMaster gm) {
+		this.plugin = plugin;
+		this.gm = gm;
+		this.metrics = plugin.getMetrics();
+		this.filtered = metrics.counter("bgx_listener_events_total", "result", "filtered");
+		this.handled = metrics.counter("bgx_listener_events_total", "result", "handled");
+		this.interactTimes = metrics.histogram("bgx_listener_nanos", "event", "interact");
+	}
+
+	/*
+	 * Permission cache
+	 */
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerJoin(PlayerJoinEvent event) {
+		UUID id = event.getPlayer().getUniqueId();
+		plugin.getPermissionCache().invalidate(id);
+		gm.getRenderStage().forget(id);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		UUID id = event.getPlayer().getUniqueId();
+		plugin.getPermissionCache().invalidate(id);
+		plugin.getCommandHandler().getPipeline().forget(id);
+		gm.getMatchmaker().dequeue(id);
+		gm.getSpectators().stop(id);
+		plugin.getStats().evict(id);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+		// Per-world permissions, and a fresh client view of the boards
+		UUID id = event.getPlayer().getUniqueId();
+		plugin.getPermissionCache().invalidate(id);
+		gm.getRenderStage().forget(id);
+		gm.getSpectators().resync(id);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+		onCommand(event.getMessage());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onServerCommand(ServerCommandEvent event) {
+		onCommand(event.getCommand());
+	}
+
+	/*
+	 * Boards
+	 */
+	@EventHandler(priority = EventPriority.HIGH)
+	public void onPlayerInteract(PlayerInteractEvent event) {
+		final UUID id = event.getPlayer().getUniqueId();
+		if (!gm.isPlaying(id)) {
+			filtered.increment();
+			return;
+		}
+
+		// Fired once per hand; only the main hand clicks a cell
+		Block block = event.getClickedBlock();
+		if (block == null || event.getHand() != EquipmentSlot.HAND
+				|| (event.getAction() != Action.LEFT_CLICK_BLOCK && event.getAction() != Action.RIGHT_CLICK_BLOCK)) {
+			filtered.increment();
+			return;
+		}
+
+		int x = block.getX();
+		int y = block.getY();
+		int z = block.getZ();
+		BoardRegion region = gm.getRegions().regionAt(block.getWorld().getUID(), x, y, z);
+		final Game game = gm.getGameWithPlayer(id);
+		if (region == null || region.getGame() != game) {
+			filtered.increment();
+			return;
+		}
+
+		handled.increment();
+		final int cell = region.cellAt(x, y, z);
+		if (gm.isSharded()) {
+			// The game decides on its own thread, too late for the event
+			event.setCancelled(true);
+			gm.execute(game, new Runnable() {
+				@Override
+				public void run() {
+					long start = metrics.start();
+					game.onBoardClick(id, cell);
+					metrics.stop(interactTimes, start);
+				}
+			});
+			return;
+		}
+		long start = metrics.start();
+		if (game.onBoardClick(id, cell)) {
+			event.setCancelled(true);
+		}
+		metrics.stop(interactTimes, start);
+	}
+
+	/**
+	 * Bukkit has no event for edited permissions, so watch for the commands of
+	 * permission plugins, and drop all decisions once they have run.
+	 */
+	private void onCommand(String message) {
+		Set<String> commands = plugin.getPermissionReloadCommands();
+		if (commands.isEmpty()) {
+			return;
+		}
+
+		int start = message.startsWith("/") ? 1 : 0;
+		int end = message.indexOf(' ', start);
+		String label = message.substring(start, (end < 0) ? message.length() : end).toLowerCase(Locale.ROOT);
+		int colon = label.indexOf(':');
+		if (colon >= 0) {
+			label = label.substring(colon + 1);
+		}
+
+		if (commands.contains(label)) {
+			plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+				@Override
+				public void run() {
+					plugin.getPermissionCache().invalidateAll();
+				}
+			});
+		}
+	}
+}
@@ -1,23 +1,44 @@
 package com.cptingle.BoardGamesX;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.LongSupplier;
 
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
-import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitTask;
 
 import com.cptingle.BoardGamesX.commands.CommandHandler;
+import com.cptingle.BoardGamesX.config.ConfigException;
+import com.cptingle.BoardGamesX.config.ConfigListener;
+import com.cptingle.BoardGamesX.config.ConfigReloader;
+import com.cptingle.BoardGamesX.config.ConfigSnapshot;
+import com.cptingle.BoardGamesX.config.ConfigWatcher;
+import com.cptingle.BoardGamesX.framework.Game;
 import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+import com.cptingle.BoardGamesX.metrics.PrometheusFormat;
+import com.cptingle.BoardGamesX.persistence.PersistenceService;
+import com.cptingle.BoardGamesX.stats.StatsService;
 
 /**
  * BoardGamesX base plugin class
@@ -28,17 +49,44 @@ import com.cptingle.BoardGamesX.messaging.Messenger;
 public class BoardGamesX extends JavaPlugin {
 	private GameMaster gameMaster;
 	private CommandHandler commandHandler;
+	private BGXGlobalListener globalListener;
 
 	// Configuration
 	private File configFile;
 	private FileConfiguration config;
+	private ConfigReloader configReloader;
+	private ConfigWatcher configWatcher;
+
+	// Saving
+	private PersistenceService persistence;
+	private StatsService stats;
 
 	// Messaging
 	private Messenger messenger;
 
+	// Metrics
+	private MetricsRegistry metrics;
+	private BukkitTask metricsExport;
+
+	// Permissions
+	private PermissionCache permissionCache;
+	private Set<String> permissionReloadCommands;
+
 	// Misc
 	private boolean isDisabling;
 
+	public BoardGamesX() {
+		super();
+	}
+
+	/**
+	 * Create the plugin outside of a server, e.g. to run it headless in the
+	 * benchmarks. The server has to be set up by the caller.
+	 */
+	protected BoardGamesX(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+		super(loader, description, dataFolder, file);
+	}
+
 	@Override
 	public void onLoad() {
 
@@ -51,14 +99,34 @@ public class BoardGamesX extends JavaPlugin {
 		// Initialize config
 		configFile = new File(getDataFolder(), "config.yml");
 		config = new YamlConfiguration();
+		configReloader = new ConfigReloader(this, configFile);
+		configReloader.addListener(new ConfigListener() {
+			@Override
+			public void onConfigChanged(ConfigSnapshot snapshot, Set<String> changed) {
+				applyConfig(snapshot, changed);
+			}
+		});
 		reloadConfig();
 
+		// Timings are taken only while enabled
+		this.metrics = new MetricsRegistry(config.getBoolean("global-settings.metrics", true));
+
+		// Writes files in the background
+		this.persistence = new PersistenceService(getLogger(), config.getLong("global-settings.save-delay-ms", 500L));
+
+		// Ratings and results, written behind
+		this.stats = new StatsService(getLogger(), new File(getDataFolder(), "stats.db"),
+				config.getInt("global-settings.leaderboard-size", 100),
+				config.getLong("global-settings.stats-flush-ms", 5000L),
+				config.getDouble("global-settings.elo-k-factor", 32.0));
+		this.stats.start();
+
 		// Initialization of global messenger
-		String prefix = config.getString("global-settings.prefix", "");
-		if (prefix.isEmpty()) {
-			prefix = ChatColor.RED + "[BoardGamesX]";
-		}
-		this.messenger = new Messenger(prefix);
+		this.messenger = createMessenger();
+
+		// Initialization of permission cache
+		this.permissionCache = createPermissionCache();
+		loadPermissionReloadCommands();
 
 		// Set config headers
 		getConfig().options().header(getHeader());
@@ -71,6 +139,22 @@ public class BoardGamesX extends JavaPlugin {
 		// Register event listeners
 		registerListeners();
 
+		// Gauges, and the optional export file
+		registerGauges();
+		startMetricsExport();
+
+		// Reload the config-file whenever it is saved
+		if (config.getBoolean("global-settings.watch-config", true)) {
+			configWatcher = new ConfigWatcher(configReloader, getLogger(),
+					config.getLong("global-settings.watch-config-quiet-ms", 500L));
+			try {
+				configWatcher.start();
+			} catch (IOException e) {
+				getLogger().warning("Could not watch the config-file for changes: " + e.getMessage());
+				configWatcher = null;
+			}
+		}
+
 		// Announcement enablement
 		getLogger().info("v" + this.getDescription().getVersion() + " enabled.");
 	}
@@ -79,14 +163,44 @@ public class BoardGamesX extends JavaPlugin {
 	public void onDisable() {
 		isDisabling = true;
 
-		// Force end all games
-		if (gameMaster == null)
-			return;
-		for (Game game : gameMaster.getGames()) {
-			game.forceEnd();
+		// Stop watching the config-file
+		if (configWatcher != null) {
+			configWatcher.stop();
+			configWatcher = null;
+		}
+
+		if (metricsExport != null) {
+			metricsExport.cancel();
+			metricsExport = null;
 		}
 
-		gameMaster.resetGameMap();
+		// Stop running asynchronous commands
+		if (commandHandler != null) {
+			commandHandler.shutdown();
+		}
+
+		if (gameMaster != null) {
+			// Hand the games back to the main thread
+			gameMaster.stopGameThreads();
+
+			// Save tables mid-match before ending them
+			gameMaster.saveAllGames();
+
+			// Force end all games
+			for (Game game : new ArrayList<>(gameMaster.getGames())) {
+				game.forceEnd();
+			}
+
+			gameMaster.resetGameMap();
+		}
+
+		// Finish all pending writes
+		if (stats != null) {
+			stats.shutdown(10000L);
+		}
+		if (persistence != null) {
+			persistence.shutdown();
+		}
 
 		getLogger().info("disabled");
 	}
@@ -111,65 +225,193 @@ public class BoardGamesX extends JavaPlugin {
 		// Check for existence of config file
 		if (!configFile.exists()) {
 			getLogger().info("No config file found, restoring from default...");
-			;
 			saveDefaultConfig();
 		}
 
-		// Check for tab characters in config-file
-		BufferedReader in = null;
 		try {
-			in = new BufferedReader(new FileReader(new File(getDataFolder(), "config.yml")));
-			int row = 0;
-			String line;
-			while ((line = in.readLine()) != null) {
-				row++;
-				if (line.indexOf('\t') != -1) {
-					StringBuilder buffy = new StringBuilder();
-					buffy.append("Found tab in config-file on line ").append(row).append(".");
-					buffy.append('\n').append("NEVER use tabs! ALWAYS use spaces!");
-					buffy.append('\n').append(line);
-					buffy.append('\n');
-					for (int i = 0; i < line.indexOf('\t'); i++) {
-						buffy.append(' ');
-					}
-					buffy.append('^');
-					throw new IllegalArgumentException(buffy.toString());
-				}
-			}
-
-			// Actually reload the config-file
-			config.load(configFile);
-		} catch (InvalidConfigurationException e) {
+			configReloader.reload();
+		} catch (ConfigException e) {
 			throw new RuntimeException(
-					"\n\n>>>\n>>> There is an error in your config-file! Handle it!\n>>> Here is what snakeyaml says:\n>>>\n\n"
-							+ e.getMessage());
-		} catch (FileNotFoundException e) {
+					"\n\n>>>\n>>> There are errors in your config-file! Handle them!\n>>>\n\n" + e.getMessage());
+		} catch (NoSuchFileException e) {
 			throw new IllegalStateException("Config-file could not be created for some reason! <o>");
 		} catch (IOException e) {
 			// Error reading the file, just re-throw
 			getLogger().severe("There was an error reading the config-file:\n" + e.getMessage());
-		} finally {
-			// Java 6 <3
-			if (in != null) {
-				try {
-					in.close();
-				} catch (IOException e) {
-					// Swallow
+		}
+	}
+
+	/**
+	 * Reloads the configuration file without blocking the main thread. The file
+	 * is read and validated in the background, and the current configuration
+	 * stays in place if it has errors.
+	 *
+	 * @param sender who to tell the outcome, or null
+	 */
+	public void reloadConfigAsync(final CommandSender sender) {
+		configReloader.reloadAsync(new ConfigReloader.Callback() {
+			@Override
+			public void onReloaded(Set<String> changed) {
+				if (sender != null) {
+					messenger.tell(sender, Msg.CONFIG_RELOADED);
 				}
 			}
+
+			@Override
+			public void onFailed(List<String> errors) {
+				for (String error : errors) {
+					getLogger().warning(error);
+					if (sender != null && !(sender instanceof ConsoleCommandSender)) {
+						messenger.tell(sender, ChatColor.RED + error);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Apply the sections of a reloaded configuration that changed
+	 */
+	private void applyConfig(ConfigSnapshot snapshot, Set<String> changed) {
+		this.config = snapshot.getConfig();
+
+		// Nothing to update yet on the first load
+		if (messenger == null || !changed.contains("global-settings")) {
+			return;
+		}
+		this.messenger = createMessenger();
+		this.permissionCache = createPermissionCache();
+		loadPermissionReloadCommands();
+		metrics.setEnabled(config.getBoolean("global-settings.metrics", true));
+		if (gameMaster != null) {
+			gameMaster.setEnabled(config.getBoolean("global-settings.enabled", true));
+			gameMaster.getScheduler().setBudget(config.getDouble("global-settings.tick-budget-ms", 5.0));
+			gameMaster.setMainQueueBudget(config.getDouble("global-settings.main-queue-budget-ms", 2.0));
+			gameMaster.getRenderStage().setViewDistance(config.getDouble("global-settings.render-distance", 48.0));
+			gameMaster.getRenderStage().setScanInterval(config.getInt("global-settings.render-scan-ticks", 10));
+			gameMaster.getMatchmaker().setBucketWidth(config.getInt("global-settings.matchmaking-bucket-width", 200));
+			gameMaster.getMatchmaker().setBatchSize(config.getInt("global-settings.matchmaking-batch-size", 64));
+			gameMaster.getSpectators().setMaxLines(config.getInt("global-settings.spectator-max-lines", 8));
+			gameMaster.getSpectators().setSendsPerTick(config.getInt("global-settings.spectator-sends-per-tick", 1000));
 		}
 	}
 
+	private void registerGauges() {
+		metrics.gauge("bgx_persistence_pending", new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return persistence.getPending();
+			}
+		});
+		metrics.gauge("bgx_command_queue_depth", new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return commandHandler.getPipeline().getQueueDepth();
+			}
+		});
+		metrics.gauge("bgx_matchmaking_queued", new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return gameMaster.getMatchmaker().getQueueSize();
+			}
+		});
+		metrics.gauge("bgx_stats_cached", new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return stats.getCached();
+			}
+		});
+		metrics.gauge("bgx_spectators", new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return gameMaster.getSpectators().getSpectatorCount();
+			}
+		});
+		metrics.gauge("bgx_main_queue_depth", new LongSupplier() {
+			@Override
+			public long getAsLong() {
+				return gameMaster.getMainQueue().size();
+			}
+		});
+	}
+
+	/**
+	 * Write the metrics to a text file in the Prometheus format every few
+	 * seconds, if a file is configured. The file is written in the background.
+	 */
+	private void startMetricsExport() {
+		String name = config.getString("global-settings.metrics-export-file", "");
+		if (name == null || name.isEmpty()) {
+			return;
+		}
+		final File file = new File(getDataFolder(), name);
+		long interval = Math.max(20, config.getInt("global-settings.metrics-export-ticks", 200));
+		metricsExport = getServer().getScheduler().runTaskTimer(this, new Runnable() {
+			@Override
+			public void run() {
+				persistence.write(file.toPath(), new Callable<byte[]>() {
+					@Override
+					public byte[] call() {
+						return PrometheusFormat.encode(metrics);
+					}
+				});
+			}
+		}, interval, interval);
+	}
+
+	private Messenger createMessenger() {
+		String prefix = config.getString("global-settings.prefix", "");
+		if (prefix.isEmpty()) {
+			prefix = ChatColor.RED + "[BoardGamesX]";
+		}
+		return new Messenger(prefix);
+	}
+
+	private PermissionCache createPermissionCache() {
+		return new PermissionCache(config.getLong("global-settings.permission-cache-ttl-ms", 30000L),
+				config.getInt("global-settings.permission-cache-size", 1024),
+				config.getInt("global-settings.permission-cache-nodes", 256),
+				metrics.counter("bgx_permission_cache_total", "result", "hit"),
+				metrics.counter("bgx_permission_cache_total", "result", "miss"));
+	}
+
+	/**
+	 * Read the commands of permission plugins after which cached permission
+	 * decisions are dropped
+	 */
+	private void loadPermissionReloadCommands() {
+		List<String> commands = config.contains("global-settings.permission-reload-commands")
+				? config.getStringList("global-settings.permission-reload-commands")
+				: Arrays.asList("lp", "luckperms", "perm", "perms", "permissions", "pex", "manuadd", "mangaddp");
+		Set<String> labels = new HashSet<>();
+		for (String command : commands) {
+			labels.add(command.toLowerCase(Locale.ROOT));
+		}
+		this.permissionReloadCommands = Collections.unmodifiableSet(labels);
+	}
+
 	/**
-	 * Save configuration file
+	 * Save configuration file. The config is serialized right away, and written
+	 * in the background only if it differs from the file.
 	 */
 	@Override
 	public void saveConfig() {
-		try {
-			config.save(configFile);
-		} catch (IOException e) {
-			e.printStackTrace();
+		if (persistence == null) {
+			try {
+				config.save(configFile);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return;
 		}
+
+		final byte[] yaml = config.saveToString().getBytes(StandardCharsets.UTF_8);
+		persistence.write(configFile.toPath(), new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return yaml;
+			}
+		});
 	}
 
 	/*
@@ -183,10 +425,38 @@ public class BoardGamesX extends JavaPlugin {
 		return commandHandler;
 	}
 
+	public BGXGlobalListener getGlobalListener() {
+		return globalListener;
+	}
+
+	public ConfigReloader getConfigReloader() {
+		return configReloader;
+	}
+
+	public PersistenceService getPersistence() {
+		return persistence;
+	}
+
+	public StatsService getStats() {
+		return stats;
+	}
+
 	public Messenger getGlobalMessenger() {
 		return messenger;
 	}
 
+	public MetricsRegistry getMetrics() {
+		return metrics;
+	}
+
+	public PermissionCache getPermissionCache() {
+		return permissionCache;
+	}
+
+	public Set<String> getPermissionReloadCommands() {
+		return permissionReloadCommands;
+	}
+
 	public boolean isDisabling() {
 		return isDisabling;
 	}
@@ -207,7 +477,8 @@ public class BoardGamesX extends JavaPlugin {
 		addCommand("boardgames");
 
 		PluginManager pm = this.getServer().getPluginManager();
-		pm.registerEvents(new BGXGlobalListener(this, gameMaster), this);
+		globalListener = new BGXGlobalListener(this, gameMaster);
+		pm.registerEvents(globalListener, this);
 	}
 
 	public void addCommand(String cmd) {
@@ -216,7 +487,7 @@ public class BoardGamesX extends JavaPlugin {
 
 	// Permissions stuff
 	public boolean has(Player p, String s) {
-		return p.hasPermission(s);
+		return permissionCache.has(p, s);
 	}
 
 	public boolean has(CommandSender sender, String s) {
@@ -226,4 +497,20 @@ public class BoardGamesX extends JavaPlugin {
 		return has((Player) sender, s);
 	}
 
+	/**
+	 * Evaluate several permission nodes in one pass.
+	 *
+	 * @param sender a player or the console
+	 * @param nodes  the permission nodes
+	 * @param out    receives the decision for each node, at the same index
+	 * @return the number of nodes the sender has
+	 */
+	public int has(CommandSender sender, String[] nodes, boolean[] out) {
+		if (sender instanceof ConsoleCommandSender) {
+			Arrays.fill(out, 0, nodes.length, true);
+			return nodes.length;
+		}
+		return permissionCache.has((Player) sender, nodes, out);
+	}
+
 }
@@ -1,5 +1,788 @@
 package com.cptingle.BoardGamesX;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.cptingle.BoardGamesX.framework.BoardGame;
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GameObserver;
+import com.cptingle.BoardGamesX.framework.GameSnapshot;
+import com.cptingle.BoardGamesX.framework.GameState;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.framework.event.GameEndedEvent;
+import com.cptingle.BoardGamesX.framework.event.GameEventBus;
+import com.cptingle.BoardGamesX.matchmaking.InMemoryBackend;
+import com.cptingle.BoardGamesX.matchmaking.Matchmaker;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+import com.cptingle.BoardGamesX.persistence.PersistenceService;
+import com.cptingle.BoardGamesX.region.BoardRegion;
+import com.cptingle.BoardGamesX.region.BoardRegionIndex;
+import com.cptingle.BoardGamesX.render.BoardRenderer;
+import com.cptingle.BoardGamesX.render.RenderStage;
+import com.cptingle.BoardGamesX.spectate.Spectators;
+import com.cptingle.BoardGamesX.stats.StatsRecorder;
+import com.cptingle.BoardGamesX.stats.StatsService;
+
+/**
+ * Keeps track of all games on the server and advances them every tick.
+ * <p>
+ * Games are indexed by name (case-insensitive) and by the players in them, and
+ * the enabled and joinable games are kept as sets. The indexes are concurrent
+ * and updated as games report changes, so lookups are O(1) and safe from
+ * command worker threads.
+ * <p>
+ * With <code>game-threads</code> set, games run on {@link GameShards} instead
+ * of the main thread. Anything that changes a game then has to go through
+ * {@link #execute(Game, Runnable)}, and game events reach listeners through
+ * the {@link MainThreadQueue}, drained every tick within a budget.
+ */
 public class GameMaster {
+	private final BoardGamesX plugin;
+	private final List<Game> games;
+	private final GameScheduler scheduler;
+	private final RenderStage renderStage;
+	private final Spectators spectators;
+
+	// Game threads, or null if games run on the main thread
+	private final GameShards shards;
+	private final MainThreadQueue mainQueue;
+	private long mainBudgetNanos;
+	private BukkitTask drainTask;
+
+	// Saving
+	private final PersistenceService persistence;
+	private final File gamesFolder;
+	private BukkitTask saveTask;
+
+	// Indexes
+	private final Map<String, Game> gamesByName;
+	private final Map<UUID, Game> gamesByPlayer;
+	private final Set<Game> enabledGames;
+	private final Set<Game> joinableGames;
+	private final GameObserver observer;
+	private final BoardRegionIndex regions;
+
+	// Events
+	private final GameEventBus eventBus;
+
+	// Matchmaking
+	private final Matchmaker matchmaker;
+
+	// Metrics
+	private final MetricsRegistry metrics;
+
+	private volatile boolean enabled;
+
+	public GameMaster(BoardGamesX plugin) {
+		this.plugin = plugin;
+		this.games = new CopyOnWriteArrayList<>();
+		this.metrics = plugin.getMetrics();
+		this.scheduler = new GameScheduler(plugin,
+				plugin.getConfig().getDouble("global-settings.tick-budget-ms", 5.0));
+		int threads = plugin.getConfig().getInt("global-settings.game-threads", 0);
+		this.shards = (threads > 0) ? new GameShards(plugin, threads) : null;
+		this.mainQueue = new MainThreadQueue(plugin.getLogger(),
+				plugin.getConfig().getInt("global-settings.main-queue-size", 4096),
+				metrics.counter("bgx_main_queue_waited_total"));
+		setMainQueueBudget(plugin.getConfig().getDouble("global-settings.main-queue-budget-ms", 2.0));
+		this.spectators = new Spectators(this, plugin.getConfig().getInt("global-settings.spectator-max-lines", 8),
+				plugin.getConfig().getInt("global-settings.spectator-sends-per-tick", 1000));
+		this.renderStage = new RenderStage(plugin, spectators,
+				plugin.getConfig().getDouble("global-settings.render-distance", 48.0),
+				plugin.getConfig().getInt("global-settings.render-scan-ticks", 10));
+
+		this.gamesByName = new ConcurrentHashMap<>();
+		this.gamesByPlayer = new ConcurrentHashMap<>();
+		this.enabledGames = ConcurrentHashMap.newKeySet();
+		this.joinableGames = ConcurrentHashMap.newKeySet();
+		this.observer = new IndexObserver();
+		this.regions = new BoardRegionIndex();
+		this.eventBus = new GameEventBus(plugin.getLogger(),
+				plugin.getConfig().getInt("global-settings.event-queue-size", 1024),
+				metrics.counter("bgx_events_dropped_total"));
+
+		this.matchmaker = new Matchmaker(this, new InMemoryBackend(),
+				plugin.getConfig().getInt("global-settings.matchmaking-bucket-width", 200),
+				plugin.getConfig().getInt("global-settings.matchmaking-batch-size", 64));
+
+		eventBus.register(spectators.getFeed(), false);
+
+		final StatsService stats = plugin.getStats();
+		if (stats != null) {
+			eventBus.register(new StatsRecorder(stats), false);
+			matchmaker.setRatings(new ToIntFunction<UUID>() {
+				@Override
+				public int applyAsInt(UUID player) {
+					return (int) Math.round(stats.getRating(player));
+				}
+			});
+		}
+
+		this.persistence = plugin.getPersistence();
+		this.gamesFolder = new File(plugin.getDataFolder(), "games");
+
+		this.enabled = plugin.getConfig().getBoolean("global-settings.enabled", true);
+	}
+
+	/**
+	 * Start the scheduler or the game threads, and save changed games
+	 * periodically.
+	 */
+	public void initialize() {
+		if (shards != null) {
+			shards.start();
+			drainTask = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+				@Override
+				public void run() {
+					mainQueue.drain(mainBudgetNanos);
+				}
+			}, 1L, 1L);
+		} else {
+			scheduler.start();
+		}
+		renderStage.start();
+		matchmaker.start(plugin.getConfig().getInt("global-settings.matchmaking-interval-ticks", 20));
+
+		long interval = Math.max(1, plugin.getConfig().getInt("global-settings.save-interval-ticks", 100));
+		saveTask = plugin.getServer().getScheduler().runTaskTimer(plugin, new Runnable() {
+			@Override
+			public void run() {
+				saveDirtyGames();
+			}
+		}, interval, interval);
+	}
+
+	/**
+	 * Add a game and start ticking it. If the game was saved before, e.g. in the
+	 * middle of a match, it is restored first. The moves of board games are
+	 * recorded in a move log every <code>move-log-interval</code> moves, unless
+	 * that is 0. If the config-file places its board in a world, the board is
+	 * shown there.
+	 *
+	 * @throws IllegalArgumentException if another game has the same name
+	 * @throws IllegalStateException    if the game threads are stopped
+	 */
+	public void addGame(Game game) {
+		if (shards != null && shards.isStopped()) {
+			throw new IllegalStateException("Cannot add '" + game.getName() + "', the game threads are stopped");
+		}
+		Game existing = gamesByName.putIfAbsent(key(game.getName()), game);
+		if (existing == game) {
+			return;
+		} else if (existing != null) {
+			throw new IllegalArgumentException("A game named '" + game.getName() + "' already exists");
+		}
+
+		games.add(game);
+		game.setObserver(observer);
+		observer.onStateChange(game, null, game.getState());
+		for (UUID player : game.getPlayers()) {
+			observer.onPlayerJoin(game, player);
+		}
+		if (game instanceof BoardGame) {
+			int interval = plugin.getConfig().getInt("global-settings.move-log-interval", 32);
+			if (interval > 0) {
+				((BoardGame) game).setMoveLog(moveLogOf(game), interval, persistence, plugin.getLogger());
+			}
+		}
+		loadGame(game);
+		placeBoard(game);
+		if (shards != null) {
+			shards.add(game);
+		} else {
+			scheduler.add(game);
+		}
+	}
+
+	/**
+	 * Remove a game and stop ticking it.
+	 */
+	public void removeGame(final Game game) {
+		if (!gamesByName.remove(key(game.getName()), game)) {
+			return;
+		}
+
+		games.remove(game);
+		execute(game, new Runnable() {
+			@Override
+			public void run() {
+				game.setObserver(null);
+				if (game instanceof BoardGame) {
+					((BoardGame) game).setMoveLog(null, 0, null, null);
+				}
+				enabledGames.remove(game);
+				joinableGames.remove(game);
+				for (UUID player : game.getPlayers()) {
+					gamesByPlayer.remove(player, game);
+				}
+			}
+		});
+		if (shards != null) {
+			shards.remove(game);
+		} else {
+			scheduler.remove(game);
+		}
+		// Spectators get the real blocks back while the boards are still known
+		spectators.remove(game);
+		regions.removeAll(game);
+		renderStage.removeAll(game);
+		metrics.removeHistogram("bgx_ai_think_nanos", "game", game.getName());
+		persistence.delete(fileOf(game));
+	}
+
+	/**
+	 * @return all games, unmodifiable
+	 */
+	public List<Game> getGames() {
+		return Collections.unmodifiableList(games);
+	}
+
+	/**
+	 * @return the game with the name, ignoring case, or null
+	 */
+	public Game getGameWithName(String name) {
+		return gamesByName.get(key(name));
+	}
+
+	/**
+	 * @return the game the player is in, or null
+	 */
+	public Game getGameWithPlayer(UUID player) {
+		return gamesByPlayer.get(player);
+	}
+
+	public Game getGameWithPlayer(Player p) {
+		return getGameWithPlayer(p.getUniqueId());
+	}
+
+	/**
+	 * @return true, if the player is in a game
+	 */
+	public boolean isPlaying(Player p) {
+		return isPlaying(p.getUniqueId());
+	}
+
+	/**
+	 * A single concurrent hash lookup, cheap enough for every move and
+	 * interact event on the server.
+	 *
+	 * @return true, if the player is in a game
+	 */
+	public boolean isPlaying(UUID player) {
+		return gamesByPlayer.containsKey(player);
+	}
+
+	/**
+	 * Place the board of a game in the world. Main thread only.
+	 */
+	public void addBoardRegion(BoardRegion region) {
+		checkKnown(region.getGame());
+		regions.add(region);
+	}
+
+	/**
+	 * Place the board of a game in the world, and show its pieces there as
+	 * blocks. Main thread only.
+	 *
+	 * @param region  the board, of the same size as the game's board
+	 * @param palette the block to show for each piece type, starting with empty
+	 */
+	public void addBoardRegion(BoardRegion region, BlockData[] palette) {
+		if (!(region.getGame() instanceof BoardGame)) {
+			throw new IllegalArgumentException("'" + region.getGame().getName() + "' has no board to show");
+		}
+		BoardRenderer renderer = new BoardRenderer((BoardGame) region.getGame(), region, palette);
+		addBoardRegion(region);
+		renderStage.add(renderer);
+	}
+
+	/**
+	 * Move the board of a game in the world. Main thread only.
+	 *
+	 * @throws IllegalArgumentException if the new location overlaps another
+	 *                                  board
+	 */
+	public void moveBoardRegion(BoardRegion from, BoardRegion to) {
+		if (from.getGame() != to.getGame()) {
+			throw new IllegalArgumentException("Boards of different games");
+		}
+		checkKnown(to.getGame());
+		regions.move(from, to);
+
+		BoardRenderer renderer = renderStage.getRenderer(from);
+		if (renderer != null) {
+			renderStage.remove(renderer);
+			renderStage.add(renderer.withRegion(to));
+		}
+	}
+
+	/**
+	 * Place the board of a game where the <code>boards</code> section of the
+	 * config-file puts it, e.g.
+	 *
+	 * <pre>
+	 * boards:
+	 *   chess:
+	 *     world: world
+	 *     x: 100
+	 *     y: 64
+	 *     z: -20
+	 *     palette: [minecraft:smooth_stone, minecraft:white_wool, minecraft:black_wool]
+	 * </pre>
+	 *
+	 * The palette has a block for empty cells and one per piece type.
+	 */
+	private void placeBoard(Game game) {
+		ConfigurationSection section = plugin.getConfig().getConfigurationSection("boards." + key(game.getName()));
+		if (section == null || !(game instanceof BoardGame)) {
+			return;
+		}
+		World world = plugin.getServer().getWorld(section.getString("world", ""));
+		if (world == null) {
+			plugin.getLogger().warning("The board of " + game.getName() + " is in an unknown world");
+			return;
+		}
+		Gameboard board = ((BoardGame) game).getBoard();
+		List<String> blocks = section.getStringList("palette");
+		try {
+			BlockData[] palette = new BlockData[blocks.size()];
+			for (int i = 0; i < palette.length; i++) {
+				palette[i] = plugin.getServer().createBlockData(blocks.get(i));
+			}
+			addBoardRegion(new BoardRegion(game, world.getUID(), section.getInt("x", 0), section.getInt("y", 0),
+					section.getInt("z", 0), board.getWidth(), board.getHeight()), palette);
+		} catch (IllegalArgumentException e) {
+			plugin.getLogger().warning("Could not place the board of " + game.getName() + ": " + e.getMessage());
+		}
+	}
+
+	private void checkKnown(Game game) {
+		if (gamesByName.get(key(game.getName())) != game) {
+			throw new IllegalArgumentException("Unknown game '" + game.getName() + "'");
+		}
+	}
+
+	/**
+	 * Remove the boards of a game from the world. Main thread only.
+	 */
+	public void removeBoardRegions(Game game) {
+		regions.removeAll(game);
+		renderStage.removeAll(game);
+	}
+
+	/**
+	 * @return the boards of all games, by location. Main thread only.
+	 */
+	public BoardRegionIndex getRegions() {
+		return regions;
+	}
+
+	public Spectators getSpectators() {
+		return spectators;
+	}
+
+	public RenderStage getRenderStage() {
+		return renderStage;
+	}
+
+	public Matchmaker getMatchmaker() {
+		return matchmaker;
+	}
+
+	/**
+	 * @return a live, unmodifiable view of the games that are not disabled
+	 */
+	public Collection<Game> getEnabledGames() {
+		return Collections.unmodifiableSet(enabledGames);
+	}
+
+	/**
+	 * @return a live, unmodifiable view of the games waiting for players
+	 */
+	public Collection<Game> getJoinableGames() {
+		return Collections.unmodifiableSet(joinableGames);
+	}
+
+	/**
+	 * @return true, if the player may join the game
+	 */
+	public boolean isPermitted(Player p, Game game) {
+		return plugin.has(p, game.getPermission());
+	}
+
+	/**
+	 * Get the games the player may join, evaluating the permissions of all
+	 * games in one pass.
+	 *
+	 * @return the permitted games, in the order they were added
+	 */
+	public List<Game> getPermittedGames(Player p) {
+		Game[] all = games.toArray(new Game[0]);
+		String[] nodes = new String[all.length];
+		for (int i = 0; i < all.length; i++) {
+			nodes[i] = all[i].getPermission();
+		}
+
+		boolean[] permitted = new boolean[all.length];
+		int count = plugin.has(p, nodes, permitted);
+		List<Game> result = new ArrayList<>(count);
+		for (int i = 0; i < all.length; i++) {
+			if (permitted[i]) {
+				result.add(all[i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return true, if the player may join at least one game
+	 */
+	public boolean hasPermittedGame(Player p) {
+		for (Game game : games) {
+			if (isPermitted(p, game)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Saving
+	 */
+
+	/**
+	 * Save a game in the background. The snapshot is taken right away, or on
+	 * the game's thread.
+	 */
+	public void saveGame(final Game game) {
+		execute(game, new Runnable() {
+			@Override
+			public void run() {
+				if (game instanceof BoardGame) {
+					((BoardGame) game).flushMoveLog();
+				}
+				final GameSnapshot snapshot = game.snapshot();
+				persistence.write(fileOf(game), new Callable<byte[]>() {
+					@Override
+					public byte[] call() throws IOException {
+						return snapshot.encode();
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Save every game that changed since it was last saved.
+	 */
+	public void saveDirtyGames() {
+		for (Game game : games) {
+			if (game.isDirty()) {
+				saveGame(game);
+			}
+		}
+	}
+
+	/**
+	 * Save every game, e.g. before the plugin is disabled.
+	 */
+	public void saveAllGames() {
+		for (Game game : games) {
+			saveGame(game);
+		}
+	}
+
+	private void loadGame(Game game) {
+		Path file = fileOf(game);
+		if (!Files.isRegularFile(file)) {
+			return;
+		}
+		try {
+			game.restore(GameSnapshot.decode(Files.readAllBytes(file)));
+		} catch (IOException | RuntimeException e) {
+			plugin.getLogger().log(Level.WARNING, "Could not restore saved game " + game.getName(), e);
+		}
+	}
+
+	private Path fileOf(Game game) {
+		return new File(gamesFolder, fileName(game) + ".dat").toPath();
+	}
+
+	/**
+	 * @return the file the moves of the last match of a game are recorded in
+	 */
+	public Path moveLogOf(Game game) {
+		return new File(gamesFolder, fileName(game) + ".moves").toPath();
+	}
+
+	private String fileName(Game game) {
+		return key(game.getName()).replaceAll("[^a-z0-9_-]", "_");
+	}
+
+	/*
+	 * Threads
+	 */
+
+	/**
+	 * Run a task on the thread of a game: its game thread, or right away if
+	 * games run on the main thread, the game threads are stopped, or the game
+	 * is not running yet.
+	 */
+	public void execute(Game game, Runnable task) {
+		if (shards == null || !shards.isRunning() || shards.isGameThread(game) || !shards.execute(game, task)) {
+			task.run();
+		}
+	}
+
+	/**
+	 * Run a task on the main thread: right away if called there, otherwise at
+	 * the next tick. Waits for room if the main thread is behind.
+	 */
+	public void runOnMain(Runnable task) {
+		if (isMainThread()) {
+			task.run();
+		} else {
+			mainQueue.put(task);
+		}
+	}
+
+	private boolean isMainThread() {
+		return shards == null || Bukkit.isPrimaryThread();
+	}
+
+	/**
+	 * Stop the game threads, running what they hand to the main thread until
+	 * they are done. Afterwards games are only touched by the main thread.
+	 */
+	public void stopGameThreads() {
+		if (shards == null || !shards.isRunning()) {
+			return;
+		}
+		shards.stop();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		try {
+			while (!shards.awaitTermination(10L)) {
+				mainQueue.drain(Long.MAX_VALUE);
+				if (System.nanoTime() - deadline > 0) {
+					plugin.getLogger().warning("Game threads did not stop in time");
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		mainQueue.close();
+		mainQueue.drain(Long.MAX_VALUE);
+		if (drainTask != null) {
+			drainTask.cancel();
+			drainTask = null;
+		}
+	}
+
+	/**
+	 * @param budgetMs the time per tick for tasks handed to the main thread
+	 */
+	public void setMainQueueBudget(double budgetMs) {
+		this.mainBudgetNanos = Math.max(1L, (long) (budgetMs * TimeUnit.MILLISECONDS.toNanos(1)));
+	}
+
+	/**
+	 * Forget all games and stop the scheduler.
+	 */
+	public void resetGameMap() {
+		if (saveTask != null) {
+			saveTask.cancel();
+			saveTask = null;
+		}
+		stopGameThreads();
+		if (shards != null) {
+			shards.clear();
+		}
+		scheduler.stop();
+		scheduler.clear();
+		renderStage.stop();
+		renderStage.clear();
+		spectators.clear();
+		matchmaker.stop();
+		matchmaker.getBackend().close();
+		eventBus.shutdown();
+		for (Game game : games) {
+			game.setObserver(null);
+		}
+		games.clear();
+		gamesByName.clear();
+		gamesByPlayer.clear();
+		enabledGames.clear();
+		joinableGames.clear();
+		regions.clear();
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	/*
+	 * Getters and setters
+	 */
+	public BoardGamesX getPlugin() {
+		return plugin;
+	}
+
+	public GameScheduler getScheduler() {
+		return scheduler;
+	}
+
+	/**
+	 * @return the game threads, or null if games run on the main thread
+	 */
+	public GameShards getShards() {
+		return shards;
+	}
+
+	/**
+	 * @return true, if games run on game threads
+	 */
+	public boolean isSharded() {
+		return shards != null;
+	}
+
+	public MainThreadQueue getMainQueue() {
+		return mainQueue;
+	}
+
+	public GameEventBus getEventBus() {
+		return eventBus;
+	}
+
+	public Messenger getGlobalMessenger() {
+		return plugin.getGlobalMessenger();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Keeps the indexes in step with the games, and passes their events on to
+	 * the event bus.
+	 */
+	private class IndexObserver implements GameObserver {
+		@Override
+		public void onStateChange(Game game, GameState from, GameState to) {
+			if (to == GameState.DISABLED) {
+				enabledGames.remove(game);
+			} else {
+				enabledGames.add(game);
+			}
+			if (to.isJoinable()) {
+				joinableGames.add(game);
+			} else {
+				joinableGames.remove(game);
+			}
+		}
+
+		@Override
+		public void onPlayerJoin(final Game game, final UUID player) {
+			gamesByPlayer.put(player, game);
+			if (isMainThread()) {
+				eventBus.playerJoined(game, player);
+				return;
+			}
+			mainQueue.put(new Runnable() {
+				@Override
+				public void run() {
+					eventBus.playerJoined(game, player);
+				}
+			});
+		}
+
+		@Override
+		public void onPlayerLeave(final Game game, final UUID player) {
+			gamesByPlayer.remove(player, game);
+			if (isMainThread()) {
+				eventBus.playerLeft(game, player);
+				return;
+			}
+			mainQueue.put(new Runnable() {
+				@Override
+				public void run() {
+					eventBus.playerLeft(game, player);
+				}
+			});
+		}
+
+		@Override
+		public void onMoveMade(final Game game, final int side, final int move, final int nextSide) {
+			if (isMainThread()) {
+				moveMade(game, side, move, nextSide);
+				return;
+			}
+			mainQueue.put(new Runnable() {
+				@Override
+				public void run() {
+					moveMade(game, side, move, nextSide);
+				}
+			});
+		}
+
+		private void moveMade(Game game, int side, int move, int nextSide) {
+			eventBus.moveMade(game, side, move);
+			// No one is on turn after the last move; the game ended event follows
+			if (nextSide >= 0) {
+				eventBus.turnChanged(game, nextSide);
+			}
+		}
+
+		@Override
+		public void onGameEnded(final Game game, final int winner) {
+			if (isMainThread()) {
+				eventBus.gameEnded(game, winner);
+				return;
+			}
+			// The players may have left by the time the main thread gets to it
+			final UUID[] sides = game.getPlayersBySide();
+			final boolean aborted = GameEndedEvent.isAborted(game);
+			mainQueue.put(new Runnable() {
+				@Override
+				public void run() {
+					eventBus.gameEnded(game, winner, sides, aborted);
+				}
+			});
+		}
 
+		@Override
+		public void onSearchDone(Game game, int side, long nanos) {
+			if (metrics.isEnabled()) {
+				metrics.histogram("bgx_ai_think_nanos", "game", game.getName()).record(nanos);
+			}
+		}
+	}
 }
@@ -0,0 +1,281 @@
+package com.cptingle.BoardGamesX;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.bukkit.scheduler.BukkitTask;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.metrics.Histogram;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+
+/**
+ * Advances every game once per server tick, all from a single repeating task.
+ * <p>
+ * Games are ticked round-robin. Once a tick has used up its time budget, the
+ * remaining games are deferred: the next tick starts with them, so no game
+ * waits more than a tick or two even when the server is loaded. At least one
+ * game is ticked per tick, so a tiny budget cannot starve them.
+ */
+public class GameScheduler implements Runnable {
+	private final BoardGamesX plugin;
+	private final MetricsRegistry metrics;
+	private final Histogram tickTimes;
+	private final List<Entry> entries;
+	private final Map<Game, Entry> entryByGame;
+	private long budgetNanos;
+
+	private BukkitTask task;
+	private int cursor;
+
+	// Metrics
+	private long ticks;
+	private long lastTickNanos;
+	private long maxTickNanos;
+	private double averageTickNanos;
+	private int lastTicked;
+	private int lastDeferred;
+	private long totalDeferred;
+
+	/**
+	 * @param plugin   the plugin to schedule the task for
+	 * @param budgetMs the time per tick all games may use together
+	 */
+	public GameScheduler(BoardGamesX plugin, double budgetMs) {
+		this.plugin = plugin;
+		this.metrics = plugin.getMetrics();
+		this.tickTimes = metrics.histogram("bgx_tick_nanos");
+		this.entries = new ArrayList<>();
+		this.entryByGame = new IdentityHashMap<>();
+		setBudget(budgetMs);
+	}
+
+	/**
+	 * @param budgetMs the time per tick all games may use together
+	 */
+	public void setBudget(double budgetMs) {
+		this.budgetNanos = Math.max(1L, (long) (budgetMs * TimeUnit.MILLISECONDS.toNanos(1)));
+	}
+
+	/**
+	 * Start ticking the games.
+	 */
+	public void start() {
+		if (task == null) {
+			task = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+		}
+	}
+
+	/**
+	 * Stop ticking the games.
+	 */
+	public void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	/**
+	 * @return true, if the games are being ticked
+	 */
+	public boolean isRunning() {
+		return task != null;
+	}
+
+	/**
+	 * Start ticking a game. Must be called on the main thread.
+	 */
+	public void add(Game game) {
+		if (!entryByGame.containsKey(game)) {
+			Entry entry = new Entry(game, metrics.histogram("bgx_game_tick_nanos", "game", game.getName()));
+			entries.add(entry);
+			entryByGame.put(game, entry);
+		}
+	}
+
+	/**
+	 * Stop ticking a game. Must be called on the main thread.
+	 */
+	public void remove(Game game) {
+		Entry entry = entryByGame.remove(game);
+		if (entry == null) {
+			return;
+		}
+		metrics.removeHistogram("bgx_game_tick_nanos", "game", game.getName());
+		int index = entries.indexOf(entry);
+		entries.remove(index);
+		if (index < cursor) {
+			cursor--;
+		}
+		if (cursor >= entries.size()) {
+			cursor = 0;
+		}
+	}
+
+	/**
+	 * Stop ticking all games.
+	 */
+	public void clear() {
+		entries.clear();
+		entryByGame.clear();
+		cursor = 0;
+	}
+
+	@Override
+	public void run() {
+		int size = entries.size();
+		boolean measure = metrics.isEnabled();
+		long start = System.nanoTime();
+		long now = start;
+		int ticked = 0;
+
+		while (ticked < size) {
+			if (ticked > 0 && now - start >= budgetNanos) {
+				break;
+			}
+
+			Entry entry = entries.get(cursor);
+			if (++cursor >= size) {
+				cursor = 0;
+			}
+			try {
+				entry.game.tick(now);
+			} catch (Throwable t) {
+				plugin.getLogger().log(Level.SEVERE, "Error while ticking game " + entry.game.getName(), t);
+			}
+			ticked++;
+
+			long end = System.nanoTime();
+			entry.record(end - now);
+			if (measure) {
+				entry.times.record(end - now);
+			}
+			now = end;
+
+			// A game may have ended itself and been removed
+			if (entries.size() != size) {
+				size = entries.size();
+				if (cursor >= size) {
+					cursor = 0;
+				}
+			}
+		}
+
+		record(now - start, ticked, size - ticked);
+		if (measure) {
+			tickTimes.record(now - start);
+		}
+	}
+
+	private void record(long nanos, int ticked, int deferred) {
+		ticks++;
+		lastTickNanos = nanos;
+		maxTickNanos = Math.max(maxTickNanos, nanos);
+		averageTickNanos = (ticks == 1) ? nanos : averageTickNanos + (nanos - averageTickNanos) / 20.0;
+		lastTicked = ticked;
+		lastDeferred = deferred;
+		totalDeferred += deferred;
+	}
+
+	/*
+	 * Metrics
+	 */
+	public long getBudgetNanos() {
+		return budgetNanos;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getLastTickNanos() {
+		return lastTickNanos;
+	}
+
+	public long getMaxTickNanos() {
+		return maxTickNanos;
+	}
+
+	/**
+	 * @return the moving average of the time per tick, over roughly the last
+	 *         second
+	 */
+	public double getAverageTickNanos() {
+		return averageTickNanos;
+	}
+
+	/**
+	 * @return the number of games ticked in the last tick
+	 */
+	public int getLastTicked() {
+		return lastTicked;
+	}
+
+	/**
+	 * @return the number of games deferred to the next tick in the last tick
+	 */
+	public int getLastDeferred() {
+		return lastDeferred;
+	}
+
+	public long getTotalDeferred() {
+		return totalDeferred;
+	}
+
+	/**
+	 * @return the time the last tick of the game took, or -1 if the game is not
+	 *         scheduled
+	 */
+	public long getLastTickNanos(Game game) {
+		Entry entry = entryByGame.get(game);
+		return (entry == null) ? -1L : entry.lastNanos;
+	}
+
+	/**
+	 * @return the total time spent ticking the game, or -1 if the game is not
+	 *         scheduled
+	 */
+	public long getTotalTickNanos(Game game) {
+		Entry entry = entryByGame.get(game);
+		return (entry == null) ? -1L : entry.totalNanos;
+	}
+
+	/**
+	 * Reset the metrics.
+	 */
+	public void resetMetrics() {
+		ticks = 0;
+		lastTickNanos = 0;
+		maxTickNanos = 0;
+		averageTickNanos = 0;
+		lastTicked = 0;
+		lastDeferred = 0;
+		totalDeferred = 0;
+		for (Entry entry : entries) {
+			entry.lastNanos = 0;
+			entry.totalNanos = 0;
+		}
+	}
+
+	private static class Entry {
+		private final Game game;
+		private final Histogram times;
+		private long lastNanos;
+		private long totalNanos;
+
+		Entry(Game game, Histogram times) {
+			this.game = game;
+			this.times = times;
+		}
+
+		void record(long nanos) {
+			lastNanos = nanos;
+			totalNanos += nanos;
+		}
+	}
+}
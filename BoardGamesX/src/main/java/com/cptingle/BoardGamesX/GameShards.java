@@ -0,0 +1,299 @@
+package com.cptingle.BoardGamesX;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.metrics.Histogram;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+
+/**
+ * Runs the games on a fixed number of game threads instead of the main thread.
+ * <p>
+ * Every game is pinned to one shard, the one with the fewest games when it is
+ * added, and only ever touched by that shard's thread: its ticks, and all
+ * tasks handed to it with {@link #execute(Game, Runnable)}. Games therefore
+ * need no locks. Each shard ticks its games every 50 ms, like the server does;
+ * whatever has to happen on the main thread is passed on through the
+ * {@link MainThreadQueue}.
+ */
+public class GameShards {
+	private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private final BoardGamesX plugin;
+	private final MetricsRegistry metrics;
+	private final Shard[] shards;
+	private final Map<Game, Shard> shardByGame;
+	private volatile boolean running;
+
+	/**
+	 * @param plugin  the plugin
+	 * @param threads the number of game threads
+	 */
+	public GameShards(BoardGamesX plugin, int threads) {
+		this.plugin = plugin;
+		this.metrics = plugin.getMetrics();
+		this.shards = new Shard[Math.max(1, threads)];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard(i);
+		}
+		this.shardByGame = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Start the game threads.
+	 */
+	public void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		for (Shard shard : shards) {
+			shard.start();
+		}
+	}
+
+	/**
+	 * Stop the game threads, letting the tasks already handed to them finish.
+	 * Use {@link #awaitTermination(long)} to wait for them.
+	 */
+	public void stop() {
+		running = false;
+		for (Shard shard : shards) {
+			if (shard.executor != null) {
+				shard.executor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Wait for the game threads to finish after {@link #stop()}.
+	 *
+	 * @return true, if all of them finished in time
+	 */
+	public boolean awaitTermination(long millis) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		for (Shard shard : shards) {
+			long left = deadline - System.nanoTime();
+			if (shard.executor != null && !shard.executor.awaitTermination(Math.max(0L, left), TimeUnit.NANOSECONDS)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true, if the game threads are running
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @return true, if the game threads were started and stopped again
+	 */
+	public boolean isStopped() {
+		return !running && shards[0].executor != null;
+	}
+
+	/**
+	 * Pin a game to the least loaded shard and start ticking it. Games added
+	 * before {@link #start()} are ticked once the threads run.
+	 *
+	 * @throws IllegalStateException if the game threads are stopped
+	 */
+	public void add(final Game game) {
+		if (isStopped()) {
+			throw new IllegalStateException("The game threads are stopped");
+		}
+		Shard least = shards[0];
+		for (Shard shard : shards) {
+			if (shard.size < least.size) {
+				least = shard;
+			}
+		}
+		if (shardByGame.putIfAbsent(game, least) != null) {
+			return;
+		}
+		final Shard shard = least;
+		shard.size++;
+		final Histogram times = metrics.histogram("bgx_game_tick_nanos", "game", game.getName());
+		shard.change(new Runnable() {
+			@Override
+			public void run() {
+				shard.games.add(game);
+				shard.times.add(times);
+			}
+		});
+	}
+
+	/**
+	 * Stop ticking a game and unpin it.
+	 */
+	public void remove(final Game game) {
+		final Shard shard = shardByGame.remove(game);
+		if (shard == null) {
+			return;
+		}
+		shard.size--;
+		metrics.removeHistogram("bgx_game_tick_nanos", "game", game.getName());
+		shard.change(new Runnable() {
+			@Override
+			public void run() {
+				int index = shard.games.indexOf(game);
+				if (index >= 0) {
+					shard.games.remove(index);
+					shard.times.remove(index);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Run a task on the thread of a game.
+	 *
+	 * @return false, if the game is not pinned or the threads are stopped
+	 */
+	public boolean execute(Game game, Runnable task) {
+		Shard shard = shardByGame.get(game);
+		return shard != null && shard.execute(task);
+	}
+
+	/**
+	 * @return true, if the current thread is the thread of the game
+	 */
+	public boolean isGameThread(Game game) {
+		Shard shard = shardByGame.get(game);
+		return shard != null && Thread.currentThread() == shard.thread;
+	}
+
+	/**
+	 * Forget all games. The game threads must be stopped.
+	 */
+	public void clear() {
+		for (Game game : shardByGame.keySet()) {
+			metrics.removeHistogram("bgx_game_tick_nanos", "game", game.getName());
+		}
+		shardByGame.clear();
+		for (Shard shard : shards) {
+			shard.games.clear();
+			shard.times.clear();
+			shard.size = 0;
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+	public int getThreads() {
+		return shards.length;
+	}
+
+	/**
+	 * @return the number of games pinned to a shard
+	 */
+	public int getGameCount(int shard) {
+		return shards[shard].size;
+	}
+
+	/**
+	 * @return the time the last tick of a shard took
+	 */
+	public long getLastTickNanos(int shard) {
+		return shards[shard].lastTickNanos;
+	}
+
+	/**
+	 * A game thread and the games pinned to it. The lists are only touched by
+	 * the thread itself.
+	 */
+	private class Shard implements Runnable {
+		private final int index;
+		private final List<Game> games = new ArrayList<>();
+		private final List<Histogram> times = new ArrayList<>();
+		private final Histogram tickTimes;
+		private volatile int size;
+		private volatile long lastTickNanos;
+		private ScheduledThreadPoolExecutor executor;
+		private volatile Thread thread;
+
+		Shard(int index) {
+			this.index = index;
+			this.tickTimes = metrics.histogram("bgx_shard_tick_nanos", "shard", Integer.toString(index));
+		}
+
+		void start() {
+			executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "BoardGamesX-Game-" + index);
+					thread.setDaemon(true);
+					Shard.this.thread = thread;
+					return thread;
+				}
+			});
+			executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			executor.scheduleAtFixedRate(this, TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+		}
+
+		boolean execute(Runnable task) {
+			ScheduledThreadPoolExecutor executor = this.executor;
+			if (executor == null) {
+				return false;
+			}
+			try {
+				executor.execute(task);
+				return true;
+			} catch (RejectedExecutionException e) {
+				return false;
+			}
+		}
+
+		/**
+		 * Change the games of the shard on its thread, or right away if the
+		 * thread was not started yet or is done. A thread that is still
+		 * finishing its tasks ticks no more, and its games are dropped by
+		 * {@link GameShards#clear()}.
+		 */
+		void change(Runnable change) {
+			if (execute(change)) {
+				return;
+			}
+			ScheduledThreadPoolExecutor executor = this.executor;
+			if (executor == null || executor.isTerminated()) {
+				change.run();
+			}
+		}
+
+		@Override
+		public void run() {
+			boolean measure = metrics.isEnabled();
+			long start = System.nanoTime();
+			long now = start;
+			for (int i = 0; i < games.size(); i++) {
+				Game game = games.get(i);
+				try {
+					game.tick(now);
+				} catch (Throwable t) {
+					plugin.getLogger().log(Level.SEVERE, "Error while ticking game " + game.getName(), t);
+				}
+				long end = System.nanoTime();
+				if (measure) {
+					times.get(i).record(end - now);
+				}
+				now = end;
+			}
+			lastTickNanos = now - start;
+			if (measure) {
+				tickTimes.record(now - start);
+			}
+		}
+	}
+}
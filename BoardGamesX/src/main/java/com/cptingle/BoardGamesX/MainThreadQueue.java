@@ -0,0 +1,189 @@
+package com.cptingle.BoardGamesX;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.metrics.Counter;
+
+/**
+ * Work for the main thread, handed over by the game threads: messages, block
+ * changes, events for listeners that touch the server.
+ * <p>
+ * A bounded ring of slots with many producers and the main thread as the only
+ * consumer. Producers claim a slot with a single compare-and-set and never
+ * lock; the main thread drains the queue once per tick, for at most its
+ * budget, and leaves the rest for the next tick. When the queue is full,
+ * {@link #offer(Runnable)} fails and {@link #put(Runnable)} waits, which slows
+ * the game thread down instead of letting the backlog grow without bound.
+ */
+public class MainThreadQueue {
+	private final Logger logger;
+	private final AtomicReferenceArray<Runnable> slots;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head;
+	private volatile boolean closed;
+
+	// Metrics
+	private final LongAdder queued = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final Counter waited;
+	private long ran;
+	private int lastRan;
+	private int lastLeft;
+
+	/**
+	 * @param logger   where to report tasks that throw
+	 * @param capacity the number of tasks that may wait, rounded up to a power
+	 *                 of two
+	 * @param waited   counts the times a game thread had to wait for room
+	 */
+	public MainThreadQueue(Logger logger, int capacity, Counter waited) {
+		this.logger = logger;
+		this.waited = waited;
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Queue a task, unless the queue is full. Safe from any thread.
+	 *
+	 * @return true, if the task was queued
+	 */
+	public boolean offer(Runnable task) {
+		while (true) {
+			long t = tail.get();
+			if (t - head > mask || closed) {
+				rejected.increment();
+				return false;
+			}
+			if (tail.compareAndSet(t, t + 1)) {
+				// The main thread only moves past a slot once it is filled
+				slots.lazySet((int) t & mask, task);
+				queued.increment();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Queue a task, waiting for room if the queue is full. Safe from any thread
+	 * but the main thread, which would wait for itself.
+	 *
+	 * @return true, if the task was queued; false, if the queue was closed
+	 */
+	public boolean put(Runnable task) {
+		boolean waiting = false;
+		while (true) {
+			long t = tail.get();
+			if (closed) {
+				rejected.increment();
+				return false;
+			}
+			if (t - head > mask) {
+				if (!waiting) {
+					waited.increment();
+					waiting = true;
+				}
+				LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+				continue;
+			}
+			if (tail.compareAndSet(t, t + 1)) {
+				slots.lazySet((int) t & mask, task);
+				queued.increment();
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Run queued tasks in order until the queue is empty or the budget is used
+	 * up. At least one task is run, so a tiny budget cannot stall the queue.
+	 * Main thread only.
+	 *
+	 * @param budgetNanos the time the tasks may take together
+	 * @return the number of tasks run
+	 */
+	public int drain(long budgetNanos) {
+		long start = System.nanoTime();
+		int count = 0;
+		long h = head;
+		while (true) {
+			int index = (int) h & mask;
+			Runnable task = slots.get(index);
+			if (task == null) {
+				// Empty, or a producer claimed the slot and is about to fill it
+				break;
+			}
+			slots.lazySet(index, null);
+			head = ++h;
+			try {
+				task.run();
+			} catch (Throwable t) {
+				logger.log(Level.SEVERE, "Error in a task for the main thread", t);
+			}
+			count++;
+			if (System.nanoTime() - start >= budgetNanos) {
+				break;
+			}
+		}
+		ran += count;
+		lastRan = count;
+		lastLeft = size();
+		return count;
+	}
+
+	/**
+	 * Refuse new tasks, e.g. because the plugin is being disabled. Tasks that
+	 * are already queued can still be drained.
+	 */
+	public void close() {
+		closed = true;
+	}
+
+	/**
+	 * @return the number of tasks waiting
+	 */
+	public int size() {
+		return (int) Math.max(0L, tail.get() - head);
+	}
+
+	public int getCapacity() {
+		return mask + 1;
+	}
+
+	/*
+	 * Metrics
+	 */
+	public long getQueued() {
+		return queued.sum();
+	}
+
+	/**
+	 * @return the number of tasks refused because the queue was full or closed
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getRan() {
+		return ran;
+	}
+
+	public int getLastRan() {
+		return lastRan;
+	}
+
+	/**
+	 * @return the number of tasks left for the next tick after the last drain
+	 */
+	public int getLastLeft() {
+		return lastLeft;
+	}
+}
@@ -0,0 +1,156 @@
+package com.cptingle.BoardGamesX;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.metrics.Counter;
+
+/**
+ * Caches the permission decisions of players.
+ * <p>
+ * Permission backends can make {@link Player#hasPermission(String)} costly,
+ * and the same few nodes are asked for on every command. Decisions are kept
+ * per player for a limited time, and dropped whenever the player joins, quits
+ * or changes worlds, or permissions may have been edited. The number of
+ * players and of nodes per player are bounded, so the cache cannot grow
+ * without limit.
+ */
+public class PermissionCache {
+	private final long ttlNanos;
+	private final int maxPlayers;
+	private final int maxNodes;
+	private final Map<UUID, Decisions> players;
+
+	private final Counter hits;
+	private final Counter misses;
+
+	/**
+	 * @param ttlMillis  how long a decision is trusted
+	 * @param maxPlayers the number of players to keep decisions for
+	 * @param maxNodes   the number of nodes to keep decisions for, per player
+	 * @param hits       counts decisions taken from the cache
+	 * @param misses     counts decisions asked of the server
+	 */
+	public PermissionCache(long ttlMillis, int maxPlayers, int maxNodes, Counter hits, Counter misses) {
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, ttlMillis));
+		this.maxPlayers = Math.max(1, maxPlayers);
+		this.maxNodes = Math.max(1, maxNodes);
+		this.players = new ConcurrentHashMap<>();
+		this.hits = hits;
+		this.misses = misses;
+	}
+
+	/**
+	 * @return true, if the player has the permission
+	 */
+	public boolean has(Player p, String node) {
+		return decisions(p).has(p, node);
+	}
+
+	/**
+	 * Evaluate several nodes for a player in one pass.
+	 *
+	 * @param p     the player
+	 * @param nodes the permission nodes
+	 * @param out   receives the decision for each node, at the same index
+	 * @return the number of nodes the player has
+	 */
+	public int has(Player p, String[] nodes, boolean[] out) {
+		Decisions decisions = decisions(p);
+		int count = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			out[i] = decisions.has(p, nodes[i]);
+			if (out[i]) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Forget the decisions for a player.
+	 */
+	public void invalidate(UUID player) {
+		players.remove(player);
+	}
+
+	/**
+	 * Forget all decisions.
+	 */
+	public void invalidateAll() {
+		players.clear();
+	}
+
+	/**
+	 * @return the number of players with cached decisions
+	 */
+	public int size() {
+		return players.size();
+	}
+
+	private Decisions decisions(Player p) {
+		long now = System.nanoTime();
+		UUID id = p.getUniqueId();
+		Decisions decisions = players.get(id);
+		if (decisions == null || now - decisions.expires >= 0) {
+			if (decisions == null && players.size() >= maxPlayers) {
+				evict(now);
+			}
+			decisions = new Decisions(now + ttlNanos);
+			players.put(id, decisions);
+		}
+		return decisions;
+	}
+
+	/**
+	 * Make room for another player: drop expired entries, or failing that, the
+	 * entry closest to expiring.
+	 */
+	private void evict(long now) {
+		UUID oldest = null;
+		long oldestExpires = Long.MAX_VALUE;
+		Iterator<Map.Entry<UUID, Decisions>> it = players.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<UUID, Decisions> entry = it.next();
+			long expires = entry.getValue().expires;
+			if (now - expires >= 0) {
+				it.remove();
+			} else if (oldest == null || expires - oldestExpires < 0) {
+				oldest = entry.getKey();
+				oldestExpires = expires;
+			}
+		}
+		if (players.size() >= maxPlayers && oldest != null) {
+			players.remove(oldest);
+		}
+	}
+
+	private class Decisions {
+		private final long expires;
+		private final Map<String, Boolean> nodes;
+
+		Decisions(long expires) {
+			this.expires = expires;
+			this.nodes = new ConcurrentHashMap<>();
+		}
+
+		boolean has(Player p, String node) {
+			Boolean decision = nodes.get(node);
+			if (decision != null) {
+				hits.increment();
+				return decision;
+			}
+			misses.increment();
+			boolean has = p.hasPermission(node);
+			if (nodes.size() < maxNodes) {
+				nodes.put(node, has);
+			}
+			return has;
+		}
+	}
+}
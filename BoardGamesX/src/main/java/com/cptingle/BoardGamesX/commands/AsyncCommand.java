@@ -0,0 +1,43 @@
+package com.cptingle.BoardGamesX.commands;
+
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.GameMaster;
+
+/**
+ * A command whose work is done off the main server thread.
+ * <p>
+ * The command handler runs {@link #executeAsync(GameMaster, CommandSender, String...)}
+ * on the command worker pool, and then runs the returned completion step back
+ * on the main thread. Anything that touches the Bukkit API, including telling
+ * the sender the result, belongs in the completion step.
+ */
+public interface AsyncCommand extends Command {
+	/**
+	 * Do the heavy part of the command using the given arguments.
+	 * <p>
+	 * This method is called on a worker thread. It must not touch the Bukkit API
+	 * or mutate game state, but it may read snapshots of it.
+	 *
+	 * @param gm     the game master
+	 * @param sender the sender
+	 * @param args   array of arguments
+	 * @return the completion step to run on the main thread, or null if the
+	 *         command handler should print the usage message to the sender
+	 */
+	Runnable executeAsync(GameMaster gm, CommandSender sender, String... args);
+
+	/**
+	 * Run both halves of the command on the calling thread. This is only used
+	 * when the worker pool is not available.
+	 */
+	@Override
+	default boolean execute(GameMaster gm, CommandSender sender, String... args) {
+		Runnable completion = executeAsync(gm, sender, args);
+		if (completion == null) {
+			return false;
+		}
+		completion.run();
+		return true;
+	}
+}
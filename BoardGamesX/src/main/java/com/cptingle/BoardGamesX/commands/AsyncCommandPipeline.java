@@ -0,0 +1,285 @@
+package com.cptingle.BoardGamesX.commands;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.IllegalPluginAccessException;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+
+/**
+ * Runs {@link AsyncCommand}s on a bounded worker pool.
+ * <p>
+ * Each sender may only have a limited number of commands in flight, and must
+ * wait a minimum interval between submissions, so a single player cannot fill
+ * the queue. A command counts as in flight until its completion step has run
+ * on the main thread. A sender whose command fails is told so.
+ */
+public class AsyncCommandPipeline {
+	private final Logger logger;
+	private final Executor mainThread;
+	private final ThreadPoolExecutor executor;
+
+	private final int senderLimit;
+	private final long cooldownNanos;
+	private final ConcurrentHashMap<Object, SenderState> senders;
+
+	// Metrics
+	private final AtomicLong submitted = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong rejectedBusy = new AtomicLong();
+	private final AtomicLong rejectedInFlight = new AtomicLong();
+	private final AtomicLong rejectedCooldown = new AtomicLong();
+	private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+	/**
+	 * @param plugin        the plugin, used to get back on the main thread
+	 * @param threads       the number of worker threads
+	 * @param queueCapacity the number of commands that may wait for a worker
+	 * @param senderLimit   the number of commands a sender may have in flight
+	 * @param cooldownMs    the minimum time between two submissions of a sender
+	 */
+	public AsyncCommandPipeline(BoardGamesX plugin, int threads, int queueCapacity, int senderLimit,
+			long cooldownMs) {
+		this(plugin.getLogger(), mainThread(plugin), threads, queueCapacity, senderLimit, cooldownMs);
+	}
+
+	/**
+	 * @param logger     the logger for failed commands
+	 * @param mainThread runs the completion steps on the main thread; throws
+	 *                   {@link RejectedExecutionException} once it stopped
+	 */
+	AsyncCommandPipeline(Logger logger, Executor mainThread, int threads, int queueCapacity, int senderLimit,
+			long cooldownMs) {
+		this.logger = logger;
+		this.mainThread = mainThread;
+		this.senderLimit = Math.max(1, senderLimit);
+		this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, cooldownMs));
+		this.senders = new ConcurrentHashMap<>();
+
+		threads = Math.max(1, threads);
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, queueCapacity)), new WorkerFactory());
+	}
+
+	/**
+	 * Run the completion steps with the scheduler of the plugin.
+	 */
+	private static Executor mainThread(final BoardGamesX plugin) {
+		return new Executor() {
+			@Override
+			public void execute(Runnable task) {
+				if (!plugin.isEnabled()) {
+					throw new RejectedExecutionException("Plugin is disabled");
+				}
+				try {
+					plugin.getServer().getScheduler().runTask(plugin, task);
+				} catch (IllegalPluginAccessException e) {
+					// The plugin was disabled while we were working
+					throw new RejectedExecutionException(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Submit a command for execution. This must be called on the main thread. If
+	 * the command is rejected or fails, the sender is told why.
+	 *
+	 * @param command   the command to execute
+	 * @param gm        the game master
+	 * @param messenger the messenger to tell the sender with
+	 * @param sender    the sender
+	 * @param args      array of arguments
+	 * @param usage     run on the main thread if the command wants its usage
+	 *                  shown
+	 * @return true, if the command was queued
+	 */
+	public boolean submit(final AsyncCommand command, final GameMaster gm, final Messenger messenger,
+			final CommandSender sender, final String[] args, final Runnable usage) {
+		final SenderState state = getState(sender);
+
+		// Per-sender limits first
+		if (state.inFlight.get() >= senderLimit) {
+			rejectedInFlight.incrementAndGet();
+			messenger.tell(sender, Msg.MISC_COMMAND_IN_FLIGHT);
+			return false;
+		}
+		long now = System.nanoTime();
+		if (state.lastSubmit != 0L && now - state.lastSubmit < cooldownNanos) {
+			rejectedCooldown.incrementAndGet();
+			messenger.tell(sender, Msg.MISC_COMMAND_COOLDOWN);
+			return false;
+		}
+
+		state.inFlight.incrementAndGet();
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					Runnable completion;
+					try {
+						completion = command.executeAsync(gm, sender, args);
+						if (completion == null) {
+							completion = usage;
+						}
+					} catch (Throwable t) {
+						failed.incrementAndGet();
+						logger.log(Level.SEVERE, "Error executing command asynchronously", t);
+						completion = new Runnable() {
+							@Override
+							public void run() {
+								messenger.tell(sender, Msg.MISC_COMMAND_FAILED);
+							}
+						};
+					}
+					complete(state, completion);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			state.inFlight.decrementAndGet();
+			rejectedBusy.incrementAndGet();
+			messenger.tell(sender, Msg.MISC_COMMAND_BUSY);
+			return false;
+		}
+
+		state.lastSubmit = now;
+		submitted.incrementAndGet();
+		maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+		return true;
+	}
+
+	/**
+	 * Hop back to the main thread to run the completion step.
+	 */
+	private void complete(final SenderState state, final Runnable step) {
+		try {
+			mainThread.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						step.run();
+					} finally {
+						state.inFlight.decrementAndGet();
+						completed.incrementAndGet();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			state.inFlight.decrementAndGet();
+		}
+	}
+
+	private SenderState getState(CommandSender sender) {
+		Object key = (sender instanceof Entity) ? ((Entity) sender).getUniqueId() : sender.getName();
+		SenderState state = senders.get(key);
+		if (state == null) {
+			SenderState created = new SenderState();
+			state = senders.putIfAbsent(key, created);
+			if (state == null) {
+				state = created;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Forget the limits of senders with nothing in flight. Called when a player
+	 * leaves, so the map does not grow forever.
+	 *
+	 * @param key the UUID of a player, or the name of another sender
+	 */
+	public void forget(Object key) {
+		SenderState state = senders.get(key);
+		if (state != null && state.inFlight.get() == 0) {
+			senders.remove(key, state);
+		}
+	}
+
+	/**
+	 * Stop accepting commands, and give running commands a moment to finish.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(2, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+	public int getQueueDepth() {
+		return executor.getQueue().size();
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	public int getActiveWorkers() {
+		return executor.getActiveCount();
+	}
+
+	public long getSubmitted() {
+		return submitted.get();
+	}
+
+	public long getCompleted() {
+		return completed.get();
+	}
+
+	public long getFailed() {
+		return failed.get();
+	}
+
+	public long getRejectedBusy() {
+		return rejectedBusy.get();
+	}
+
+	/**
+	 * @return the number of commands rejected because the sender had too many
+	 *         in flight
+	 */
+	public long getRejectedInFlight() {
+		return rejectedInFlight.get();
+	}
+
+	public long getRejectedCooldown() {
+		return rejectedCooldown.get();
+	}
+
+	private static class SenderState {
+		private final AtomicInteger inFlight = new AtomicInteger();
+		// Only written on the main thread
+		private volatile long lastSubmit;
+	}
+
+	private static class WorkerFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "BoardGamesX-Command-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
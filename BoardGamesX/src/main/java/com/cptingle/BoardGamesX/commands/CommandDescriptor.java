@@ -0,0 +1,87 @@
+package com.cptingle.BoardGamesX.commands;
+
+/**
+ * Immutable view of a registered command and its {@link CommandInfo}.
+ * <p>
+ * The annotation is resolved once when the command is registered, so the
+ * command handler never has to go through reflection while dispatching.
+ */
+public final class CommandDescriptor {
+	/**
+	 * The permission tiers commands are grouped into on the help page.
+	 */
+	public enum Tier {
+		USER, ADMIN, SETUP;
+
+		/**
+		 * Get the tier of a permission node.
+		 * 
+		 * @param permission a permission node
+		 * @return the tier the node belongs to
+		 */
+		public static Tier of(String permission) {
+			if (permission.startsWith("boardgames.admin")) {
+				return ADMIN;
+			} else if (permission.startsWith("boardgames.setup")) {
+				return SETUP;
+			}
+			return USER;
+		}
+	}
+
+	private final Command command;
+	private final String name;
+	private final String pattern;
+	private final String usage;
+	private final String desc;
+	private final String permission;
+	private final Tier tier;
+	private final int permissionSlot;
+
+	CommandDescriptor(Command command, CommandInfo info, int permissionSlot) {
+		this.command = command;
+		this.name = info.name();
+		this.pattern = info.pattern();
+		this.usage = info.usage();
+		this.desc = info.desc();
+		this.permission = info.permission();
+		this.tier = Tier.of(permission);
+		this.permissionSlot = permissionSlot;
+	}
+
+	public Command getCommand() {
+		return command;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	public String getUsage() {
+		return usage;
+	}
+
+	public String getDesc() {
+		return desc;
+	}
+
+	public String getPermission() {
+		return permission;
+	}
+
+	public Tier getTier() {
+		return tier;
+	}
+
+	/**
+	 * @return the index of this command's permission node among all distinct
+	 *         nodes in the registry
+	 */
+	int getPermissionSlot() {
+		return permissionSlot;
+	}
+}
@@ -1,31 +1,50 @@
 package com.cptingle.BoardGamesX.commands;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.conversations.Conversable;
 
 import com.cptingle.BoardGamesX.BoardGamesX;
 import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.commands.admin.PerfCommand;
+import com.cptingle.BoardGamesX.commands.admin.ReloadCommand;
+import com.cptingle.BoardGamesX.commands.user.SpectateCommand;
+import com.cptingle.BoardGamesX.commands.user.TopCommand;
 import com.cptingle.BoardGamesX.messaging.Msg;
+import com.cptingle.BoardGamesX.metrics.Histogram;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
 
 public class CommandHandler implements CommandExecutor {
 
-	private BoardGamesX Plugin;
+	private BoardGamesX plugin;
 	private GameMaster gm;
 	
-	private Map<String, Command> commands;
+	private CommandRegistry registry;
+	private AsyncCommandPipeline pipeline;
+
+	// Dispatch time, by command
+	private MetricsRegistry metrics;
+	private Map<CommandDescriptor, Histogram> times;
 	
 	public CommandHandler(BoardGamesX plugin) {
-		this.Plugin = plugin;
+		this.plugin = plugin;
 		this.gm = plugin.getGameMaster();
+		this.metrics = plugin.getMetrics();
+		this.times = new ConcurrentHashMap<>();
+		
+		// Worker pool for asynchronous commands
+		FileConfiguration config = plugin.getConfig();
+		this.pipeline = new AsyncCommandPipeline(plugin, config.getInt("global-settings.command-threads", 2),
+				config.getInt("global-settings.command-queue-size", 64),
+				config.getInt("global-settings.command-sender-limit", 1),
+				config.getLong("global-settings.command-cooldown-ms", 250L));
 		
 		registerCommands();
 	}
@@ -47,12 +66,12 @@ public class CommandHandler implements CommandExecutor {
 		}
 
 		// Get commands matching base
-		List<Command> matches = getMatchingCommands(base);
+		List<CommandDescriptor> matches = registry.getMatching(base);
 
 		// Display matches if more than 1
 		if (matches.size() > 1) {
 			gm.getGlobalMessenger().tell(sender, Msg.MISC_MULTIPLE_MATCHES);
-			for (Command cmd : matches) {
+			for (CommandDescriptor cmd : matches) {
 				showUsage(cmd, sender, false);
 			}
 			return true;
@@ -65,11 +84,10 @@ public class CommandHandler implements CommandExecutor {
 		}
 
 		// Grab the only match.
-		Command command = matches.get(0);
-		CommandInfo info = command.getClass().getAnnotation(CommandInfo.class);
+		CommandDescriptor command = matches.get(0);
 
 		// Check for permission
-		if (!plugin.has(sender, info.permission())) {
+		if (!plugin.has(sender, command.getPermission())) {
 			gm.getGlobalMessenger().tell(sender, Msg.MISC_NO_ACCESS);
 			return true;
 		}
@@ -83,45 +101,51 @@ public class CommandHandler implements CommandExecutor {
 
 		// Otherwise, execute the command!
 		String[] params = trimFirstArg(args);
-		if (!command.execute(gm, sender, params)) {
+		long start = metrics.start();
+		if (command.getCommand() instanceof AsyncCommand) {
+			final CommandDescriptor usage = command;
+			final CommandSender target = sender;
+			Runnable showUsage = new Runnable() {
+				@Override
+				public void run() {
+					showUsage(usage, target, true);
+				}
+			};
+			pipeline.submit((AsyncCommand) command.getCommand(), gm, gm.getGlobalMessenger(), sender, params,
+					showUsage);
+			// Only the hand-off is spent on the main thread
+			metrics.stop(timesOf(command), start);
+			return true;
+		}
+		if (!command.getCommand().execute(gm, sender, params)) {
 			showUsage(command, sender, true);
 		}
+		metrics.stop(timesOf(command), start);
 		return true;
 	}
 
-	/**
-	 * Get all commands that match a given string.
-	 * 
-	 * @param arg the given string
-	 * @return a list of commands whose patterns match the given string
-	 */
-	private List<Command> getMatchingCommands(String arg) {
-		List<Command> result = new ArrayList<>();
-
-		// Grab the commands that match the argument.
-		for (Entry<String, Command> entry : commands.entrySet()) {
-			if (arg.matches(entry.getKey())) {
-				result.add(entry.getValue());
-			}
+	private Histogram timesOf(CommandDescriptor command) {
+		Histogram histogram = times.get(command);
+		if (histogram == null) {
+			histogram = metrics.histogram("bgx_command_nanos", "command", command.getName());
+			times.put(command, histogram);
 		}
-
-		return result;
+		return histogram;
 	}
 
 	/**
 	 * Show the usage and description messages of a command to a player. The usage
 	 * will only be shown, if the player has permission for the command.
 	 * 
-	 * @param cmd    a Command
+	 * @param cmd    a CommandDescriptor
 	 * @param sender a CommandSender
 	 */
-	private void showUsage(Command cmd, CommandSender sender, boolean prefix) {
-		CommandInfo info = cmd.getClass().getAnnotation(CommandInfo.class);
-		if (!plugin.has(sender, info.permission()))
+	private void showUsage(CommandDescriptor cmd, CommandSender sender, boolean prefix) {
+		if (!plugin.has(sender, cmd.getPermission()))
 			return;
 
 		gm.getGlobalMessenger().tell(sender,
-				(prefix ? "Usage: " : "") + info.usage() + " " + ChatColor.YELLOW + info.desc());
+				(prefix ? "Usage: " : "") + cmd.getUsage() + " " + ChatColor.YELLOW + cmd.getDesc());
 	}
 
 	/**
@@ -136,40 +160,14 @@ public class CommandHandler implements CommandExecutor {
 	}
 
 	/**
-	 * List all the available MobArena commands for the CommandSender.
+	 * List all the available MobArena commands for the CommandSender. The pages
+	 * are cached by the registry, so this is cheap even when spammed.
 	 * 
 	 * @param sender a player or the console
 	 */
 	private void showHelp(CommandSender sender) {
-		StringBuilder user = new StringBuilder();
-		StringBuilder admin = new StringBuilder();
-		StringBuilder setup = new StringBuilder();
-
-		for (Command cmd : commands.values()) {
-			CommandInfo info = cmd.getClass().getAnnotation(CommandInfo.class);
-			if (!plugin.has(sender, info.permission()))
-				continue;
-
-			StringBuilder buffy;
-			if (info.permission().startsWith("boardgames.admin")) {
-				buffy = admin;
-			} else if (info.permission().startsWith("boardgames.setup")) {
-				buffy = setup;
-			} else {
-				buffy = user;
-			}
-			buffy.append("\n").append(ChatColor.RESET).append(info.usage()).append(" ").append(ChatColor.YELLOW)
-					.append(info.desc());
-		}
-
-		if (admin.length() == 0 && setup.length() == 0) {
-			sender.sendMessage("Available commands: " + user.toString());
-		} else {
-			sender.sendMessage("User commands: " + user.toString());
-			if (admin.length() > 0)
-				sender.sendMessage("Admin commands: " + admin.toString());
-			if (setup.length() > 0)
-				sender.sendMessage("Setup commands: " + setup.toString());
+		for (String line : registry.getHelpPage(sender)) {
+			sender.sendMessage(line);
 		}
 	}
 
@@ -177,20 +175,23 @@ public class CommandHandler implements CommandExecutor {
 	 * Register all commands directly
 	 */
 	private void registerCommands() {
-		commands = new LinkedHashMap<String, Command>();
+		registry = new CommandRegistry(plugin);
 
-		/*// User Commands
-		register(JoinCommand.class);
+		// User Commands
+		/*register(JoinCommand.class);
 		register(GameListCommand.class);
-		register(LeaveCommand.class);
+		register(LeaveCommand.class);*/
+		register(TopCommand.class);
+		register(SpectateCommand.class);
 
 		// Admin Commands
-		register(EnableCommand.class);
-		register(DisableCommand.class);
+		/*register(EnableCommand.class);
+		register(DisableCommand.class);*/
 		register(ReloadCommand.class);
+		register(PerfCommand.class);
 
 		// Setup Commands
-		// register(SetupCommand.class);
+		/*// register(SetupCommand.class);
 		register(SettingCommand.class);
 		register(SetupCommand.class);
 
@@ -203,20 +204,33 @@ public class CommandHandler implements CommandExecutor {
 	}
 
 	/**
-	 * Register a command. The Command's CommandInfo annotation is queried to find
-	 * its pattern string, which is used to map the commands.
+	 * Register a command. The Command's CommandInfo annotation is resolved once
+	 * by the registry, which maps the command by its pattern string.
 	 * 
 	 * @param c a Command
 	 */
 	public void register(Class<? extends Command> c) {
-		CommandInfo info = c.getAnnotation(CommandInfo.class);
-		if (info == null)
-			return;
+		registry.register(c);
+	}
 
-		try {
-			commands.put(info.pattern(), c.newInstance());
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+	/**
+	 * @return the registry holding all commands
+	 */
+	public CommandRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * @return the worker pipeline running asynchronous commands
+	 */
+	public AsyncCommandPipeline getPipeline() {
+		return pipeline;
+	}
+
+	/**
+	 * Stop the worker pipeline. Called when the plugin is disabled.
+	 */
+	public void shutdown() {
+		pipeline.shutdown();
 	}
 }
@@ -0,0 +1,266 @@
+package com.cptingle.BoardGamesX.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dispatch index for command patterns.
+ * <p>
+ * Patterns are split into their top-level alternatives when registered. Plain
+ * literal alternatives ("join") and literal prefixes followed by ".*" ("jo.*")
+ * go into a character trie, so looking up an argument only walks as many nodes
+ * as the argument has characters. Every other pattern is compiled once and
+ * kept in a fallback list.
+ * <p>
+ * The result of each trie node is computed at registration time, so a lookup
+ * that does not hit a fallback pattern returns a shared, unmodifiable list and
+ * allocates nothing. The index is not thread safe; it is meant to be used from
+ * the main server thread only.
+ *
+ * @param <T> the type of the values mapped by the patterns
+ */
+public class CommandIndex<T> {
+	private static final int[] NO_ORDINALS = new int[0];
+
+	private final Node<T> root = new Node<>();
+	private final List<T> values = new ArrayList<>();
+	private final List<Fallback> fallbacks = new ArrayList<>();
+
+	/**
+	 * Register a value under the given pattern. Values are returned from
+	 * {@link #lookup(String)} in the order they were registered in.
+	 *
+	 * @param pattern a regex pattern, matched against the whole argument
+	 * @param value   the value to map
+	 */
+	public void add(String pattern, T value) {
+		int ordinal = values.size();
+		values.add(value);
+
+		List<String> alternatives = splitAlternatives(pattern);
+		if (alternatives == null) {
+			fallbacks.add(new Fallback(Pattern.compile(pattern), ordinal));
+		} else {
+			for (String alternative : alternatives) {
+				insert(alternative, ordinal);
+			}
+		}
+
+		rebuild(root, new ArrayList<Integer>());
+	}
+
+	/**
+	 * Get all values whose patterns match the given string.
+	 *
+	 * @param arg the given string
+	 * @return an unmodifiable list of matching values, in registration order
+	 */
+	public List<T> lookup(String arg) {
+		// Walk the trie as far as the argument goes
+		Node<T> node = root;
+		boolean passing = false;
+		for (int i = 0; i < arg.length(); i++) {
+			Node<T> next = node.child(arg.charAt(i));
+			if (next == null) {
+				passing = true;
+				break;
+			}
+			node = next;
+		}
+		List<T> result = passing ? node.passing : node.exact;
+
+		// Most command sets have no fallback patterns at all
+		if (fallbacks.isEmpty()) {
+			return result;
+		}
+		List<T> merged = null;
+		int[] ordinals = passing ? node.passingOrdinals : node.exactOrdinals;
+		int next = 0;
+		for (Fallback fallback : fallbacks) {
+			if (!fallback.matcher.reset(arg).matches()) {
+				continue;
+			}
+			if (merged == null) {
+				merged = new ArrayList<>(result.size() + 1);
+			}
+			// Both are in registration order, so merge them in one pass
+			while (next < ordinals.length && ordinals[next] < fallback.ordinal) {
+				merged.add(values.get(ordinals[next++]));
+			}
+			if (next < ordinals.length && ordinals[next] == fallback.ordinal) {
+				next++;
+			}
+			merged.add(values.get(fallback.ordinal));
+		}
+		if (merged == null) {
+			return result;
+		}
+		while (next < ordinals.length) {
+			merged.add(values.get(ordinals[next++]));
+		}
+		return Collections.unmodifiableList(merged);
+	}
+
+	/**
+	 * @return the number of registered values
+	 */
+	public int size() {
+		return values.size();
+	}
+
+	/**
+	 * Insert a single trie alternative.
+	 */
+	private void insert(String alternative, int ordinal) {
+		boolean prefix = alternative.endsWith(".*");
+		String literal = prefix ? alternative.substring(0, alternative.length() - 2) : alternative;
+
+		Node<T> node = root;
+		for (int i = 0; i < literal.length(); i++) {
+			node = node.getOrCreateChild(literal.charAt(i));
+		}
+		(prefix ? node.prefixOrdinals : node.terminalOrdinals).add(ordinal);
+	}
+
+	/**
+	 * Recompute the precomputed results of a node and all its children.
+	 *
+	 * @param node    the node to rebuild
+	 * @param inherit the prefix ordinals of all ancestors of the node
+	 */
+	private void rebuild(Node<T> node, List<Integer> inherit) {
+		List<Integer> passing = new ArrayList<>(inherit);
+		passing.addAll(node.prefixOrdinals);
+		List<Integer> exact = new ArrayList<>(passing);
+		exact.addAll(node.terminalOrdinals);
+
+		node.passingOrdinals = distinct(passing);
+		node.exactOrdinals = distinct(exact);
+		node.passing = resolve(node.passingOrdinals);
+		node.exact = resolve(node.exactOrdinals);
+
+		for (Node<T> child : node.children.values()) {
+			rebuild(child, passing);
+		}
+	}
+
+	/**
+	 * @return the ordinals, sorted and without duplicates
+	 */
+	private static int[] distinct(List<Integer> ordinals) {
+		Collections.sort(ordinals);
+		int[] result = new int[ordinals.size()];
+		int count = 0;
+		for (int ordinal : ordinals) {
+			if (count == 0 || result[count - 1] != ordinal) {
+				result[count++] = ordinal;
+			}
+		}
+		return (count == result.length) ? result : Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Turn sorted, distinct ordinals into an unmodifiable list of values.
+	 */
+	private List<T> resolve(int[] ordinals) {
+		if (ordinals.length == 0) {
+			return Collections.emptyList();
+		}
+		List<T> result = new ArrayList<>(ordinals.length);
+		for (int ordinal : ordinals) {
+			result.add(values.get(ordinal));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Split a pattern into its top-level alternatives, if every alternative is
+	 * either a plain literal or a plain literal followed by ".*".
+	 *
+	 * @param pattern a regex pattern
+	 * @return the alternatives, or null if the pattern needs the regex engine
+	 */
+	static List<String> splitAlternatives(String pattern) {
+		List<String> result = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i <= pattern.length(); i++) {
+			if (i < pattern.length() && pattern.charAt(i) != '|') {
+				continue;
+			}
+			String alternative = pattern.substring(start, i);
+			if (!isTrieAlternative(alternative)) {
+				return null;
+			}
+			result.add(alternative);
+			start = i + 1;
+		}
+		return result;
+	}
+
+	private static boolean isTrieAlternative(String alternative) {
+		int end = alternative.endsWith(".*") ? alternative.length() - 2 : alternative.length();
+		for (int i = 0; i < end; i++) {
+			char c = alternative.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static class Node<T> {
+		private final Map<Character, Node<T>> children = new HashMap<>();
+		private final List<Integer> terminalOrdinals = new ArrayList<>();
+		private final List<Integer> prefixOrdinals = new ArrayList<>();
+
+		// Precomputed results for arguments that end here, or continue past here
+		private List<T> exact = Collections.emptyList();
+		private List<T> passing = Collections.emptyList();
+
+		// The same results as ordinals, to merge the fallback matches into
+		private int[] exactOrdinals = NO_ORDINALS;
+		private int[] passingOrdinals = NO_ORDINALS;
+
+		// Children are looked up by ASCII index first to avoid boxing the char
+		private Node<T>[] ascii;
+
+		Node<T> child(char c) {
+			if (c < 128) {
+				return (ascii == null) ? null : ascii[c];
+			}
+			return children.get(c);
+		}
+
+		@SuppressWarnings("unchecked")
+		Node<T> getOrCreateChild(char c) {
+			Node<T> child = children.get(c);
+			if (child == null) {
+				child = new Node<>();
+				children.put(c, child);
+				if (c < 128) {
+					if (ascii == null) {
+						ascii = new Node[128];
+					}
+					ascii[c] = child;
+				}
+			}
+			return child;
+		}
+	}
+
+	private static class Fallback {
+		private final Matcher matcher;
+		private final int ordinal;
+
+		Fallback(Pattern pattern, int ordinal) {
+			this.matcher = pattern.matcher("");
+			this.ordinal = ordinal;
+		}
+	}
+}
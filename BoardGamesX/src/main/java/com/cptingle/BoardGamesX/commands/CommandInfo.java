@@ -1,5 +1,12 @@
 package com.cptingle.BoardGamesX.commands;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
 public @interface CommandInfo {
 	/**
 	 * The actual name of the command. Not really used anywhere.
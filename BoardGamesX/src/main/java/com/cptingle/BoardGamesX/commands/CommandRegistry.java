@@ -0,0 +1,179 @@
+package com.cptingle.BoardGamesX.commands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+
+/**
+ * Registry of all BoardGamesX commands.
+ * <p>
+ * Each command's {@link CommandInfo} is resolved into a
+ * {@link CommandDescriptor} when the command is registered, and its pattern is
+ * compiled into the dispatch index. Rendered help pages are cached per set of
+ * held permission nodes. Because the permissions themselves are evaluated on
+ * every request, a change in a sender's permissions simply selects another
+ * page, and only registering a command invalidates the cache.
+ */
+public class CommandRegistry {
+	private final BoardGamesX plugin;
+
+	private final List<CommandDescriptor> commands;
+	private final CommandIndex<CommandDescriptor> index;
+
+	// Distinct permission nodes, in the order they were first seen
+	private final List<String> permissions;
+	private String[] permissionNodes;
+	private final Map<Long, String[]> helpPages;
+
+	public CommandRegistry(BoardGamesX plugin) {
+		this.plugin = plugin;
+		this.commands = new ArrayList<>();
+		this.index = new CommandIndex<>();
+		this.permissions = new ArrayList<>();
+		this.permissionNodes = new String[0];
+		this.helpPages = new HashMap<>();
+	}
+
+	/**
+	 * Register a command. The Command's CommandInfo annotation is queried once,
+	 * and the command is added to the dispatch index under its pattern string.
+	 *
+	 * @param c a Command class
+	 */
+	public void register(Class<? extends Command> c) {
+		CommandInfo info = c.getAnnotation(CommandInfo.class);
+		if (info == null)
+			return;
+
+		Command command;
+		try {
+			command = c.newInstance();
+		} catch (Exception e) {
+			e.printStackTrace();
+			return;
+		}
+
+		int slot = permissions.indexOf(info.permission());
+		if (slot < 0) {
+			slot = permissions.size();
+			permissions.add(info.permission());
+			permissionNodes = permissions.toArray(new String[permissions.size()]);
+		}
+
+		CommandDescriptor descriptor = new CommandDescriptor(command, info, slot);
+		commands.add(descriptor);
+		index.add(descriptor.getPattern(), descriptor);
+		invalidateHelp();
+	}
+
+	/**
+	 * Get all commands that match a given string.
+	 *
+	 * @param arg the given string
+	 * @return an unmodifiable list of commands whose patterns match the string
+	 */
+	public List<CommandDescriptor> getMatching(String arg) {
+		return index.lookup(arg);
+	}
+
+	/**
+	 * @return an unmodifiable list of all commands, in registration order
+	 */
+	public List<CommandDescriptor> getCommands() {
+		return Collections.unmodifiableList(commands);
+	}
+
+	/**
+	 * Get the help page for a sender, rendering it only if no sender with the
+	 * same permissions has asked for it before.
+	 *
+	 * @param sender a player or the console
+	 * @return the lines of the help page, each to be sent as a separate message
+	 */
+	public String[] getHelpPage(CommandSender sender) {
+		// Too many distinct nodes to fit in a key, render every time
+		if (permissions.size() > Long.SIZE) {
+			return renderHelpPage(sender, -1L);
+		}
+
+		String[] nodes = permissionNodes;
+		boolean[] held = new boolean[nodes.length];
+		plugin.has(sender, nodes, held);
+
+		long mask = 0L;
+		for (int i = 0; i < nodes.length; i++) {
+			if (held[i]) {
+				mask |= 1L << i;
+			}
+		}
+
+		String[] page = helpPages.get(mask);
+		if (page == null) {
+			page = renderHelpPage(sender, mask);
+			helpPages.put(mask, page);
+		}
+		return page;
+	}
+
+	/**
+	 * Drop all cached help pages.
+	 */
+	public void invalidateHelp() {
+		helpPages.clear();
+	}
+
+	/**
+	 * Render the help page for the given permission mask. A mask of -1 means
+	 * the permissions are checked on the sender directly.
+	 */
+	private String[] renderHelpPage(CommandSender sender, long mask) {
+		StringBuilder user = new StringBuilder();
+		StringBuilder admin = new StringBuilder();
+		StringBuilder setup = new StringBuilder();
+
+		for (CommandDescriptor cmd : commands) {
+			boolean permitted;
+			if (mask == -1L) {
+				permitted = plugin.has(sender, cmd.getPermission());
+			} else {
+				permitted = (mask & (1L << cmd.getPermissionSlot())) != 0;
+			}
+			if (!permitted)
+				continue;
+
+			StringBuilder buffy;
+			switch (cmd.getTier()) {
+			case ADMIN:
+				buffy = admin;
+				break;
+			case SETUP:
+				buffy = setup;
+				break;
+			default:
+				buffy = user;
+				break;
+			}
+			buffy.append("\n").append(ChatColor.RESET).append(cmd.getUsage()).append(" ").append(ChatColor.YELLOW)
+					.append(cmd.getDesc());
+		}
+
+		List<String> lines = new ArrayList<>(3);
+		if (admin.length() == 0 && setup.length() == 0) {
+			lines.add("Available commands: " + user.toString());
+		} else {
+			lines.add("User commands: " + user.toString());
+			if (admin.length() > 0)
+				lines.add("Admin commands: " + admin.toString());
+			if (setup.length() > 0)
+				lines.add("Setup commands: " + setup.toString());
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+}
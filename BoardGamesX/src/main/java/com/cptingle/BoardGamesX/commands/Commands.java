@@ -1,13 +1,12 @@
 package com.cptingle.BoardGamesX.commands;
 
-import java.util.List;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import com.cptingle.BoardGames.framework.Game;
+import com.cptingle.BoardGamesX.framework.Game;
 import com.cptingle.BoardGamesX.GameMaster;
 import com.cptingle.BoardGamesX.messaging.Msg;
 
@@ -39,64 +38,78 @@ public class Commands {
 		return (sender instanceof Player);
 	}
 	
-	public static Game getGameToJoin(GameMaster gm, Player p , String arg1) {
+	public static Game getGameToJoin(GameMaster gm, Player p, String arg1) {
 		// Check if BoardGamesX is enabled first.
-				if (!gm.isEnabled()) {
-					gm.getGlobalMessenger().tell(p, Msg.JOIN_NOT_ENABLED);
-					return null;
-				}
+		if (!gm.isEnabled()) {
+			gm.getGlobalMessenger().tell(p, Msg.JOIN_NOT_ENABLED);
+			return null;
+		}
 
-				// Then check if we have permission at all.
-				List<Game> games = gm.getPermittedGames(p);
-				if (games.isEmpty()) {
-					gm.getGlobalMessenger().tell(p, Msg.JOIN_NO_PERMISSION);
-					return null;
-				}
+		// One game at a time.
+		if (gm.isPlaying(p)) {
+			gm.getGlobalMessenger().tell(p, Msg.JOIN_IN_OTHER_ARENA);
+			return null;
+		}
+		if (gm.getMatchmaker().isQueued(p.getUniqueId())) {
+			gm.getGlobalMessenger().tell(p, Msg.QUEUE_ALREADY);
+			return null;
+		}
 
-				// Then check if we have any enabled games.
-				games = gm.getEnabledGames(games);
-				if (games.isEmpty()) {
-					gm.getGlobalMessenger().tell(p, Msg.JOIN_NOT_ENABLED);
-					return null;
-				}
-
-				// The game to join.
-				Game game = null;
+		// Then check if we have permission at all.
+		if (!gm.hasPermittedGame(p)) {
+			gm.getGlobalMessenger().tell(p, Msg.JOIN_NO_PERMISSION);
+			return null;
+		}
 
-				// Branch on whether there's an argument or not.
-				if (arg1 != null) {
-					game = gm.getGameWithName(arg1);
-					if (game == null) {
-						gm.getGlobalMessenger().tell(p, Msg.GAME_DOES_NOT_EXIST);
-						return null;
-					}
+		// The game to join.
+		Game game = null;
 
-					if (!games.contains(game)) {
-						gm.getGlobalMessenger().tell(p, Msg.JOIN_ARENA_NOT_ENABLED);
-						return null;
-					}
-				} else {
-					if (games.size() > 1) {
-						gm.getGlobalMessenger().tell(p, Msg.JOIN_ARG_NEEDED);
-						// gm.getGlobalMessenger().tell(p,
-						// Msg.MISC_LIST_GAMES.format(ECUtils.listToString(games)));
-						return null;
-					}
-					game = games.get(0);
-				}
+		// Branch on whether there's an argument or not.
+		if (arg1 != null) {
+			game = gm.getGameWithName(arg1);
+			if (game == null) {
+				gm.getGlobalMessenger().tell(p, Msg.GAME_DOES_NOT_EXIST);
+				return null;
+			}
 
-				// If player is in a boat/minecart, eject!
-				if (p.isInsideVehicle()) {
-					p.leaveVehicle();
+			if (!game.isEnabled() || !gm.isPermitted(p, game)) {
+				gm.getGlobalMessenger().tell(p, Msg.JOIN_ARENA_NOT_ENABLED);
+				return null;
+			}
+		} else {
+			// Find the only enabled game we may join, without building lists.
+			for (Game candidate : gm.getEnabledGames()) {
+				if (!gm.isPermitted(p, candidate)) {
+					continue;
 				}
-
-				// If player is in a bed, unbed!
-				if (p.isSleeping()) {
-					p.wakeup(false);
-					//p.kickPlayer("You may not join from a bed");
-					//return null;
+				if (game != null) {
+					// Several to choose from, let matchmaking pick a table
+					boolean queued = gm.getMatchmaker().enqueue(p.getUniqueId());
+					gm.getGlobalMessenger().tell(p, queued ? Msg.QUEUE_JOINED : Msg.QUEUE_ALREADY);
+					return null;
 				}
+				game = candidate;
+			}
 
-				return game;
+			// Then check if we have any enabled games.
+			if (game == null) {
+				gm.getGlobalMessenger().tell(p, Msg.JOIN_NOT_ENABLED);
+				return null;
 			}
+		}
+
+		// If player is in a boat/minecart, eject!
+		if (p.isInsideVehicle()) {
+			p.leaveVehicle();
+		}
+
+		// If player is in a bed, unbed!
+		if (p.isSleeping()) {
+			p.wakeup(false);
+			//p.kickPlayer("You may not join from a bed");
+			//return null;
+		}
+
+		return game;
+	}
 }
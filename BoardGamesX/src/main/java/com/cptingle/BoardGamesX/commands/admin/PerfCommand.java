@@ -0,0 +1,68 @@
+package com.cptingle.BoardGamesX.commands.admin;
+
+import java.util.Locale;
+
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.commands.Command;
+import com.cptingle.BoardGamesX.commands.CommandInfo;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+import com.cptingle.BoardGamesX.metrics.Counter;
+import com.cptingle.BoardGamesX.metrics.Histogram;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+
+@CommandInfo(name = "perf", pattern = "perf", usage = "/bg perf [filter]", desc = "show timings and queue depths", permission = "boardgames.admin.perf")
+public class PerfCommand implements Command {
+
+	@Override
+	public boolean execute(GameMaster gm, CommandSender sender, String... args) {
+		MetricsRegistry metrics = gm.getPlugin().getMetrics();
+		Messenger messenger = gm.getGlobalMessenger();
+		String filter = (args.length > 0) ? args[0].toLowerCase(Locale.ROOT) : "";
+		if (!metrics.isEnabled()) {
+			messenger.tell(sender, Msg.PERF_DISABLED);
+		}
+
+		for (Histogram histogram : metrics.getHistograms()) {
+			if (!matches(filter, histogram.getName(), histogram.getLabels()) || histogram.getCount() == 0) {
+				continue;
+			}
+			messenger.tell(sender, Msg.PERF_HISTOGRAM, histogram.getName(), labels(histogram.getLabels()),
+					histogram.getCount(), time(histogram.getValueAt(0.5)), time(histogram.getValueAt(0.9)),
+					time(histogram.getValueAt(0.99)), time(histogram.getMax()));
+		}
+		for (Counter counter : metrics.getCounters()) {
+			if (matches(filter, counter.getName(), counter.getLabels())) {
+				messenger.tell(sender, Msg.PERF_VALUE, counter.getName(), labels(counter.getLabels()), counter.get());
+			}
+		}
+		for (MetricsRegistry.Gauge gauge : metrics.getGauges()) {
+			if (matches(filter, gauge.getName(), gauge.getLabels())) {
+				messenger.tell(sender, Msg.PERF_VALUE, gauge.getName(), labels(gauge.getLabels()), gauge.get());
+			}
+		}
+		return true;
+	}
+
+	private static boolean matches(String filter, String name, String labels) {
+		return filter.isEmpty() || name.contains(filter) || labels.toLowerCase(Locale.ROOT).contains(filter);
+	}
+
+	private static String labels(String labels) {
+		return labels.isEmpty() ? "" : "{" + labels + "}";
+	}
+
+	/**
+	 * Format nanoseconds in the largest unit that keeps a few digits.
+	 */
+	private static String time(long nanos) {
+		if (nanos < 10000L) {
+			return nanos + "ns";
+		} else if (nanos < 10000000L) {
+			return (nanos / 1000L) + "us";
+		}
+		return (nanos / 1000000L) + "ms";
+	}
+}
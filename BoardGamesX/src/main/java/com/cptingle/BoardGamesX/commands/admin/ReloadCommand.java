@@ -0,0 +1,18 @@
+package com.cptingle.BoardGamesX.commands.admin;
+
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.commands.Command;
+import com.cptingle.BoardGamesX.commands.CommandInfo;
+
+@CommandInfo(name = "reload", pattern = "reload", usage = "/bg reload", desc = "reload the config-file", permission = "boardgames.admin.reload")
+public class ReloadCommand implements Command {
+
+	@Override
+	public boolean execute(GameMaster gm, CommandSender sender, String... args) {
+		// Read and validate in the background; tells the sender when done
+		gm.getPlugin().reloadConfigAsync(sender);
+		return true;
+	}
+}
@@ -0,0 +1,55 @@
+package com.cptingle.BoardGamesX.commands.user;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.commands.Command;
+import com.cptingle.BoardGamesX.commands.CommandInfo;
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+import com.cptingle.BoardGamesX.spectate.Spectators;
+
+@CommandInfo(name = "spectate", pattern = "spec(tate)?|watch", usage = "/bg spectate [game]", desc = "watch a game, or stop watching", permission = "boardgames.spectate")
+public class SpectateCommand implements Command {
+
+	@Override
+	public boolean execute(GameMaster gm, CommandSender sender, String... args) {
+		Messenger messenger = gm.getGlobalMessenger();
+		if (!(sender instanceof Player)) {
+			messenger.tell(sender, Msg.MISC_NOT_FROM_CONSOLE);
+			return true;
+		}
+		Player player = (Player) sender;
+		Spectators spectators = gm.getSpectators();
+
+		if (args.length == 0) {
+			messenger.tell(player,
+					spectators.stop(player.getUniqueId()) ? Msg.SPEC_STOPPED : Msg.SPEC_NOT_SPECTATING);
+			return true;
+		}
+
+		Game game = gm.getGameWithName(args[0]);
+		if (game == null) {
+			messenger.tell(player, Msg.GAME_DOES_NOT_EXIST);
+			return true;
+		}
+		if (!game.isEnabled()) {
+			messenger.tell(player, Msg.JOIN_ARENA_NOT_ENABLED);
+			return true;
+		}
+		if (gm.isPlaying(player)) {
+			messenger.tell(player, Msg.SPEC_PLAYING);
+			return true;
+		}
+		if (!gm.isPermitted(player, game)) {
+			messenger.tell(player, Msg.MISC_NO_ACCESS);
+			return true;
+		}
+
+		spectators.spectate(player, game);
+		messenger.tell(player, Msg.SPEC_STARTED, game.getName());
+		return true;
+	}
+}
@@ -0,0 +1,57 @@
+package com.cptingle.BoardGamesX.commands.user;
+
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.commands.AsyncCommand;
+import com.cptingle.BoardGamesX.commands.CommandInfo;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+import com.cptingle.BoardGamesX.stats.Leaderboard;
+
+@CommandInfo(name = "top", pattern = "top|leaderboard", usage = "/bg top [count]", desc = "show the best rated players", permission = "boardgames.top")
+public class TopCommand implements AsyncCommand {
+	private static final int DEFAULT_COUNT = 10;
+
+	@Override
+	public Runnable executeAsync(GameMaster gm, final CommandSender sender, String... args) {
+		int count = DEFAULT_COUNT;
+		if (args.length > 0) {
+			try {
+				count = Integer.parseInt(args[0]);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			if (count < 1) {
+				return null;
+			}
+		}
+
+		// Kept up to date by the stats thread, so this is only a read
+		Leaderboard.Entry[] top = gm.getPlugin().getStats().getLeaderboard().getTop();
+		final Messenger messenger = gm.getGlobalMessenger();
+		if (top.length == 0) {
+			return new Runnable() {
+				@Override
+				public void run() {
+					messenger.tell(sender, Msg.TOP_EMPTY);
+				}
+			};
+		}
+
+		// The entries have placeholders, so rendering them shares no state
+		final String[] lines = new String[Math.min(count, top.length)];
+		for (int i = 0; i < lines.length; i++) {
+			Leaderboard.Entry entry = top[i];
+			String name = (entry.getName() != null) ? entry.getName() : entry.getId().toString().substring(0, 8);
+			lines[i] = messenger.render(Msg.TOP_ENTRY, i + 1, name, Math.round(entry.getRating()));
+		}
+		return new Runnable() {
+			@Override
+			public void run() {
+				messenger.tell(sender, Msg.TOP_HEADER);
+				sender.sendMessage(lines);
+			}
+		};
+	}
+}
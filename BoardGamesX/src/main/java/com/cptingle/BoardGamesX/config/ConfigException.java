@@ -0,0 +1,26 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when a config-file cannot be used. Carries every problem that was
+ * found, not just the first one.
+ */
+public class ConfigException extends Exception {
+	private static final long serialVersionUID = 1L;
+
+	private final List<String> errors;
+
+	public ConfigException(List<String> errors) {
+		super(String.join("\n", errors));
+		this.errors = Collections.unmodifiableList(errors);
+	}
+
+	/**
+	 * @return the problems, each with the line it was found on where known
+	 */
+	public List<String> getErrors() {
+		return errors;
+	}
+}
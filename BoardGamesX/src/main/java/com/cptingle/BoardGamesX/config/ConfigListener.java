@@ -0,0 +1,15 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.util.Set;
+
+/**
+ * Notified on the main thread when a reloaded config-file is applied.
+ */
+public interface ConfigListener {
+
+	/**
+	 * @param snapshot the new config
+	 * @param changed  the sections that changed, e.g. <code>global-settings</code>
+	 */
+	void onConfigChanged(ConfigSnapshot snapshot, Set<String> changed);
+}
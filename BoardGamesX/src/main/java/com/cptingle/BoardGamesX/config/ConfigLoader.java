@@ -0,0 +1,94 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * Reads and validates a config-file in a single pass.
+ * <p>
+ * The file is read once. Every line is checked for tabs, and then the same
+ * text is parsed; all problems found along the way are reported together.
+ * Loading touches no server state, so it is safe to call from any thread.
+ */
+public final class ConfigLoader {
+
+	private ConfigLoader() {
+	}
+
+	/**
+	 * Load a config-file.
+	 *
+	 * @param file the file
+	 * @return the validated snapshot
+	 * @throws IOException     if the file cannot be read
+	 * @throws ConfigException if the file is not a valid config-file
+	 */
+	public static ConfigSnapshot load(File file) throws IOException, ConfigException {
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		String text = new String(bytes, StandardCharsets.UTF_8);
+
+		List<String> errors = new ArrayList<>();
+		findTabs(text, errors);
+
+		YamlConfiguration config = new YamlConfiguration();
+		try {
+			config.loadFromString(text);
+		} catch (InvalidConfigurationException e) {
+			errors.add("There is an error in your config-file! Here is what snakeyaml says:\n" + e.getMessage());
+		}
+
+		if (!errors.isEmpty()) {
+			throw new ConfigException(errors);
+		}
+		return new ConfigSnapshot(config, digest(bytes));
+	}
+
+	/**
+	 * Report every line that contains a tab, pointing at the first one.
+	 */
+	static void findTabs(String text, List<String> errors) {
+		int row = 0;
+		int start = 0;
+		while (start <= text.length()) {
+			int end = text.indexOf('\n', start);
+			if (end < 0) {
+				end = text.length();
+			}
+			row++;
+
+			int tab = text.indexOf('\t', start);
+			if (tab >= 0 && tab < end) {
+				String line = text.substring(start, (end > start && text.charAt(end - 1) == '\r') ? end - 1 : end);
+				StringBuilder buffy = new StringBuilder();
+				buffy.append("Found tab in config-file on line ").append(row).append(".");
+				buffy.append('\n').append("NEVER use tabs! ALWAYS use spaces!");
+				buffy.append('\n').append(line);
+				buffy.append('\n');
+				for (int i = start; i < tab; i++) {
+					buffy.append(' ');
+				}
+				buffy.append('^');
+				errors.add(buffy.toString());
+			}
+			start = end + 1;
+		}
+	}
+
+	private static byte[] digest(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Loads a config-file off the main thread and applies it on the main thread.
+ * <p>
+ * The current snapshot stays live until a new one has been read and validated
+ * completely; a broken file never replaces a working config. When a new
+ * snapshot is applied, listeners are told which sections changed, so they only
+ * redo the work for those. If several reloads overlap, only the most recently
+ * started one is applied.
+ */
+public class ConfigReloader {
+	private final Plugin plugin;
+	private final File file;
+	private final List<ConfigListener> listeners;
+
+	private final AtomicLong started;
+	private long applied;
+	private volatile ConfigSnapshot current;
+
+	/**
+	 * Called on the main thread when a reload is done.
+	 */
+	public interface Callback {
+
+		/**
+		 * @param changed the sections that changed, possibly none
+		 */
+		void onReloaded(Set<String> changed);
+
+		/**
+		 * @param errors every problem found in the file, or met applying it
+		 */
+		void onFailed(List<String> errors);
+	}
+
+	public ConfigReloader(Plugin plugin, File file) {
+		this.plugin = plugin;
+		this.file = file;
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.started = new AtomicLong();
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the config that is currently live, or null before the first load
+	 */
+	public ConfigSnapshot getCurrent() {
+		return current;
+	}
+
+	public void addListener(ConfigListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Load and apply the file on the calling thread, which must be the main
+	 * thread. Listeners that fail are logged.
+	 *
+	 * @return the sections that changed
+	 * @throws IOException     if the file cannot be read
+	 * @throws ConfigException if the file is not a valid config-file
+	 */
+	public Set<String> reload() throws IOException, ConfigException {
+		long sequence = started.incrementAndGet();
+		return apply(ConfigLoader.load(file), sequence, new ArrayList<String>());
+	}
+
+	/**
+	 * Load the file on a background thread, then apply it on the main thread.
+	 *
+	 * @param callback told about the outcome on the main thread, or null
+	 */
+	public void reloadAsync(final Callback callback) {
+		final long sequence = started.incrementAndGet();
+		try {
+			plugin.getServer().getScheduler().runTaskAsynchronously(plugin, new Runnable() {
+				@Override
+				public void run() {
+					ConfigSnapshot snapshot = null;
+					List<String> errors = null;
+					try {
+						snapshot = ConfigLoader.load(file);
+					} catch (ConfigException e) {
+						errors = e.getErrors();
+					} catch (IOException e) {
+						errors = Collections.singletonList("Could not read the config-file: " + e.getMessage());
+					}
+					complete(snapshot, errors, sequence, callback);
+				}
+			});
+		} catch (IllegalPluginAccessException e) {
+			// The plugin is being disabled
+		}
+	}
+
+	private void complete(final ConfigSnapshot snapshot, final List<String> errors, final long sequence,
+			final Callback callback) {
+		try {
+			plugin.getServer().getScheduler().runTask(plugin, new Runnable() {
+				@Override
+				public void run() {
+					if (errors != null) {
+						if (callback != null) {
+							callback.onFailed(errors);
+						}
+						return;
+					}
+					List<String> failures = new ArrayList<>();
+					Set<String> changed = apply(snapshot, sequence, failures);
+					if (callback == null) {
+						return;
+					}
+					if (failures.isEmpty()) {
+						callback.onReloaded(changed);
+					} else {
+						callback.onFailed(failures);
+					}
+				}
+			});
+		} catch (IllegalPluginAccessException e) {
+			// The plugin is being disabled
+		}
+	}
+
+	/**
+	 * @param failures gets a line for every listener that failed
+	 */
+	private Set<String> apply(ConfigSnapshot snapshot, long sequence, List<String> failures) {
+		// A newer reload has already been applied
+		if (sequence < applied) {
+			return Collections.emptySet();
+		}
+		applied = sequence;
+
+		ConfigSnapshot old = current;
+		if (snapshot.isSameFile(old)) {
+			return Collections.emptySet();
+		}
+		Set<String> changed = snapshot.diff(old);
+		current = snapshot;
+
+		for (ConfigListener listener : listeners) {
+			try {
+				listener.onConfigChanged(snapshot, changed);
+			} catch (Exception e) {
+				plugin.getLogger().log(Level.SEVERE, "Config listener " + listener.getClass().getName()
+						+ " failed to apply the changed sections " + changed, e);
+				failures.add("Could not apply the changed sections " + changed + ": " + e
+						+ ". See the server log for details.");
+			}
+		}
+		return changed;
+	}
+}
@@ -0,0 +1,104 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * A validated, loaded version of a config-file.
+ * <p>
+ * A snapshot is built completely on the loading thread and then handed to the
+ * main thread, which is the only one to use it from then on. Values are grouped into
+ * sections of at most two levels, e.g. <code>global-settings</code> or
+ * <code>games.chess</code>, so a reload can tell exactly which sections
+ * changed.
+ */
+public class ConfigSnapshot {
+	private final YamlConfiguration config;
+	private final byte[] digest;
+	private final Map<String, Map<String, Object>> sections;
+
+	ConfigSnapshot(YamlConfiguration config, byte[] digest) {
+		this.config = config;
+		this.digest = digest;
+		this.sections = group(config);
+	}
+
+	public YamlConfiguration getConfig() {
+		return config;
+	}
+
+	/**
+	 * @return true, if both snapshots were loaded from the exact same bytes
+	 */
+	public boolean isSameFile(ConfigSnapshot other) {
+		return other != null && Arrays.equals(digest, other.digest);
+	}
+
+	/**
+	 * Find the sections that differ from an older snapshot.
+	 *
+	 * @param old the older snapshot, or null
+	 * @return the paths of the sections that were added, removed or changed
+	 */
+	public Set<String> diff(ConfigSnapshot old) {
+		if (old == null) {
+			return Collections.unmodifiableSet(sections.keySet());
+		}
+
+		Set<String> changed = new HashSet<>();
+		for (Map.Entry<String, Map<String, Object>> entry : sections.entrySet()) {
+			if (!entry.getValue().equals(old.sections.get(entry.getKey()))) {
+				changed.add(entry.getKey());
+			}
+		}
+		for (String section : old.sections.keySet()) {
+			if (!sections.containsKey(section)) {
+				changed.add(section);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Group all leaf values by the section they belong to.
+	 */
+	private static Map<String, Map<String, Object>> group(YamlConfiguration config) {
+		Map<String, Map<String, Object>> sections = new HashMap<>();
+		for (Map.Entry<String, Object> entry : config.getValues(true).entrySet()) {
+			if (entry.getValue() instanceof ConfigurationSection) {
+				continue;
+			}
+			String path = entry.getKey();
+			String section = sectionOf(path);
+			Map<String, Object> values = sections.get(section);
+			if (values == null) {
+				values = new HashMap<>();
+				sections.put(section, values);
+			}
+			values.put(path, entry.getValue());
+		}
+		return sections;
+	}
+
+	/**
+	 * @return the path without its last key, cut to at most two keys
+	 */
+	static String sectionOf(String path) {
+		int first = path.indexOf('.');
+		if (first < 0) {
+			return "";
+		}
+		int second = path.indexOf('.', first + 1);
+		if (second < 0) {
+			return path.substring(0, first);
+		}
+		return path.substring(0, second);
+	}
+}
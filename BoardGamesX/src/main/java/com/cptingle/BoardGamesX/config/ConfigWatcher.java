@@ -0,0 +1,128 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Watches a config-file and reloads it when it is saved.
+ * <p>
+ * Editors often write a file in several steps, so a reload starts only once
+ * the file has been quiet for a moment.
+ */
+public class ConfigWatcher implements Runnable {
+	private final ConfigReloader reloader;
+	private final Logger logger;
+	private final long quietMillis;
+
+	private WatchService service;
+	private Thread thread;
+
+	/**
+	 * @param reloader    the reloader of the file to watch
+	 * @param logger      where to report the outcome of reloads
+	 * @param quietMillis how long the file must be unchanged before reloading
+	 */
+	public ConfigWatcher(ConfigReloader reloader, Logger logger, long quietMillis) {
+		this.reloader = reloader;
+		this.logger = logger;
+		this.quietMillis = Math.max(0L, quietMillis);
+	}
+
+	/**
+	 * Start watching.
+	 *
+	 * @throws IOException if the directory of the file cannot be watched
+	 */
+	public void start() throws IOException {
+		if (thread != null) {
+			return;
+		}
+		Path dir = reloader.getFile().getAbsoluteFile().getParentFile().toPath();
+		service = FileSystems.getDefault().newWatchService();
+		dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+		thread = new Thread(this, "BoardGamesX-ConfigWatcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop watching.
+	 */
+	public void stop() {
+		if (thread == null) {
+			return;
+		}
+		try {
+			service.close();
+		} catch (IOException e) {
+			// Swallow
+		}
+		thread.interrupt();
+		thread = null;
+	}
+
+	@Override
+	public void run() {
+		String name = reloader.getFile().getName();
+		try {
+			while (true) {
+				if (!isFileEvent(service.take(), name)) {
+					continue;
+				}
+
+				// Wait for the writes to settle
+				WatchKey key;
+				while ((key = service.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+					isFileEvent(key, name);
+				}
+
+				reloader.reloadAsync(new ConfigReloader.Callback() {
+					@Override
+					public void onReloaded(Set<String> changed) {
+						if (!changed.isEmpty()) {
+							logger.info("Config-file changed on disk, reloaded " + changed);
+						}
+					}
+
+					@Override
+					public void onFailed(List<String> errors) {
+						logger.warning("Config-file changed on disk, but it could not be applied.");
+						for (String error : errors) {
+							logger.warning(error);
+						}
+					}
+				});
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// Stopped
+		}
+	}
+
+	/**
+	 * @return true, if any of the key's events concern the file
+	 */
+	private static boolean isFileEvent(WatchKey key, String name) {
+		boolean found = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			Object context = event.context();
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				found = true;
+			} else if (context instanceof Path && ((Path) context).getFileName().toString().equals(name)) {
+				found = true;
+			}
+		}
+		key.reset();
+		return found;
+	}
+}
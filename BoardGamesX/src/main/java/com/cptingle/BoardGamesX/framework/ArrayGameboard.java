@@ -0,0 +1,48 @@
+package com.cptingle.BoardGamesX.framework;
+
+/**
+ * A board of any size, stored as one packed array entry per cell. Boards with
+ * at most 255 piece types use a <code>byte[]</code>, others a
+ * <code>short[]</code>.
+ */
+public class ArrayGameboard extends Gameboard {
+	private final byte[] bytes;
+	private final short[] shorts;
+
+	public ArrayGameboard(int width, int height, int pieceTypes) {
+		super(width, height, pieceTypes);
+		if (pieceTypes <= 0xFF) {
+			this.bytes = new byte[getCellCount()];
+			this.shorts = null;
+		} else {
+			this.bytes = null;
+			this.shorts = new short[getCellCount()];
+		}
+	}
+
+	@Override
+	protected int read(int cell) {
+		return (bytes != null) ? bytes[cell] & 0xFF : shorts[cell] & 0xFFFF;
+	}
+
+	@Override
+	protected void write(int cell, int oldPiece, int newPiece) {
+		if (bytes != null) {
+			bytes[cell] = (byte) newPiece;
+		} else {
+			shorts[cell] = (short) newPiece;
+		}
+	}
+
+	@Override
+	public Gameboard copy() {
+		ArrayGameboard copy = new ArrayGameboard(getWidth(), getHeight(), getPieceTypes());
+		if (bytes != null) {
+			System.arraycopy(bytes, 0, copy.bytes, 0, bytes.length);
+		} else {
+			System.arraycopy(shorts, 0, copy.shorts, 0, shorts.length);
+		}
+		copy.copied(this);
+		return copy;
+	}
+}
@@ -0,0 +1,91 @@
+package com.cptingle.BoardGamesX.framework;
+
+/**
+ * A board of at most 64 cells, stored as one <code>long</code> bitboard per
+ * piece type. Bit n of a bitboard is cell n.
+ * <p>
+ * Games can use the bitboards directly for move generation, for example with
+ * shifts and masks, and iterate over set bits with
+ * {@link Long#numberOfTrailingZeros(long)}.
+ */
+public class BitGameboard extends Gameboard {
+	public static final int MAX_CELLS = 64;
+
+	private final long[] pieces;
+	private final long mask;
+	private long occupied;
+
+	public BitGameboard(int width, int height, int pieceTypes) {
+		super(width, height, pieceTypes);
+		if (getCellCount() > MAX_CELLS) {
+			throw new IllegalArgumentException("A bitboard holds at most " + MAX_CELLS + " cells");
+		}
+		this.pieces = new long[pieceTypes + 1];
+		this.mask = (getCellCount() == 64) ? -1L : (1L << getCellCount()) - 1;
+	}
+
+	/**
+	 * @param piece a piece type
+	 * @return the bitboard of all cells holding the piece type
+	 */
+	public long getPieces(int piece) {
+		return (piece == EMPTY) ? getEmpty() : pieces[piece];
+	}
+
+	/**
+	 * @return the bitboard of all cells holding a piece
+	 */
+	public long getOccupied() {
+		return occupied;
+	}
+
+	/**
+	 * @return the bitboard of all empty cells
+	 */
+	public long getEmpty() {
+		return ~occupied & mask;
+	}
+
+	/**
+	 * @return the bitboard with a bit set for every cell of the board
+	 */
+	public long getMask() {
+		return mask;
+	}
+
+	@Override
+	protected int read(int cell) {
+		long bit = 1L << cell;
+		if ((occupied & bit) == 0) {
+			return EMPTY;
+		}
+		for (int piece = 1; piece < pieces.length; piece++) {
+			if ((pieces[piece] & bit) != 0) {
+				return piece;
+			}
+		}
+		return EMPTY;
+	}
+
+	@Override
+	protected void write(int cell, int oldPiece, int newPiece) {
+		long bit = 1L << cell;
+		if (oldPiece != EMPTY) {
+			pieces[oldPiece] &= ~bit;
+			occupied &= ~bit;
+		}
+		if (newPiece != EMPTY) {
+			pieces[newPiece] |= bit;
+			occupied |= bit;
+		}
+	}
+
+	@Override
+	public Gameboard copy() {
+		BitGameboard copy = new BitGameboard(getWidth(), getHeight(), getPieceTypes());
+		System.arraycopy(pieces, 0, copy.pieces, 0, pieces.length);
+		copy.occupied = occupied;
+		copy.copied(this);
+		return copy;
+	}
+}
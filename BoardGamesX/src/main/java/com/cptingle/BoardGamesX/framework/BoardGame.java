@@ -0,0 +1,405 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.framework.ai.SearchEngine;
+import com.cptingle.BoardGamesX.framework.ai.SearchLimits;
+import com.cptingle.BoardGamesX.framework.ai.SearchResult;
+import com.cptingle.BoardGamesX.persistence.MoveRecorder;
+
+/**
+ * A game played on a {@link Gameboard} by a set of {@link GameRules}, with
+ * optional turn timers and computer opponents.
+ * <p>
+ * Computer opponents search in the background; {@link #tick(long)} only
+ * checks whether the search is done and applies the move, so a thinking
+ * computer never costs the main thread more than a few microseconds.
+ * <p>
+ * The board belongs to the thread of the game. Other threads read the
+ * {@link BoardView} it publishes after every move and tick.
+ */
+public abstract class BoardGame extends Game {
+	private final GameRules rules;
+	private final Gameboard board;
+	private final int[] moves;
+	private volatile BoardView view;
+
+	// Computer opponents, by side
+	private final SearchEngine[] engines;
+	private final SearchLimits[] limits;
+	private CompletableFuture<SearchResult> search;
+
+	// The position in which a computer found no legal move
+	private boolean stalled;
+	private long stalledHash;
+
+	// Turn timer
+	private long turnNanos;
+	private long turnDeadline;
+
+	// History
+	private Path moveLogFile;
+	private int moveLogInterval;
+	private Executor moveLogExecutor;
+	private Logger moveLogLogger;
+	private MoveRecorder moveLog;
+
+	protected BoardGame(String name, GameRules rules) {
+		super(name);
+		this.rules = rules;
+		this.board = rules.createBoard();
+		this.moves = new int[rules.getMaxMoves(board)];
+		this.engines = new SearchEngine[rules.getSides()];
+		this.limits = new SearchLimits[rules.getSides()];
+		this.view = new BoardView(board);
+	}
+
+	public GameRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * @return the board, only to be used on the thread of the game
+	 */
+	public Gameboard getBoard() {
+		return board;
+	}
+
+	/**
+	 * @return the board as of the last move or tick, safe to read from any
+	 *         thread
+	 */
+	public BoardView getView() {
+		return view;
+	}
+
+	/**
+	 * @return one player per side
+	 */
+	@Override
+	public int getMaxPlayers() {
+		return rules.getSides();
+	}
+
+	/**
+	 * Let a computer play a side.
+	 *
+	 * @param side   the side
+	 * @param engine the engine to search with, or null to hand the side back
+	 *               to a player
+	 * @param limits the limits of each search
+	 */
+	public void setComputer(int side, SearchEngine engine, SearchLimits limits) {
+		this.engines[side] = engine;
+		this.limits[side] = limits;
+	}
+
+	/**
+	 * @return true, if the side is played by a computer
+	 */
+	public boolean isComputer(int side) {
+		return engines[side] != null;
+	}
+
+	/**
+	 * Set the time each side has for a move. A side that runs out of time
+	 * triggers {@link #onTurnTimeout(int)}.
+	 *
+	 * @param millis the time per move, or 0 for no limit
+	 */
+	public void setTurnTime(long millis) {
+		this.turnNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+		startTurn(nanoTime());
+	}
+
+	/**
+	 * @return the {@link #nanoTime()} at which the current turn times out,
+	 *         or 0 if there is no timer
+	 */
+	public long getTurnDeadline() {
+		return turnDeadline;
+	}
+
+	/**
+	 * @return true, if the game on the board is over
+	 */
+	public boolean isFinished() {
+		return rules.isFinished(board);
+	}
+
+	@Override
+	public void tick(long now) {
+		// Also picks up changes made to the board directly
+		publishView();
+		if (isFinished()) {
+			return;
+		}
+
+		int side = board.getSideToMove();
+		GamePlayer mover = getPlayerOnSide(side);
+		if (mover != null && !mover.isOnTurn()) {
+			// Sat down during the turn
+			mover.startTurn(now);
+		}
+		if (engines[side] != null) {
+			if (stalled && board.getHash() == stalledHash) {
+				return;
+			}
+			if (search == null) {
+				search = engines[side].searchAsync(rules, board, limits[side]);
+			} else if (search.isDone()) {
+				CompletableFuture<SearchResult> done = search;
+				search = null;
+				SearchResult result = done.isCompletedExceptionally() ? null : done.getNow(null);
+				if (result == null) {
+					// The engine failed; any legal move keeps the game going
+					playAnyMove(side);
+					return;
+				}
+				notifySearchDone(side, result.getNanos());
+				if (!result.hasMove()) {
+					noLegalMove(side);
+				} else if (!makeMove(result.getMove())) {
+					playAnyMove(side);
+				}
+			}
+			return;
+		}
+
+		if (turnDeadline != 0L && now - turnDeadline >= 0) {
+			turnDeadline = 0L;
+			onTurnTimeout(side);
+		}
+	}
+
+	/**
+	 * Play a move for the side to move, if it is legal.
+	 *
+	 * @param move the move
+	 * @return true, if the move was legal and played
+	 */
+	public boolean makeMove(int move) {
+		if (isFinished() || !isLegal(move)) {
+			return false;
+		}
+
+		int side = board.getSideToMove();
+		if (moveLog == null && moveLogFile != null) {
+			moveLog = MoveRecorder.start(moveLogFile, board, rules, moveLogInterval, moveLogExecutor, moveLogLogger);
+		}
+		long now = nanoTime();
+		GamePlayer mover = getPlayerOnSide(side);
+		if (mover != null) {
+			mover.endTurn(now);
+		}
+		rules.makeMove(board, move);
+		publishView();
+		startTurn(now);
+		markDirty();
+		logMove(move);
+		notifyMoveMade(side, move, isFinished() ? -1 : board.getSideToMove());
+		onMoveMade(side, move);
+
+		if (isFinished()) {
+			turnDeadline = 0L;
+			closeMoveLog();
+			int winner = rules.getWinner(board);
+			notifyGameEnded(winner);
+			onFinished(winner);
+		}
+		return true;
+	}
+
+	private void playAnyMove(int side) {
+		int count = rules.generateMoves(board, moves);
+		if (count > 0) {
+			makeMove(moves[0]);
+		} else {
+			noLegalMove(side);
+		}
+	}
+
+	private void noLegalMove(int side) {
+		// Not searched again until the board changes
+		stalled = true;
+		stalledHash = board.getHash();
+		onNoLegalMove(side);
+	}
+
+	/**
+	 * @return true, if the move is legal for the side to move
+	 */
+	public boolean isLegal(int move) {
+		int count = rules.generateMoves(board, moves);
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Record the moves of every match in a log file. The log of a match is
+	 * started at its first move, with the board before it as the starting
+	 * position, and replaces the log of the match before. A log that ends with
+	 * the current board, e.g. after a restart in the middle of a match, is
+	 * continued instead. Moves are only buffered on the thread of the game; the
+	 * file is written by the executor, see {@link MoveRecorder}.
+	 *
+	 * @param file     the log file, or null to stop recording
+	 * @param interval the number of moves between snapshots of the board
+	 * @param executor runs the file operations, one at a time and in order
+	 * @param logger   where to report errors
+	 */
+	public void setMoveLog(Path file, int interval, Executor executor, Logger logger) {
+		closeMoveLog();
+		this.moveLogFile = file;
+		this.moveLogInterval = interval;
+		this.moveLogExecutor = executor;
+		this.moveLogLogger = logger;
+	}
+
+	/**
+	 * @return the file moves are recorded in, or null
+	 */
+	public Path getMoveLogFile() {
+		return moveLogFile;
+	}
+
+	/**
+	 * Hand the recorded moves that are still buffered to the executor, to be
+	 * written to the log file.
+	 */
+	public void flushMoveLog() {
+		if (moveLog != null) {
+			moveLog.flush();
+		}
+	}
+
+	/**
+	 * Close the log of the current match in the background. The next move
+	 * starts a new one.
+	 */
+	public void closeMoveLog() {
+		if (moveLog != null) {
+			moveLog.close();
+			moveLog = null;
+		}
+	}
+
+	private void logMove(int move) {
+		if (moveLog != null) {
+			moveLog.record(move);
+		}
+	}
+
+	@Override
+	public GameSnapshot snapshot() {
+		GameSnapshot base = super.snapshot();
+		int[] cells = new int[board.getCellCount()];
+		for (int cell = 0; cell < cells.length; cell++) {
+			cells[cell] = board.get(cell);
+		}
+		long remaining = (turnDeadline == 0L) ? -1L
+				: Math.max(0L, TimeUnit.NANOSECONDS.toMillis(turnDeadline - nanoTime()));
+		return new GameSnapshot(getName(), base.getState(), base.getPlayers(), board.getWidth(), board.getHeight(),
+				board.getPieceTypes(), board.getSideToMove(), cells, remaining);
+	}
+
+	@Override
+	public void restore(GameSnapshot snapshot) {
+		if (snapshot.hasBoard()) {
+			if (snapshot.getWidth() != board.getWidth() || snapshot.getHeight() != board.getHeight()) {
+				throw new IllegalArgumentException("Saved board of " + getName() + " is " + snapshot.getWidth() + "x"
+						+ snapshot.getHeight() + ", expected " + board.getWidth() + "x" + board.getHeight());
+			}
+			board.clear();
+			int[] cells = snapshot.getCells();
+			for (int cell = 0; cell < cells.length; cell++) {
+				board.set(cell, cells[cell]);
+			}
+			board.setSideToMove(snapshot.getSideToMove());
+			publishView();
+
+			long remaining = snapshot.getTurnRemaining();
+			turnDeadline = (remaining < 0L) ? 0L : nanoTime() + TimeUnit.MILLISECONDS.toNanos(remaining);
+		}
+		super.restore(snapshot);
+	}
+
+	private void publishView() {
+		if (view.getHash() != board.getHash()) {
+			view = new BoardView(board);
+		}
+	}
+
+	/**
+	 * Start the timer of the side to move, and the clock of its player.
+	 */
+	private void startTurn(long now) {
+		turnDeadline = (turnNanos == 0L) ? 0L : now + turnNanos;
+		GamePlayer next = getPlayerOnSide(board.getSideToMove());
+		if (next != null && !next.isOnTurn() && !isFinished()) {
+			next.startTurn(now);
+		}
+	}
+
+	/**
+	 * Called after a move was played.
+	 *
+	 * @param side the side that played the move
+	 * @param move the move
+	 */
+	protected void onMoveMade(int side, int move) {
+	}
+
+	/**
+	 * Called when the game on the board is over.
+	 *
+	 * @param winner the side that won, or -1 for a draw
+	 */
+	protected void onFinished(int winner) {
+	}
+
+	/**
+	 * Called when a player runs out of time for a move. By default, the game is
+	 * ended.
+	 *
+	 * @param side the side that ran out of time
+	 */
+	protected void onTurnTimeout(int side) {
+		forceEnd();
+	}
+
+	/**
+	 * Called when a side played by a computer has no legal move, though the
+	 * game on the board is not over. By default, the game is ended.
+	 *
+	 * @param side the side to move
+	 */
+	protected void onNoLegalMove(int side) {
+		forceEnd();
+	}
+
+	@Override
+	public void forceEnd() {
+		if (search != null) {
+			search.cancel(false);
+			search = null;
+		}
+		turnDeadline = 0L;
+		closeMoveLog();
+		if (getState() == GameState.RUNNING) {
+			if (!isFinished()) {
+				notifyGameEnded(-1);
+			}
+			setState(GameState.WAITING);
+		}
+		removeAllPlayers();
+	}
+}
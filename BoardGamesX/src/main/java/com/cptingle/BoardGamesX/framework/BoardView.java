@@ -0,0 +1,39 @@
+package com.cptingle.BoardGamesX.framework;
+
+/**
+ * An immutable copy of the cells of a {@link Gameboard}.
+ * <p>
+ * The thread of a {@link BoardGame} publishes a new view whenever the board
+ * changed, so other threads, e.g. the main thread rendering the board, can
+ * read a consistent board without locks.
+ */
+public final class BoardView {
+	private final int[] cells;
+	private final long hash;
+
+	BoardView(Gameboard board) {
+		this.cells = new int[board.getCellCount()];
+		for (int cell = 0; cell < cells.length; cell++) {
+			cells[cell] = board.get(cell);
+		}
+		this.hash = board.getHash();
+	}
+
+	public int getCellCount() {
+		return cells.length;
+	}
+
+	/**
+	 * @return the piece in a cell, or {@link Gameboard#EMPTY}
+	 */
+	public int get(int cell) {
+		return cells[cell];
+	}
+
+	/**
+	 * @return the hash of the board when the view was taken
+	 */
+	public long getHash() {
+		return hash;
+	}
+}
@@ -1,5 +1,348 @@
 package com.cptingle.BoardGamesX.framework;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A single table of a board game.
+ * <p>
+ * Games do not schedule their own tasks. The game master advances every game
+ * once per server tick by calling {@link #tick(long)}, all in a single pass.
+ * State and player changes are reported to the {@link GameObserver}, which
+ * keeps the game master's indexes current.
+ */
 public abstract class Game {
+	private final String name;
+	private final String permission;
+	private final Map<UUID, GamePlayer> players;
+	private final GamePlayerPool pool;
+
+	private volatile GameState state;
+	private volatile int playerCount;
+	private GameObserver observer;
+	private volatile boolean dirty;
+
+	protected Game(String name) {
+		this(name, GamePlayerPool.shared());
+	}
+
+	/**
+	 * @param name the name of the game
+	 * @param pool the pool to take player sessions from
+	 */
+	protected Game(String name, GamePlayerPool pool) {
+		this.name = name;
+		this.permission = "boardgames.join." + name.toLowerCase(Locale.ROOT);
+		this.players = new LinkedHashMap<>();
+		this.pool = pool;
+		this.state = GameState.DISABLED;
+	}
+
+	/**
+	 * @return the name of the game, unique on the server
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the permission needed to join the game
+	 */
+	public String getPermission() {
+		return permission;
+	}
+
+	public GameState getState() {
+		return state;
+	}
+
+	/**
+	 * @return true, if the game is not disabled
+	 */
+	public boolean isEnabled() {
+		return state != GameState.DISABLED;
+	}
+
+	/**
+	 * Enable or disable the game. Disabling a running game ends it.
+	 */
+	public void setEnabled(boolean enabled) {
+		if (enabled == isEnabled()) {
+			return;
+		}
+		if (!enabled && state == GameState.RUNNING) {
+			forceEnd();
+		}
+		setState(enabled ? GameState.WAITING : GameState.DISABLED);
+	}
+
+	protected void setState(GameState state) {
+		GameState from = this.state;
+		if (from == state) {
+			return;
+		}
+		this.state = state;
+		markDirty();
+		if (observer != null) {
+			observer.onStateChange(this, from, state);
+		}
+	}
+
+	/**
+	 * @param observer the observer to notify of changes, or null
+	 */
+	public void setObserver(GameObserver observer) {
+		this.observer = observer;
+	}
+
+	/**
+	 * @return the players in the game, unmodifiable
+	 */
+	public Set<UUID> getPlayers() {
+		return Collections.unmodifiableSet(players.keySet());
+	}
+
+	/**
+	 * @return the number of players in the game; safe to read from any thread
+	 */
+	public int getPlayerCount() {
+		return playerCount;
+	}
+
+	/**
+	 * @return the largest number of players the game seats
+	 */
+	public int getMaxPlayers() {
+		return Integer.MAX_VALUE;
+	}
+
+	public boolean hasPlayer(UUID player) {
+		return players.containsKey(player);
+	}
+
+	/**
+	 * @return the session of a player in the game, or null
+	 */
+	public GamePlayer getGamePlayer(UUID player) {
+		return players.get(player);
+	}
+
+	/**
+	 * @return the sessions of the players in the game, in the order they
+	 *         joined, unmodifiable
+	 */
+	public Collection<GamePlayer> getGamePlayers() {
+		return Collections.unmodifiableCollection(players.values());
+	}
+
+	/**
+	 * Seat the player on the lowest free side.
+	 *
+	 * @return true, if the player was not in the game yet and a side was free
+	 */
+	public boolean addPlayer(UUID player) {
+		return addPlayer(player, freeSide());
+	}
+
+	/**
+	 * Seat the player on a side.
+	 *
+	 * @param side the side, from 0 to {@link #getMaxPlayers()}
+	 * @return true, if the player was not in the game yet and the side was free
+	 */
+	public boolean addPlayer(UUID player, int side) {
+		if (players.containsKey(player) || side < 0 || side >= getMaxPlayers() || getPlayerOnSide(side) != null) {
+			return false;
+		}
+		players.put(player, pool.acquire(this, player, side, nanoTime()));
+		playerCount = players.size();
+		markDirty();
+		if (observer != null) {
+			observer.onPlayerJoin(this, player);
+		}
+		return true;
+	}
+
+	/**
+	 * @return true, if the player was in the game
+	 */
+	public boolean removePlayer(UUID player) {
+		GamePlayer session = players.remove(player);
+		if (session == null) {
+			return false;
+		}
+		playerCount = players.size();
+		markDirty();
+		if (observer != null) {
+			observer.onPlayerLeave(this, player);
+		}
+		pool.release(session);
+		return true;
+	}
+
+	private int freeSide() {
+		int side = 0;
+		while (getPlayerOnSide(side) != null) {
+			side++;
+		}
+		return side;
+	}
+
+	/**
+	 * @return the session of the player on a side, or null if it is free
+	 */
+	public GamePlayer getPlayerOnSide(int side) {
+		for (GamePlayer session : players.values()) {
+			if (session.getSide() == side) {
+				return session;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the players by side, with null for free sides; one entry per
+	 *         side if the number of players is limited
+	 */
+	public UUID[] getPlayersBySide() {
+		int count = (getMaxPlayers() == Integer.MAX_VALUE) ? 0 : getMaxPlayers();
+		for (GamePlayer session : players.values()) {
+			count = Math.max(count, session.getSide() + 1);
+		}
+		UUID[] sides = new UUID[count];
+		for (GamePlayer session : players.values()) {
+			sides[session.getSide()] = session.getId();
+		}
+		return sides;
+	}
+
+	/**
+	 * Remove every player from the game.
+	 */
+	protected void removeAllPlayers() {
+		UUID[] all = players.keySet().toArray(new UUID[players.size()]);
+		for (UUID player : all) {
+			removePlayer(player);
+		}
+	}
+
+	/**
+	 * Report a move to the observer.
+	 *
+	 * @param side     the side that played the move
+	 * @param move     the move
+	 * @param nextSide the side to move now, or -1 if the move ended the match
+	 */
+	protected void notifyMoveMade(int side, int move, int nextSide) {
+		if (observer != null) {
+			observer.onMoveMade(this, side, move, nextSide);
+		}
+	}
+
+	/**
+	 * Report a finished search of a computer opponent to the observer.
+	 */
+	protected void notifySearchDone(int side, long nanos) {
+		if (observer != null) {
+			observer.onSearchDone(this, side, nanos);
+		}
+	}
+
+	/**
+	 * Report the end of a match to the observer.
+	 *
+	 * @param winner the side that won, or -1 for a draw or an aborted match
+	 */
+	protected void notifyGameEnded(int winner) {
+		if (observer != null) {
+			observer.onGameEnded(this, winner);
+		}
+	}
+
+	/**
+	 * @return true, if the game changed since it was last saved
+	 */
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Flag the game as changed, so it is saved soon.
+	 */
+	protected void markDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Take a snapshot of the game for saving, and clear the changed flag. Called
+	 * on the main thread.
+	 */
+	public GameSnapshot snapshot() {
+		dirty = false;
+		return new GameSnapshot(name, state, getPlayersBySide());
+	}
+
+	/**
+	 * Put the game back in the state of a saved snapshot. Called on the main
+	 * thread, after the game has been added to the game master.
+	 */
+	public void restore(GameSnapshot snapshot) {
+		removeAllPlayers();
+		UUID[] sides = snapshot.getPlayers();
+		for (int side = 0; side < sides.length; side++) {
+			if (sides[side] != null) {
+				addPlayer(sides[side], side);
+			}
+		}
+		setState(snapshot.getState());
+		dirty = false;
+	}
+
+	/**
+	 * Advance the game by one tick: check turn timers and timeouts, and apply
+	 * moves of computer opponents that are done thinking. Called on the main
+	 * thread, or on the game's thread if games run on game threads;
+	 * implementations must return quickly, and hand anything slow to a
+	 * background thread.
+	 *
+	 * @param now the {@link #nanoTime()} of the current tick
+	 */
+	public void tick(long now) {
+	}
+
+	/**
+	 * @return the current time of the game's clock, which timers and ticks
+	 *         use; {@link System#nanoTime()} unless a simulation runs the game
+	 *         on a clock of its own
+	 */
+	protected long nanoTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Called on the thread of the game when a player of this game clicks a cell
+	 * of its board in the world.
+	 *
+	 * @param player the player
+	 * @param cell   the cell, numbered like the cells of a {@link Gameboard}
+	 * @return true, if the click was used and the interaction should be cancelled
+	 */
+	public boolean onBoardClick(UUID player, int cell) {
+		return false;
+	}
+
+	/**
+	 * End the game immediately, e.g. because the plugin is disabled.
+	 */
+	public abstract void forceEnd();
 
+	@Override
+	public String toString() {
+		return name;
+	}
 }
@@ -1,5 +1,31 @@
 package com.cptingle.BoardGamesX.framework;
 
+import com.cptingle.BoardGamesX.framework.event.GameEndedEvent;
+import com.cptingle.BoardGamesX.framework.event.GameEventBus;
+import com.cptingle.BoardGamesX.framework.event.MoveMadeEvent;
+import com.cptingle.BoardGamesX.framework.event.PlayerJoinedEvent;
+import com.cptingle.BoardGamesX.framework.event.PlayerLeftEvent;
+import com.cptingle.BoardGamesX.framework.event.TurnChangedEvent;
+
+/**
+ * Receives game events from the {@link GameEventBus}. Override the methods for
+ * the events of interest; a listener is only called for the events whose
+ * methods it overrides.
+ */
 public abstract class GameListener {
 
+	public void onMoveMade(MoveMadeEvent event) {
+	}
+
+	public void onTurnChanged(TurnChangedEvent event) {
+	}
+
+	public void onPlayerJoined(PlayerJoinedEvent event) {
+	}
+
+	public void onPlayerLeft(PlayerLeftEvent event) {
+	}
+
+	public void onGameEnded(GameEndedEvent event) {
+	}
 }
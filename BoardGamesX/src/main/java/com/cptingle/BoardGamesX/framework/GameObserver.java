@@ -0,0 +1,39 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.util.UUID;
+
+/**
+ * Notified by a {@link Game} whenever its state or its players change, so
+ * indexes over games can be kept up to date without scanning, and of the
+ * progress of its matches.
+ */
+public interface GameObserver {
+
+	void onStateChange(Game game, GameState from, GameState to);
+
+	void onPlayerJoin(Game game, UUID player);
+
+	void onPlayerLeave(Game game, UUID player);
+
+	/**
+	 * @param side     the side that played the move
+	 * @param move     the move
+	 * @param nextSide the side to move now, or -1 if the move ended the match
+	 */
+	void onMoveMade(Game game, int side, int move, int nextSide);
+
+	/**
+	 * @param winner the side that won, or -1 for a draw or an aborted match
+	 */
+	void onGameEnded(Game game, int winner);
+
+	/**
+	 * A computer opponent finished thinking. Called on the main thread when the
+	 * result is picked up.
+	 *
+	 * @param side  the side the computer plays
+	 * @param nanos the time the search took
+	 */
+	default void onSearchDone(Game game, int side, long nanos) {
+	}
+}
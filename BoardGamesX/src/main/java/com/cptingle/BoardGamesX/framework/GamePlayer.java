@@ -1,5 +1,138 @@
 package com.cptingle.BoardGamesX.framework;
 
-public class GamePlayer {
+import java.util.UUID;
 
+/**
+ * The session of a player at a table, from joining until leaving.
+ * <p>
+ * Sessions are taken from and returned to a {@link GamePlayerPool}, so quick
+ * joins, leaves and rematches reuse the same objects. The side, move count and
+ * timers are primitive fields, and the player is only known by id, so a
+ * session never keeps a player who left the server in memory. A
+ * {@link BoardGame} runs the clock of the player on the side to move and
+ * counts their moves.
+ * <p>
+ * A session belongs to its game until the player leaves; do not keep a
+ * reference after that, as the object will soon stand for someone else. Used
+ * on the thread of the game only.
+ */
+public final class GamePlayer {
+	private UUID id;
+	private Game game;
+	private int generation;
+
+	private int side;
+	private int moves;
+	private long joinedNanos;
+	private long turnStartNanos;
+	private long turnNanos;
+
+	GamePlayer() {
+	}
+
+	/**
+	 * Start a session.
+	 */
+	void bind(Game game, UUID id, int side, long now) {
+		this.game = game;
+		this.id = id;
+		this.side = side;
+		this.joinedNanos = now;
+	}
+
+	/**
+	 * End the session and clear every field, before going back to the pool.
+	 */
+	void reset() {
+		id = null;
+		game = null;
+		generation++;
+		side = -1;
+		moves = 0;
+		joinedNanos = 0L;
+		turnStartNanos = 0L;
+		turnNanos = 0L;
+	}
+
+	public UUID getId() {
+		return id;
+	}
+
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * @return the number of times this object was reused, to tell sessions
+	 *         apart
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * @return true, if the object stands for a player in a game
+	 */
+	public boolean isBound() {
+		return id != null;
+	}
+
+	/**
+	 * @return the side the player plays, starting at 0; for a board game, the
+	 *         side of the board and of {@link GameRules#getWinner}
+	 */
+	public int getSide() {
+		return side;
+	}
+
+	/**
+	 * @return the number of moves the player made
+	 */
+	public int getMoves() {
+		return moves;
+	}
+
+	/*
+	 * Timers, in System.nanoTime() units
+	 */
+	public long getJoinedNanos() {
+		return joinedNanos;
+	}
+
+	/**
+	 * Start the player's clock.
+	 */
+	public void startTurn(long now) {
+		turnStartNanos = now;
+	}
+
+	/**
+	 * Stop the player's clock and count a move.
+	 */
+	public void endTurn(long now) {
+		if (turnStartNanos != 0L) {
+			turnNanos += now - turnStartNanos;
+			turnStartNanos = 0L;
+		}
+		moves++;
+	}
+
+	/**
+	 * @return true, if the player's clock is running
+	 */
+	public boolean isOnTurn() {
+		return turnStartNanos != 0L;
+	}
+
+	/**
+	 * @return the time the player spent on their moves
+	 */
+	public long getTurnNanos(long now) {
+		return (turnStartNanos == 0L) ? turnNanos : turnNanos + (now - turnStartNanos);
+	}
+
+	@Override
+	public String toString() {
+		return "GamePlayer[" + id + ", side " + side + "]";
+	}
 }
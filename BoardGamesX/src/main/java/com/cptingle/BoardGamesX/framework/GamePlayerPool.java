@@ -0,0 +1,79 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.util.UUID;
+
+/**
+ * A bounded free list of {@link GamePlayer} sessions.
+ * <p>
+ * Released sessions are cleared and kept for the next join, up to the
+ * capacity; beyond it they are left to the garbage collector. A capacity of 0
+ * disables pooling.
+ */
+public final class GamePlayerPool {
+	private static final GamePlayerPool SHARED = new GamePlayerPool(256);
+
+	private final GamePlayer[] free;
+	private int size;
+
+	private long created;
+	private long reused;
+
+	/**
+	 * @param capacity the largest number of idle sessions to keep
+	 */
+	public GamePlayerPool(int capacity) {
+		this.free = new GamePlayer[Math.max(0, capacity)];
+	}
+
+	/**
+	 * @return the pool used by games that were not given one
+	 */
+	public static GamePlayerPool shared() {
+		return SHARED;
+	}
+
+	/**
+	 * @return a session for the player at a game
+	 */
+	public synchronized GamePlayer acquire(Game game, UUID id, int side, long now) {
+		GamePlayer session;
+		if (size > 0) {
+			session = free[--size];
+			free[size] = null;
+			reused++;
+		} else {
+			session = new GamePlayer();
+			created++;
+		}
+		session.bind(game, id, side, now);
+		return session;
+	}
+
+	/**
+	 * End a session and keep it for reuse.
+	 */
+	public synchronized void release(GamePlayer session) {
+		if (!session.isBound()) {
+			throw new IllegalStateException("Session released twice");
+		}
+		session.reset();
+		if (size < free.length) {
+			free[size++] = session;
+		}
+	}
+
+	/**
+	 * @return the number of idle sessions
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	public synchronized long getCreated() {
+		return created;
+	}
+
+	public synchronized long getReused() {
+		return reused;
+	}
+}
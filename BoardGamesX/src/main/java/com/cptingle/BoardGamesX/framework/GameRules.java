@@ -0,0 +1,70 @@
+package com.cptingle.BoardGamesX.framework;
+
+/**
+ * The rules of a game played on a {@link Gameboard}.
+ * <p>
+ * Moves are encoded as ints by the rules themselves, so they can be stored in
+ * primitive arrays by searches and move logs. Rules must be stateless: all
+ * state lives on the board, including the side to move, so the same rules can
+ * be used on many boards from many threads.
+ */
+public interface GameRules {
+	/**
+	 * @return the number of sides playing the game
+	 */
+	int getSides();
+
+	/**
+	 * @return a new board in the starting position
+	 */
+	Gameboard createBoard();
+
+	/**
+	 * @param board a board
+	 * @return the largest number of moves {@link #generateMoves(Gameboard, int[])}
+	 *         can return for boards like the given one
+	 */
+	default int getMaxMoves(Gameboard board) {
+		return board.getCellCount();
+	}
+
+	/**
+	 * Generate the legal moves of the side to move.
+	 *
+	 * @param board a board
+	 * @param moves the array to put the moves in, at least
+	 *              {@link #getMaxMoves(Gameboard)} long
+	 * @return the number of moves generated
+	 */
+	int generateMoves(Gameboard board, int[] moves);
+
+	/**
+	 * Apply a legal move as a single recorded move, including passing the turn
+	 * to the next side, so {@link Gameboard#undo()} takes it back.
+	 *
+	 * @param board a board
+	 * @param move  a move returned by {@link #generateMoves(Gameboard, int[])}
+	 */
+	void makeMove(Gameboard board, int move);
+
+	/**
+	 * @param board a board
+	 * @return true, if the game on the board is over
+	 */
+	boolean isFinished(Gameboard board);
+
+	/**
+	 * @param board a finished board
+	 * @return the side that won, or -1 for a draw
+	 */
+	int getWinner(Gameboard board);
+
+	/**
+	 * Estimate how good an unfinished position is for the side to move.
+	 *
+	 * @param board a board
+	 * @return a score between -10000 and 10000, higher is better for the side to
+	 *         move
+	 */
+	int evaluate(Gameboard board);
+}
@@ -0,0 +1,180 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * The persistent state of a {@link Game} at one moment, detached from the game
+ * so it can be encoded on a background thread.
+ * <p>
+ * Snapshots are taken on the main thread, which only copies a few arrays.
+ * Games that are not played on a board leave the board fields empty. The
+ * players are kept by side, with null for free sides.
+ */
+public final class GameSnapshot {
+	private static final int MAGIC = 0x42475847; // "BGXG"
+	private static final int VERSION = 2;
+
+	private final String name;
+	private final GameState state;
+	private final UUID[] players;
+
+	// Board, if any
+	private final int width;
+	private final int height;
+	private final int pieceTypes;
+	private final int sideToMove;
+	private final int[] cells;
+	private final long turnRemaining;
+
+	public GameSnapshot(String name, GameState state, UUID[] players) {
+		this(name, state, players, 0, 0, 0, 0, null, -1L);
+	}
+
+	/**
+	 * @param turnRemaining the milliseconds left for the current turn, or -1 if
+	 *                      there is no turn timer
+	 */
+	public GameSnapshot(String name, GameState state, UUID[] players, int width, int height, int pieceTypes,
+			int sideToMove, int[] cells, long turnRemaining) {
+		this.name = name;
+		this.state = state;
+		this.players = players;
+		this.width = width;
+		this.height = height;
+		this.pieceTypes = pieceTypes;
+		this.sideToMove = sideToMove;
+		this.cells = cells;
+		this.turnRemaining = turnRemaining;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public GameState getState() {
+		return state;
+	}
+
+	/**
+	 * @return the players by side, with null for free sides
+	 */
+	public UUID[] getPlayers() {
+		return players.clone();
+	}
+
+	public boolean hasBoard() {
+		return cells != null;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getPieceTypes() {
+		return pieceTypes;
+	}
+
+	public int getSideToMove() {
+		return sideToMove;
+	}
+
+	/**
+	 * @return the piece in each cell, or null if there is no board
+	 */
+	public int[] getCells() {
+		return (cells == null) ? null : cells.clone();
+	}
+
+	public long getTurnRemaining() {
+		return turnRemaining;
+	}
+
+	/**
+	 * @return the snapshot in binary form
+	 */
+	public byte[] encode() throws IOException {
+		int size = 64 + players.length * 16 + ((cells == null) ? 0 : cells.length * 2);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeUTF(name);
+		out.writeByte(state.ordinal());
+		out.writeInt(players.length);
+		for (UUID player : players) {
+			out.writeBoolean(player != null);
+			if (player != null) {
+				out.writeLong(player.getMostSignificantBits());
+				out.writeLong(player.getLeastSignificantBits());
+			}
+		}
+
+		out.writeBoolean(cells != null);
+		if (cells != null) {
+			out.writeShort(width);
+			out.writeShort(height);
+			out.writeShort(pieceTypes);
+			out.writeByte(sideToMove);
+			for (int piece : cells) {
+				out.writeShort(piece);
+			}
+			out.writeLong(turnRemaining);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * @param data a snapshot in binary form
+	 * @return the snapshot
+	 * @throws IOException if the data is not a snapshot
+	 */
+	public static GameSnapshot decode(byte[] data) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a game snapshot");
+		}
+		int version = in.readUnsignedByte();
+		if (version < 1 || version > VERSION) {
+			throw new IOException("Unknown game snapshot version " + version);
+		}
+
+		String name = in.readUTF();
+		int state = in.readUnsignedByte();
+		if (state >= GameState.values().length) {
+			throw new IOException("Unknown game state " + state);
+		}
+		UUID[] players = new UUID[in.readInt()];
+		for (int i = 0; i < players.length; i++) {
+			// Version 1 had no free sides
+			if (version == 1 || in.readBoolean()) {
+				players[i] = new UUID(in.readLong(), in.readLong());
+			}
+		}
+
+		if (!in.readBoolean()) {
+			return new GameSnapshot(name, GameState.values()[state], players);
+		}
+		int width = in.readUnsignedShort();
+		int height = in.readUnsignedShort();
+		int pieceTypes = in.readUnsignedShort();
+		int sideToMove = in.readUnsignedByte();
+		int[] cells = new int[width * height];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = in.readUnsignedShort();
+		}
+		long turnRemaining = in.readLong();
+		return new GameSnapshot(name, GameState.values()[state], players, width, height, pieceTypes, sideToMove,
+				cells, turnRemaining);
+	}
+}
@@ -0,0 +1,20 @@
+package com.cptingle.BoardGamesX.framework;
+
+/**
+ * The lifecycle state of a {@link Game}.
+ */
+public enum GameState {
+	/** The game is switched off and cannot be joined. */
+	DISABLED,
+	/** The game is waiting for players and can be joined. */
+	WAITING,
+	/** The game is being played. */
+	RUNNING;
+
+	/**
+	 * @return true, if players can join a game in this state
+	 */
+	public boolean isJoinable() {
+		return this == WAITING;
+	}
+}
@@ -1,5 +1,362 @@
 package com.cptingle.BoardGamesX.framework;
 
+import java.util.Arrays;
+
+/**
+ * The state of a rectangular board of cells, each holding a piece type.
+ * <p>
+ * Cells are numbered row by row, so the cell at (x, y) is
+ * <code>y * width + x</code>. Piece type 0 is {@link #EMPTY}, and a board made
+ * for n piece types holds the types 1 to n.
+ * <p>
+ * Changes made between {@link #beginMove()} and {@link #endMove()} are
+ * journaled in primitive arrays and can be reverted with {@link #undo()}.
+ * Once the journal has grown to the length of a game, applying and undoing
+ * moves allocates nothing. Use {@link #create(int, int, int)} to get the most
+ * compact implementation for a board size.
+ * <p>
+ * Every board keeps a Zobrist hash of its cells and side to move, updated
+ * incrementally on every change, so positions can be identified in constant
+ * time by transposition tables and repetition checks.
+ */
 public abstract class Gameboard {
+	public static final int EMPTY = 0;
+
+	/**
+	 * The largest number of piece types any board supports.
+	 */
+	public static final int MAX_PIECE_TYPES = 0xFFFF;
+
+	/**
+	 * The largest number of cells any board supports.
+	 */
+	public static final int MAX_CELLS = 0xFFFF;
+
+	// Journal cell marking a change of the side to move
+	private static final int SIDE_ENTRY = 0xFFFF;
+
+	private final int width;
+	private final int height;
+	private final int pieceTypes;
+
+	// Journal entries are (cell << 16 | old piece), frames are journal offsets
+	private int[] journal;
+	private int journalSize;
+	private int[] frames;
+	private int frameCount;
+	private boolean inMove;
+
+	// Position identity
+	private final ZobristKeys keys;
+	private long hash;
+	private long[] history;
+	private int side;
+
+	protected Gameboard(int width, int height, int pieceTypes) {
+		if (width <= 0 || height <= 0 || (long) width * height > MAX_CELLS) {
+			throw new IllegalArgumentException("Invalid board size " + width + "x" + height);
+		}
+		if (pieceTypes <= 0 || pieceTypes > MAX_PIECE_TYPES) {
+			throw new IllegalArgumentException("Invalid number of piece types " + pieceTypes);
+		}
+		this.width = width;
+		this.height = height;
+		this.pieceTypes = pieceTypes;
+		this.journal = new int[32];
+		this.frames = new int[16];
+		this.history = new long[16];
+		this.keys = ZobristKeys.forBoard(width * height, pieceTypes);
+	}
+
+	/**
+	 * Create an empty board, backed by bitboards if it has at most 64 cells, or
+	 * by a packed array otherwise.
+	 *
+	 * @param width      the number of columns
+	 * @param height     the number of rows
+	 * @param pieceTypes the number of piece types, not counting empty
+	 * @return a new board
+	 */
+	public static Gameboard create(int width, int height, int pieceTypes) {
+		if ((long) width * height <= BitGameboard.MAX_CELLS) {
+			return new BitGameboard(width, height, pieceTypes);
+		}
+		return new ArrayGameboard(width, height, pieceTypes);
+	}
+
+	/*
+	 * Dimensions
+	 */
+	public final int getWidth() {
+		return width;
+	}
+
+	public final int getHeight() {
+		return height;
+	}
+
+	public final int getCellCount() {
+		return width * height;
+	}
+
+	public final int getPieceTypes() {
+		return pieceTypes;
+	}
+
+	/**
+	 * @param x the column
+	 * @param y the row
+	 * @return the cell number of the given coordinates
+	 */
+	public final int cell(int x, int y) {
+		return y * width + x;
+	}
+
+	/**
+	 * @return true, if the coordinates are on the board
+	 */
+	public final boolean contains(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < height;
+	}
+
+	/*
+	 * Cell access
+	 */
+	public final int get(int cell) {
+		return read(cell);
+	}
+
+	public final int get(int x, int y) {
+		return read(cell(x, y));
+	}
+
+	/**
+	 * Put a piece in a cell. Inside a move, the old piece is journaled so the
+	 * change can be undone; outside a move, the change is permanent.
+	 *
+	 * @param cell  the cell
+	 * @param piece the piece type, or {@link #EMPTY}
+	 */
+	public final void set(int cell, int piece) {
+		if (piece < 0 || piece > pieceTypes) {
+			throw new IllegalArgumentException("Invalid piece type " + piece);
+		}
+		int old = read(cell);
+		if (old == piece) {
+			return;
+		}
+		if (inMove) {
+			record(cell, old);
+		}
+		write(cell, old, piece);
+		hash ^= keys.key(cell, old) ^ keys.key(cell, piece);
+	}
+
+	public final void set(int x, int y, int piece) {
+		set(cell(x, y), piece);
+	}
+
+	/**
+	 * @return the side to move, starting at 0
+	 */
+	public final int getSideToMove() {
+		return side;
+	}
+
+	/**
+	 * Set the side to move. Like cell changes, this is journaled inside a move.
+	 *
+	 * @param side the side to move, from 0 to 65534
+	 */
+	public final void setSideToMove(int side) {
+		if (side < 0 || side >= 0xFFFF) {
+			throw new IllegalArgumentException("Invalid side " + side);
+		}
+		if (side == this.side) {
+			return;
+		}
+		if (inMove) {
+			record(SIDE_ENTRY, this.side);
+		}
+		hash ^= keys.side(this.side) ^ keys.side(side);
+		this.side = side;
+	}
+
+	private void record(int cell, int old) {
+		if (journalSize == journal.length) {
+			journal = Arrays.copyOf(journal, journal.length * 2);
+		}
+		journal[journalSize++] = (cell << 16) | old;
+	}
+
+	/*
+	 * Position identity
+	 */
+
+	/**
+	 * @return the Zobrist hash of the cells and the side to move
+	 */
+	public final long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Count how often the current position occurred before, among the
+	 * positions before each recorded move.
+	 *
+	 * @return the number of earlier occurrences of the current position
+	 */
+	public final int countRepetitions() {
+		int count = 0;
+		for (int i = frameCount - 1; i >= 0; i--) {
+			if (history[i] == hash) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Moves
+	 */
+
+	/**
+	 * Start recording a move. Every change until {@link #endMove()} is undone
+	 * together.
+	 */
+	public final void beginMove() {
+		if (inMove) {
+			throw new IllegalStateException("Move already in progress");
+		}
+		if (frameCount == frames.length) {
+			frames = Arrays.copyOf(frames, frames.length * 2);
+			history = Arrays.copyOf(history, history.length * 2);
+		}
+		history[frameCount] = hash;
+		frames[frameCount++] = journalSize;
+		inMove = true;
+	}
+
+	/**
+	 * Finish recording a move.
+	 */
+	public final void endMove() {
+		if (!inMove) {
+			throw new IllegalStateException("No move in progress");
+		}
+		inMove = false;
+	}
+
+	/**
+	 * Revert the last recorded move. If a move is still being recorded, the
+	 * changes made so far are reverted and the move is ended.
+	 *
+	 * @return true, if a move was undone, false if there was nothing to undo
+	 */
+	public final boolean undo() {
+		if (frameCount == 0) {
+			return false;
+		}
+		int start = frames[--frameCount];
+		while (journalSize > start) {
+			int entry = journal[--journalSize];
+			int cell = entry >>> 16;
+			int old = entry & 0xFFFF;
+			if (cell == SIDE_ENTRY) {
+				side = old;
+				continue;
+			}
+			int current = read(cell);
+			write(cell, current, old);
+		}
+		hash = history[frameCount];
+		inMove = false;
+		return true;
+	}
+
+	/**
+	 * @return the number of recorded moves that can be undone
+	 */
+	public final int getMoveCount() {
+		return frameCount;
+	}
+
+	/**
+	 * @return true, if a move is being recorded
+	 */
+	public final boolean isInMove() {
+		return inMove;
+	}
+
+	/**
+	 * Empty every cell and forget all recorded moves.
+	 */
+	public void clear() {
+		for (int cell = 0; cell < getCellCount(); cell++) {
+			int old = read(cell);
+			if (old != EMPTY) {
+				write(cell, old, EMPTY);
+			}
+		}
+		journalSize = 0;
+		frameCount = 0;
+		inMove = false;
+		side = 0;
+		hash = 0L;
+	}
+
+	/**
+	 * Copy the cells of another board of the same size into this one, and
+	 * forget all recorded moves.
+	 *
+	 * @param other a board of the same dimensions
+	 */
+	public void copyFrom(Gameboard other) {
+		if (other.width != width || other.height != height || other.pieceTypes != pieceTypes) {
+			throw new IllegalArgumentException("Board dimensions differ");
+		}
+		for (int cell = 0; cell < getCellCount(); cell++) {
+			int old = read(cell);
+			int piece = other.read(cell);
+			if (old != piece) {
+				write(cell, old, piece);
+			}
+		}
+		journalSize = 0;
+		frameCount = 0;
+		inMove = false;
+		side = other.side;
+		hash = other.hash;
+	}
+
+	/**
+	 * @return a new board with the same cells and side to move, and no recorded
+	 *         moves
+	 */
+	public abstract Gameboard copy();
+
+	/**
+	 * Called by {@link #copy()} implementations once the cells of a copy have
+	 * been filled in, to carry over the side to move and hash.
+	 *
+	 * @param source the board that was copied
+	 */
+	protected final void copied(Gameboard source) {
+		side = source.side;
+		hash = source.hash;
+	}
+
+	/**
+	 * Read the piece in a cell.
+	 */
+	protected abstract int read(int cell);
 
+	/**
+	 * Replace the piece in a cell.
+	 *
+	 * @param cell     the cell
+	 * @param oldPiece the piece currently in the cell
+	 * @param newPiece the piece to put in the cell
+	 */
+	protected abstract void write(int cell, int oldPiece, int newPiece);
 }
@@ -0,0 +1,168 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, lock-free transposition table keyed by {@link Gameboard#getHash()}.
+ * <p>
+ * Entries live in a single <code>long[]</code>, two longs per entry: the key
+ * XOR the data, and the data. A reader only accepts an entry if the two longs
+ * XOR back to its key, so entries torn by concurrent writers are treated as
+ * misses instead of corrupting a search. Entries are grouped in buckets of two:
+ * the first slot keeps the deepest result (unless it is from an older search),
+ * the second slot is always replaced.
+ * <p>
+ * The data of an entry packs the best move (32 bits), score (16 bits, signed),
+ * depth (8 bits), bound type (2 bits) and search age (6 bits).
+ */
+public class TranspositionTable {
+	public static final int EXACT = 1;
+	public static final int LOWER = 2;
+	public static final int UPPER = 3;
+
+	private static final int LONGS_PER_BUCKET = 4;
+
+	private final long[] table;
+	private final int bucketMask;
+	private int age;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder collisions = new LongAdder();
+	private final LongAdder stores = new LongAdder();
+
+	/**
+	 * @param sizeMb the size of the table in megabytes, rounded down to a power
+	 *               of two number of buckets
+	 */
+	public TranspositionTable(int sizeMb) {
+		long bytes = Math.max(1, sizeMb) * 1024L * 1024L;
+		long buckets = Long.highestOneBit(bytes / (LONGS_PER_BUCKET * 8));
+		buckets = Math.min(buckets, 1L << 28);
+		this.table = new long[(int) buckets * LONGS_PER_BUCKET];
+		this.bucketMask = (int) buckets - 1;
+	}
+
+	/**
+	 * Look up a position.
+	 *
+	 * @param key the hash of the position
+	 * @return the data of the entry, or 0 if the position is not in the table
+	 */
+	public long probe(long key) {
+		int index = ((int) key & bucketMask) * LONGS_PER_BUCKET;
+		for (int slot = index; slot < index + LONGS_PER_BUCKET; slot += 2) {
+			long data = table[slot + 1];
+			if (data != 0L && (table[slot] ^ data) == key) {
+				hits.increment();
+				return data;
+			}
+		}
+		misses.increment();
+		if (table[index + 1] != 0L || table[index + 3] != 0L) {
+			collisions.increment();
+		}
+		return 0L;
+	}
+
+	/**
+	 * Store the result of searching a position.
+	 *
+	 * @param key   the hash of the position
+	 * @param move  the best move found, or 0
+	 * @param score the score, between -32768 and 32767
+	 * @param depth the depth searched, between 0 and 255
+	 * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+	 */
+	public void store(long key, int move, int score, int depth, int bound) {
+		long data = pack(move, score, depth, bound, age);
+		int index = ((int) key & bucketMask) * LONGS_PER_BUCKET;
+
+		// Depth-preferred slot: take it if it is empty, the same position, stale
+		// or shallower, otherwise fall back to the always-replace slot
+		long first = table[index + 1];
+		boolean replaceFirst = first == 0L || (table[index] ^ first) == key || age(first) != age
+				|| depth >= depth(first);
+		int slot = replaceFirst ? index : index + 2;
+
+		table[slot] = key ^ data;
+		table[slot + 1] = data;
+		stores.increment();
+	}
+
+	/**
+	 * Start a new search. Entries from earlier searches are replaced first.
+	 */
+	public void newSearch() {
+		age = (age + 1) & 0x3F;
+	}
+
+	/**
+	 * Empty the table and reset the counters.
+	 */
+	public void clear() {
+		Arrays.fill(table, 0L);
+		hits.reset();
+		misses.reset();
+		collisions.reset();
+		stores.reset();
+	}
+
+	/**
+	 * @return the number of entries the table can hold
+	 */
+	public int capacity() {
+		return table.length / 2;
+	}
+
+	/*
+	 * Entry data
+	 */
+	static long pack(int move, int score, int depth, int bound, int age) {
+		return (move & 0xFFFFFFFFL) | ((long) (score & 0xFFFF) << 32) | ((long) (depth & 0xFF) << 48)
+				| ((long) (bound & 0x3) << 56) | ((long) (age & 0x3F) << 58);
+	}
+
+	public static int move(long data) {
+		return (int) data;
+	}
+
+	public static int score(long data) {
+		return (short) (data >>> 32);
+	}
+
+	public static int depth(long data) {
+		return (int) (data >>> 48) & 0xFF;
+	}
+
+	public static int bound(long data) {
+		return (int) (data >>> 56) & 0x3;
+	}
+
+	static int age(long data) {
+		return (int) (data >>> 58) & 0x3F;
+	}
+
+	/*
+	 * Counters
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of misses where the bucket held other positions
+	 */
+	public long getCollisions() {
+		return collisions.sum();
+	}
+
+	public long getStores() {
+		return stores.sum();
+	}
+}
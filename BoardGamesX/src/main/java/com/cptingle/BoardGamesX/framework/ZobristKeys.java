@@ -0,0 +1,87 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random keys for Zobrist hashing of board positions.
+ * <p>
+ * The hash of a position is the XOR of the keys of every (cell, piece) pair on
+ * the board and the key of the side to move, so a move updates it with one
+ * XOR per changed cell. Empty cells have key 0. Keys are deterministic, so the
+ * same position hashes the same across restarts and servers.
+ */
+public final class ZobristKeys {
+	// Keep tables below 8 MB, compute keys on the fly for huge boards
+	private static final int MAX_TABLE_SIZE = 1 << 20;
+	private static final long SEED = 0x9E3779B97F4A7C15L;
+
+	private static final ConcurrentHashMap<Long, ZobristKeys> CACHE = new ConcurrentHashMap<>();
+
+	private final int pieceTypes;
+	private final long[] keys;
+
+	private ZobristKeys(int cells, int pieceTypes) {
+		this.pieceTypes = pieceTypes;
+
+		long size = (long) cells * pieceTypes;
+		if (size <= MAX_TABLE_SIZE) {
+			keys = new long[(int) size];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = mix((i + 1L) * SEED);
+			}
+		} else {
+			keys = null;
+		}
+	}
+
+	/**
+	 * Get the shared keys for boards of the given size.
+	 *
+	 * @param cells      the number of cells
+	 * @param pieceTypes the number of piece types, not counting empty
+	 * @return the keys
+	 */
+	public static ZobristKeys forBoard(int cells, int pieceTypes) {
+		Long id = ((long) cells << 32) | pieceTypes;
+		ZobristKeys keys = CACHE.get(id);
+		if (keys == null) {
+			ZobristKeys created = new ZobristKeys(cells, pieceTypes);
+			keys = CACHE.putIfAbsent(id, created);
+			if (keys == null) {
+				keys = created;
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * @param cell  a cell
+	 * @param piece a piece type
+	 * @return the key of the piece type in the cell, 0 for empty cells
+	 */
+	public long key(int cell, int piece) {
+		if (piece == Gameboard.EMPTY) {
+			return 0L;
+		}
+		int index = cell * pieceTypes + piece - 1;
+		return (keys != null) ? keys[index] : mix((index + 1L) * SEED);
+	}
+
+	/**
+	 * @param side a side, starting at 0
+	 * @return the key of the side to move, 0 for side 0
+	 */
+	public long side(int side) {
+		return (side == 0) ? 0L : mix(-side * SEED);
+	}
+
+	/**
+	 * The SplitMix64 finalizer. Mixing multiples of the golden gamma gives the
+	 * SplitMix64 sequence.
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,251 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * Base class of engines that search with a fixed number of threads on a
+ * {@link ForkJoinPool}.
+ * <p>
+ * A search runs one worker on the calling thread and the others on the pool,
+ * each on its own copy of the board. The calling worker owns the clock: once
+ * it is done, the other workers are told to stop. Helpers that have not
+ * started by then are skipped rather than waited for, so a search returns on
+ * time even when the pool is busy with the helpers of other searches.
+ * Background searches run their calling worker on threads of their own, never
+ * on the pool, so they cannot end up waiting for helpers queued behind
+ * themselves.
+ */
+public abstract class AbstractSearchEngine implements SearchEngine {
+	private final int threads;
+	private final ForkJoinPool pool;
+	private final ExecutorService searches;
+
+	protected AbstractSearchEngine(int threads) {
+		this.threads = Math.max(1, threads);
+		String name = getClass().getSimpleName();
+		this.pool = new ForkJoinPool(this.threads, new WorkerThreadFactory(name), null, false);
+		this.searches = Executors.newFixedThreadPool(this.threads, new SearchThreadFactory(name));
+	}
+
+	@Override
+	public SearchResult search(GameRules rules, Gameboard board, SearchLimits limits) {
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(limits.getMillis());
+		Search search = createSearch(rules, limits, deadline);
+
+		// Helpers first, so they get going while this thread searches
+		List<Helper> helpers = new ArrayList<>(threads - 1);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(threads - 1);
+		for (int i = 1; i < threads; i++) {
+			Helper helper = new Helper(search.createWorker(i, board.copy()));
+			helpers.add(helper);
+			tasks.add(pool.submit(helper));
+		}
+
+		Worker main = search.createWorker(0, board.copy());
+		try {
+			main.run();
+		} finally {
+			search.stop();
+			// Only running helpers are waited for; queued ones would make us late
+			for (int i = 0; i < helpers.size(); i++) {
+				if (helpers.get(i).skip()) {
+					tasks.get(i).cancel(false);
+				} else {
+					tasks.get(i).join();
+				}
+			}
+		}
+		try {
+			return search.result(System.nanoTime() - start);
+		} finally {
+			search.release();
+		}
+	}
+
+	@Override
+	public CompletableFuture<SearchResult> searchAsync(final GameRules rules, Gameboard board,
+			final SearchLimits limits) {
+		final Gameboard copy = board.copy();
+		final CompletableFuture<SearchResult> future = new CompletableFuture<>();
+		searches.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					future.complete(search(rules, copy, limits));
+				} catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+			}
+		});
+		return future;
+	}
+
+	@Override
+	public int getThreads() {
+		return threads;
+	}
+
+	@Override
+	public void shutdown() {
+		searches.shutdownNow();
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Create the shared state of a single search.
+	 *
+	 * @param rules    the rules of the game
+	 * @param limits   the limits of the search
+	 * @param deadline the {@link System#nanoTime()} at which to stop
+	 * @return the search
+	 */
+	protected abstract Search createSearch(GameRules rules, SearchLimits limits, long deadline);
+
+	/**
+	 * The state shared by the workers of a single search.
+	 */
+	protected abstract static class Search {
+		protected final GameRules rules;
+		protected final SearchLimits limits;
+		protected final long deadline;
+		private volatile boolean stopped;
+
+		protected Search(GameRules rules, SearchLimits limits, long deadline) {
+			this.rules = rules;
+			this.limits = limits;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * @return true, if the workers should stop
+		 */
+		protected final boolean isStopped() {
+			return stopped;
+		}
+
+		/**
+		 * Tell all workers to stop.
+		 */
+		protected final void stop() {
+			stopped = true;
+		}
+
+		/**
+		 * Check the clock and stop the search if the budget ran out.
+		 *
+		 * @return true, if the workers should stop
+		 */
+		protected final boolean checkTime() {
+			if (!stopped && System.nanoTime() - deadline >= 0) {
+				stopped = true;
+			}
+			return stopped;
+		}
+
+		/**
+		 * @param index the index of the worker, 0 being the main worker
+		 * @param board the worker's own copy of the board
+		 * @return a new worker
+		 */
+		protected abstract Worker createWorker(int index, Gameboard board);
+
+		/**
+		 * Combine the results of all workers, after they have stopped.
+		 *
+		 * @param nanos the time the search took
+		 * @return the result
+		 */
+		protected abstract SearchResult result(long nanos);
+
+		/**
+		 * Give back what the search borrowed from the engine, after the
+		 * result was taken. Not called if a worker failed.
+		 */
+		protected void release() {
+		}
+	}
+
+	/**
+	 * A single search thread.
+	 */
+	protected interface Worker extends Runnable {
+	}
+
+	/**
+	 * A worker run on the pool, unless the search is over before it starts.
+	 */
+	private static final class Helper implements Callable<Void> {
+		private final Worker worker;
+
+		// Taken by whoever comes first: the pool to run it, or the search to skip it
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		Helper(Worker worker) {
+			this.worker = worker;
+		}
+
+		@Override
+		public Void call() {
+			if (claimed.compareAndSet(false, true)) {
+				worker.run();
+			}
+			return null;
+		}
+
+		/**
+		 * @return true, if the helper had not started and never will
+		 */
+		boolean skip() {
+			return claimed.compareAndSet(false, true);
+		}
+	}
+
+	private static class SearchThreadFactory implements ThreadFactory {
+		private final String name;
+		private final AtomicInteger count = new AtomicInteger();
+
+		SearchThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "BoardGamesX-" + name + "-Search-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	private static class WorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+		private final String name;
+
+		WorkerThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {
+			};
+			thread.setName("BoardGamesX-" + name + "-" + thread.getPoolIndex());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
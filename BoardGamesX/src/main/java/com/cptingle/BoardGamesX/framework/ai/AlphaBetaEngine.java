@@ -0,0 +1,253 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.framework.TranspositionTable;
+
+/**
+ * Iterative deepening alpha-beta search, parallelized with Lazy SMP.
+ * <p>
+ * Every worker runs its own iterative deepening loop on the same root, and
+ * they share results only through the transposition table. Half of the helper
+ * workers start one iteration deeper than the main worker, which spreads them
+ * over the tree. The result is the best move of the deepest iteration any
+ * worker completed.
+ * <p>
+ * Every search has a transposition table of its own, so searches of different
+ * games never see each other's positions, whose hashes only depend on the size
+ * of the board. Tables are emptied and reused by later searches.
+ */
+public class AlphaBetaEngine extends AbstractSearchEngine {
+	public static final int WIN = 30000;
+	private static final int INFINITY = 32000;
+	private static final int MAX_PLY = 128;
+
+	// Scores this close to WIN are wins at a known distance
+	private static final int WIN_THRESHOLD = WIN - MAX_PLY;
+
+	private final int tableMb;
+
+	// Tables of finished searches
+	private final ConcurrentLinkedQueue<TranspositionTable> tables;
+
+	/**
+	 * @param threads the number of threads per search
+	 * @param tableMb the size of the transposition table of a search in
+	 *                megabytes
+	 */
+	public AlphaBetaEngine(int threads, int tableMb) {
+		super(threads);
+		this.tableMb = tableMb;
+		this.tables = new ConcurrentLinkedQueue<>();
+	}
+
+	@Override
+	protected Search createSearch(GameRules rules, SearchLimits limits, long deadline) {
+		TranspositionTable table = tables.poll();
+		if (table == null) {
+			table = new TranspositionTable(tableMb);
+		} else {
+			table.clear();
+		}
+		return new AlphaBetaSearch(rules, limits, deadline, getThreads(), table);
+	}
+
+	private class AlphaBetaSearch extends Search {
+		private final AlphaBetaWorker[] workers;
+		private final TranspositionTable table;
+
+		AlphaBetaSearch(GameRules rules, SearchLimits limits, long deadline, int threads,
+				TranspositionTable table) {
+			super(rules, limits, deadline);
+			this.workers = new AlphaBetaWorker[threads];
+			this.table = table;
+		}
+
+		@Override
+		protected void release() {
+			tables.offer(table);
+		}
+
+		@Override
+		protected Worker createWorker(int index, Gameboard board) {
+			AlphaBetaWorker worker = new AlphaBetaWorker(this, board, (index % 2 == 1) ? 1 : 0);
+			workers[index] = worker;
+			return worker;
+		}
+
+		@Override
+		protected SearchResult result(long nanos) {
+			AlphaBetaWorker best = workers[0];
+			long nodes = 0;
+			for (AlphaBetaWorker worker : workers) {
+				if (worker == null) {
+					continue;
+				}
+				nodes += worker.nodes;
+				if (worker.completedDepth > best.completedDepth) {
+					best = worker;
+				}
+			}
+			return new SearchResult(best.completedMove, best.completedScore, best.completedDepth, nodes, nanos);
+		}
+	}
+
+	private class AlphaBetaWorker implements Worker {
+		private final AlphaBetaSearch search;
+		private final GameRules rules;
+		private final TranspositionTable table;
+		private final Gameboard board;
+		private final int depthOffset;
+		private final int[][] moves;
+
+		private long nodes;
+		private int rootMove;
+		private int completedDepth;
+		private int completedMove = SearchResult.NO_MOVE;
+		private int completedScore;
+
+		AlphaBetaWorker(AlphaBetaSearch search, Gameboard board, int depthOffset) {
+			this.search = search;
+			this.rules = search.rules;
+			this.table = search.table;
+			this.board = board;
+			this.depthOffset = depthOffset;
+			this.moves = new int[MAX_PLY + 1][rules.getMaxMoves(board)];
+		}
+
+		@Override
+		public void run() {
+			// Always have a legal move to fall back on
+			int count = rules.generateMoves(board, moves[0]);
+			if (count == 0 || rules.isFinished(board)) {
+				return;
+			}
+			completedMove = moves[0][0];
+
+			int maxDepth = Math.min(search.limits.getMaxDepth(), MAX_PLY);
+			for (int depth = 1 + depthOffset; depth <= maxDepth; depth++) {
+				int score = negamax(depth, -INFINITY, INFINITY, 0);
+				if (search.isStopped()) {
+					break;
+				}
+				completedDepth = depth;
+				completedMove = rootMove;
+				completedScore = score;
+
+				// No point searching deeper than a forced result
+				if (Math.abs(score) >= WIN_THRESHOLD) {
+					break;
+				}
+			}
+		}
+
+		private int negamax(int depth, int alpha, int beta, int ply) {
+			if ((++nodes & 1023) == 0 && search.checkTime()) {
+				return 0;
+			}
+			if (search.isStopped()) {
+				return 0;
+			}
+
+			if (rules.isFinished(board)) {
+				int winner = rules.getWinner(board);
+				if (winner < 0) {
+					return 0;
+				}
+				return (winner == board.getSideToMove()) ? WIN - ply : -(WIN - ply);
+			}
+			if (depth == 0 || ply >= MAX_PLY) {
+				return rules.evaluate(board);
+			}
+
+			// Probe the table for a cutoff or at least a good first move
+			int alphaOrig = alpha;
+			long key = board.getHash();
+			long data = table.probe(key);
+			int ttMove = SearchResult.NO_MOVE;
+			if (data != 0L) {
+				ttMove = TranspositionTable.move(data);
+				if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+					int score = fromTable(TranspositionTable.score(data), ply);
+					int bound = TranspositionTable.bound(data);
+					if (bound == TranspositionTable.EXACT) {
+						return score;
+					} else if (bound == TranspositionTable.LOWER) {
+						alpha = Math.max(alpha, score);
+					} else {
+						beta = Math.min(beta, score);
+					}
+					if (alpha >= beta) {
+						return score;
+					}
+				}
+			}
+
+			int[] list = moves[ply];
+			int count = rules.generateMoves(board, list);
+			if (count == 0) {
+				return rules.evaluate(board);
+			}
+			for (int i = 1; i < count; i++) {
+				if (list[i] == ttMove) {
+					list[i] = list[0];
+					list[0] = ttMove;
+					break;
+				}
+			}
+
+			int best = -INFINITY;
+			int bestMove = list[0];
+			for (int i = 0; i < count; i++) {
+				rules.makeMove(board, list[i]);
+				int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+				board.undo();
+				if (search.isStopped()) {
+					return 0;
+				}
+
+				if (score > best) {
+					best = score;
+					bestMove = list[i];
+					if (score > alpha) {
+						alpha = score;
+					}
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+
+			int bound = (best <= alphaOrig) ? TranspositionTable.UPPER
+					: (best >= beta) ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+			table.store(key, bestMove, toTable(best, ply), depth, bound);
+			if (ply == 0) {
+				rootMove = bestMove;
+			}
+			return best;
+		}
+	}
+
+	/**
+	 * Win scores are stored relative to the position, not the root.
+	 */
+	private static int toTable(int score, int ply) {
+		if (score >= WIN_THRESHOLD) {
+			return score + ply;
+		} else if (score <= -WIN_THRESHOLD) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= WIN_THRESHOLD) {
+			return score - ply;
+		} else if (score <= -WIN_THRESHOLD) {
+			return score + ply;
+		}
+		return score;
+	}
+}
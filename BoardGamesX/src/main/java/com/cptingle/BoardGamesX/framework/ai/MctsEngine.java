@@ -0,0 +1,236 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+import java.util.SplittableRandom;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * Monte Carlo tree search with UCT selection, parallelized at the root.
+ * <p>
+ * Every worker grows its own tree from the same root until the budget runs
+ * out, and the visit counts of the root moves are summed over all trees. The
+ * move visited most often wins. This needs no shared state between workers,
+ * and suits games without a good evaluation function.
+ */
+public class MctsEngine extends AbstractSearchEngine {
+	private static final double EXPLORATION = Math.sqrt(2.0);
+	private static final int MAX_PLAYOUT = 512;
+
+	/**
+	 * @param threads the number of threads per search
+	 */
+	public MctsEngine(int threads) {
+		super(threads);
+	}
+
+	@Override
+	protected Search createSearch(GameRules rules, SearchLimits limits, long deadline) {
+		return new MctsSearch(rules, limits, deadline, getThreads());
+	}
+
+	private static class MctsSearch extends Search {
+		private final MctsWorker[] workers;
+
+		MctsSearch(GameRules rules, SearchLimits limits, long deadline, int threads) {
+			super(rules, limits, deadline);
+			this.workers = new MctsWorker[threads];
+		}
+
+		@Override
+		protected Worker createWorker(int index, Gameboard board) {
+			MctsWorker worker = new MctsWorker(this, board, index);
+			workers[index] = worker;
+			return worker;
+		}
+
+		@Override
+		protected SearchResult result(long nanos) {
+			// Root moves are generated in the same order on every copy
+			Node root = workers[0].root;
+			if (root == null || root.children.length == 0) {
+				return new SearchResult(SearchResult.NO_MOVE, 0, 0, workers[0].nodes, nanos);
+			}
+
+			long nodes = 0;
+			int playouts = 0;
+			long[] visits = new long[root.children.length];
+			double[] wins = new double[root.children.length];
+			for (MctsWorker worker : workers) {
+				if (worker == null || worker.root == null) {
+					continue;
+				}
+				nodes += worker.nodes;
+				playouts += worker.root.visits;
+				for (int i = 0; i < worker.root.childCount; i++) {
+					Node child = worker.root.children[i];
+					visits[child.index] += child.visits;
+					wins[child.index] += child.wins;
+				}
+			}
+
+			int best = 0;
+			for (int i = 1; i < visits.length; i++) {
+				if (visits[i] > visits[best]) {
+					best = i;
+				}
+			}
+
+			// Report the win rate as a score between -10000 and 10000
+			int score = (visits[best] == 0) ? 0 : (int) ((wins[best] / visits[best] * 2.0 - 1.0) * 10000);
+			return new SearchResult(root.moves[best], score, playouts / workers.length, nodes, nanos);
+		}
+	}
+
+	private static class MctsWorker implements Worker {
+		private final MctsSearch search;
+		private final GameRules rules;
+		private final Gameboard board;
+		private final SplittableRandom random;
+		private final int[] buffer;
+
+		private Node root;
+		private long nodes;
+
+		MctsWorker(MctsSearch search, Gameboard board, int index) {
+			this.search = search;
+			this.rules = search.rules;
+			this.board = board;
+			this.random = new SplittableRandom(board.getHash() ^ (0x9E3779B97F4A7C15L * (index + 1)));
+			this.buffer = new int[rules.getMaxMoves(board)];
+		}
+
+		@Override
+		public void run() {
+			if (rules.isFinished(board)) {
+				return;
+			}
+			root = new Node(null, -1, 0, -1, createMoves());
+
+			int iterations = 0;
+			while (!search.isStopped()) {
+				if ((++iterations & 15) == 0 && search.checkTime()) {
+					break;
+				}
+				iterate();
+			}
+		}
+
+		private int[] createMoves() {
+			int count = rules.generateMoves(board, buffer);
+			int[] moves = new int[count];
+			System.arraycopy(buffer, 0, moves, 0, count);
+			return moves;
+		}
+
+		/**
+		 * One round of selection, expansion, playout and backpropagation.
+		 */
+		private void iterate() {
+			int depth = 0;
+			Node node = root;
+
+			// Selection
+			while (node.untried == 0 && node.childCount > 0) {
+				node = node.select();
+				rules.makeMove(board, node.move);
+				depth++;
+			}
+
+			// Expansion
+			if (node.untried > 0 && !rules.isFinished(board)) {
+				int pick = random.nextInt(node.untried);
+				int index = node.order[pick];
+				node.order[pick] = node.order[--node.untried];
+
+				int mover = board.getSideToMove();
+				rules.makeMove(board, node.moves[index]);
+				depth++;
+				Node child = new Node(node, node.moves[index], mover, index,
+						rules.isFinished(board) ? new int[0] : createMoves());
+				node.children[node.childCount++] = child;
+				node = child;
+			}
+			nodes += depth;
+
+			// Playout
+			int played = 0;
+			while (played < MAX_PLAYOUT && !rules.isFinished(board)) {
+				int count = rules.generateMoves(board, buffer);
+				if (count == 0) {
+					break;
+				}
+				rules.makeMove(board, buffer[random.nextInt(count)]);
+				played++;
+			}
+			nodes += played;
+			int winner = rules.isFinished(board) ? rules.getWinner(board) : -1;
+
+			for (int i = 0; i < played + depth; i++) {
+				board.undo();
+			}
+
+			// Backpropagation
+			for (Node n = node; n != null; n = n.parent) {
+				n.visits++;
+				if (winner < 0) {
+					n.wins += 0.5;
+				} else if (winner == n.mover) {
+					n.wins += 1.0;
+				}
+			}
+		}
+	}
+
+	private static class Node {
+		private final Node parent;
+		private final int move;
+		private final int mover;
+		private final int index;
+
+		private final int[] moves;
+		private final int[] order;
+		private int untried;
+		private final Node[] children;
+		private int childCount;
+
+		private int visits;
+		private double wins;
+
+		/**
+		 * @param parent the parent node
+		 * @param move   the move leading here
+		 * @param mover  the side that made the move
+		 * @param index  the index of the move among the parent's moves
+		 * @param moves  the legal moves from here
+		 */
+		Node(Node parent, int move, int mover, int index, int[] moves) {
+			this.parent = parent;
+			this.move = move;
+			this.mover = mover;
+			this.index = index;
+			this.moves = moves;
+			this.order = new int[moves.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			this.untried = moves.length;
+			this.children = new Node[moves.length];
+		}
+
+		Node select() {
+			double logVisits = Math.log(visits);
+			Node best = null;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < childCount; i++) {
+				Node child = children[i];
+				double value = child.wins / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+				if (value > bestValue) {
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+	}
+}
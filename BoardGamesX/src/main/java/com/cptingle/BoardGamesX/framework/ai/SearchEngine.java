@@ -0,0 +1,46 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * A computer opponent that picks moves for any {@link GameRules}.
+ * <p>
+ * Engines never modify the board they are given; every search thread works on
+ * its own copy.
+ */
+public interface SearchEngine {
+	/**
+	 * Search for the best move of the side to move, blocking until the search
+	 * is done or its time budget runs out.
+	 *
+	 * @param rules  the rules of the game
+	 * @param board  the position to search
+	 * @param limits the limits of the search
+	 * @return the result of the search
+	 */
+	SearchResult search(GameRules rules, Gameboard board, SearchLimits limits);
+
+	/**
+	 * Start a search in the background. The board is copied before this method
+	 * returns, so the caller may keep changing it.
+	 *
+	 * @param rules  the rules of the game
+	 * @param board  the position to search
+	 * @param limits the limits of the search
+	 * @return a future completed with the result of the search
+	 */
+	CompletableFuture<SearchResult> searchAsync(GameRules rules, Gameboard board, SearchLimits limits);
+
+	/**
+	 * @return the number of threads each search uses
+	 */
+	int getThreads();
+
+	/**
+	 * Stop the threads of the engine.
+	 */
+	void shutdown();
+}
@@ -0,0 +1,41 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+/**
+ * The limits of a single search.
+ * <p>
+ * The time budget is hard: a search returns the best move of the last
+ * completed iteration once the budget runs out, so a search started on the
+ * main thread with a budget below the tick window never causes lag.
+ */
+public final class SearchLimits {
+	private final long millis;
+	private final int maxDepth;
+
+	/**
+	 * @param millis   the time budget in milliseconds
+	 * @param maxDepth the deepest iteration to search, or 0 for no limit
+	 */
+	public SearchLimits(long millis, int maxDepth) {
+		if (millis <= 0) {
+			throw new IllegalArgumentException("Time budget must be positive");
+		}
+		this.millis = millis;
+		this.maxDepth = (maxDepth <= 0) ? 64 : Math.min(maxDepth, 64);
+	}
+
+	/**
+	 * @param millis the time budget in milliseconds
+	 * @return limits with only a time budget
+	 */
+	public static SearchLimits millis(long millis) {
+		return new SearchLimits(millis, 0);
+	}
+
+	public long getMillis() {
+		return millis;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+}
@@ -0,0 +1,66 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+/**
+ * The outcome of a search.
+ */
+public final class SearchResult {
+	public static final int NO_MOVE = Integer.MIN_VALUE;
+
+	private final int move;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+	private final long nanos;
+
+	public SearchResult(int move, int score, int depth, long nodes, long nanos) {
+		this.move = move;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return the best move found, or {@link #NO_MOVE} if there were no legal moves
+	 */
+	public int getMove() {
+		return move;
+	}
+
+	public boolean hasMove() {
+		return move != NO_MOVE;
+	}
+
+	/**
+	 * @return the score of the move, from the point of view of the side to move
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the deepest completed iteration, or the number of playouts per
+	 *         thread for MCTS
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the number of positions visited, across all threads
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return the number of positions visited per second
+	 */
+	public long getNodesPerSecond() {
+		return (nanos == 0) ? 0 : nodes * 1_000_000_000L / nanos;
+	}
+}
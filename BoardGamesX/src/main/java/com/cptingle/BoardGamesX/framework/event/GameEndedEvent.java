@@ -0,0 +1,76 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import java.util.UUID;
+
+import com.cptingle.BoardGamesX.framework.BoardGame;
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GameListener;
+
+/**
+ * A match is over.
+ * <p>
+ * The players by side and whether the match was aborted are taken when the match ends,
+ * so they are right even if the event is delivered later, e.g. after the game
+ * thread already moved on.
+ */
+public final class GameEndedEvent extends GameEvent {
+	private static final UUID[] NO_PLAYERS = new UUID[0];
+
+	int winner;
+	UUID[] sides = NO_PLAYERS;
+	boolean aborted;
+
+	GameEndedEvent() {
+		super(GameEventType.GAME_ENDED);
+	}
+
+	/**
+	 * @return the side that won, or -1 for a draw or an aborted match
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * @return the players of the match by side, with null for free sides; the
+	 *         index matches {@link #getWinner()}
+	 */
+	public UUID[] getPlayersBySide() {
+		return sides;
+	}
+
+	/**
+	 * @return true, if the match was ended before it was decided
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * @return true, if the game is a board game whose match is not decided
+	 */
+	public static boolean isAborted(Game game) {
+		return game instanceof BoardGame && !((BoardGame) game).isFinished();
+	}
+
+	@Override
+	void dispatch(GameListener listener) {
+		listener.onGameEnded(this);
+	}
+
+	@Override
+	GameEvent copy() {
+		GameEndedEvent copy = new GameEndedEvent();
+		copy.game = game;
+		copy.winner = winner;
+		copy.sides = sides;
+		copy.aborted = aborted;
+		return copy;
+	}
+
+	@Override
+	void clear() {
+		super.clear();
+		sides = NO_PLAYERS;
+	}
+}
@@ -0,0 +1,46 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GameListener;
+
+/**
+ * Base class of the events of the {@link GameEventBus}.
+ * <p>
+ * Events handed to synchronous listeners are flyweights: the bus reuses the
+ * same instance for every event of its type, so listeners must not keep a
+ * reference to an event after they return. Asynchronous listeners receive a
+ * private copy.
+ */
+public abstract class GameEvent {
+	private final GameEventType type;
+	Game game;
+
+	GameEvent(GameEventType type) {
+		this.type = type;
+	}
+
+	public GameEventType getType() {
+		return type;
+	}
+
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * Call the listener's method for this type of event.
+	 */
+	abstract void dispatch(GameListener listener);
+
+	/**
+	 * @return a copy that can be kept
+	 */
+	abstract GameEvent copy();
+
+	/**
+	 * Drop references, so a pooled event does not keep a game alive.
+	 */
+	void clear() {
+		game = null;
+	}
+}
@@ -0,0 +1,292 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GameListener;
+import com.cptingle.BoardGamesX.metrics.Counter;
+
+/**
+ * Delivers game events to {@link GameListener}s.
+ * <p>
+ * When a listener is registered, the bus looks up which listener methods it
+ * overrides, once, and adds it to the handler array of those event types only.
+ * Firing an event is a loop over a plain array of direct calls; an event type
+ * without listeners costs a single length check.
+ * <p>
+ * Events for synchronous listeners are pooled flyweights, one per type and
+ * nesting depth, so firing allocates nothing even when a listener fires
+ * another event. Asynchronous listeners, e.g. for statistics or webhooks, get
+ * a copy of the event on a single background thread; if they fall behind, new
+ * events for them are dropped rather than blocking the tick.
+ * <p>
+ * Registration and firing happen on the main thread.
+ */
+public class GameEventBus {
+	private static final GameEventType[] TYPES = GameEventType.values();
+	private static final GameListener[] NONE = new GameListener[0];
+
+	private final Logger logger;
+	private final int asyncQueueSize;
+
+	private final GameListener[][] sync;
+	private final GameListener[][] async;
+	private ThreadPoolExecutor asyncExecutor;
+
+	// Flyweights, by type and nesting depth
+	private final GameEvent[][] pool;
+	private int depth;
+
+	private final LongAdder fired = new LongAdder();
+	private final Counter asyncDropped;
+
+	/**
+	 * @param logger         where to report listeners that throw
+	 * @param asyncQueueSize the number of events that may wait for asynchronous
+	 *                       listeners
+	 * @param asyncDropped   counts events not delivered to asynchronous
+	 *                       listeners because they fell behind
+	 */
+	public GameEventBus(Logger logger, int asyncQueueSize, Counter asyncDropped) {
+		this.logger = logger;
+		this.asyncDropped = asyncDropped;
+		this.asyncQueueSize = Math.max(1, asyncQueueSize);
+		this.sync = new GameListener[TYPES.length][];
+		this.async = new GameListener[TYPES.length][];
+		this.pool = new GameEvent[TYPES.length][];
+		for (int i = 0; i < TYPES.length; i++) {
+			sync[i] = NONE;
+			async[i] = NONE;
+			pool[i] = new GameEvent[] { TYPES[i].create() };
+		}
+	}
+
+	/**
+	 * Register a listener for the events whose methods it overrides.
+	 *
+	 * @param listener the listener
+	 * @param async    true to call the listener on a background thread
+	 */
+	public void register(GameListener listener, boolean async) {
+		GameListener[][] handlers = async ? this.async : this.sync;
+		for (GameEventType type : TYPES) {
+			if (overrides(listener, type)) {
+				GameListener[] list = handlers[type.ordinal()];
+				list = Arrays.copyOf(list, list.length + 1);
+				list[list.length - 1] = listener;
+				handlers[type.ordinal()] = list;
+			}
+		}
+		if (async && asyncExecutor == null) {
+			asyncExecutor = createExecutor();
+		}
+	}
+
+	/**
+	 * Unregister a listener from all events.
+	 */
+	public void unregister(GameListener listener) {
+		for (int i = 0; i < TYPES.length; i++) {
+			sync[i] = without(sync[i], listener);
+			async[i] = without(async[i], listener);
+		}
+	}
+
+	/**
+	 * @return true, if any listener wants events of the type
+	 */
+	public boolean hasListeners(GameEventType type) {
+		return sync[type.ordinal()].length != 0 || async[type.ordinal()].length != 0;
+	}
+
+	/*
+	 * Firing
+	 */
+	public void moveMade(Game game, int side, int move) {
+		if (!hasListeners(GameEventType.MOVE_MADE)) {
+			return;
+		}
+		MoveMadeEvent event = (MoveMadeEvent) acquire(GameEventType.MOVE_MADE);
+		event.game = game;
+		event.side = side;
+		event.move = move;
+		fire(event);
+	}
+
+	public void turnChanged(Game game, int side) {
+		if (!hasListeners(GameEventType.TURN_CHANGED)) {
+			return;
+		}
+		TurnChangedEvent event = (TurnChangedEvent) acquire(GameEventType.TURN_CHANGED);
+		event.game = game;
+		event.side = side;
+		fire(event);
+	}
+
+	public void playerJoined(Game game, UUID player) {
+		if (!hasListeners(GameEventType.PLAYER_JOINED)) {
+			return;
+		}
+		PlayerJoinedEvent event = (PlayerJoinedEvent) acquire(GameEventType.PLAYER_JOINED);
+		event.game = game;
+		event.player = player;
+		fire(event);
+	}
+
+	public void playerLeft(Game game, UUID player) {
+		if (!hasListeners(GameEventType.PLAYER_LEFT)) {
+			return;
+		}
+		PlayerLeftEvent event = (PlayerLeftEvent) acquire(GameEventType.PLAYER_LEFT);
+		event.game = game;
+		event.player = player;
+		fire(event);
+	}
+
+	public void gameEnded(Game game, int winner) {
+		if (!hasListeners(GameEventType.GAME_ENDED)) {
+			return;
+		}
+		gameEnded(game, winner, game.getPlayersBySide(), GameEndedEvent.isAborted(game));
+	}
+
+	/**
+	 * Fire the end of a match with the players by side taken when it ended.
+	 */
+	public void gameEnded(Game game, int winner, UUID[] sides, boolean aborted) {
+		if (!hasListeners(GameEventType.GAME_ENDED)) {
+			return;
+		}
+		GameEndedEvent event = (GameEndedEvent) acquire(GameEventType.GAME_ENDED);
+		event.game = game;
+		event.winner = winner;
+		event.sides = sides;
+		event.aborted = aborted;
+		fire(event);
+	}
+
+	private GameEvent acquire(GameEventType type) {
+		GameEvent[] events = pool[type.ordinal()];
+		if (depth >= events.length) {
+			events = Arrays.copyOf(events, depth + 1);
+			pool[type.ordinal()] = events;
+		}
+		if (events[depth] == null) {
+			events[depth] = type.create();
+		}
+		return events[depth];
+	}
+
+	private void fire(GameEvent event) {
+		int type = event.getType().ordinal();
+		fired.increment();
+		depth++;
+		try {
+			for (GameListener listener : sync[type]) {
+				try {
+					event.dispatch(listener);
+				} catch (Throwable t) {
+					logger.log(Level.SEVERE, "Error in listener for " + event.getType(), t);
+				}
+			}
+			GameListener[] listeners = async[type];
+			if (listeners.length != 0) {
+				submit(event.copy(), listeners);
+			}
+		} finally {
+			depth--;
+			event.clear();
+		}
+	}
+
+	private void submit(final GameEvent event, final GameListener[] listeners) {
+		if (asyncExecutor == null) {
+			asyncDropped.increment();
+			return;
+		}
+		try {
+			asyncExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					for (GameListener listener : listeners) {
+						try {
+							event.dispatch(listener);
+						} catch (Throwable t) {
+							logger.log(Level.SEVERE, "Error in async listener for " + event.getType(), t);
+						}
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			asyncDropped.increment();
+		}
+	}
+
+	/**
+	 * Stop the background thread of asynchronous listeners, letting it finish
+	 * the events already queued for a moment.
+	 */
+	public void shutdown() {
+		if (asyncExecutor == null) {
+			return;
+		}
+		asyncExecutor.shutdown();
+		try {
+			asyncExecutor.awaitTermination(2, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		asyncExecutor = null;
+	}
+
+	public long getFired() {
+		return fired.sum();
+	}
+
+	private ThreadPoolExecutor createExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(asyncQueueSize), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "BoardGamesX-Events");
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.AbortPolicy());
+		return executor;
+	}
+
+	/**
+	 * @return true, if the listener's class overrides the method for the type
+	 */
+	private static boolean overrides(GameListener listener, GameEventType type) {
+		try {
+			Method method = listener.getClass().getMethod(type.getMethod(), type.getEventClass());
+			return method.getDeclaringClass() != GameListener.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	private static GameListener[] without(GameListener[] list, GameListener listener) {
+		for (int i = 0; i < list.length; i++) {
+			if (list[i] == listener) {
+				GameListener[] copy = new GameListener[list.length - 1];
+				System.arraycopy(list, 0, copy, 0, i);
+				System.arraycopy(list, i + 1, copy, i, list.length - i - 1);
+				return copy;
+			}
+		}
+		return list;
+	}
+}
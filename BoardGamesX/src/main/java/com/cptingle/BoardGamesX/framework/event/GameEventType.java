@@ -0,0 +1,50 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+/**
+ * The types of {@link GameEvent}, each with the {@link com.cptingle.BoardGamesX.framework.GameListener}
+ * method that handles it.
+ */
+public enum GameEventType {
+	MOVE_MADE("onMoveMade", MoveMadeEvent.class),
+	TURN_CHANGED("onTurnChanged", TurnChangedEvent.class),
+	PLAYER_JOINED("onPlayerJoined", PlayerJoinedEvent.class),
+	PLAYER_LEFT("onPlayerLeft", PlayerLeftEvent.class),
+	GAME_ENDED("onGameEnded", GameEndedEvent.class);
+
+	private final String method;
+	private final Class<? extends GameEvent> eventClass;
+
+	GameEventType(String method, Class<? extends GameEvent> eventClass) {
+		this.method = method;
+		this.eventClass = eventClass;
+	}
+
+	/**
+	 * @return the name of the listener method
+	 */
+	String getMethod() {
+		return method;
+	}
+
+	Class<? extends GameEvent> getEventClass() {
+		return eventClass;
+	}
+
+	/**
+	 * @return a new, empty event of this type
+	 */
+	GameEvent create() {
+		switch (this) {
+		case MOVE_MADE:
+			return new MoveMadeEvent();
+		case TURN_CHANGED:
+			return new TurnChangedEvent();
+		case PLAYER_JOINED:
+			return new PlayerJoinedEvent();
+		case PLAYER_LEFT:
+			return new PlayerLeftEvent();
+		default:
+			return new GameEndedEvent();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import com.cptingle.BoardGamesX.framework.GameListener;
+
+/**
+ * A side played a move.
+ */
+public final class MoveMadeEvent extends GameEvent {
+	int side;
+	int move;
+
+	MoveMadeEvent() {
+		super(GameEventType.MOVE_MADE);
+	}
+
+	public int getSide() {
+		return side;
+	}
+
+	public int getMove() {
+		return move;
+	}
+
+	@Override
+	void dispatch(GameListener listener) {
+		listener.onMoveMade(this);
+	}
+
+	@Override
+	GameEvent copy() {
+		MoveMadeEvent copy = new MoveMadeEvent();
+		copy.game = game;
+		copy.side = side;
+		copy.move = move;
+		return copy;
+	}
+}
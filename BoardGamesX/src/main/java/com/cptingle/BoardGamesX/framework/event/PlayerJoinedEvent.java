@@ -0,0 +1,39 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import java.util.UUID;
+
+import com.cptingle.BoardGamesX.framework.GameListener;
+
+/**
+ * A player joined the game.
+ */
+public final class PlayerJoinedEvent extends GameEvent {
+	UUID player;
+
+	PlayerJoinedEvent() {
+		super(GameEventType.PLAYER_JOINED);
+	}
+
+	public UUID getPlayer() {
+		return player;
+	}
+
+	@Override
+	void dispatch(GameListener listener) {
+		listener.onPlayerJoined(this);
+	}
+
+	@Override
+	GameEvent copy() {
+		PlayerJoinedEvent copy = new PlayerJoinedEvent();
+		copy.game = game;
+		copy.player = player;
+		return copy;
+	}
+
+	@Override
+	void clear() {
+		super.clear();
+		player = null;
+	}
+}
@@ -0,0 +1,39 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import java.util.UUID;
+
+import com.cptingle.BoardGamesX.framework.GameListener;
+
+/**
+ * A player left the game.
+ */
+public final class PlayerLeftEvent extends GameEvent {
+	UUID player;
+
+	PlayerLeftEvent() {
+		super(GameEventType.PLAYER_LEFT);
+	}
+
+	public UUID getPlayer() {
+		return player;
+	}
+
+	@Override
+	void dispatch(GameListener listener) {
+		listener.onPlayerLeft(this);
+	}
+
+	@Override
+	GameEvent copy() {
+		PlayerLeftEvent copy = new PlayerLeftEvent();
+		copy.game = game;
+		copy.player = player;
+		return copy;
+	}
+
+	@Override
+	void clear() {
+		super.clear();
+		player = null;
+	}
+}
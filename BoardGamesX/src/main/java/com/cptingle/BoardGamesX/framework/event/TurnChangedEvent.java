@@ -0,0 +1,34 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import com.cptingle.BoardGamesX.framework.GameListener;
+
+/**
+ * It is another side's turn.
+ */
+public final class TurnChangedEvent extends GameEvent {
+	int side;
+
+	TurnChangedEvent() {
+		super(GameEventType.TURN_CHANGED);
+	}
+
+	/**
+	 * @return the side to move now
+	 */
+	public int getSide() {
+		return side;
+	}
+
+	@Override
+	void dispatch(GameListener listener) {
+		listener.onTurnChanged(this);
+	}
+
+	@Override
+	GameEvent copy() {
+		TurnChangedEvent copy = new TurnChangedEvent();
+		copy.game = game;
+		copy.side = side;
+		return copy;
+	}
+}
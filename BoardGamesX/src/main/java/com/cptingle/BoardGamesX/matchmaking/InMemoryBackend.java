@@ -0,0 +1,109 @@
+package com.cptingle.BoardGamesX.matchmaking;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * The matchmaking queue of a single server, also the stand-in for a shared
+ * backend in tests.
+ * <p>
+ * Every bucket is a deque of tickets. Removed players are only dropped from
+ * the index, and their tickets are skipped when the bucket is taken from.
+ */
+public class InMemoryBackend implements MatchmakingBackend {
+	private final TreeMap<Integer, ArrayDeque<QueueTicket>> buckets;
+	private final Map<UUID, QueueTicket> queued;
+
+	public InMemoryBackend() {
+		this.buckets = new TreeMap<>();
+		this.queued = new HashMap<>();
+	}
+
+	@Override
+	public synchronized boolean enqueue(QueueTicket ticket) {
+		if (queued.containsKey(ticket.getPlayer())) {
+			return false;
+		}
+		queued.put(ticket.getPlayer(), ticket);
+		bucket(ticket.getBucket()).addLast(ticket);
+		return true;
+	}
+
+	@Override
+	public synchronized boolean remove(UUID player) {
+		return queued.remove(player) != null;
+	}
+
+	@Override
+	public synchronized boolean isQueued(UUID player) {
+		return queued.containsKey(player);
+	}
+
+	@Override
+	public synchronized int size() {
+		return queued.size();
+	}
+
+	@Override
+	public synchronized int[] getBuckets() {
+		int[] result = new int[buckets.size()];
+		int i = 0;
+		for (Integer bucket : buckets.keySet()) {
+			result[i++] = bucket;
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized int take(int bucket, QueueTicket[] out, int max) {
+		ArrayDeque<QueueTicket> deque = buckets.get(bucket);
+		if (deque == null) {
+			return 0;
+		}
+		int count = 0;
+		for (Iterator<QueueTicket> it = deque.iterator(); it.hasNext() && count < max;) {
+			QueueTicket ticket = it.next();
+			it.remove();
+			// Skip tickets of players who left the queue
+			if (queued.get(ticket.getPlayer()) == ticket) {
+				queued.remove(ticket.getPlayer());
+				out[count++] = ticket;
+			}
+		}
+		if (deque.isEmpty()) {
+			buckets.remove(bucket);
+		}
+		return count;
+	}
+
+	@Override
+	public synchronized void putBack(QueueTicket[] tickets, int count) {
+		for (int i = count - 1; i >= 0; i--) {
+			QueueTicket ticket = tickets[i];
+			if (queued.containsKey(ticket.getPlayer())) {
+				continue;
+			}
+			queued.put(ticket.getPlayer(), ticket);
+			bucket(ticket.getBucket()).addFirst(ticket);
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		buckets.clear();
+		queued.clear();
+	}
+
+	private ArrayDeque<QueueTicket> bucket(int bucket) {
+		ArrayDeque<QueueTicket> deque = buckets.get(bucket);
+		if (deque == null) {
+			deque = new ArrayDeque<>();
+			buckets.put(bucket, deque);
+		}
+		return deque;
+	}
+}
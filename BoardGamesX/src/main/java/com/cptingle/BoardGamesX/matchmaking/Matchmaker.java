@@ -0,0 +1,491 @@
+package com.cptingle.BoardGamesX.matchmaking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.messaging.Msg;
+
+/**
+ * Seats queued players at tables.
+ * <p>
+ * Players are queued with a rating and matched within buckets of similar
+ * ratings. Every few ticks, each bucket is taken from the backend in one
+ * batch. Its players go to the least loaded partly filled table of their
+ * bucket first. An empty table is only opened for a batch that can fill it,
+ * and failing both, players join a partly filled table of another bucket.
+ * Players who could not be seated go back to the front of the queue.
+ * <p>
+ * When games run on game threads, players are seated by the game's thread.
+ * Seats handed out in a run are reserved until then, and a player the table
+ * turns down after all goes back in the queue. Until the game's thread claims
+ * the seat, the player counts as queued, and leaving the queue cancels it. A
+ * player who leaves the server while the seat is being taken is removed from
+ * the table again by the main thread.
+ */
+public class Matchmaker implements Runnable {
+	/**
+	 * The rating of players when no ratings are known.
+	 */
+	public static final int DEFAULT_RATING = 1000;
+
+	private final GameMaster gm;
+	private volatile MatchmakingBackend backend;
+	private volatile ToIntFunction<UUID> ratings;
+	private volatile int bucketWidth;
+	private volatile int batchSize;
+	private BukkitTask task;
+
+	// Per run, main thread only
+	private QueueTicket[] batch;
+	private final List<Game> tables;
+	private final Map<Game, Integer> reserved;
+
+	// The bucket of the first player matchmaking seated at a table, main
+	// thread only
+	private final Map<Game, Integer> buckets;
+
+	// Players handed to a game thread to be seated
+	private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+	// Metrics
+	private final LongAdder queued = new LongAdder();
+	private final LongAdder matched = new LongAdder();
+	private final LongAdder tablesFilled = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder totalWaitMillis = new LongAdder();
+	private final LongAccumulator maxWaitMillis = new LongAccumulator(Math::max, 0L);
+	private volatile int lastMatched;
+	private volatile long lastRunNanos;
+
+	/**
+	 * @param gm          the game master
+	 * @param backend     the queue
+	 * @param bucketWidth the width of a rating bucket
+	 * @param batchSize   the largest number of players taken from a bucket per
+	 *                    run
+	 */
+	public Matchmaker(GameMaster gm, MatchmakingBackend backend, int bucketWidth, int batchSize) {
+		this.gm = gm;
+		this.backend = backend;
+		this.ratings = new ToIntFunction<UUID>() {
+			@Override
+			public int applyAsInt(UUID player) {
+				return DEFAULT_RATING;
+			}
+		};
+		this.tables = new ArrayList<>();
+		this.reserved = new IdentityHashMap<>();
+		this.buckets = new WeakHashMap<>();
+		setBucketWidth(bucketWidth);
+		setBatchSize(batchSize);
+	}
+
+	/**
+	 * Run every given number of ticks.
+	 */
+	public void start(long intervalTicks) {
+		if (task == null) {
+			long interval = Math.max(1L, intervalTicks);
+			task = gm.getPlugin().getServer().getScheduler().runTaskTimer(gm.getPlugin(), this, interval, interval);
+		}
+	}
+
+	public void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	/**
+	 * Replace the backend, e.g. with one shared by a network of servers. The
+	 * players in the old queue are forgotten.
+	 */
+	public void setBackend(MatchmakingBackend backend) {
+		MatchmakingBackend old = this.backend;
+		this.backend = backend;
+		old.close();
+	}
+
+	public MatchmakingBackend getBackend() {
+		return backend;
+	}
+
+	/**
+	 * @param ratings the source of player ratings
+	 */
+	public void setRatings(ToIntFunction<UUID> ratings) {
+		this.ratings = ratings;
+	}
+
+	public void setBucketWidth(int bucketWidth) {
+		this.bucketWidth = Math.max(1, bucketWidth);
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Put a player in the queue. Safe from any thread.
+	 *
+	 * @return false, if the player is queued already
+	 */
+	public boolean enqueue(UUID player) {
+		if (pending.contains(player)) {
+			return false;
+		}
+		int rating = ratings.applyAsInt(player);
+		QueueTicket ticket = new QueueTicket(player, rating, Math.floorDiv(rating, bucketWidth),
+				System.currentTimeMillis());
+		if (!backend.enqueue(ticket)) {
+			return false;
+		}
+		queued.increment();
+		return true;
+	}
+
+	/**
+	 * Take a player out of the queue. Safe from any thread.
+	 *
+	 * @return true, if the player was queued
+	 */
+	public boolean dequeue(UUID player) {
+		boolean wasPending = pending.remove(player);
+		return backend.remove(player) || wasPending;
+	}
+
+	public boolean isQueued(UUID player) {
+		return pending.contains(player) || backend.isQueued(player);
+	}
+
+	/**
+	 * Match the queued players. Main thread only.
+	 */
+	@Override
+	public void run() {
+		long start = System.nanoTime();
+		MatchmakingBackend backend = this.backend;
+		if (batch == null || batch.length != batchSize) {
+			batch = new QueueTicket[batchSize];
+		}
+
+		collectTables(gm.getJoinableGames());
+
+		int seated = 0;
+		if (!tables.isEmpty() && gm.isEnabled()) {
+			long now = System.currentTimeMillis();
+			for (int bucket : backend.getBuckets()) {
+				int count = backend.take(bucket, batch, batch.length);
+				int left = seat(batch, count, now);
+				seated += count - left;
+				if (left > 0) {
+					backend.putBack(batch, left);
+				}
+			}
+		}
+		Arrays.fill(batch, null);
+		tables.clear();
+		reserved.clear();
+
+		lastMatched = seated;
+		lastRunNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * Collect the tables with free seats, filled up as the run goes, and forget
+	 * the buckets of tables that emptied.
+	 */
+	void collectTables(Collection<Game> games) {
+		tables.clear();
+		reserved.clear();
+		for (Game game : games) {
+			if (game.getPlayerCount() < game.getMaxPlayers()) {
+				tables.add(game);
+			}
+		}
+		for (Iterator<Game> it = buckets.keySet().iterator(); it.hasNext();) {
+			if (it.next().getPlayerCount() == 0) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Seat a batch of one bucket.
+	 *
+	 * @return the number of tickets left, moved to the front of the batch
+	 */
+	private int seat(QueueTicket[] tickets, int count, long now) {
+		int left = 0;
+		for (int i = 0; i < count; i++) {
+			QueueTicket ticket = tickets[i];
+			final Player player = gm.getPlugin().getServer().getPlayer(ticket.getPlayer());
+			if (player == null || gm.isPlaying(player)) {
+				// Left the server or found a game on their own
+				dropped.increment();
+				continue;
+			}
+
+			Game table = pick(ticket, count - i, new Predicate<Game>() {
+				@Override
+				public boolean test(Game game) {
+					return gm.isPermitted(player, game);
+				}
+			});
+			if (table == null) {
+				tickets[left++] = ticket;
+				continue;
+			}
+			claim(table, ticket);
+			if (gm.isSharded()) {
+				reserve(table);
+				seatLater(table, ticket, now);
+				continue;
+			}
+			if (!table.addPlayer(ticket.getPlayer())) {
+				tickets[left++] = ticket;
+				continue;
+			}
+			seated(table, ticket, now);
+		}
+		return left;
+	}
+
+	/**
+	 * Seat a player on the game's thread, or put them back in the queue if the
+	 * table filled up in the meantime.
+	 */
+	private void seatLater(final Game table, final QueueTicket ticket, final long now) {
+		hold(ticket.getPlayer());
+		gm.execute(table, new Runnable() {
+			@Override
+			public void run() {
+				if (seatHeld(table, ticket)) {
+					seated(table, ticket, now);
+				} else {
+					dropIfGone(ticket.getPlayer());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Hold a player who is handed to a game's thread to be seated.
+	 */
+	void hold(UUID player) {
+		pending.add(player);
+	}
+
+	/**
+	 * Seat a held player, on the game's thread. The seat is claimed first, so a
+	 * player who left the queue in the meantime is not seated.
+	 *
+	 * @return true, if the player was seated; false if they left the queue, or
+	 *         the table turned them down and they went back in the queue
+	 */
+	boolean seatHeld(Game table, QueueTicket ticket) {
+		UUID id = ticket.getPlayer();
+		if (!pending.remove(id)) {
+			// Left the queue or the server in the meantime
+			return false;
+		}
+		if (table.getState().isJoinable() && table.getPlayerCount() < table.getMaxPlayers()
+				&& table.addPlayer(id)) {
+			return true;
+		}
+		backend.enqueue(ticket);
+		return false;
+	}
+
+	/**
+	 * Take a player out of the queue again, on the main thread, if they left
+	 * the server while they were handed back to it.
+	 */
+	private void dropIfGone(final UUID id) {
+		gm.runOnMain(new Runnable() {
+			@Override
+			public void run() {
+				if (gm.getPlugin().getServer().getPlayer(id) == null) {
+					backend.remove(id);
+				}
+			}
+		});
+	}
+
+	private void seated(final Game table, QueueTicket ticket, long now) {
+		if (table.getPlayerCount() == 1) {
+			tablesFilled.increment();
+		}
+
+		long wait = Math.max(0L, now - ticket.getQueuedAt());
+		matched.increment();
+		totalWaitMillis.add(wait);
+		maxWaitMillis.accumulate(wait);
+		final UUID id = ticket.getPlayer();
+		gm.runOnMain(new Runnable() {
+			@Override
+			public void run() {
+				Player player = gm.getPlugin().getServer().getPlayer(id);
+				if (player != null) {
+					gm.getGlobalMessenger().tell(player, Msg.QUEUE_MATCHED, table.getName());
+					return;
+				}
+				// Left the server after the seat was claimed, too late for dequeue
+				gm.execute(table, new Runnable() {
+					@Override
+					public void run() {
+						table.removePlayer(id);
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Pick the table for a ticket: the least loaded partly filled table of its
+	 * bucket, else an empty table the rest of the batch can fill, else the
+	 * least loaded partly filled table of another bucket.
+	 *
+	 * @param ticket    the ticket
+	 * @param remaining the number of tickets of the batch still to seat, this
+	 *                  one included
+	 * @param permitted whether the player may join a table
+	 * @return the table, or null if the player has to wait
+	 */
+	Game pick(QueueTicket ticket, int remaining, Predicate<Game> permitted) {
+		Game same = null;
+		Game empty = null;
+		Game other = null;
+		for (int i = 0; i < tables.size(); i++) {
+			Game game = tables.get(i);
+			int load = load(game);
+			if (!game.getState().isJoinable() || load >= game.getMaxPlayers() || !permitted.test(game)) {
+				continue;
+			}
+			if (load == 0) {
+				if (empty == null && remaining >= seatsToFill(game)) {
+					empty = game;
+				}
+			} else if (Integer.valueOf(ticket.getBucket()).equals(buckets.get(game))) {
+				if (same == null || load < load(same)) {
+					same = game;
+				}
+			} else if (other == null || load < load(other)) {
+				other = game;
+			}
+		}
+		return (same != null) ? same : (empty != null) ? empty : other;
+	}
+
+	/**
+	 * Remember the bucket of a table that matchmaking opens for a ticket.
+	 */
+	void claim(Game table, QueueTicket ticket) {
+		if (load(table) == 0) {
+			buckets.put(table, ticket.getBucket());
+		}
+	}
+
+	void reserve(Game game) {
+		Integer seats = reserved.get(game);
+		reserved.put(game, (seats == null) ? 1 : seats + 1);
+	}
+
+	/**
+	 * @return the number of players that fill a table; two for tables without
+	 *         a limit
+	 */
+	private static int seatsToFill(Game game) {
+		return (game.getMaxPlayers() == Integer.MAX_VALUE) ? 2 : game.getMaxPlayers();
+	}
+
+	/**
+	 * @return the players at a table, and the seats reserved in this run
+	 */
+	private int load(Game game) {
+		Integer seats = reserved.get(game);
+		return game.getPlayerCount() + ((seats == null) ? 0 : seats);
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * @return the number of players in the queue
+	 */
+	public int getQueueSize() {
+		return backend.size();
+	}
+
+	/**
+	 * @return the number of players who joined the queue
+	 */
+	public long getQueued() {
+		return queued.sum();
+	}
+
+	/**
+	 * @return the number of players seated by matchmaking
+	 */
+	public long getMatched() {
+		return matched.sum();
+	}
+
+	/**
+	 * @return the number of empty tables matchmaking seated a first player at
+	 */
+	public long getTablesFilled() {
+		return tablesFilled.sum();
+	}
+
+	/**
+	 * @return the number of tickets dropped because the player left or joined
+	 *         a game directly
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return the average time seated players waited in the queue
+	 */
+	public long getAverageWaitMillis() {
+		long count = matched.sum();
+		return (count == 0) ? 0L : totalWaitMillis.sum() / count;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis.get();
+	}
+
+	/**
+	 * @return the number of players seated in the last run
+	 */
+	public int getLastMatched() {
+		return lastMatched;
+	}
+
+	public long getLastRunNanos() {
+		return lastRunNanos;
+	}
+}
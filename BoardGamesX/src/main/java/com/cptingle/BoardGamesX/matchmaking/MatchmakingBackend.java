@@ -0,0 +1,64 @@
+package com.cptingle.BoardGamesX.matchmaking;
+
+import java.util.UUID;
+
+/**
+ * Where the matchmaking queue is kept.
+ * <p>
+ * On a single server that is {@link InMemoryBackend}. On a network of
+ * servers, an implementation on a shared store lets every server's
+ * {@link Matchmaker} take players from one queue. Such an implementation must
+ * make {@link #take(int, QueueTicket[], int)} atomic across servers, so no
+ * ticket is handed out twice, and must keep the ticket order of each bucket.
+ * <p>
+ * Methods may be called from any thread.
+ */
+public interface MatchmakingBackend {
+	/**
+	 * Add a player to the end of their bucket.
+	 *
+	 * @return false, if the player is queued already
+	 */
+	boolean enqueue(QueueTicket ticket);
+
+	/**
+	 * Take a player out of the queue.
+	 *
+	 * @return true, if the player was queued
+	 */
+	boolean remove(UUID player);
+
+	boolean isQueued(UUID player);
+
+	/**
+	 * @return the number of queued players
+	 */
+	int size();
+
+	/**
+	 * @return the buckets with queued players, lowest first
+	 */
+	int[] getBuckets();
+
+	/**
+	 * Take the players who waited longest from a bucket. Taken players are no
+	 * longer queued; hand back the ones that could not be placed with
+	 * {@link #putBack(QueueTicket[], int)}.
+	 *
+	 * @param bucket the bucket
+	 * @param out    the array to take the tickets into
+	 * @param max    the largest number of tickets to take
+	 * @return the number of tickets taken
+	 */
+	int take(int bucket, QueueTicket[] out, int max);
+
+	/**
+	 * Return taken tickets to the front of their buckets, in order.
+	 */
+	void putBack(QueueTicket[] tickets, int count);
+
+	/**
+	 * Release the resources of the backend. Queued players are forgotten.
+	 */
+	void close();
+}
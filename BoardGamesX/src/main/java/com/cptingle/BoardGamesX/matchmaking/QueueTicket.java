@@ -0,0 +1,48 @@
+package com.cptingle.BoardGamesX.matchmaking;
+
+import java.util.UUID;
+
+/**
+ * A player waiting in the matchmaking queue.
+ */
+public final class QueueTicket {
+	private final UUID player;
+	private final int rating;
+	private final int bucket;
+	private final long queuedAt;
+
+	/**
+	 * @param player   the player
+	 * @param rating   the rating of the player
+	 * @param bucket   the rating bucket the player is matched within
+	 * @param queuedAt the {@link System#currentTimeMillis()} the player joined
+	 *                 the queue, comparable across servers
+	 */
+	public QueueTicket(UUID player, int rating, int bucket, long queuedAt) {
+		this.player = player;
+		this.rating = rating;
+		this.bucket = bucket;
+		this.queuedAt = queuedAt;
+	}
+
+	public UUID getPlayer() {
+		return player;
+	}
+
+	public int getRating() {
+		return rating;
+	}
+
+	public int getBucket() {
+		return bucket;
+	}
+
+	public long getQueuedAt() {
+		return queuedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "QueueTicket[" + player + ", rating " + rating + "]";
+	}
+}
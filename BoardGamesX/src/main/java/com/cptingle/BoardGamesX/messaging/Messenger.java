@@ -1,16 +1,28 @@
 package com.cptingle.BoardGamesX.messaging;
 
+import java.util.Collection;
+
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 
 public class Messenger {
 	private final String prefix;
 
+	// The prefix as it goes in front of every line
+	private final String linePrefix;
+
+	// Fully rendered lines of messages without placeholders, by ordinal
+	private final String[] lines;
+	private int linesGeneration;
+
 	public Messenger(String prefix) {
 		if (prefix.contains("&")) {
 			prefix = ChatColor.translateAlternateColorCodes('&', prefix);
 		}
 		this.prefix = prefix + " ";
+		this.linePrefix = this.prefix + ChatColor.RESET;
+		this.lines = new String[Msg.values().length];
+		this.linesGeneration = Msg.generation();
 	}
 
 	public boolean tell(CommandSender p, String msg) {
@@ -20,15 +32,103 @@ public class Messenger {
 		}
 
 		// Otherwise, send the message with the [MobArena] tag.
-		p.sendMessage(prefix + ChatColor.RESET + ChatColor.translateAlternateColorCodes('&', msg));
+		p.sendMessage(linePrefix + ChatColor.translateAlternateColorCodes('&', msg));
 		return true;
 	}
 
 	public boolean tell(CommandSender p, Msg msg, String s) {
-		return tell(p, msg.format(s));
+		if (p == null || s == null || msg.template().isEmpty()) {
+			return false;
+		}
+		MsgTemplate template = msg.template();
+		StringBuilder out = new StringBuilder(linePrefix.length() + template.lengthHint());
+		p.sendMessage(template.renderSingle(out.append(linePrefix), s).toString());
+		return true;
+	}
+
+	public boolean tell(CommandSender p, Msg msg, Object... args) {
+		if (p == null || msg.template().isEmpty()) {
+			return false;
+		}
+		p.sendMessage(render(msg, args));
+		return true;
 	}
 
 	public boolean tell(CommandSender p, Msg msg) {
-		return tell(p, msg.toString());
+		if (p == null || msg.template().isEmpty()) {
+			return false;
+		}
+		p.sendMessage(render(msg));
+		return true;
+	}
+
+	/**
+	 * Send a message to every sender in a collection. The message is rendered
+	 * once, and the same string is sent to everyone.
+	 *
+	 * @param targets the senders to send the message to; null entries are skipped
+	 * @param msg     the message
+	 * @param args    the arguments for the placeholders of the message
+	 * @return the number of senders the message was sent to
+	 */
+	public int broadcast(Collection<? extends CommandSender> targets, Msg msg, Object... args) {
+		if (targets.isEmpty() || msg.template().isEmpty()) {
+			return 0;
+		}
+
+		String line = render(msg, args);
+		int count = 0;
+		for (CommandSender target : targets) {
+			if (target != null) {
+				target.sendMessage(line);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Render a message as a full chat line, including the prefix.
+	 *
+	 * @param msg  the message
+	 * @param args the arguments for the placeholders of the message
+	 * @return the rendered line
+	 */
+	public String render(Msg msg, Object... args) {
+		MsgTemplate template = msg.template();
+		if (args.length == 0 || !template.hasPlaceholders()) {
+			return cachedLine(msg);
+		}
+		StringBuilder out = new StringBuilder(linePrefix.length() + template.lengthHint());
+		out.append(linePrefix);
+		return template.render(out, args).toString();
+	}
+
+	/**
+	 * Get the full line of a message without arguments, rendering it only once
+	 * per reload of the messages.
+	 */
+	private String cachedLine(Msg msg) {
+		int generation = Msg.generation();
+		if (generation != linesGeneration) {
+			for (int i = 0; i < lines.length; i++) {
+				lines[i] = null;
+			}
+			linesGeneration = generation;
+		}
+
+		String line = lines[msg.ordinal()];
+		if (line == null) {
+			line = linePrefix + msg.template().getText();
+			lines[msg.ordinal()] = line;
+		}
+		return line;
+	}
+
+	/**
+	 * @return the translated prefix, including the trailing space
+	 */
+	public String getPrefix() {
+		return prefix;
 	}
-}
\ No newline at end of file
+}
@@ -1,25 +1,21 @@
 package com.cptingle.BoardGamesX.messaging;
 
-import org.bukkit.ChatColor;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 
 public enum Msg {
 
-	/*ARENA_START("Let the slaughter begin!"), ARENA_END("Game finished."),
-	GAME_DOES_NOT_EXIST("That game does not exist. Type &e/bg games&r for a list."),
 	ARENA_END_GLOBAL("Game &e%&r finished! Type &e/ma j %&r to join a new game!"),
 	ARENA_JOIN_GLOBAL("Game &e%&r is about to start! Type &e/ma j %&r to join!"),
+
+	/*ARENA_START("Let the slaughter begin!"), ARENA_END("Game finished."),
 	ARENA_LBOARD_NOT_FOUND("That game does not have a leaderboard set up."),
 	ARENA_AUTO_START("Game will auto-start in &c%&r seconds."), ARENA_START_DELAY("Game can start in &e%&r seconds."),
-	JOIN_NOT_ENABLED("BoardGames is not enabled."),
-	JOIN_IN_OTHER_ARENA("You are already in an game! Leave that one first."),
-	JOIN_ARENA_NOT_ENABLED("This game is not enabled."), JOIN_ARENA_NOT_SETUP("This game has not been set up yet."),
+	JOIN_ARENA_NOT_SETUP("This game has not been set up yet."),
 	JOIN_ARENA_EDIT_MODE("This game is in edit mode."),
 	JOIN_ARENA_PERMISSION("You don't have permission to join this game."),
 	JOIN_FEE_REQUIRED("Insufficient funds. Price: &c%&r"), JOIN_FEE_PAID("Price to join was: &c%&r"),
 	JOIN_ARENA_IS_RUNNING("This game is already in progress."), JOIN_ALREADY_PLAYING("You are already playing!"),
-	JOIN_ARG_NEEDED("You must specify an game."), JOIN_NO_PERMISSION("You don't have permission to join any games."),
 	JOIN_TOO_FAR("You are too far away from the game to join/spectate."),
 	JOIN_EMPTY_INV("You must empty your inventory to join the game."),
 	JOIN_PLAYER_LIMIT_REACHED("The player limit of this game has been reached."),
@@ -55,18 +51,46 @@ public enum Msg {
 
 	GAME_YOUR_TURN("It is your turn!"), GAME_FULL("This game is already full!"),*/
 
-	CONFIG_RELOADED("BoardGames configuration reloaded from file!");/*,
+	GAME_DOES_NOT_EXIST("That game does not exist. Type &e/bg games&r for a list."),
+	JOIN_NOT_ENABLED("BoardGames is not enabled."),
+	JOIN_IN_OTHER_ARENA("You are already in an game! Leave that one first."),
+	JOIN_ARENA_NOT_ENABLED("This game is not enabled."),
+	JOIN_ARG_NEEDED("You must specify an game."), JOIN_NO_PERMISSION("You don't have permission to join any games."),
+	QUEUE_JOINED("You are in the queue. You will be seated at the next free table."),
+	QUEUE_ALREADY("You are already in the queue."), QUEUE_MATCHED("You were seated at &e%&r. Have fun!"),
 
-	MISC_LIST_PLAYERS("Live players: &a%&r"), MISC_LIST_GAMES("Available games: %"),
-	MISC_COMMAND_NOT_ALLOWED("You can't use that command in the game!"),
+	SPEC_STARTED("You are watching &e%&r. Type &e/bg spectate&r to stop."),
+	SPEC_STOPPED("You stopped watching."), SPEC_NOT_SPECTATING("You are not watching a game."),
+	SPEC_PLAYING("You can't watch a game while playing."),
+	SPEC_PLAYER_JOINED("&e%&r sat down."), SPEC_PLAYER_LEFT("&e%&r left the table."),
+	SPEC_MOVE("Side &e{0}&r played &e{1}&r."), SPEC_TURN("Side % to move"),
+	SPEC_WON("Side &e%&r won!"), SPEC_DRAW("The match ended in a draw."), SPEC_ABORTED("The match was called off."),
+
+	TOP_EMPTY("No one has played a rated game yet."), TOP_HEADER("Top players:"),
+	TOP_ENTRY("&e{0}.&r {1} &7({2})"),
+
+	CONFIG_RELOADED("BoardGames configuration reloaded from file!"),
+	PERF_DISABLED("Metrics are disabled. Set &emetrics: true&r in the config-file to take timings."),
+	PERF_HISTOGRAM("&e%&7% &rn=% p50=% p90=% p99=% max=%"), PERF_VALUE("&e%&7% &r%"),
+
+	/*MISC_LIST_PLAYERS("Live players: &a%&r"), MISC_LIST_GAMES("Available games: %"),
+	MISC_COMMAND_NOT_ALLOWED("You can't use that command in the game!"),*/
 	MISC_NO_ACCESS("You don't have access to this command."),
 	MISC_NOT_FROM_CONSOLE("You can't use this command from the console."),
-	MISC_HELP("For a list of commands, type &e/bg help&r"),
+	/*MISC_HELP("For a list of commands, type &e/bg help&r"),*/
 	MISC_MULTIPLE_MATCHES("Did you mean one of these commands?"),
 	MISC_NO_MATCHES("Command not found. Type &e/bg help&r"),
-	MISC_MA_LEAVE_REMINDER("Remember to use &e/bg leave&r when you are done."), MISC_NONE("&6<none>&r");*/
+	MISC_COMMAND_BUSY("The server is busy right now. Try again in a moment."),
+	MISC_COMMAND_IN_FLIGHT("Wait for your last command to finish."),
+	MISC_COMMAND_COOLDOWN("Slow down! Try again in a moment."),
+	MISC_COMMAND_FAILED("Something went wrong running that command.");
+	/*MISC_MA_LEAVE_REMINDER("Remember to use &e/bg leave&r when you are done."), MISC_NONE("&6<none>&r");*/
+
+	// Bumped every time the messages are reloaded, so renderers can drop caches
+	private static volatile int generation;
 
 	private String value;
+	private MsgTemplate template;
 
 	Msg(String value) {
 		set(value);
@@ -74,14 +98,43 @@ public enum Msg {
 
 	void set(String value) {
 		this.value = value;
+		this.template = MsgTemplate.compile(value);
+	}
+
+	MsgTemplate template() {
+		return template;
+	}
+
+	static int generation() {
+		return generation;
 	}
 
 	public String toString() {
-		return ChatColor.translateAlternateColorCodes('&', value);
+		return template.getText();
 	}
 
+	/**
+	 * Fill in the placeholders of this message with a single string. Every
+	 * <code>%</code> takes the string, so a message may repeat it.
+	 *
+	 * @param s the string
+	 * @return the formatted message, or an empty string if s is null
+	 */
 	public String format(String s) {
-		return (s == null) ? "" : toString().replace("%", s);
+		return (s == null) ? "" : template.formatSingle(s);
+	}
+
+	/**
+	 * Fill in the placeholders of this message. Every <code>%</code> takes the
+	 * next argument, <code>{n}</code> takes argument n, and named placeholders
+	 * take the arguments after the positional ones, in the order they first
+	 * appear in the message.
+	 *
+	 * @param args the arguments
+	 * @return the formatted message
+	 */
+	public String format(Object... args) {
+		return template.format(args);
 	}
 
 	static void load(ConfigurationSection config) {
@@ -89,6 +142,7 @@ public enum Msg {
 			String key = msg.name().toLowerCase().replace("_", "-");
 			msg.set(config.getString(key, ""));
 		}
+		generation++;
 	}
 
 	static YamlConfiguration toYaml() {
@@ -0,0 +1,261 @@
+package com.cptingle.BoardGamesX.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.ChatColor;
+
+/**
+ * A message compiled into literal segments and placeholder slots.
+ * <p>
+ * Colour codes are translated once at compile time, so rendering is just a
+ * matter of appending segments and arguments to a builder. Three kinds of
+ * placeholders are supported:
+ * <ul>
+ * <li><code>%</code> takes the next argument: the first <code>%</code> the
+ * first argument, the second <code>%</code> the second, and so on. Given a
+ * single string, every <code>%</code> takes it, as messages that repeat a
+ * name expect</li>
+ * <li><code>{0}</code>, <code>{1}</code>, ... are positional arguments</li>
+ * <li><code>{name}</code> are named arguments. They take the arguments after
+ * the highest positional one, numbered in the order they first appear in the
+ * message</li>
+ * </ul>
+ * Arguments are never colour-translated, so players cannot inject colours.
+ */
+final class MsgTemplate {
+	private static final int[] NO_SLOTS = new int[0];
+	private static final boolean[] NO_PERCENTS = new boolean[0];
+
+	private final String text;
+	private final String[] literals;
+	private final int[] slots;
+	private final boolean[] percents;
+	private final String[] names;
+	private final int firstNamed;
+	private final int length;
+
+	private MsgTemplate(String text, String[] literals, int[] slots, boolean[] percents, String[] names,
+			int firstNamed) {
+		this.text = text;
+		this.literals = literals;
+		this.slots = slots;
+		this.percents = percents;
+		this.names = names;
+		this.firstNamed = firstNamed;
+
+		int length = 0;
+		for (String literal : literals) {
+			length += literal.length();
+		}
+		this.length = length;
+	}
+
+	/**
+	 * Compile a raw message, translating its colour codes.
+	 *
+	 * @param raw the message as written in the config-file
+	 * @return the compiled template
+	 */
+	static MsgTemplate compile(String raw) {
+		String text = ChatColor.translateAlternateColorCodes('&', (raw == null) ? "" : raw);
+
+		List<String> literals = new ArrayList<>();
+		// Positional slots as their index, named slots as -1 - their name index
+		List<Integer> slots = new ArrayList<>();
+		List<Boolean> isPercent = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		int percents = 0;
+		int positional = 0;
+
+		StringBuilder current = new StringBuilder();
+		int i = 0;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c == '%') {
+				literals.add(current.toString());
+				current.setLength(0);
+				slots.add(percents);
+				isPercent.add(Boolean.TRUE);
+				positional = Math.max(positional, ++percents);
+				i++;
+				continue;
+			}
+			if (c == '{') {
+				int close = text.indexOf('}', i);
+				String name = (close > i + 1) ? text.substring(i + 1, close) : null;
+				if (name != null && isPlaceholderName(name)) {
+					literals.add(current.toString());
+					current.setLength(0);
+					isPercent.add(Boolean.FALSE);
+					if (isIndex(name)) {
+						int index = Integer.parseInt(name);
+						slots.add(index);
+						positional = Math.max(positional, index + 1);
+					} else {
+						int index = names.indexOf(name);
+						if (index < 0) {
+							index = names.size();
+							names.add(name);
+						}
+						slots.add(-1 - index);
+					}
+					i = close + 1;
+					continue;
+				}
+			}
+			current.append(c);
+			i++;
+		}
+		literals.add(current.toString());
+
+		int[] slotArray = NO_SLOTS;
+		boolean[] percentArray = NO_PERCENTS;
+		if (!slots.isEmpty()) {
+			slotArray = new int[slots.size()];
+			percentArray = new boolean[slots.size()];
+			for (int j = 0; j < slotArray.length; j++) {
+				int slot = slots.get(j);
+				slotArray[j] = (slot < 0) ? positional - 1 - slot : slot;
+				percentArray[j] = isPercent.get(j);
+			}
+		}
+		return new MsgTemplate(text, literals.toArray(new String[literals.size()]), slotArray, percentArray,
+				names.toArray(new String[names.size()]), positional);
+	}
+
+	private static boolean isPlaceholderName(String name) {
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true, if the placeholder is an argument index, like
+	 *         <code>12</code>
+	 */
+	private static boolean isIndex(String name) {
+		if (name.length() > 9) {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) < '0' || name.charAt(i) > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the translated message with its placeholders left in
+	 */
+	String getText() {
+		return text;
+	}
+
+	/**
+	 * @return true, if the message has at least one placeholder
+	 */
+	boolean hasPlaceholders() {
+		return slots.length > 0;
+	}
+
+	/**
+	 * @return true, if the message renders to nothing without arguments
+	 */
+	boolean isEmpty() {
+		return text.isEmpty();
+	}
+
+	/**
+	 * Get the argument index of a named placeholder.
+	 *
+	 * @param name the placeholder name, without braces
+	 * @return the argument index, or -1 if the message has no such placeholder
+	 */
+	int slotOf(String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return firstNamed + i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Append the message to a builder, filling in the placeholders. Missing or
+	 * null arguments render as nothing.
+	 *
+	 * @param out  the builder to append to
+	 * @param args the arguments
+	 * @return the builder
+	 */
+	StringBuilder render(StringBuilder out, Object... args) {
+		out.append(literals[0]);
+		for (int i = 0; i < slots.length; i++) {
+			int slot = slots[i];
+			if (slot < args.length && args[slot] != null) {
+				out.append(args[slot]);
+			}
+			out.append(literals[i + 1]);
+		}
+		return out;
+	}
+
+	/**
+	 * Append the message to a builder, filling every <code>%</code> with the
+	 * same argument. Other placeholders take it as their first argument.
+	 *
+	 * @param out the builder to append to
+	 * @param arg the argument
+	 * @return the builder
+	 */
+	StringBuilder renderSingle(StringBuilder out, String arg) {
+		out.append(literals[0]);
+		for (int i = 0; i < slots.length; i++) {
+			if (percents[i] || slots[i] == 0) {
+				out.append(arg);
+			}
+			out.append(literals[i + 1]);
+		}
+		return out;
+	}
+
+	/**
+	 * Render the message on its own, filling every <code>%</code> with the same
+	 * argument.
+	 *
+	 * @param arg the argument
+	 * @return the rendered message
+	 */
+	String formatSingle(String arg) {
+		if (slots.length == 0) {
+			return text;
+		}
+		return renderSingle(new StringBuilder(length + 16 * slots.length), arg).toString();
+	}
+
+	/**
+	 * Render the message on its own.
+	 *
+	 * @param args the arguments
+	 * @return the rendered message
+	 */
+	String format(Object... args) {
+		if (slots.length == 0) {
+			return text;
+		}
+		return render(new StringBuilder(length + 16 * slots.length), args).toString();
+	}
+
+	/**
+	 * @return a size hint for a builder holding the rendered message
+	 */
+	int lengthHint() {
+		return length + 16 * slots.length;
+	}
+}
@@ -0,0 +1,37 @@
+package com.cptingle.BoardGamesX.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free counter that only goes up.
+ */
+public final class Counter {
+	private final String name;
+	private final String labels;
+	private final LongAdder value = new LongAdder();
+
+	Counter(String name, String labels) {
+		this.name = name;
+		this.labels = labels;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getLabels() {
+		return labels;
+	}
+
+	public void increment() {
+		value.increment();
+	}
+
+	public void add(long amount) {
+		value.add(amount);
+	}
+
+	public long get() {
+		return value.sum();
+	}
+}
@@ -0,0 +1,130 @@
+package com.cptingle.BoardGamesX.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, e.g. latencies in nanoseconds.
+ * <p>
+ * Like an HDR histogram, buckets are log-linear: every power of two is split
+ * into 16 equal buckets, so any recorded value is known to within about 6%
+ * over the whole range of <code>long</code>, in under 1000 counters.
+ * Recording is a few bit operations and one atomic increment.
+ */
+public final class Histogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+	private final String name;
+	private final String labels;
+	private final AtomicLongArray counts;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	Histogram(String name, String labels) {
+		this.name = name;
+		this.labels = labels;
+		this.counts = new AtomicLongArray(BUCKETS);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the labels in Prometheus form, e.g. <code>command="reload"</code>,
+	 *         or an empty string
+	 */
+	public String getLabels() {
+		return labels;
+	}
+
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts.incrementAndGet(index(value));
+		count.increment();
+		sum.add(value);
+		long m = max.get();
+		while (value > m && !max.compareAndSet(m, value)) {
+			m = max.get();
+		}
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSum() {
+		return sum.sum();
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @param quantile the quantile, between 0 and 1
+	 * @return the value below which the quantile of recorded values falls, or 0
+	 *         if nothing was recorded
+	 */
+	public long getValueAt(double quantile) {
+		long total = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		if (total == 0) {
+			return 0L;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(upperBound(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Forget every recorded value.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0L);
+		}
+		count.reset();
+		sum.reset();
+		max.set(0L);
+	}
+
+	static int index(long value) {
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	/**
+	 * @return the largest value of a bucket
+	 */
+	static long upperBound(int index) {
+		if (index < SUB_COUNT) {
+			return index;
+		}
+		int exponent = index / SUB_COUNT + SUB_BITS - 1;
+		long sub = index % SUB_COUNT;
+		long lower = (SUB_COUNT + sub) << (exponent - SUB_BITS);
+		long width = 1L << (exponent - SUB_BITS);
+		return lower + width - 1;
+	}
+}
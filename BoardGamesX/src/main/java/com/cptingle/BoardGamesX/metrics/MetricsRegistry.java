@@ -0,0 +1,192 @@
+package com.cptingle.BoardGamesX.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The counters, histograms and gauges of the plugin.
+ * <p>
+ * Metrics are looked up once, by name and optional labels, and kept in fields
+ * by the code that updates them, so the hot path never touches the registry's
+ * maps. Timing goes through {@link #start()} and
+ * {@link #stop(Histogram, long)}: while metrics are disabled, that is a single
+ * volatile read and no clock reads.
+ */
+public class MetricsRegistry {
+	private final Map<String, Counter> counters;
+	private final Map<String, Histogram> histograms;
+	private final Map<String, Gauge> gauges;
+	private volatile boolean enabled;
+
+	public MetricsRegistry(boolean enabled) {
+		this.counters = new ConcurrentHashMap<>();
+		this.histograms = new ConcurrentHashMap<>();
+		this.gauges = new ConcurrentHashMap<>();
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * @param name   the name of the counter
+	 * @param labels label names and values, alternating
+	 * @return the counter, created if needed
+	 */
+	public Counter counter(String name, String... labels) {
+		String l = labels(labels);
+		String key = key(name, l);
+		Counter counter = counters.get(key);
+		if (counter == null) {
+			counters.putIfAbsent(key, new Counter(name, l));
+			counter = counters.get(key);
+		}
+		return counter;
+	}
+
+	/**
+	 * @param name   the name of the histogram
+	 * @param labels label names and values, alternating
+	 * @return the histogram, created if needed
+	 */
+	public Histogram histogram(String name, String... labels) {
+		String l = labels(labels);
+		String key = key(name, l);
+		Histogram histogram = histograms.get(key);
+		if (histogram == null) {
+			histograms.putIfAbsent(key, new Histogram(name, l));
+			histogram = histograms.get(key);
+		}
+		return histogram;
+	}
+
+	/**
+	 * Register a value that is read when the metrics are shown, e.g. a queue
+	 * depth kept by another class.
+	 */
+	public void gauge(String name, LongSupplier value, String... labels) {
+		String l = labels(labels);
+		gauges.put(key(name, l), new Gauge(name, l, value));
+	}
+
+	/**
+	 * Forget a histogram, e.g. of a game that was removed.
+	 */
+	public void removeHistogram(String name, String... labels) {
+		histograms.remove(key(name, labels(labels)));
+	}
+
+	/**
+	 * @return the start time for {@link #stop(Histogram, long)}, or 0 if
+	 *         metrics are disabled
+	 */
+	public long start() {
+		return enabled ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * Record the time since {@link #start()}.
+	 */
+	public void stop(Histogram histogram, long start) {
+		if (start != 0L) {
+			histogram.record(System.nanoTime() - start);
+		}
+	}
+
+	/*
+	 * Listing, sorted by name
+	 */
+	public List<Counter> getCounters() {
+		return sorted(counters);
+	}
+
+	public List<Histogram> getHistograms() {
+		return sorted(histograms);
+	}
+
+	public List<Gauge> getGauges() {
+		return sorted(gauges);
+	}
+
+	private static <T> List<T> sorted(Map<String, T> map) {
+		List<Map.Entry<String, T>> entries = new ArrayList<>(map.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, T>>() {
+			@Override
+			public int compare(Map.Entry<String, T> a, Map.Entry<String, T> b) {
+				return a.getKey().compareTo(b.getKey());
+			}
+		});
+		List<T> result = new ArrayList<>(entries.size());
+		for (Map.Entry<String, T> entry : entries) {
+			result.add(entry.getValue());
+		}
+		return result;
+	}
+
+	private static String key(String name, String labels) {
+		return labels.isEmpty() ? name : name + "{" + labels + "}";
+	}
+
+	private static String labels(String[] labels) {
+		if (labels.length == 0) {
+			return "";
+		}
+		if (labels.length % 2 != 0) {
+			throw new IllegalArgumentException("Labels must be name and value pairs");
+		}
+		StringBuilder out = new StringBuilder();
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) {
+				out.append(',');
+			}
+			out.append(labels[i]).append("=\"");
+			String value = labels[i + 1];
+			for (int j = 0; j < value.length(); j++) {
+				char c = value.charAt(j);
+				if (c == '"' || c == '\\') {
+					out.append('\\');
+				}
+				out.append((c == '\n') ? ' ' : c);
+			}
+			out.append('"');
+		}
+		return out.toString();
+	}
+
+	/**
+	 * A value read on demand.
+	 */
+	public static final class Gauge {
+		private final String name;
+		private final String labels;
+		private final LongSupplier value;
+
+		Gauge(String name, String labels, LongSupplier value) {
+			this.name = name;
+			this.labels = labels;
+			this.value = value;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getLabels() {
+			return labels;
+		}
+
+		public long get() {
+			return value.getAsLong();
+		}
+	}
+}
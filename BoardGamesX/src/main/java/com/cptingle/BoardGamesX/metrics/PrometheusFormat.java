@@ -0,0 +1,64 @@
+package com.cptingle.BoardGamesX.metrics;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the metrics of a registry in the Prometheus text format, for a
+ * node-exporter style text file collector.
+ * <p>
+ * Histograms are written as summaries with a few quantiles.
+ */
+public final class PrometheusFormat {
+	private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+	private PrometheusFormat() {
+	}
+
+	/**
+	 * @return the metrics as UTF-8 text
+	 */
+	public static byte[] encode(MetricsRegistry registry) {
+		StringBuilder out = new StringBuilder(4096);
+		String last = null;
+		for (Counter counter : registry.getCounters()) {
+			last = type(out, last, counter.getName(), "counter");
+			line(out, counter.getName(), counter.getLabels(), null, counter.get());
+		}
+		for (MetricsRegistry.Gauge gauge : registry.getGauges()) {
+			last = type(out, last, gauge.getName(), "gauge");
+			line(out, gauge.getName(), gauge.getLabels(), null, gauge.get());
+		}
+		for (Histogram histogram : registry.getHistograms()) {
+			last = type(out, last, histogram.getName(), "summary");
+			for (double q : QUANTILES) {
+				line(out, histogram.getName(), histogram.getLabels(), "quantile=\"" + q + "\"",
+						histogram.getValueAt(q));
+			}
+			line(out, histogram.getName() + "_sum", histogram.getLabels(), null, histogram.getSum());
+			line(out, histogram.getName() + "_count", histogram.getLabels(), null, histogram.getCount());
+		}
+		return out.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String type(StringBuilder out, String last, String name, String type) {
+		if (!name.equals(last)) {
+			out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		}
+		return name;
+	}
+
+	private static void line(StringBuilder out, String name, String labels, String extra, long value) {
+		out.append(name);
+		if (!labels.isEmpty() || extra != null) {
+			out.append('{').append(labels);
+			if (extra != null) {
+				if (!labels.isEmpty()) {
+					out.append(',');
+				}
+				out.append(extra);
+			}
+			out.append('}');
+		}
+		out.append(' ').append(value).append('\n');
+	}
+}
@@ -0,0 +1,302 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * A read-only view of an append-only move log, memory-mapped or read into
+ * memory.
+ * <p>
+ * The file starts with a header (magic, version, board size, snapshot
+ * interval), followed by records. Each record starts with a varint whose low
+ * bit tells its kind:
+ * <ul>
+ * <li>0: a move, the zigzag-encoded move in the remaining bits. Most moves take
+ * one or two bytes.</li>
+ * <li>1: a snapshot of the board: the number of moves before it, the side to
+ * move and every cell, all as varints.</li>
+ * </ul>
+ * A snapshot of the starting position comes first, and another one follows
+ * every <code>interval</code> moves. Opening a log maps the file and indexes the
+ * snapshots in one pass; {@link #seek(int, Gameboard, GameRules)} then loads
+ * the nearest snapshot and replays at most <code>interval - 1</code> moves.
+ * A mapping lives until it is garbage collected, and on some systems a mapped
+ * file cannot be truncated or replaced; logs that are about to be written to
+ * are {@link #read(Path) read} instead.
+ */
+public class MoveLog implements Closeable {
+	private static final int MAGIC = 0x4247584C; // "BGXL"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4 + 1 + 2 + 2 + 2 + 4;
+
+	static final int MAX_MOVE_SIZE = 5;
+
+	// Null if the file was read into memory
+	private final FileChannel channel;
+	private final ByteBuffer map;
+
+	private final int width;
+	private final int height;
+	private final int pieceTypes;
+	private final int interval;
+
+	private int moveCount;
+	private int validLength;
+	private int snapshotCount;
+	private int[] snapshotMoves;
+	private int[] snapshotOffsets;
+
+	private MoveLog(FileChannel channel, ByteBuffer map) throws IOException {
+		this.channel = channel;
+		this.map = map;
+
+		ByteBuffer in = map.duplicate();
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new IOException("Not a move log");
+			}
+			int version = in.get() & 0xFF;
+			if (version != VERSION) {
+				throw new IOException("Unknown move log version " + version);
+			}
+			this.width = in.getShort() & 0xFFFF;
+			this.height = in.getShort() & 0xFFFF;
+			this.pieceTypes = in.getShort() & 0xFFFF;
+			this.interval = in.getInt();
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Move log header is incomplete");
+		}
+		scan(in);
+		if (snapshotCount == 0) {
+			throw new IOException("Move log has no starting position");
+		}
+	}
+
+	/**
+	 * Map a log file and index it.
+	 *
+	 * @param file the file
+	 * @return the log
+	 * @throws IOException if the file cannot be read or is not a move log
+	 */
+	public static MoveLog open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Move log is too large");
+			}
+			return new MoveLog(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Read a log file into memory and index it. Nothing of the file stays open
+	 * or mapped, so it can be truncated or replaced right away.
+	 *
+	 * @param file the file
+	 * @return the log
+	 * @throws IOException if the file cannot be read or is not a move log
+	 */
+	public static MoveLog read(Path file) throws IOException {
+		ByteBuffer data;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Move log is too large");
+			}
+			data = ByteBuffer.allocate((int) size);
+			while (data.hasRemaining() && channel.read(data) >= 0) {
+				// Read until full; a file that shrank ends early
+			}
+		}
+		data.flip();
+		return new MoveLog(null, data);
+	}
+
+	/**
+	 * Index the snapshots. A record cut off at the end of the file, e.g. by a
+	 * crash, ends the log.
+	 */
+	private void scan(ByteBuffer in) {
+		snapshotMoves = new int[16];
+		snapshotOffsets = new int[16];
+		int cells = width * height;
+
+		validLength = in.position();
+		try {
+			while (in.hasRemaining()) {
+				int start = in.position();
+				long tag = Varint.read(in);
+				if ((tag & 1L) == 0L) {
+					moveCount++;
+				} else {
+					int moves = (int) Varint.read(in);
+					Varint.read(in);
+					for (int i = 0; i < cells; i++) {
+						Varint.read(in);
+					}
+					if (snapshotCount == snapshotMoves.length) {
+						snapshotMoves = Arrays.copyOf(snapshotMoves, snapshotCount * 2);
+						snapshotOffsets = Arrays.copyOf(snapshotOffsets, snapshotCount * 2);
+					}
+					snapshotMoves[snapshotCount] = moves;
+					snapshotOffsets[snapshotCount] = start;
+					snapshotCount++;
+				}
+				validLength = in.position();
+			}
+		} catch (BufferUnderflowException e) {
+			// Torn record, ignore it
+		}
+	}
+
+	/**
+	 * Set up a board as it was after a number of moves.
+	 *
+	 * @param move  the number of moves, from 0 to {@link #getMoveCount()}
+	 * @param board a board of the log's size
+	 * @param rules the rules to replay moves with
+	 */
+	public void seek(int move, Gameboard board, GameRules rules) {
+		if (move < 0 || move > moveCount) {
+			throw new IndexOutOfBoundsException("Move " + move + " of " + moveCount);
+		}
+		if (board.getCellCount() != width * height) {
+			throw new IllegalArgumentException("Board has " + board.getCellCount() + " cells, log has " + width * height);
+		}
+
+		// The last snapshot at or before the move
+		int index = Arrays.binarySearch(snapshotMoves, 0, snapshotCount, move);
+		if (index < 0) {
+			index = -index - 2;
+		}
+
+		ByteBuffer in = map.duplicate();
+		in.position(snapshotOffsets[index]);
+		int at = readSnapshot(in, board);
+
+		while (at < move) {
+			long tag = Varint.read(in);
+			if ((tag & 1L) == 0L) {
+				rules.makeMove(board, Varint.unzigzag(tag >>> 1));
+				at++;
+			} else {
+				skipSnapshot(in);
+			}
+		}
+	}
+
+	/**
+	 * @return every move in the log, in order
+	 */
+	public int[] readMoves() {
+		int[] moves = new int[moveCount];
+		ByteBuffer in = map.duplicate();
+		in.position(HEADER_SIZE);
+		int count = 0;
+		while (count < moveCount) {
+			long tag = Varint.read(in);
+			if ((tag & 1L) == 0L) {
+				moves[count++] = Varint.unzigzag(tag >>> 1);
+			} else {
+				skipSnapshot(in);
+			}
+		}
+		return moves;
+	}
+
+	private int readSnapshot(ByteBuffer in, Gameboard board) {
+		Varint.read(in);
+		int moves = (int) Varint.read(in);
+		int side = (int) Varint.read(in);
+		board.clear();
+		for (int cell = 0; cell < width * height; cell++) {
+			board.set(cell, (int) Varint.read(in));
+		}
+		board.setSideToMove(side);
+		return moves;
+	}
+
+	private void skipSnapshot(ByteBuffer in) {
+		Varint.read(in);
+		Varint.read(in);
+		for (int cell = 0; cell < width * height; cell++) {
+			Varint.read(in);
+		}
+	}
+
+	/*
+	 * Encoding, shared with the writer
+	 */
+	static void writeHeader(ByteBuffer out, Gameboard board, int interval) {
+		out.putInt(MAGIC);
+		out.put((byte) VERSION);
+		out.putShort((short) board.getWidth());
+		out.putShort((short) board.getHeight());
+		out.putShort((short) board.getPieceTypes());
+		out.putInt(interval);
+	}
+
+	static void writeSnapshot(ByteBuffer out, Gameboard board, int moves) {
+		Varint.write(out, 1L);
+		Varint.write(out, moves);
+		Varint.write(out, board.getSideToMove());
+		for (int cell = 0; cell < board.getCellCount(); cell++) {
+			Varint.write(out, board.get(cell));
+		}
+	}
+
+	static int maxSnapshotSize(int cells) {
+		return HEADER_SIZE + 1 + 5 + 3 + cells * 3;
+	}
+
+	/*
+	 * Getters
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getPieceTypes() {
+		return pieceTypes;
+	}
+
+	public int getSnapshotInterval() {
+		return interval;
+	}
+
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	/**
+	 * @return the length of the file up to the last complete record
+	 */
+	public long getValidLength() {
+		return validLength;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+		}
+	}
+}
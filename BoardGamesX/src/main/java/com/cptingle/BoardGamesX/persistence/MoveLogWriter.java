@@ -0,0 +1,149 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * Appends moves to a {@link MoveLog} file.
+ * <p>
+ * Records are collected in a buffer and written to the file channel when it
+ * fills up or on {@link #flush()}, so appending a move is only a few bytes of
+ * memory traffic. The writer is not thread-safe; it belongs to the thread that
+ * plays the game.
+ */
+public class MoveLogWriter implements Closeable {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final int cellCount;
+	private final int interval;
+	private int moveCount;
+
+	private MoveLogWriter(FileChannel channel, int cellCount, int interval, int moveCount) {
+		this.channel = channel;
+		this.cellCount = cellCount;
+		this.interval = interval;
+		this.moveCount = moveCount;
+		this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, MoveLog.maxSnapshotSize(cellCount)));
+	}
+
+	/**
+	 * Start a new log, replacing the file if it exists. The board is recorded as
+	 * the starting position.
+	 *
+	 * @param file     the file
+	 * @param board    the starting position
+	 * @param interval the number of moves between snapshots of the board
+	 */
+	public static MoveLogWriter create(Path file, Gameboard board, int interval) throws IOException {
+		if (interval < 1) {
+			throw new IllegalArgumentException("Invalid snapshot interval " + interval);
+		}
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		MoveLogWriter writer = new MoveLogWriter(channel, board.getCellCount(), interval, 0);
+		MoveLog.writeHeader(writer.buffer, board, interval);
+		writer.snapshot(board);
+		return writer;
+	}
+
+	/**
+	 * Continue an existing log. A record torn by a crash at the end of the file is
+	 * cut off.
+	 *
+	 * @param file the file
+	 * @throws IOException if the file is not a move log, or the torn record
+	 *                     cannot be cut off
+	 */
+	public static MoveLogWriter append(Path file) throws IOException {
+		int cellCount;
+		int interval;
+		int moveCount;
+		long length;
+		// Read, not mapped, so the file can be truncated below
+		try (MoveLog log = MoveLog.read(file)) {
+			cellCount = log.getWidth() * log.getHeight();
+			interval = log.getSnapshotInterval();
+			moveCount = log.getMoveCount();
+			length = log.getValidLength();
+		}
+
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+		try {
+			if (length < channel.size()) {
+				channel.truncate(length);
+			}
+			channel.position(length);
+		} catch (IOException e) {
+			channel.close();
+			throw new IOException("Could not cut off the torn end of move log " + file, e);
+		}
+		return new MoveLogWriter(channel, cellCount, interval, moveCount);
+	}
+
+	/**
+	 * Record a move.
+	 *
+	 * @param move  the move
+	 * @param after the board after the move, for the periodic snapshot
+	 */
+	public void append(int move, Gameboard after) throws IOException {
+		if (buffer.remaining() < MoveLog.MAX_MOVE_SIZE) {
+			flush();
+		}
+		Varint.write(buffer, Varint.zigzag(move) << 1);
+		moveCount++;
+
+		if (moveCount % interval == 0) {
+			snapshot(after);
+		}
+	}
+
+	private void snapshot(Gameboard board) throws IOException {
+		if (board.getCellCount() != cellCount) {
+			throw new IllegalArgumentException("Board has " + board.getCellCount() + " cells, log has " + cellCount);
+		}
+		if (buffer.remaining() < MoveLog.maxSnapshotSize(cellCount)) {
+			flush();
+		}
+		MoveLog.writeSnapshot(buffer, board, moveCount);
+	}
+
+	/**
+	 * @return the number of moves in the log
+	 */
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	/**
+	 * Write buffered records to the file.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Write buffered records, force them to disk and close the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			channel.force(false);
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+
+/**
+ * Records the moves of one match in a {@link MoveLog} file, without touching
+ * the disk on the thread that plays the game.
+ * <p>
+ * Moves are collected in memory and handed to a background executor in
+ * batches: on {@link #flush()}, on {@link #close()} and whenever a batch fills
+ * up. Opening, writing, forcing and closing the file all run on the executor,
+ * which must run its tasks one at a time and in order. It replays the moves on
+ * a board of its own for the periodic snapshots. A log that already ends with
+ * the starting position, e.g. after a restart in the middle of a match, is
+ * continued instead of replaced. If the file cannot be written, the error is
+ * logged and the rest of the match is not recorded.
+ * <p>
+ * {@link #record(int)}, {@link #flush()} and {@link #close()} belong to the
+ * thread that plays the game.
+ */
+public class MoveRecorder {
+	private static final int BATCH_SIZE = 256;
+
+	private final Path file;
+	private final GameRules rules;
+	private final Executor executor;
+	private final Logger logger;
+
+	// Thread of the game
+	private int[] batch;
+	private int size;
+	private boolean closed;
+
+	// Executor only
+	private final Gameboard board;
+	private MoveLogWriter writer;
+
+	private volatile boolean failed;
+
+	private MoveRecorder(Path file, Gameboard board, GameRules rules, Executor executor, Logger logger) {
+		this.file = file;
+		this.board = board;
+		this.rules = rules;
+		this.executor = executor;
+		this.logger = logger;
+		this.batch = new int[BATCH_SIZE];
+	}
+
+	/**
+	 * Start recording a match.
+	 *
+	 * @param file     the log file
+	 * @param board    the board before the first move; it is copied
+	 * @param rules    the rules of the game
+	 * @param interval the number of moves between snapshots of the board
+	 * @param executor runs the file operations, one at a time and in order
+	 * @param logger   where to report errors
+	 * @return the recorder
+	 */
+	public static MoveRecorder start(Path file, Gameboard board, GameRules rules, final int interval,
+			Executor executor, Logger logger) {
+		final MoveRecorder recorder = new MoveRecorder(file, board.copy(), rules, executor, logger);
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				recorder.open(interval);
+			}
+		});
+		return recorder;
+	}
+
+	/**
+	 * Record a move, in memory.
+	 *
+	 * @param move the move
+	 */
+	public void record(int move) {
+		if (size == batch.length) {
+			flush();
+		}
+		batch[size++] = move;
+	}
+
+	/**
+	 * Hand the moves recorded so far to the executor to be written.
+	 */
+	public void flush() {
+		if (size == 0 || failed) {
+			size = 0;
+			return;
+		}
+		final int[] moves = batch;
+		final int count = size;
+		batch = new int[BATCH_SIZE];
+		size = 0;
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				write(moves, count);
+			}
+		});
+	}
+
+	/**
+	 * Write the moves recorded so far, force them to disk and close the file,
+	 * all on the executor.
+	 */
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		flush();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				finish();
+			}
+		});
+	}
+
+	/*
+	 * Executor
+	 */
+
+	private void open(int interval) {
+		if (Files.isRegularFile(file) && endsWithBoard()) {
+			try {
+				writer = MoveLogWriter.append(file);
+				return;
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Could not continue move log " + file + ", starting a new one", e);
+			}
+		}
+		try {
+			Path folder = file.getParent();
+			if (folder != null) {
+				Files.createDirectories(folder);
+			}
+			writer = MoveLogWriter.create(file, board, interval);
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * @return true, if the log in the file ends with the starting position;
+	 *         false if it ends elsewhere or cannot be read, e.g. because the
+	 *         server stopped while it was created
+	 */
+	private boolean endsWithBoard() {
+		try (MoveLog log = MoveLog.read(file)) {
+			if (log.getWidth() != board.getWidth() || log.getHeight() != board.getHeight()) {
+				return false;
+			}
+			Gameboard end = rules.createBoard();
+			log.seek(log.getMoveCount(), end, rules);
+			return end.getHash() == board.getHash();
+		} catch (IOException | IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	private void write(int[] moves, int count) {
+		if (writer == null) {
+			return;
+		}
+		try {
+			for (int i = 0; i < count; i++) {
+				rules.makeMove(board, moves[i]);
+				writer.append(moves[i], board);
+			}
+			writer.flush();
+		} catch (IOException | IllegalArgumentException e) {
+			fail(e);
+		}
+	}
+
+	private void finish() {
+		if (writer == null) {
+			return;
+		}
+		try {
+			writer.close();
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Could not close move log " + file, e);
+		}
+		writer = null;
+	}
+
+	private void fail(Exception e) {
+		// A broken log must not break the game; the match is not recorded any further
+		logger.log(Level.WARNING, "Could not record moves in " + file + ", the rest of the match is not recorded", e);
+		failed = true;
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException ignored) {
+				// Reported above
+			}
+			writer = null;
+		}
+	}
+}
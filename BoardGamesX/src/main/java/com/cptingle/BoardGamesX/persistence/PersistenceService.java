@@ -0,0 +1,264 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes files behind the main thread.
+ * <p>
+ * A write is queued with a function that produces the file's content, and
+ * runs on a single background thread after a short delay. Writes to the same
+ * file that are queued in the meantime are coalesced: only the latest content
+ * is produced and written. Content whose SHA-256 matches what is already on
+ * disk is not written at all. Files are written to a temporary file first and
+ * then moved over the target atomically, so a crash never leaves a half
+ * written file behind.
+ */
+public class PersistenceService implements Executor {
+	private static final Callable<byte[]> DELETE = new Callable<byte[]>() {
+		@Override
+		public byte[] call() {
+			return null;
+		}
+	};
+
+	private final Logger logger;
+	private final long delayMillis;
+	private final ScheduledExecutorService executor;
+	private final Map<Path, Callable<byte[]>> pending;
+
+	// Only touched by the background thread
+	private final Map<Path, byte[]> digests;
+
+	private final LongAdder written = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	/**
+	 * @param logger      where to report failed writes
+	 * @param delayMillis how long to wait for more writes to the same file
+	 */
+	public PersistenceService(Logger logger, long delayMillis) {
+		this.logger = logger;
+		this.delayMillis = Math.max(0L, delayMillis);
+		this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "BoardGamesX-Persistence");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.pending = new ConcurrentHashMap<>();
+		this.digests = new HashMap<>();
+	}
+
+	/**
+	 * Queue a write.
+	 *
+	 * @param target  the file to write
+	 * @param content produces the content on the background thread; must not
+	 *                touch state that the main thread changes
+	 */
+	public void write(final Path target, Callable<byte[]> content) {
+		if (pending.put(target, content) != null) {
+			coalesced.increment();
+			return;
+		}
+		try {
+			executor.schedule(new Runnable() {
+				@Override
+				public void run() {
+					drain(target);
+				}
+			}, delayMillis, TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			// Shut down already, write on this thread rather than lose it
+			drain(target);
+		}
+	}
+
+	/**
+	 * Run a task on the background thread, after the tasks handed in before it.
+	 * Once shut down, the task runs on this thread rather than be lost.
+	 */
+	@Override
+	public void execute(Runnable task) {
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	/**
+	 * Queue the deletion of a file, replacing any write queued for it.
+	 */
+	public void delete(Path target) {
+		write(target, DELETE);
+	}
+
+	/**
+	 * Perform all queued writes now, and wait until they are done.
+	 */
+	public void flush() {
+		if (executor.isShutdown()) {
+			return;
+		}
+		try {
+			executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					List<Path> targets = new ArrayList<>(pending.keySet());
+					for (Path target : targets) {
+						drain(target);
+					}
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			logger.log(Level.SEVERE, "Error while flushing writes", e.getCause());
+		}
+	}
+
+	/**
+	 * Perform all queued writes and stop the background thread.
+	 */
+	public void shutdown() {
+		flush();
+		executor.shutdownNow();
+	}
+
+	private void drain(Path target) {
+		Callable<byte[]> content = pending.remove(target);
+		if (content == null) {
+			// Already written by a flush
+			return;
+		}
+
+		try {
+			if (content == DELETE) {
+				Files.deleteIfExists(target);
+				digests.remove(target);
+				return;
+			}
+
+			byte[] bytes = content.call();
+			byte[] digest = digest(bytes);
+			if (Arrays.equals(digest, lastDigest(target))) {
+				skipped.increment();
+				return;
+			}
+
+			writeAtomically(target, bytes);
+			digests.put(target, digest);
+			written.increment();
+		} catch (Exception e) {
+			failed.increment();
+			logger.log(Level.SEVERE, "Could not write " + target, e);
+		}
+	}
+
+	/**
+	 * @return the digest of what is on disk, hashing the file on first use
+	 */
+	private byte[] lastDigest(Path target) throws IOException {
+		byte[] digest = digests.get(target);
+		if (digest == null && Files.isRegularFile(target)) {
+			digest = digest(Files.readAllBytes(target));
+			digests.put(target, digest);
+		}
+		return digest;
+	}
+
+	private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+		Path parent = target.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static byte[] digest(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			// Every JVM has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/*
+	 * Counters
+	 */
+	public long getWritten() {
+		return written.sum();
+	}
+
+	/**
+	 * @return the number of writes skipped because the content was unchanged
+	 */
+	public long getSkipped() {
+		return skipped.sum();
+	}
+
+	/**
+	 * @return the number of writes merged into a write already queued
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	/**
+	 * @return the number of files waiting to be written
+	 */
+	public int getPending() {
+		return pending.size();
+	}
+}
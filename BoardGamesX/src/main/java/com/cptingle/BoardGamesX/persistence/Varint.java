@@ -0,0 +1,49 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 variable-length integers: seven bits per byte, low bits first, the
+ * high bit set on every byte but the last. Small values take a single byte.
+ */
+final class Varint {
+
+	private Varint() {
+	}
+
+	static void write(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0L) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * @throws BufferUnderflowException if the buffer ends inside the value
+	 */
+	static long read(ByteBuffer buffer) {
+		long value = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalStateException("Malformed varint");
+	}
+
+	/**
+	 * Map signed to unsigned, so small negative values stay small.
+	 */
+	static long zigzag(int value) {
+		return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+	}
+
+	static int unzigzag(long value) {
+		int v = (int) value;
+		return (v >>> 1) ^ -(v & 1);
+	}
+}
@@ -0,0 +1,102 @@
+package com.cptingle.BoardGamesX.region;
+
+import java.util.UUID;
+
+import com.cptingle.BoardGamesX.framework.Game;
+
+/**
+ * The blocks of a game's board in a world: a flat, axis-aligned rectangle of
+ * one block per cell. Cell <code>(i, j)</code> of the board is the block at
+ * <code>(x + i, y, z + j)</code>.
+ */
+public final class BoardRegion {
+	private final Game game;
+	private final UUID world;
+	private final int x;
+	private final int y;
+	private final int z;
+	private final int width;
+	private final int depth;
+
+	/**
+	 * @param game  the game played on the board
+	 * @param world the world the board is in
+	 * @param x     the lowest x coordinate of the board
+	 * @param y     the y coordinate of the board
+	 * @param z     the lowest z coordinate of the board
+	 * @param width the number of cells along the x axis
+	 * @param depth the number of cells along the z axis
+	 */
+	public BoardRegion(Game game, UUID world, int x, int y, int z, int width, int depth) {
+		if (width < 1 || depth < 1) {
+			throw new IllegalArgumentException("Invalid board size " + width + "x" + depth);
+		}
+		this.game = game;
+		this.world = world;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.width = width;
+		this.depth = depth;
+	}
+
+	public Game getGame() {
+		return game;
+	}
+
+	public UUID getWorld() {
+		return world;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getZ() {
+		return z;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the cell at a block of the same world, or -1 if the block is not
+	 *         part of the board
+	 */
+	public int cellAt(int bx, int by, int bz) {
+		int i = bx - x;
+		int j = bz - z;
+		if (by != y || i < 0 || j < 0 || i >= width || j >= depth) {
+			return -1;
+		}
+		return j * width + i;
+	}
+
+	/*
+	 * Chunks covered by the board
+	 */
+	int getMinChunkX() {
+		return x >> 4;
+	}
+
+	int getMaxChunkX() {
+		return (x + width - 1) >> 4;
+	}
+
+	int getMinChunkZ() {
+		return z >> 4;
+	}
+
+	int getMaxChunkZ() {
+		return (z + depth - 1) >> 4;
+	}
+}
@@ -0,0 +1,208 @@
+package com.cptingle.BoardGamesX.region;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.cptingle.BoardGamesX.framework.Game;
+
+/**
+ * Finds the board at a block without looking at every game.
+ * <p>
+ * Per world, the chunks a board covers are kept in a primitive map keyed by
+ * the packed chunk coordinates, and each chunk resolves a block to its board
+ * with a table lookup (see {@link ChunkRegions}). Boards may not share blocks.
+ * Adding, moving and removing a board only touches the chunks it covers. Used
+ * on the main thread only.
+ */
+public class BoardRegionIndex {
+	private static final BoardRegion[] NONE = new BoardRegion[0];
+
+	private final Map<UUID, LongObjectHashMap<ChunkRegions>> worlds;
+	private final Map<Game, BoardRegion[]> byGame;
+	private int size;
+
+	// Events tend to come from the same world in a row
+	private UUID lastWorld;
+	private LongObjectHashMap<ChunkRegions> lastChunks;
+
+	public BoardRegionIndex() {
+		this.worlds = new HashMap<>();
+		this.byGame = new IdentityHashMap<>();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the board shares a block with another
+	 *                                  board
+	 */
+	public void add(BoardRegion region) {
+		LongObjectHashMap<ChunkRegions> chunks = chunks(region.getWorld(), true);
+		for (int cx = region.getMinChunkX(); cx <= region.getMaxChunkX(); cx++) {
+			for (int cz = region.getMinChunkZ(); cz <= region.getMaxChunkZ(); cz++) {
+				ChunkRegions chunk = chunks.get(chunkKey(cx, cz));
+				if (chunk != null && chunk.overlaps(region)) {
+					if (chunks.isEmpty()) {
+						removeWorld(region.getWorld());
+					}
+					throw new IllegalArgumentException("The board of '" + region.getGame().getName()
+							+ "' overlaps another board");
+				}
+			}
+		}
+
+		for (int cx = region.getMinChunkX(); cx <= region.getMaxChunkX(); cx++) {
+			for (int cz = region.getMinChunkZ(); cz <= region.getMaxChunkZ(); cz++) {
+				long key = chunkKey(cx, cz);
+				ChunkRegions chunk = chunks.get(key);
+				if (chunk == null) {
+					chunk = new ChunkRegions(cx, cz);
+					chunks.put(key, chunk);
+				}
+				chunk.add(region);
+			}
+		}
+
+		BoardRegion[] regions = byGame.get(region.getGame());
+		regions = (regions == null) ? new BoardRegion[1] : Arrays.copyOf(regions, regions.length + 1);
+		regions[regions.length - 1] = region;
+		byGame.put(region.getGame(), regions);
+		size++;
+	}
+
+	/**
+	 * @return true, if the board was in the index
+	 */
+	public boolean remove(BoardRegion region) {
+		BoardRegion[] regions = byGame.get(region.getGame());
+		int index = (regions == null) ? -1 : Arrays.asList(regions).indexOf(region);
+		if (index < 0) {
+			return false;
+		}
+		if (regions.length == 1) {
+			byGame.remove(region.getGame());
+		} else {
+			BoardRegion[] rest = new BoardRegion[regions.length - 1];
+			System.arraycopy(regions, 0, rest, 0, index);
+			System.arraycopy(regions, index + 1, rest, index, rest.length - index);
+			byGame.put(region.getGame(), rest);
+		}
+
+		LongObjectHashMap<ChunkRegions> chunks = chunks(region.getWorld(), false);
+		for (int cx = region.getMinChunkX(); cx <= region.getMaxChunkX(); cx++) {
+			for (int cz = region.getMinChunkZ(); cz <= region.getMaxChunkZ(); cz++) {
+				long key = chunkKey(cx, cz);
+				ChunkRegions chunk = chunks.get(key);
+				if (chunk != null && chunk.remove(region) && chunk.isEmpty()) {
+					chunks.remove(key);
+				}
+			}
+		}
+		if (chunks.isEmpty()) {
+			removeWorld(region.getWorld());
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * Move a board, e.g. after its game was moved in the world. If the new
+	 * location is taken, the board stays where it was.
+	 *
+	 * @throws IllegalArgumentException if the new location overlaps another
+	 *                                  board
+	 */
+	public void move(BoardRegion from, BoardRegion to) {
+		boolean removed = remove(from);
+		try {
+			add(to);
+		} catch (IllegalArgumentException e) {
+			if (removed) {
+				add(from);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Remove every board of a game.
+	 */
+	public void removeAll(Game game) {
+		for (BoardRegion region : getRegions(game)) {
+			remove(region);
+		}
+	}
+
+	/**
+	 * @return the boards of a game
+	 */
+	public BoardRegion[] getRegions(Game game) {
+		BoardRegion[] regions = byGame.get(game);
+		return (regions == null) ? NONE : regions.clone();
+	}
+
+	/**
+	 * @return the board the block is part of, or null
+	 */
+	public BoardRegion regionAt(UUID world, int x, int y, int z) {
+		LongObjectHashMap<ChunkRegions> chunks = chunks(world, false);
+		if (chunks == null) {
+			return null;
+		}
+		ChunkRegions chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+		return (chunk == null) ? null : chunk.regionAt(x, y, z);
+	}
+
+	/**
+	 * @return true, if any board is in the chunk
+	 */
+	public boolean hasRegions(UUID world, int chunkX, int chunkZ) {
+		LongObjectHashMap<ChunkRegions> chunks = chunks(world, false);
+		return chunks != null && chunks.containsKey(chunkKey(chunkX, chunkZ));
+	}
+
+	/**
+	 * @return the number of boards
+	 */
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		worlds.clear();
+		byGame.clear();
+		lastWorld = null;
+		lastChunks = null;
+		size = 0;
+	}
+
+	private LongObjectHashMap<ChunkRegions> chunks(UUID world, boolean create) {
+		if (world.equals(lastWorld)) {
+			return lastChunks;
+		}
+		LongObjectHashMap<ChunkRegions> chunks = worlds.get(world);
+		if (chunks == null) {
+			if (!create) {
+				return null;
+			}
+			chunks = new LongObjectHashMap<>();
+			worlds.put(world, chunks);
+		}
+		lastWorld = world;
+		lastChunks = chunks;
+		return chunks;
+	}
+
+	private void removeWorld(UUID world) {
+		worlds.remove(world);
+		if (world.equals(lastWorld)) {
+			lastWorld = null;
+			lastChunks = null;
+		}
+	}
+
+	static long chunkKey(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+}
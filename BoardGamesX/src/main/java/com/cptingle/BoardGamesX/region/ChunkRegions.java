@@ -0,0 +1,139 @@
+package com.cptingle.BoardGamesX.region;
+
+import java.util.Arrays;
+
+/**
+ * The boards overlapping one chunk.
+ * <p>
+ * For every height at which a board lies, a table of the chunk's 16x16 columns
+ * holds the board at each block, so finding the board at a block takes one
+ * array read once the height is found. Chunks rarely hold more than one or
+ * two board heights.
+ */
+final class ChunkRegions {
+	private static final BoardRegion[] NONE = new BoardRegion[0];
+
+	private final int chunkX;
+	private final int chunkZ;
+
+	private BoardRegion[] regions = NONE;
+
+	// Per height: the index + 1 of the board at each column, 0 for none
+	private int[] heights = new int[0];
+	private short[][] tables = new short[0][];
+
+	ChunkRegions(int chunkX, int chunkZ) {
+		this.chunkX = chunkX;
+		this.chunkZ = chunkZ;
+	}
+
+	/**
+	 * @return the board at a block of this chunk, or null
+	 */
+	BoardRegion regionAt(int x, int y, int z) {
+		for (int i = 0; i < heights.length; i++) {
+			if (heights[i] == y) {
+				int index = tables[i][((z & 15) << 4) | (x & 15)];
+				return (index == 0) ? null : regions[index - 1];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return true, if the board shares a block with a board of this chunk
+	 */
+	boolean overlaps(BoardRegion region) {
+		short[] table = table(region.getY(), false);
+		if (table == null) {
+			return false;
+		}
+		int minX = Math.max(region.getX(), chunkX << 4);
+		int maxX = Math.min(region.getX() + region.getWidth() - 1, (chunkX << 4) + 15);
+		int minZ = Math.max(region.getZ(), chunkZ << 4);
+		int maxZ = Math.min(region.getZ() + region.getDepth() - 1, (chunkZ << 4) + 15);
+		for (int z = minZ; z <= maxZ; z++) {
+			for (int x = minX; x <= maxX; x++) {
+				if (table[((z & 15) << 4) | (x & 15)] != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	void add(BoardRegion region) {
+		if (regions.length >= Short.MAX_VALUE) {
+			throw new IllegalStateException("Too many boards in chunk " + chunkX + "," + chunkZ);
+		}
+		regions = Arrays.copyOf(regions, regions.length + 1);
+		regions[regions.length - 1] = region;
+		fill(region, (short) regions.length);
+	}
+
+	/**
+	 * @return true, if the board was in this chunk
+	 */
+	boolean remove(BoardRegion region) {
+		int index = -1;
+		for (int i = 0; i < regions.length; i++) {
+			if (regions[i] == region) {
+				index = i;
+				break;
+			}
+		}
+		if (index < 0) {
+			return false;
+		}
+
+		BoardRegion[] rest = new BoardRegion[regions.length - 1];
+		System.arraycopy(regions, 0, rest, 0, index);
+		System.arraycopy(regions, index + 1, rest, index, rest.length - index);
+
+		// Indexes shift, so rebuild the tables; chunks hold few boards
+		regions = rest;
+		heights = new int[0];
+		tables = new short[0][];
+		for (int i = 0; i < regions.length; i++) {
+			fill(regions[i], (short) (i + 1));
+		}
+		return true;
+	}
+
+	boolean isEmpty() {
+		return regions.length == 0;
+	}
+
+	BoardRegion[] getRegions() {
+		return regions;
+	}
+
+	private void fill(BoardRegion region, short value) {
+		short[] table = table(region.getY(), true);
+		int minX = Math.max(region.getX(), chunkX << 4);
+		int maxX = Math.min(region.getX() + region.getWidth() - 1, (chunkX << 4) + 15);
+		int minZ = Math.max(region.getZ(), chunkZ << 4);
+		int maxZ = Math.min(region.getZ() + region.getDepth() - 1, (chunkZ << 4) + 15);
+		for (int z = minZ; z <= maxZ; z++) {
+			for (int x = minX; x <= maxX; x++) {
+				table[((z & 15) << 4) | (x & 15)] = value;
+			}
+		}
+	}
+
+	private short[] table(int y, boolean create) {
+		for (int i = 0; i < heights.length; i++) {
+			if (heights[i] == y) {
+				return tables[i];
+			}
+		}
+		if (!create) {
+			return null;
+		}
+		heights = Arrays.copyOf(heights, heights.length + 1);
+		tables = Arrays.copyOf(tables, tables.length + 1);
+		heights[heights.length - 1] = y;
+		tables[tables.length - 1] = new short[256];
+		return tables[tables.length - 1];
+	}
+}
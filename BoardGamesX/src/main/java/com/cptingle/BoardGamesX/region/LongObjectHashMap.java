@@ -0,0 +1,199 @@
+package com.cptingle.BoardGamesX.region;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive <code>long</code> keys to objects.
+ * <p>
+ * Keys and values are kept in parallel arrays with linear probing, so lookups
+ * neither box the key nor allocate. Removal shifts later entries of the probe
+ * sequence back instead of leaving tombstones. Not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public final class LongObjectHashMap<V> {
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private int resizeAt;
+
+	// Key 0 marks an empty slot, so its value lives outside the table
+	private boolean hasZero;
+	private Object zeroValue;
+
+	public LongObjectHashMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expected the number of entries to make room for
+	 */
+	public LongObjectHashMap(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	/**
+	 * @return the value of the key, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		if (key == 0L) {
+			return (V) zeroValue;
+		}
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			long k = keys[i];
+			if (k == key) {
+				return (V) values[i];
+			} else if (k == 0L) {
+				return null;
+			}
+		}
+	}
+
+	public boolean containsKey(long key) {
+		if (key == 0L) {
+			return hasZero;
+		}
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			long k = keys[i];
+			if (k == key) {
+				return true;
+			} else if (k == 0L) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * @return the previous value of the key, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (key == 0L) {
+			V old = (V) zeroValue;
+			if (!hasZero) {
+				hasZero = true;
+				size++;
+			}
+			zeroValue = value;
+			return old;
+		}
+		int i = slot(key);
+		for (;; i = (i + 1) & mask) {
+			long k = keys[i];
+			if (k == key) {
+				V old = (V) values[i];
+				values[i] = value;
+				return old;
+			} else if (k == 0L) {
+				break;
+			}
+		}
+		keys[i] = key;
+		values[i] = value;
+		if (++size > resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the removed value, or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		if (key == 0L) {
+			V old = (V) zeroValue;
+			if (hasZero) {
+				hasZero = false;
+				zeroValue = null;
+				size--;
+			}
+			return old;
+		}
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			long k = keys[i];
+			if (k == key) {
+				V old = (V) values[i];
+				shiftBack(i);
+				size--;
+				return old;
+			} else if (k == 0L) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Close the gap at a freed slot by moving back entries that probed past it.
+	 */
+	private void shiftBack(int gap) {
+		int i = gap;
+		while (true) {
+			i = (i + 1) & mask;
+			long k = keys[i];
+			if (k == 0L) {
+				break;
+			}
+			int home = slot(k);
+			// Move the entry if its home is not between the gap and its slot
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = k;
+				values[gap] = values[i];
+				gap = i;
+			}
+		}
+		keys[gap] = 0L;
+		values[gap] = null;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int j = 0; j < oldKeys.length; j++) {
+			long k = oldKeys[j];
+			if (k != 0L) {
+				int i = slot(k);
+				while (keys[i] != 0L) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = k;
+				values[i] = oldValues[j];
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(values, null);
+		hasZero = false;
+		zeroValue = null;
+		size = 0;
+	}
+
+	private int slot(long key) {
+		// Chunk keys differ mostly in their low bits of each half, so mix well
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,306 @@
+package com.cptingle.BoardGamesX.render;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.framework.BoardGame;
+import com.cptingle.BoardGamesX.framework.BoardView;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.region.BoardRegion;
+
+/**
+ * Shows the {@link Gameboard} of a game as fake blocks on its board region.
+ * <p>
+ * The renderer remembers the cells it last sent. Once per tick, if the hash of
+ * the board changed, it diffs the board against them and sends only the
+ * changed cells to players who already see the board, so any number of moves
+ * within a tick cost one batch per viewer. Players who come into view get the
+ * whole board; players out of view are dropped and get the whole board again
+ * when they return. The board is read from the {@link BoardView} the game
+ * publishes, never from the live board of a game thread. Main thread only.
+ */
+public class BoardRenderer {
+	private final BoardGame game;
+	private final BoardRegion region;
+	private final BlockData[] palette;
+
+	// The cells as last sent, and the hash of the board at that time
+	private final int[] shown;
+	private long shownHash;
+	private boolean rendered;
+
+	// Cells changed since the last render
+	private final int[] changed;
+	private int changedCount;
+
+	private final int[] all;
+	private final Map<UUID, Viewer> viewers;
+	private int pass;
+	private boolean changedThisTick;
+
+	// The locations of the cells, made once per world and shared by all sends
+	private World locationsWorld;
+	private Location[] locations;
+
+	private final double centerX;
+	private final double centerZ;
+
+	/**
+	 * @param game    the game whose board to show
+	 * @param region  the region to show it on, of the same size as the board
+	 * @param palette the block to show for each piece type, starting with
+	 *                {@link Gameboard#EMPTY}
+	 */
+	public BoardRenderer(BoardGame game, BoardRegion region, BlockData[] palette) {
+		Gameboard board = game.getBoard();
+		if (region.getGame() != game) {
+			throw new IllegalArgumentException("Region of another game");
+		}
+		if (region.getWidth() != board.getWidth() || region.getDepth() != board.getHeight()) {
+			throw new IllegalArgumentException("Region and board differ in size");
+		}
+		if (palette.length <= board.getPieceTypes()) {
+			throw new IllegalArgumentException("No block for every piece type");
+		}
+		this.game = game;
+		this.region = region;
+		this.palette = palette.clone();
+		this.shown = new int[board.getCellCount()];
+		this.changed = new int[board.getCellCount()];
+		this.all = new int[board.getCellCount()];
+		for (int cell = 0; cell < all.length; cell++) {
+			all[cell] = cell;
+		}
+		this.viewers = new HashMap<>();
+		this.centerX = region.getX() + region.getWidth() / 2.0;
+		this.centerZ = region.getZ() + region.getDepth() / 2.0;
+	}
+
+	public BoardGame getGame() {
+		return game;
+	}
+
+	public BoardRegion getRegion() {
+		return region;
+	}
+
+	/**
+	 * @return a renderer of the same board and blocks for another region, e.g.
+	 *         after the board was moved
+	 */
+	public BoardRenderer withRegion(BoardRegion region) {
+		return new BoardRenderer(game, region, palette);
+	}
+
+	/**
+	 * @return the number of players who see the board
+	 */
+	public int getViewerCount() {
+		return viewers.size();
+	}
+
+	/**
+	 * Forget that a player sees the board, e.g. because their client reloaded
+	 * the chunks and lost the fake blocks.
+	 */
+	public void forget(UUID player) {
+		viewers.remove(player);
+	}
+
+	/**
+	 * @return true, if the player is in view and gets the changes of the board
+	 */
+	public boolean isViewer(UUID player) {
+		return viewers.containsKey(player);
+	}
+
+	/**
+	 * @return true, if cells changed in the last render
+	 */
+	public boolean hasChanges() {
+		return changedThisTick;
+	}
+
+	/**
+	 * Send the cells changed in the last render to a player who is not a
+	 * viewer, e.g. a spectator.
+	 *
+	 * @return the number of cells sent
+	 */
+	public int sendChanges(Player player, World world) {
+		if (!changedThisTick) {
+			return 0;
+		}
+		sendCells(player, world, changed, changedCount);
+		return changedCount;
+	}
+
+	/**
+	 * Send the whole board to a player who is not a viewer.
+	 *
+	 * @return the number of cells sent
+	 */
+	public int sendAll(Player player, World world) {
+		sendCells(player, world, all, all.length);
+		return all.length;
+	}
+
+	/**
+	 * Send a player the real blocks of the region instead of the board, e.g.
+	 * because they stopped watching the game.
+	 */
+	public void sendReal(Player player, World world) {
+		Location[] locations = locations(world);
+		for (int cell = 0; cell < locations.length; cell++) {
+			player.sendBlockChange(locations[cell], world.getBlockAt(locations[cell]).getBlockData());
+		}
+	}
+
+	/**
+	 * Send every viewer the real blocks of the region and forget them, e.g.
+	 * because the board is removed or moved.
+	 */
+	public void hide(World world) {
+		for (Viewer viewer : viewers.values()) {
+			if (viewer.player.isOnline()) {
+				sendReal(viewer.player, world);
+			}
+		}
+		viewers.clear();
+	}
+
+	/**
+	 * Send the changes since the last render.
+	 *
+	 * @param world        the world of the region
+	 * @param distance     the distance beyond which players do not see the
+	 *                     board
+	 * @param scanViewers  true, to also look for players coming into or going
+	 *                     out of view
+	 * @param stats        the stats of the current tick
+	 */
+	void render(World world, double distance, boolean scanViewers, RenderStats stats) {
+		boolean changes = diff();
+		changedThisTick = changes;
+		if (!changes && !scanViewers) {
+			return;
+		}
+		if (!changes) {
+			changedCount = 0;
+		}
+
+		if (!scanViewers) {
+			// Only those known to see the board
+			for (Viewer viewer : viewers.values()) {
+				if (viewer.player.isOnline()) {
+					send(viewer.player, world, changed, changedCount, stats);
+				}
+			}
+			return;
+		}
+
+		pass++;
+		double max = distance * distance;
+		List<Player> players = world.getPlayers();
+		for (int i = 0; i < players.size(); i++) {
+			Player player = players.get(i);
+			Location location = player.getLocation();
+			double dx = location.getX() - centerX;
+			double dy = location.getY() - region.getY();
+			double dz = location.getZ() - centerZ;
+			if (dx * dx + dy * dy + dz * dz > max) {
+				stats.culled++;
+				continue;
+			}
+
+			UUID id = player.getUniqueId();
+			Viewer viewer = viewers.get(id);
+			if (viewer == null) {
+				viewer = new Viewer(player);
+				viewers.put(id, viewer);
+				send(player, world, all, all.length, stats);
+			} else {
+				viewer.player = player;
+				send(player, world, changed, changedCount, stats);
+			}
+			viewer.pass = pass;
+		}
+
+		// Out of view, left the world or left the server
+		for (Iterator<Viewer> it = viewers.values().iterator(); it.hasNext();) {
+			if (it.next().pass != pass) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Compare the board with the cells last sent.
+	 *
+	 * @return true, if cells changed
+	 */
+	private boolean diff() {
+		BoardView board = game.getView();
+		long hash = board.getHash();
+		if (rendered && hash == shownHash) {
+			return false;
+		}
+		changedCount = 0;
+		for (int cell = 0; cell < shown.length; cell++) {
+			int piece = board.get(cell);
+			if (piece != shown[cell] || !rendered) {
+				shown[cell] = piece;
+				changed[changedCount++] = cell;
+			}
+		}
+		shownHash = hash;
+		rendered = true;
+		return changedCount > 0;
+	}
+
+	private void send(Player player, World world, int[] cells, int count, RenderStats stats) {
+		if (count == 0) {
+			return;
+		}
+		sendCells(player, world, cells, count);
+		stats.batch(count);
+	}
+
+	private void sendCells(Player player, World world, int[] cells, int count) {
+		Location[] locations = locations(world);
+		for (int i = 0; i < count; i++) {
+			int cell = cells[i];
+			player.sendBlockChange(locations[cell], palette[shown[cell]]);
+		}
+	}
+
+	private Location[] locations(World world) {
+		if (locations == null || locationsWorld != world) {
+			int width = region.getWidth();
+			locations = new Location[all.length];
+			for (int cell = 0; cell < locations.length; cell++) {
+				locations[cell] = new Location(world, region.getX() + cell % width, region.getY(),
+						region.getZ() + cell / width);
+			}
+			locationsWorld = world;
+		}
+		return locations;
+	}
+
+	private static final class Viewer {
+		private Player player;
+		private int pass;
+
+		Viewer(Player player) {
+			this.player = player;
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.cptingle.BoardGamesX.render;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+
+import com.cptingle.BoardGamesX.BoardGamesX;
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.metrics.Counter;
+import com.cptingle.BoardGamesX.region.BoardRegion;
+import com.cptingle.BoardGamesX.spectate.Spectators;
+
+/**
+ * Runs every {@link BoardRenderer} once per tick, after the games had their
+ * tick, so all moves of a tick are sent together.
+ * <p>
+ * Changes are sent every tick. Looking for players who came into or went out
+ * of view means going over the players of the world, so that only happens
+ * every few ticks. Last, the spectators get the updates of the tick, board
+ * diffs included. Boards that are removed are replaced with the real blocks
+ * for everyone who was shown them.
+ */
+public class RenderStage implements Runnable {
+	private final BoardGamesX plugin;
+	private final Spectators spectators;
+	private final List<BoardRenderer> renderers;
+	private final RenderStats current;
+	private BukkitTask task;
+
+	private double viewDistance;
+	private int scanInterval;
+	private long ticks;
+
+	// Metrics, read from any thread
+	private volatile int lastUpdates;
+	private volatile long lastBytes;
+	private volatile int lastBatches;
+	private volatile int lastCulled;
+	private volatile long totalUpdates;
+	private final Counter bytes;
+
+	/**
+	 * @param plugin       the plugin
+	 * @param spectators   the spectators to send the updates of every tick to
+	 * @param viewDistance the distance in blocks beyond which players do not see
+	 *                     a board
+	 * @param scanInterval the number of ticks between looking for viewers
+	 */
+	public RenderStage(BoardGamesX plugin, Spectators spectators, double viewDistance, int scanInterval) {
+		this.plugin = plugin;
+		this.spectators = spectators;
+		this.renderers = new ArrayList<>();
+		this.current = new RenderStats();
+		this.bytes = plugin.getMetrics().counter("bgx_render_bytes_total");
+		setViewDistance(viewDistance);
+		setScanInterval(scanInterval);
+	}
+
+	public void setViewDistance(double viewDistance) {
+		this.viewDistance = Math.max(1.0, viewDistance);
+	}
+
+	public void setScanInterval(int scanInterval) {
+		this.scanInterval = Math.max(1, scanInterval);
+	}
+
+	public void start() {
+		if (task == null) {
+			task = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+		}
+	}
+
+	public void stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+	}
+
+	/*
+	 * Renderers, main thread only
+	 */
+	public void add(BoardRenderer renderer) {
+		renderers.add(renderer);
+	}
+
+	public boolean remove(BoardRenderer renderer) {
+		if (!renderers.remove(renderer)) {
+			return false;
+		}
+		hide(renderer);
+		return true;
+	}
+
+	/**
+	 * Stop rendering the boards of a game.
+	 */
+	public void removeAll(Game game) {
+		for (Iterator<BoardRenderer> it = renderers.iterator(); it.hasNext();) {
+			BoardRenderer renderer = it.next();
+			if (renderer.getGame() == game) {
+				it.remove();
+				hide(renderer);
+			}
+		}
+	}
+
+	/**
+	 * Show the real blocks of a board that is no longer rendered to its viewers
+	 * and spectators.
+	 */
+	private void hide(BoardRenderer renderer) {
+		World world = plugin.getServer().getWorld(renderer.getRegion().getWorld());
+		if (world != null) {
+			spectators.hide(renderer, world);
+			renderer.hide(world);
+		}
+	}
+
+	/**
+	 * @return the renderers of the boards of a game
+	 */
+	public List<BoardRenderer> getRenderers(Game game) {
+		List<BoardRenderer> result = new ArrayList<>(1);
+		for (BoardRenderer renderer : renderers) {
+			if (renderer.getGame() == game) {
+				result.add(renderer);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the renderer of a board region, or null
+	 */
+	public BoardRenderer getRenderer(BoardRegion region) {
+		for (BoardRenderer renderer : renderers) {
+			if (renderer.getRegion() == region) {
+				return renderer;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Forget that a player sees any board, so they get the whole boards again.
+	 */
+	public void forget(UUID player) {
+		for (BoardRenderer renderer : renderers) {
+			renderer.forget(player);
+		}
+	}
+
+	public void clear() {
+		for (BoardRenderer renderer : renderers) {
+			hide(renderer);
+		}
+		renderers.clear();
+	}
+
+	@Override
+	public void run() {
+		boolean scan = (ticks++ % scanInterval) == 0;
+		current.reset();
+		for (int i = 0; i < renderers.size(); i++) {
+			BoardRenderer renderer = renderers.get(i);
+			World world = plugin.getServer().getWorld(renderer.getRegion().getWorld());
+			if (world != null) {
+				renderer.render(world, viewDistance, scan, current);
+				spectators.board(renderer, world);
+			}
+		}
+		spectators.flush();
+
+		lastUpdates = current.updates;
+		lastBytes = current.bytes;
+		lastBatches = current.batches;
+		if (scan) {
+			lastCulled = current.culled;
+		}
+		totalUpdates += current.updates;
+		bytes.add(current.bytes);
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * @return the number of cells sent in the last tick, over all viewers
+	 */
+	public int getLastUpdates() {
+		return lastUpdates;
+	}
+
+	/**
+	 * @return the estimated number of bytes sent in the last tick
+	 */
+	public long getLastBytes() {
+		return lastBytes;
+	}
+
+	/**
+	 * @return the number of batches sent in the last tick, one per viewer and
+	 *         changed board
+	 */
+	public int getLastBatches() {
+		return lastBatches;
+	}
+
+	/**
+	 * @return the number of players skipped for being out of view during the
+	 *         last scan for viewers
+	 */
+	public int getLastCulled() {
+		return lastCulled;
+	}
+
+	public long getTotalUpdates() {
+		return totalUpdates;
+	}
+}
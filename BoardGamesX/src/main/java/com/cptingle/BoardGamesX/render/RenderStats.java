@@ -0,0 +1,30 @@
+package com.cptingle.BoardGamesX.render;
+
+/**
+ * What the renderers sent during one tick.
+ */
+final class RenderStats {
+	/**
+	 * Estimated size of a block change packet: packet id, packed position and
+	 * block state id.
+	 */
+	static final int BLOCK_CHANGE_BYTES = 12;
+
+	int batches;
+	int updates;
+	long bytes;
+	int culled;
+
+	void batch(int count) {
+		batches++;
+		updates += count;
+		bytes += (long) count * BLOCK_CHANGE_BYTES;
+	}
+
+	void reset() {
+		batches = 0;
+		updates = 0;
+		bytes = 0;
+		culled = 0;
+	}
+}
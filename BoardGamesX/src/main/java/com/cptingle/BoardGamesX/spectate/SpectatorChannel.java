@@ -0,0 +1,326 @@
+package com.cptingle.BoardGamesX.spectate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.render.BoardRenderer;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+
+/**
+ * The updates of one game for its spectators.
+ * <p>
+ * Updates are collected during a tick: chat lines, the text of the action bar
+ * and the boards that changed. Once per tick they are encoded into a single
+ * frame, and every subscriber gets the same frame: one batch of chat lines,
+ * one action bar and the changed cells, however many moves were made. A
+ * subscriber who misses a frame because the tick ran out of sends is behind.
+ * Missed chat lines are not kept; a subscriber who is behind catches up with
+ * the latest action bar and the whole board, before anyone else is served.
+ * Main thread only.
+ */
+public class SpectatorChannel {
+	private static final String[] NO_LINES = new String[0];
+
+	private final Game game;
+	private final Map<UUID, Subscriber> subscribers;
+	private int maxLines;
+
+	// Updates of the current tick
+	private final List<String> lines;
+	private String actionBar;
+	private final List<BoardRenderer> boards;
+	private final List<World> worlds;
+
+	// The frame of the current tick, encoded once
+	private long frame;
+	private boolean fresh;
+	private String[] frameLines;
+	private BaseComponent[] frameBar;
+	private BaseComponent[] lastBar;
+	private int behind;
+
+	// Metrics
+	private long dropped;
+
+	/**
+	 * @param game     the game
+	 * @param maxLines the largest number of chat lines sent per tick
+	 */
+	public SpectatorChannel(Game game, int maxLines) {
+		this.game = game;
+		this.subscribers = new LinkedHashMap<>();
+		this.lines = new ArrayList<>();
+		this.boards = new ArrayList<>();
+		this.worlds = new ArrayList<>();
+		this.frameLines = NO_LINES;
+		setMaxLines(maxLines);
+	}
+
+	public Game getGame() {
+		return game;
+	}
+
+	public void setMaxLines(int maxLines) {
+		this.maxLines = Math.max(1, maxLines);
+	}
+
+	/*
+	 * Subscribers
+	 */
+
+	/**
+	 * @return false, if the player spectates already
+	 */
+	public boolean subscribe(Player player) {
+		if (subscribers.containsKey(player.getUniqueId())) {
+			return false;
+		}
+		// Gets the whole board and the action bar with the next frame
+		Subscriber subscriber = new Subscriber(player);
+		subscriber.behind = true;
+		behind++;
+		subscribers.put(player.getUniqueId(), subscriber);
+		return true;
+	}
+
+	/**
+	 * @return the player, or null if they were not spectating
+	 */
+	public Player unsubscribe(UUID player) {
+		Subscriber subscriber = subscribers.remove(player);
+		if (subscriber == null) {
+			return null;
+		}
+		if (subscriber.behind) {
+			behind--;
+		}
+		return subscriber.player;
+	}
+
+	/**
+	 * Send the whole board again with the next frame, e.g. because the client
+	 * of the spectator lost the fake blocks.
+	 */
+	public void resync(UUID player) {
+		Subscriber subscriber = subscribers.get(player);
+		if (subscriber != null && !subscriber.behind) {
+			subscriber.behind = true;
+			behind++;
+		}
+	}
+
+	/**
+	 * Send the real blocks of a board that is removed or moved to the
+	 * subscribers who were shown it, and the whole boards with the next frame.
+	 */
+	void hide(BoardRenderer renderer, World world) {
+		for (Subscriber subscriber : subscribers.values()) {
+			Player player = subscriber.player;
+			if (player.isOnline() && player.getWorld() == world && !renderer.isViewer(player.getUniqueId())) {
+				renderer.sendReal(player, world);
+			}
+			if (!subscriber.behind) {
+				subscriber.behind = true;
+				behind++;
+			}
+		}
+	}
+
+	public boolean isSubscribed(UUID player) {
+		return subscribers.containsKey(player);
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	/**
+	 * @return the spectators, unmodifiable
+	 */
+	public Collection<UUID> getSubscribers() {
+		return Collections.unmodifiableSet(subscribers.keySet());
+	}
+
+	public boolean isEmpty() {
+		return subscribers.isEmpty();
+	}
+
+	/*
+	 * Updates
+	 */
+
+	/**
+	 * Add a rendered chat line to the current tick. Lines beyond the limit per
+	 * tick are dropped.
+	 */
+	public void chat(String line) {
+		if (lines.size() < maxLines) {
+			lines.add(line);
+		} else {
+			dropped++;
+		}
+	}
+
+	/**
+	 * Set the text of the action bar. Only the last text of a tick is sent.
+	 */
+	public void actionBar(String text) {
+		this.actionBar = text;
+	}
+
+	/**
+	 * Add a board of the game, rendered in the current tick.
+	 */
+	public void board(BoardRenderer renderer, World world) {
+		boards.add(renderer);
+		worlds.add(world);
+	}
+
+	/*
+	 * Frames
+	 */
+
+	/**
+	 * Encode the updates of the current tick into a frame, if there are any.
+	 */
+	void encode() {
+		boolean boardChanged = false;
+		for (int i = 0; i < boards.size(); i++) {
+			boardChanged |= boards.get(i).hasChanges();
+		}
+		fresh = !lines.isEmpty() || actionBar != null || boardChanged;
+		if (!fresh) {
+			return;
+		}
+		frame++;
+		frameLines = lines.isEmpty() ? NO_LINES : lines.toArray(new String[lines.size()]);
+		frameBar = (actionBar == null) ? null : TextComponent.fromLegacyText(actionBar);
+		if (frameBar != null) {
+			lastBar = frameBar;
+		}
+		lines.clear();
+		actionBar = null;
+	}
+
+	/**
+	 * Send the frame of the current tick. Subscribers who are behind go first.
+	 * Those left over when the budget is used up miss the frame.
+	 *
+	 * @param budget the number of subscribers that may be sent to
+	 * @param stats  the stats of the current tick
+	 * @return the number of subscribers sent to
+	 */
+	int deliver(int budget, SpectatorStats stats) {
+		int sent = 0;
+		if (fresh || behind > 0) {
+			sent += deliver(true, budget, stats);
+			sent += deliver(false, budget - sent, stats);
+		}
+		boards.clear();
+		worlds.clear();
+		fresh = false;
+		return sent;
+	}
+
+	private int deliver(boolean catchingUp, int budget, SpectatorStats stats) {
+		int sent = 0;
+		for (Subscriber subscriber : subscribers.values()) {
+			if (subscriber.behind != catchingUp || (!catchingUp && (!fresh || subscriber.frame == frame))) {
+				continue;
+			}
+			if (sent >= budget) {
+				if (!catchingUp) {
+					subscriber.behind = true;
+					behind++;
+					stats.dropped++;
+					dropped++;
+				}
+				continue;
+			}
+
+			Player player = subscriber.player;
+			if (!player.isOnline()) {
+				continue;
+			}
+			if (fresh && frameLines.length > 0) {
+				player.sendMessage(frameLines);
+				stats.lines += frameLines.length;
+			}
+			BaseComponent[] bar = catchingUp ? lastBar : frameBar;
+			if (bar != null) {
+				player.spigot().sendMessage(ChatMessageType.ACTION_BAR, bar);
+			}
+			sendBoards(player, catchingUp, stats);
+			if (catchingUp) {
+				subscriber.behind = false;
+				behind--;
+			}
+			subscriber.frame = frame;
+			sent++;
+		}
+		stats.sends += sent;
+		return sent;
+	}
+
+	private void sendBoards(Player player, boolean all, SpectatorStats stats) {
+		UUID id = player.getUniqueId();
+		for (int i = 0; i < boards.size(); i++) {
+			BoardRenderer renderer = boards.get(i);
+			World world = worlds.get(i);
+			// Viewers get the changes from the renderer
+			if (player.getWorld() != world || renderer.isViewer(id)) {
+				continue;
+			}
+			stats.cells += all ? renderer.sendAll(player, world) : renderer.sendChanges(player, world);
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * @return the number of the last frame
+	 */
+	public long getFrame() {
+		return frame;
+	}
+
+	/**
+	 * @return the number of subscribers who missed the last frame
+	 */
+	public int getBehind() {
+		return behind;
+	}
+
+	/**
+	 * @return the number of chat lines and frames dropped
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	private static final class Subscriber {
+		private final Player player;
+		private boolean behind;
+
+		// The last frame sent
+		private long frame = -1L;
+
+		Subscriber(Player player) {
+			this.player = player;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.cptingle.BoardGamesX.spectate;
+
+/**
+ * What the spectator channels sent during one tick.
+ */
+final class SpectatorStats {
+	int sends;
+	int lines;
+	int cells;
+	int dropped;
+
+	void reset() {
+		sends = 0;
+		lines = 0;
+		cells = 0;
+		dropped = 0;
+	}
+}
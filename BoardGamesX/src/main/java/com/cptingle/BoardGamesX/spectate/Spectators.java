@@ -0,0 +1,339 @@
+package com.cptingle.BoardGamesX.spectate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GameListener;
+import com.cptingle.BoardGamesX.framework.event.GameEndedEvent;
+import com.cptingle.BoardGamesX.framework.event.MoveMadeEvent;
+import com.cptingle.BoardGamesX.framework.event.PlayerJoinedEvent;
+import com.cptingle.BoardGamesX.framework.event.PlayerLeftEvent;
+import com.cptingle.BoardGamesX.framework.event.TurnChangedEvent;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+import com.cptingle.BoardGamesX.metrics.Counter;
+import com.cptingle.BoardGamesX.render.BoardRenderer;
+
+/**
+ * The spectators of all games, one {@link SpectatorChannel} per watched game.
+ * <p>
+ * Game events are rendered once per event into the channel of the game, and
+ * the render stage flushes all channels at the end of every tick, after the
+ * boards were diffed. The number of spectators sent to per tick is limited;
+ * the channels take turns going first, so a popular table cannot starve the
+ * others. Spectators who stop watching get the real blocks back. Main thread
+ * only, except for the metrics.
+ */
+public class Spectators {
+	private final GameMaster gm;
+	private final Map<Game, SpectatorChannel> channels;
+	private final List<SpectatorChannel> order;
+	private final Map<UUID, SpectatorChannel> bySpectator;
+	private final SpectatorStats current;
+	private int maxLines;
+	private int sendsPerTick;
+	private int first;
+
+	// Metrics, read from any thread
+	private volatile int spectators;
+	private volatile int lastSends;
+	private volatile long totalSends;
+	private final Counter dropped;
+
+	/**
+	 * @param gm           the game master
+	 * @param maxLines     the largest number of chat lines per game and tick
+	 * @param sendsPerTick the largest number of spectators sent to per tick
+	 */
+	public Spectators(GameMaster gm, int maxLines, int sendsPerTick) {
+		this.gm = gm;
+		this.channels = new HashMap<>();
+		this.order = new ArrayList<>();
+		this.bySpectator = new HashMap<>();
+		this.current = new SpectatorStats();
+		this.dropped = gm.getPlugin().getMetrics().counter("bgx_spectator_frames_dropped_total");
+		setMaxLines(maxLines);
+		setSendsPerTick(sendsPerTick);
+	}
+
+	public void setMaxLines(int maxLines) {
+		this.maxLines = Math.max(1, maxLines);
+		for (SpectatorChannel channel : order) {
+			channel.setMaxLines(this.maxLines);
+		}
+	}
+
+	public void setSendsPerTick(int sendsPerTick) {
+		this.sendsPerTick = Math.max(1, sendsPerTick);
+	}
+
+	/**
+	 * @return the listener that feeds game events to the channels
+	 */
+	public GameListener getFeed() {
+		return new Feed();
+	}
+
+	/*
+	 * Spectators
+	 */
+
+	/**
+	 * Let a player watch a game, instead of the one they watched before.
+	 *
+	 * @return false, if the player watches the game already
+	 */
+	public boolean spectate(Player player, Game game) {
+		SpectatorChannel old = bySpectator.get(player.getUniqueId());
+		if (old != null && old.getGame() == game) {
+			return false;
+		}
+		stop(player.getUniqueId());
+
+		SpectatorChannel channel = channels.get(game);
+		if (channel == null) {
+			channel = new SpectatorChannel(game, maxLines);
+			channels.put(game, channel);
+			order.add(channel);
+		}
+		channel.subscribe(player);
+		bySpectator.put(player.getUniqueId(), channel);
+		spectators = bySpectator.size();
+		return true;
+	}
+
+	/**
+	 * @return true, if the player was watching a game
+	 */
+	public boolean stop(UUID player) {
+		SpectatorChannel channel = bySpectator.remove(player);
+		if (channel == null) {
+			return false;
+		}
+		showRealBlocks(channel.unsubscribe(player), channel.getGame());
+		if (channel.isEmpty()) {
+			channels.remove(channel.getGame());
+			order.remove(channel);
+		}
+		spectators = bySpectator.size();
+		return true;
+	}
+
+	/**
+	 * @return the game the player watches, or null
+	 */
+	public Game getSpectatedGame(UUID player) {
+		SpectatorChannel channel = bySpectator.get(player);
+		return (channel == null) ? null : channel.getGame();
+	}
+
+	/**
+	 * @return the channel of a game, or null if no one watches it
+	 */
+	public SpectatorChannel getChannel(Game game) {
+		return channels.get(game);
+	}
+
+	/**
+	 * Send the whole board to a spectator again.
+	 */
+	public void resync(UUID player) {
+		SpectatorChannel channel = bySpectator.get(player);
+		if (channel != null) {
+			channel.resync(player);
+		}
+	}
+
+	/**
+	 * Stop the spectators of a game from watching it.
+	 */
+	public void remove(Game game) {
+		SpectatorChannel channel = channels.remove(game);
+		if (channel == null) {
+			return;
+		}
+		order.remove(channel);
+		for (UUID player : new ArrayList<>(channel.getSubscribers())) {
+			bySpectator.remove(player);
+			showRealBlocks(channel.unsubscribe(player), game);
+		}
+		spectators = bySpectator.size();
+	}
+
+	/**
+	 * Replace the fake blocks of the boards of a game with the real ones for a
+	 * former spectator, unless they are close enough to see the board anyway.
+	 */
+	private void showRealBlocks(Player player, Game game) {
+		if (player == null || !player.isOnline()) {
+			return;
+		}
+		World world = player.getWorld();
+		for (BoardRenderer renderer : gm.getRenderStage().getRenderers(game)) {
+			if (world.getUID().equals(renderer.getRegion().getWorld()) && !renderer.isViewer(player.getUniqueId())) {
+				renderer.sendReal(player, world);
+			}
+		}
+	}
+
+	/**
+	 * Replace the fake blocks of a board that is removed or moved with the real
+	 * ones for the spectators of its game. They get the whole boards of the game
+	 * again with the next frame.
+	 */
+	public void hide(BoardRenderer renderer, World world) {
+		SpectatorChannel channel = channels.get(renderer.getGame());
+		if (channel != null) {
+			channel.hide(renderer, world);
+		}
+	}
+
+	public void clear() {
+		channels.clear();
+		order.clear();
+		bySpectator.clear();
+		spectators = 0;
+	}
+
+	/*
+	 * Called by the render stage
+	 */
+
+	/**
+	 * Add a board that was rendered in the current tick to the channel of its
+	 * game, if anyone watches it.
+	 */
+	public void board(BoardRenderer renderer, World world) {
+		if (channels.isEmpty()) {
+			return;
+		}
+		SpectatorChannel channel = channels.get(renderer.getGame());
+		if (channel != null) {
+			channel.board(renderer, world);
+		}
+	}
+
+	/**
+	 * Encode and send the frames of the current tick.
+	 */
+	public void flush() {
+		current.reset();
+		int count = order.size();
+		int budget = sendsPerTick;
+		int next = -1;
+		for (int i = 0; i < count; i++) {
+			int index = (first + i) % count;
+			SpectatorChannel channel = order.get(index);
+			channel.encode();
+			budget -= channel.deliver(budget, current);
+			if (budget <= 0 && next < 0) {
+				next = index;
+			}
+		}
+		// The channel that ran out goes first next time
+		first = (next < 0 || count == 0) ? 0 : next;
+
+		lastSends = current.sends;
+		totalSends += current.sends;
+		dropped.add(current.dropped);
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * @return the number of players watching a game
+	 */
+	public int getSpectatorCount() {
+		return spectators;
+	}
+
+	/**
+	 * @return the number of spectators sent a frame in the last tick
+	 */
+	public int getLastSends() {
+		return lastSends;
+	}
+
+	public long getTotalSends() {
+		return totalSends;
+	}
+
+	/**
+	 * Renders game events once into the channel of the game.
+	 */
+	private final class Feed extends GameListener {
+
+		@Override
+		public void onMoveMade(MoveMadeEvent event) {
+			SpectatorChannel channel = channels.get(event.getGame());
+			if (channel != null) {
+				channel.chat(messenger().render(Msg.SPEC_MOVE, event.getSide() + 1, event.getMove()));
+			}
+		}
+
+		@Override
+		public void onTurnChanged(TurnChangedEvent event) {
+			SpectatorChannel channel = channels.get(event.getGame());
+			if (channel != null) {
+				channel.actionBar(Msg.SPEC_TURN.format(event.getSide() + 1));
+			}
+		}
+
+		@Override
+		public void onPlayerJoined(PlayerJoinedEvent event) {
+			// Players do not watch their own game
+			SpectatorChannel watched = bySpectator.get(event.getPlayer());
+			if (watched != null && watched.getGame() == event.getGame()) {
+				stop(event.getPlayer());
+			}
+
+			SpectatorChannel channel = channels.get(event.getGame());
+			if (channel != null) {
+				channel.chat(messenger().render(Msg.SPEC_PLAYER_JOINED, name(event.getPlayer())));
+			}
+		}
+
+		@Override
+		public void onPlayerLeft(PlayerLeftEvent event) {
+			SpectatorChannel channel = channels.get(event.getGame());
+			if (channel != null) {
+				channel.chat(messenger().render(Msg.SPEC_PLAYER_LEFT, name(event.getPlayer())));
+			}
+		}
+
+		@Override
+		public void onGameEnded(GameEndedEvent event) {
+			SpectatorChannel channel = channels.get(event.getGame());
+			if (channel == null) {
+				return;
+			}
+			if (event.isAborted()) {
+				channel.chat(messenger().render(Msg.SPEC_ABORTED));
+			} else if (event.getWinner() < 0) {
+				channel.chat(messenger().render(Msg.SPEC_DRAW));
+			} else {
+				channel.chat(messenger().render(Msg.SPEC_WON, event.getWinner() + 1));
+			}
+		}
+
+		private Messenger messenger() {
+			return gm.getGlobalMessenger();
+		}
+
+		private String name(UUID id) {
+			Player player = Bukkit.getPlayer(id);
+			return (player != null) ? player.getName() : id.toString().substring(0, 8);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.cptingle.BoardGamesX.stats;
+
+/**
+ * Elo ratings for matches of two or more players.
+ * <p>
+ * A match of n players is scored as the pairwise matches between all of them,
+ * each with a share of the K-factor, so a match moves a rating about as much
+ * as a single duel does.
+ */
+public final class EloRating {
+	private EloRating() {
+	}
+
+	/**
+	 * @return the expected score of a player against another, between 0 and 1
+	 */
+	public static double expected(double rating, double opponent) {
+		return 1.0 / (1.0 + Math.pow(10.0, (opponent - rating) / 400.0));
+	}
+
+	/**
+	 * Work out the new ratings after a match.
+	 *
+	 * @param ratings the ratings of the players, replaced by the new ratings
+	 * @param winner  the index of the player who won, or -1 for a draw
+	 * @param k       the K-factor
+	 */
+	public static void update(double[] ratings, int winner, double k) {
+		int n = ratings.length;
+		if (n < 2) {
+			return;
+		}
+		double share = k / (n - 1);
+		double[] delta = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				double score = (winner < 0) ? 0.5 : (winner == i) ? 1.0 : (winner == j) ? 0.0 : 0.5;
+				double change = share * (score - expected(ratings[i], ratings[j]));
+				delta[i] += change;
+				delta[j] -= change;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			ratings[i] += delta[i];
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.cptingle.BoardGamesX.stats;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The best rated players, kept up to date as ratings change.
+ * <p>
+ * Only the top entries are held, in a sorted set, so an update costs
+ * O(log n) in the size of the board rather than a sort of every player. A
+ * player who drops to the bottom of a full board may have been passed by
+ * players the board does not hold; the board is then flagged incomplete and
+ * should be refilled from the store. Readers get an immutable snapshot.
+ * <p>
+ * Changed on the stats thread only; {@link #getTop()} may be called from any
+ * thread.
+ */
+public final class Leaderboard {
+	private static final Comparator<Entry> ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry a, Entry b) {
+			int c = Double.compare(b.rating, a.rating);
+			return (c != 0) ? c : a.id.compareTo(b.id);
+		}
+	};
+
+	private static final Entry[] NONE = new Entry[0];
+
+	private final int size;
+	private final TreeSet<Entry> entries;
+	private final Map<UUID, Entry> byPlayer;
+	private boolean incomplete;
+	private volatile Entry[] top = NONE;
+
+	/**
+	 * @param size the number of players to hold
+	 */
+	public Leaderboard(int size) {
+		this.size = Math.max(1, size);
+		this.entries = new TreeSet<>(ORDER);
+		this.byPlayer = new HashMap<>();
+	}
+
+	/**
+	 * Place a player by their new rating.
+	 */
+	public void update(UUID id, String name, double rating) {
+		Entry old = byPlayer.get(id);
+		if (old != null) {
+			if (old.rating == rating && equal(old.name, name)) {
+				return;
+			}
+			entries.remove(old);
+			byPlayer.remove(id);
+		} else if (entries.size() >= size && ORDER.compare(new Entry(id, name, rating), entries.last()) > 0) {
+			// Not good enough
+			return;
+		}
+
+		Entry entry = new Entry(id, name, rating);
+		entries.add(entry);
+		byPlayer.put(id, entry);
+		if (entries.size() > size) {
+			byPlayer.remove(entries.pollLast().id);
+		} else if (old != null && rating < old.rating && entries.size() == size && entries.last() == entry) {
+			incomplete = true;
+		}
+		publish();
+	}
+
+	/**
+	 * Replace every entry, e.g. with the top of the store.
+	 */
+	public void reset(Entry[] fresh) {
+		entries.clear();
+		byPlayer.clear();
+		for (Entry entry : fresh) {
+			if (entries.size() < size) {
+				entries.add(entry);
+				byPlayer.put(entry.id, entry);
+			}
+		}
+		incomplete = false;
+		publish();
+	}
+
+	/**
+	 * @return true, if players the board does not hold may belong on it
+	 */
+	public boolean isIncomplete() {
+		return incomplete;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the best rated players, best first
+	 */
+	public Entry[] getTop() {
+		return top;
+	}
+
+	private void publish() {
+		top = entries.toArray(new Entry[entries.size()]);
+	}
+
+	private static boolean equal(String a, String b) {
+		return (a == null) ? b == null : a.equals(b);
+	}
+
+	/**
+	 * A player on the board.
+	 */
+	public static final class Entry {
+		private final UUID id;
+		private final String name;
+		private final double rating;
+
+		public Entry(UUID id, String name, double rating) {
+			this.id = id;
+			this.name = name;
+			this.rating = rating;
+		}
+
+		public UUID getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public double getRating() {
+			return rating;
+		}
+	}
+}
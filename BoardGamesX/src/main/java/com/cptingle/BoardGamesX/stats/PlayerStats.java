@@ -0,0 +1,151 @@
+package com.cptingle.BoardGamesX.stats;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rating and results of a player.
+ * <p>
+ * Only the stats thread changes these; any thread may read them.
+ */
+public final class PlayerStats {
+	public static final double DEFAULT_RATING = 1000.0;
+
+	static final int WINS = 0;
+	static final int LOSSES = 1;
+	static final int DRAWS = 2;
+
+	private final UUID id;
+	private volatile String name;
+	private volatile double rating;
+	private volatile int wins;
+	private volatile int losses;
+	private volatile int draws;
+
+	// Wins, losses and draws per game
+	private final Map<String, int[]> games;
+	private boolean dirty;
+
+	PlayerStats(UUID id, String name, double rating) {
+		this.id = id;
+		this.name = name;
+		this.rating = rating;
+		this.games = new ConcurrentHashMap<>();
+	}
+
+	public UUID getId() {
+		return id;
+	}
+
+	/**
+	 * @return the last known name of the player, or null
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public double getRating() {
+		return rating;
+	}
+
+	public int getWins() {
+		return wins;
+	}
+
+	public int getLosses() {
+		return losses;
+	}
+
+	public int getDraws() {
+		return draws;
+	}
+
+	public int getGamesPlayed() {
+		return wins + losses + draws;
+	}
+
+	/**
+	 * @return the wins, losses and draws in a game, or zeroes
+	 */
+	public int[] getGameRecord(String game) {
+		int[] record = games.get(game);
+		return (record == null) ? new int[3] : record.clone();
+	}
+
+	/**
+	 * @return the names of the games the player has results in
+	 */
+	public Set<String> getGames() {
+		return Collections.unmodifiableSet(games.keySet());
+	}
+
+	/*
+	 * Stats thread
+	 */
+	void setName(String name) {
+		if (name != null && !name.equals(this.name)) {
+			this.name = name;
+			dirty = true;
+		}
+	}
+
+	void setRating(double rating) {
+		this.rating = rating;
+		dirty = true;
+	}
+
+	/**
+	 * Count a result.
+	 *
+	 * @param game   the name of the game
+	 * @param result {@link #WINS}, {@link #LOSSES} or {@link #DRAWS}
+	 */
+	void record(String game, int result) {
+		switch (result) {
+		case WINS:
+			wins++;
+			break;
+		case LOSSES:
+			losses++;
+			break;
+		default:
+			draws++;
+			break;
+		}
+		int[] record = games.get(game);
+		if (record == null) {
+			record = new int[3];
+			games.put(game, record);
+		}
+		record[result]++;
+		dirty = true;
+	}
+
+	/**
+	 * Set the totals, when loading.
+	 */
+	void load(int wins, int losses, int draws) {
+		this.wins = wins;
+		this.losses = losses;
+		this.draws = draws;
+	}
+
+	void loadGame(String game, int wins, int losses, int draws) {
+		games.put(game, new int[] { wins, losses, draws });
+	}
+
+	Map<String, int[]> getGameRecords() {
+		return games;
+	}
+
+	boolean isDirty() {
+		return dirty;
+	}
+
+	void setDirty(boolean dirty) {
+		this.dirty = dirty;
+	}
+}
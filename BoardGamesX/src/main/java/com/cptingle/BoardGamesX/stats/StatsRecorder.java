@@ -0,0 +1,38 @@
+package com.cptingle.BoardGamesX.stats;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.framework.GameListener;
+import com.cptingle.BoardGamesX.framework.event.GameEndedEvent;
+import com.cptingle.BoardGamesX.framework.event.PlayerJoinedEvent;
+
+/**
+ * Feeds match results to the {@link StatsService}.
+ * <p>
+ * Registered as a synchronous listener; the players of a match by side come with its
+ * end event. The handlers copy what they need and hand it to the stats thread.
+ */
+public class StatsRecorder extends GameListener {
+	private final StatsService stats;
+
+	public StatsRecorder(StatsService stats) {
+		this.stats = stats;
+	}
+
+	@Override
+	public void onPlayerJoined(PlayerJoinedEvent event) {
+		// The game may belong to a game thread; ask the server instead
+		Player player = Bukkit.getPlayer(event.getPlayer());
+		stats.prefetch(event.getPlayer(), (player == null) ? null : player.getName());
+	}
+
+	@Override
+	public void onGameEnded(GameEndedEvent event) {
+		// Aborted matches do not count
+		if (event.isAborted()) {
+			return;
+		}
+		stats.recordResult(event.getGame().getName(), event.getPlayersBySide(), event.getWinner());
+	}
+}
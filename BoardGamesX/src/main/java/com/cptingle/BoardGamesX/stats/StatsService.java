@@ -0,0 +1,372 @@
+package com.cptingle.BoardGamesX.stats;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ratings and results of players, cached in memory and written behind.
+ * <p>
+ * All changes and all database access happen on a single stats thread, in
+ * the order they were submitted, so recording a result never blocks the
+ * caller. Changed players are written in one batch every flush interval.
+ * Reads are served from the cache and the {@link Leaderboard} from any thread;
+ * players who are not cached yet are loaded in the background.
+ * <p>
+ * If the database cannot be opened, stats are kept in memory only.
+ */
+public class StatsService {
+	private final Logger logger;
+	private final File file;
+	private final double kFactor;
+	private final long flushMillis;
+
+	private final Map<UUID, PlayerStats> cache;
+	private final Leaderboard leaderboard;
+	private final ScheduledExecutorService executor;
+
+	// Stats thread only
+	private StatsStore store;
+	private final Set<PlayerStats> dirty;
+	private final Set<UUID> leaving;
+
+	// Metrics
+	private final LongAdder results = new LongAdder();
+	private final LongAdder loads = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	/**
+	 * @param logger          the logger to report failures to
+	 * @param file            the database file
+	 * @param leaderboardSize the number of players on the leaderboard
+	 * @param flushMillis     the time between writes of changed players
+	 * @param kFactor         the Elo K-factor
+	 */
+	public StatsService(Logger logger, File file, int leaderboardSize, long flushMillis, double kFactor) {
+		this.logger = logger;
+		this.file = file;
+		this.kFactor = kFactor;
+		this.flushMillis = Math.max(100L, flushMillis);
+		this.cache = new ConcurrentHashMap<>();
+		this.leaderboard = new Leaderboard(leaderboardSize);
+		this.dirty = new LinkedHashSet<>();
+		this.leaving = new HashSet<>();
+		this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "BoardGamesX-Stats");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Open the database in the background and start writing behind.
+	 */
+	public void start() {
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					store = new StatsStore(file);
+					leaderboard.reset(store.top(leaderboard.getSize()));
+				} catch (SQLException e) {
+					logger.log(Level.WARNING, "Could not open " + file.getName() + ", stats are not saved", e);
+					store = null;
+				}
+			}
+		});
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Write the remaining changes and close the database, waiting for at most
+	 * the given time.
+	 */
+	public void shutdown(long timeoutMillis) {
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+				if (store != null) {
+					try {
+						store.close();
+					} catch (SQLException e) {
+						logger.log(Level.WARNING, "Could not close " + file.getName(), e);
+					}
+					store = null;
+				}
+			}
+		});
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				logger.warning("Stats were still being written at shutdown");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Load a player's stats in the background, e.g. when they join a table.
+	 *
+	 * @param name the current name of the player, or null
+	 */
+	public void prefetch(final UUID player, final String name) {
+		PlayerStats stats = cache.get(player);
+		if (stats != null && (name == null || name.equals(stats.getName()))) {
+			return;
+		}
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				leaving.remove(player);
+				PlayerStats loaded = load(player);
+				loaded.setName(name);
+				markDirty(loaded);
+			}
+		});
+	}
+
+	/**
+	 * @return the cached stats of a player, or null if they are not loaded
+	 */
+	public PlayerStats get(UUID player) {
+		return cache.get(player);
+	}
+
+	/**
+	 * @return the rating of a player, or the default rating if they are not
+	 *         loaded yet
+	 */
+	public double getRating(UUID player) {
+		PlayerStats stats = cache.get(player);
+		if (stats == null) {
+			prefetch(player, null);
+			return PlayerStats.DEFAULT_RATING;
+		}
+		return stats.getRating();
+	}
+
+	/**
+	 * Record the result of a match. Returns at once; ratings are updated on the
+	 * stats thread.
+	 *
+	 * @param game   the name of the game
+	 * @param sides  the players by side, null for free sides
+	 * @param winner the side that won, or -1 for a draw
+	 */
+	public void recordResult(final String game, final UUID[] sides, final int winner) {
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				apply(game, sides, winner);
+			}
+		});
+	}
+
+	/**
+	 * Drop a player from the cache once their changes are written, e.g. when
+	 * they leave the server.
+	 */
+	public void evict(final UUID player) {
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				PlayerStats stats = cache.get(player);
+				if (stats != null && stats.isDirty()) {
+					leaving.add(player);
+				} else {
+					cache.remove(player);
+				}
+			}
+		});
+	}
+
+	public Leaderboard getLeaderboard() {
+		return leaderboard;
+	}
+
+	/*
+	 * Stats thread
+	 */
+	private void apply(String game, UUID[] sides, int winner) {
+		List<PlayerStats> players = new ArrayList<>(sides.length);
+		int winnerIndex = -1;
+		for (int side = 0; side < sides.length; side++) {
+			if (sides[side] != null) {
+				if (side == winner) {
+					winnerIndex = players.size();
+				}
+				players.add(load(sides[side]));
+			}
+		}
+		if (players.size() < 2) {
+			return;
+		}
+
+		double[] ratings = new double[players.size()];
+		for (int i = 0; i < ratings.length; i++) {
+			ratings[i] = players.get(i).getRating();
+		}
+		EloRating.update(ratings, winnerIndex, kFactor);
+
+		for (int i = 0; i < ratings.length; i++) {
+			PlayerStats stats = players.get(i);
+			stats.setRating(ratings[i]);
+			stats.record(game,
+					(winnerIndex < 0) ? PlayerStats.DRAWS : (i == winnerIndex) ? PlayerStats.WINS : PlayerStats.LOSSES);
+			markDirty(stats);
+		}
+		results.increment();
+	}
+
+	/**
+	 * @return the stats of a player, from the cache, the database or new
+	 */
+	private PlayerStats load(UUID player) {
+		PlayerStats stats = cache.get(player);
+		if (stats != null) {
+			return stats;
+		}
+		if (store != null) {
+			try {
+				stats = store.load(player);
+				loads.increment();
+			} catch (SQLException e) {
+				failed.increment();
+				logger.log(Level.WARNING, "Could not load the stats of " + player, e);
+			}
+		}
+		if (stats == null) {
+			stats = new PlayerStats(player, null, PlayerStats.DEFAULT_RATING);
+		}
+		cache.put(player, stats);
+		return stats;
+	}
+
+	private void markDirty(PlayerStats stats) {
+		if (stats.isDirty()) {
+			dirty.add(stats);
+			leaderboard.update(stats.getId(), stats.getName(), stats.getRating());
+		}
+	}
+
+	private void flush() {
+		if (!dirty.isEmpty() && store != null) {
+			List<PlayerStats> batch = new ArrayList<>(dirty);
+			try {
+				store.save(batch);
+				for (PlayerStats stats : batch) {
+					stats.setDirty(false);
+				}
+				dirty.clear();
+				for (UUID player : leaving) {
+					cache.remove(player);
+				}
+				leaving.clear();
+				written.add(batch.size());
+				batches.increment();
+			} catch (SQLException e) {
+				// Kept dirty, retried on the next flush
+				failed.increment();
+				logger.log(Level.WARNING, "Could not save the stats of " + batch.size() + " players", e);
+				return;
+			}
+		}
+
+		// Players the board lost track of may be in the database
+		if (leaderboard.isIncomplete() && store != null && dirty.isEmpty()) {
+			try {
+				leaderboard.reset(store.top(leaderboard.getSize()));
+			} catch (SQLException e) {
+				failed.increment();
+				logger.log(Level.WARNING, "Could not read the leaderboard", e);
+			}
+		}
+	}
+
+	private void submit(Runnable task) {
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run();
+					} catch (RuntimeException e) {
+						logger.log(Level.SEVERE, "Stats task failed", e);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Shut down
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * @return the number of match results recorded
+	 */
+	public long getResults() {
+		return results.sum();
+	}
+
+	/**
+	 * @return the number of players loaded from the database
+	 */
+	public long getLoads() {
+		return loads.sum();
+	}
+
+	/**
+	 * @return the number of player rows written
+	 */
+	public long getWritten() {
+		return written.sum();
+	}
+
+	/**
+	 * @return the number of batches written
+	 */
+	public long getBatches() {
+		return batches.sum();
+	}
+
+	public long getFailed() {
+		return failed.sum();
+	}
+
+	/**
+	 * @return the number of cached players
+	 */
+	public int getCached() {
+		return cache.size();
+	}
+}
@@ -0,0 +1,135 @@
+package com.cptingle.BoardGamesX.stats;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Player stats in an embedded SQLite database, through JDBC.
+ * <p>
+ * SQLite allows a single writer, so the store holds one connection and is
+ * used from the stats thread only. Writes go out in batches, one transaction
+ * per batch. Ratings are indexed, so the leaderboard is read without sorting
+ * the table.
+ */
+class StatsStore implements AutoCloseable {
+	private final Connection connection;
+	private final PreparedStatement selectPlayer;
+	private final PreparedStatement selectGames;
+	private final PreparedStatement upsertPlayer;
+	private final PreparedStatement upsertGame;
+	private final PreparedStatement selectTop;
+
+	/**
+	 * Open the database, creating it and its tables if needed.
+	 */
+	StatsStore(File file) throws SQLException {
+		file.getParentFile().mkdirs();
+		this.connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("CREATE TABLE IF NOT EXISTS player_stats (uuid TEXT PRIMARY KEY, name TEXT, "
+					+ "rating REAL NOT NULL, wins INTEGER NOT NULL, losses INTEGER NOT NULL, draws INTEGER NOT NULL)");
+			statement.executeUpdate("CREATE INDEX IF NOT EXISTS player_stats_rating ON player_stats (rating DESC)");
+			statement.executeUpdate("CREATE TABLE IF NOT EXISTS game_stats (uuid TEXT NOT NULL, game TEXT NOT NULL, "
+					+ "wins INTEGER NOT NULL, losses INTEGER NOT NULL, draws INTEGER NOT NULL, PRIMARY KEY (uuid, game))");
+		}
+		connection.setAutoCommit(false);
+
+		this.selectPlayer = connection
+				.prepareStatement("SELECT name, rating, wins, losses, draws FROM player_stats WHERE uuid = ?");
+		this.selectGames = connection.prepareStatement("SELECT game, wins, losses, draws FROM game_stats WHERE uuid = ?");
+		this.upsertPlayer = connection.prepareStatement(
+				"INSERT OR REPLACE INTO player_stats (uuid, name, rating, wins, losses, draws) VALUES (?, ?, ?, ?, ?, ?)");
+		this.upsertGame = connection.prepareStatement(
+				"INSERT OR REPLACE INTO game_stats (uuid, game, wins, losses, draws) VALUES (?, ?, ?, ?, ?)");
+		this.selectTop = connection
+				.prepareStatement("SELECT uuid, name, rating FROM player_stats ORDER BY rating DESC LIMIT ?");
+	}
+
+	/**
+	 * @return the stats of a player, or null if the player has none
+	 */
+	PlayerStats load(UUID id) throws SQLException {
+		String key = id.toString();
+		PlayerStats stats;
+		selectPlayer.setString(1, key);
+		try (ResultSet rs = selectPlayer.executeQuery()) {
+			if (!rs.next()) {
+				return null;
+			}
+			stats = new PlayerStats(id, rs.getString(1), rs.getDouble(2));
+			stats.load(rs.getInt(3), rs.getInt(4), rs.getInt(5));
+		}
+		selectGames.setString(1, key);
+		try (ResultSet rs = selectGames.executeQuery()) {
+			while (rs.next()) {
+				stats.loadGame(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+			}
+		}
+		connection.commit();
+		return stats;
+	}
+
+	/**
+	 * Write the stats of several players in one transaction.
+	 */
+	void save(Collection<PlayerStats> batch) throws SQLException {
+		try {
+			for (PlayerStats stats : batch) {
+				String key = stats.getId().toString();
+				upsertPlayer.setString(1, key);
+				upsertPlayer.setString(2, stats.getName());
+				upsertPlayer.setDouble(3, stats.getRating());
+				upsertPlayer.setInt(4, stats.getWins());
+				upsertPlayer.setInt(5, stats.getLosses());
+				upsertPlayer.setInt(6, stats.getDraws());
+				upsertPlayer.addBatch();
+
+				for (Map.Entry<String, int[]> game : stats.getGameRecords().entrySet()) {
+					int[] record = game.getValue();
+					upsertGame.setString(1, key);
+					upsertGame.setString(2, game.getKey());
+					upsertGame.setInt(3, record[PlayerStats.WINS]);
+					upsertGame.setInt(4, record[PlayerStats.LOSSES]);
+					upsertGame.setInt(5, record[PlayerStats.DRAWS]);
+					upsertGame.addBatch();
+				}
+			}
+			upsertPlayer.executeBatch();
+			upsertGame.executeBatch();
+			connection.commit();
+		} catch (SQLException e) {
+			connection.rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the best rated players, best first
+	 */
+	Leaderboard.Entry[] top(int limit) throws SQLException {
+		List<Leaderboard.Entry> entries = new ArrayList<>(limit);
+		selectTop.setInt(1, limit);
+		try (ResultSet rs = selectTop.executeQuery()) {
+			while (rs.next()) {
+				entries.add(new Leaderboard.Entry(UUID.fromString(rs.getString(1)), rs.getString(2), rs.getDouble(3)));
+			}
+		}
+		connection.commit();
+		return entries.toArray(new Leaderboard.Entry[entries.size()]);
+	}
+
+	@Override
+	public void close() throws SQLException {
+		connection.close();
+	}
+}
@@ -0,0 +1,96 @@
+package com.cptingle.BoardGamesX;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the queue of work for the main thread.
+ */
+public class MainThreadQueueTest extends TestCase {
+	private final MetricsRegistry metrics = new MetricsRegistry(true);
+	private final List<Integer> ran = new ArrayList<>();
+
+	public void testFullQueueRefusesTasks() {
+		MainThreadQueue queue = queue(3);
+		assertEquals(4, queue.getCapacity());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(queue.offer(task(i)));
+		}
+		assertFalse(queue.offer(task(4)));
+		assertEquals(1, queue.getRejected());
+		assertEquals(4, queue.size());
+
+		assertEquals(4, queue.drain(Long.MAX_VALUE));
+		assertEquals(0, queue.size());
+		assertTrue(queue.offer(task(5)));
+	}
+
+	public void testDrainRunsInOrderWithinBudget() {
+		MainThreadQueue queue = queue(16);
+		for (int i = 0; i < 10; i++) {
+			queue.offer(task(i));
+		}
+
+		// A budget that is used up at once still runs one task
+		assertEquals(1, queue.drain(0L));
+		assertEquals(9, queue.getLastLeft());
+		assertEquals(9, queue.drain(Long.MAX_VALUE));
+		for (int i = 0; i < 10; i++) {
+			assertEquals(i, (int) ran.get(i));
+		}
+	}
+
+	public void testProducersOnManyThreads() throws InterruptedException {
+		final MainThreadQueue queue = queue(64);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 1000; i++) {
+						queue.put(task(i));
+					}
+				}
+			});
+			threads[t].start();
+		}
+
+		int total = 0;
+		while (total < 4000) {
+			total += queue.drain(Long.MAX_VALUE);
+			Thread.yield();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(4000, ran.size());
+		assertEquals(0, queue.size());
+	}
+
+	public void testClosedQueueRefusesTasks() {
+		MainThreadQueue queue = queue(4);
+		queue.offer(task(0));
+		queue.close();
+		assertFalse(queue.put(task(1)));
+		assertEquals(1, queue.drain(Long.MAX_VALUE));
+	}
+
+	private MainThreadQueue queue(int capacity) {
+		return new MainThreadQueue(Logger.getLogger("test"), capacity, metrics.counter("bgx_main_queue_waited_total"));
+	}
+
+	private Runnable task(final int value) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				ran.add(value);
+			}
+		};
+	}
+}
@@ -0,0 +1,78 @@
+package com.cptingle.BoardGamesX;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.metrics.Counter;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the permission cache.
+ */
+public class PermissionCacheTest extends TestCase {
+	private final MetricsRegistry metrics = new MetricsRegistry(true);
+	private final Counter hits = metrics.counter("bgx_permission_cache_total", "result", "hit");
+	private final Counter misses = metrics.counter("bgx_permission_cache_total", "result", "miss");
+	private int lookups;
+
+	public void testDecisionsAreCached() {
+		PermissionCache cache = cache(16);
+		Player p = player(UUID.randomUUID());
+
+		assertTrue(cache.has(p, "boardgames.join.a"));
+		assertFalse(cache.has(p, "boardgames.admin"));
+		assertTrue(cache.has(p, "boardgames.join.a"));
+		assertEquals(2, lookups);
+		assertEquals(1, hits.get());
+		assertEquals(2, misses.get());
+
+		cache.invalidate(p.getUniqueId());
+		assertTrue(cache.has(p, "boardgames.join.a"));
+		assertEquals(3, lookups);
+	}
+
+	public void testBulk() {
+		PermissionCache cache = cache(16);
+		String[] nodes = { "boardgames.join.a", "boardgames.admin", "boardgames.join.b" };
+		boolean[] out = new boolean[nodes.length];
+
+		assertEquals(2, cache.has(player(UUID.randomUUID()), nodes, out));
+		assertTrue(out[0]);
+		assertFalse(out[1]);
+		assertTrue(out[2]);
+	}
+
+	public void testBoundedPlayers() {
+		PermissionCache cache = cache(2);
+		for (int i = 0; i < 5; i++) {
+			cache.has(player(UUID.randomUUID()), "boardgames.join.a");
+		}
+		assertEquals(2, cache.size());
+	}
+
+	private Player player(final UUID id) {
+		return (Player) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Player.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if (method.getName().equals("getUniqueId")) {
+							return id;
+						} else if (method.getName().equals("hasPermission")) {
+							lookups++;
+							return ((String) args[0]).startsWith("boardgames.join.");
+						}
+						return null;
+					}
+				});
+	}
+
+	private PermissionCache cache(int maxPlayers) {
+		return new PermissionCache(60000L, maxPlayers, 16, hits, misses);
+	}
+}
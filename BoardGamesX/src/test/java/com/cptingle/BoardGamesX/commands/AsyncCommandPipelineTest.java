@@ -0,0 +1,142 @@
+package com.cptingle.BoardGamesX.commands;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.GameMaster;
+import com.cptingle.BoardGamesX.messaging.Messenger;
+import com.cptingle.BoardGamesX.messaging.Msg;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for running commands off the main thread.
+ */
+public class AsyncCommandPipelineTest extends TestCase {
+	private final Messenger messenger = new Messenger("[BG]");
+	private final List<String> told = new ArrayList<>();
+	private final CommandSender sender = (CommandSender) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] { CommandSender.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					switch (method.getName()) {
+					case "getName":
+						return "tester";
+					case "sendMessage":
+						told.add((String) args[0]);
+						return null;
+					default:
+						return null;
+					}
+				}
+			});
+
+	// The main thread, run by the test
+	private final LinkedBlockingQueue<Runnable> main = new LinkedBlockingQueue<>();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private AsyncCommandPipeline pipeline;
+
+	@Override
+	protected void setUp() {
+		Logger logger = Logger.getLogger("test");
+		logger.setLevel(Level.OFF);
+		pipeline = new AsyncCommandPipeline(logger, new Executor() {
+			@Override
+			public void execute(Runnable task) {
+				main.add(task);
+			}
+		}, 2, 8, 1, 0L);
+	}
+
+	@Override
+	protected void tearDown() {
+		release.countDown();
+		pipeline.shutdown();
+	}
+
+	public void testSenderWithCommandInFlightIsRejected() throws InterruptedException {
+		final int[] completed = new int[1];
+		AsyncCommand waiting = command(new Runnable() {
+			@Override
+			public void run() {
+				completed[0]++;
+			}
+		}, false);
+		assertTrue(pipeline.submit(waiting, null, messenger, sender, new String[0], null));
+		assertFalse(pipeline.submit(waiting, null, messenger, sender, new String[0], null));
+		assertEquals(1, pipeline.getRejectedInFlight());
+		assertEquals(0, pipeline.getRejectedCooldown());
+		assertEquals(messenger.render(Msg.MISC_COMMAND_IN_FLIGHT), told.get(0));
+
+		// Free again once the completion step ran on the main thread
+		release.countDown();
+		runMain();
+		assertEquals(1, completed[0]);
+		assertTrue(pipeline.submit(waiting, null, messenger, sender, new String[0], null));
+		runMain();
+		assertEquals(2, completed[0]);
+	}
+
+	public void testSenderIsToldWhenCommandFails() throws InterruptedException {
+		release.countDown();
+		assertTrue(pipeline.submit(command(null, true), null, messenger, sender, new String[0], null));
+		runMain();
+		assertEquals(1, pipeline.getFailed());
+		assertEquals(messenger.render(Msg.MISC_COMMAND_FAILED), told.get(0));
+
+		// The failure does not count against the sender
+		assertTrue(pipeline.submit(command(null, true), null, messenger, sender, new String[0], null));
+	}
+
+	public void testUsageIsShownWithoutCompletion() throws InterruptedException {
+		release.countDown();
+		final int[] usage = new int[1];
+		pipeline.submit(command(null, false), null, messenger, sender, new String[0], new Runnable() {
+			@Override
+			public void run() {
+				usage[0]++;
+			}
+		});
+		runMain();
+		assertEquals(1, usage[0]);
+		assertEquals(1, pipeline.getCompleted());
+	}
+
+	/**
+	 * Run the next completion step, as the main thread would.
+	 */
+	private void runMain() throws InterruptedException {
+		Runnable task = main.poll(5, TimeUnit.SECONDS);
+		assertNotNull(task);
+		task.run();
+	}
+
+	private AsyncCommand command(final Runnable completion, final boolean fail) {
+		return new AsyncCommand() {
+			@Override
+			public Runnable executeAsync(GameMaster gm, CommandSender sender, String... args) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (fail) {
+					throw new IllegalStateException("Failed on purpose");
+				}
+				return completion;
+			}
+		};
+	}
+}
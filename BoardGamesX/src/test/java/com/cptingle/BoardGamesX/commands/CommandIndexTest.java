@@ -0,0 +1,75 @@
+package com.cptingle.BoardGamesX.commands;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the dispatch index of command patterns.
+ */
+public class CommandIndexTest extends TestCase {
+	private final CommandIndex<String> index = new CommandIndex<>();
+
+	public void testLiteralsMatchWholeArguments() {
+		index.add("join|j", "join");
+		index.add("leave", "leave");
+
+		assertEquals(Arrays.asList("join"), index.lookup("join"));
+		assertEquals(Arrays.asList("join"), index.lookup("j"));
+		assertEquals(Arrays.asList("leave"), index.lookup("leave"));
+		assertTrue(index.lookup("jo").isEmpty());
+		assertTrue(index.lookup("joins").isEmpty());
+		assertTrue(index.lookup("").isEmpty());
+	}
+
+	public void testPrefixesMatchLongerArguments() {
+		index.add("set.*", "set");
+		index.add("setup", "setup");
+		index.add("s.*", "s");
+
+		assertEquals(Arrays.asList("set", "s"), index.lookup("set"));
+		assertEquals(Arrays.asList("set", "setup", "s"), index.lookup("setup"));
+		assertEquals(Arrays.asList("set", "s"), index.lookup("setups"));
+		assertEquals(Arrays.asList("s"), index.lookup("se"));
+		assertTrue(index.lookup("x").isEmpty());
+
+		// Computed when registered, not for every lookup
+		assertSame(index.lookup("sets"), index.lookup("settings"));
+	}
+
+	public void testFallbacksAreMergedInRegistrationOrder() {
+		index.add("a.*", "first");
+		index.add("a[bc]+", "second");
+		index.add("ab", "third");
+		index.add("(ab)?", "fourth");
+		index.add("abc|ab", "fifth");
+
+		assertEquals(Arrays.asList("first", "second", "third", "fourth", "fifth"), index.lookup("ab"));
+		assertEquals(Arrays.asList("first", "second", "fifth"), index.lookup("abc"));
+		assertEquals(Arrays.asList("first"), index.lookup("ad"));
+		assertEquals(Arrays.asList("fourth"), index.lookup(""));
+		assertEquals(5, index.size());
+	}
+
+	public void testResultsAreUnmodifiable() {
+		index.add("top", "top");
+		index.add("to+p", "regex");
+		for (List<String> result : Arrays.asList(index.lookup("top"), index.lookup("tooop"))) {
+			try {
+				result.add("other");
+				fail("Modified a result");
+			} catch (UnsupportedOperationException e) {
+				// Expected
+			}
+		}
+	}
+
+	public void testSplitAlternatives() {
+		assertEquals(Arrays.asList("join", "j", "le-ave_2.*"), CommandIndex.splitAlternatives("join|j|le-ave_2.*"));
+		assertEquals(Collections.singletonList(""), CommandIndex.splitAlternatives(""));
+		assertNull(CommandIndex.splitAlternatives("spec(tate)?|watch"));
+		assertNull(CommandIndex.splitAlternatives("a.*b"));
+	}
+}
@@ -0,0 +1,73 @@
+package com.cptingle.BoardGamesX.commands;
+
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import com.cptingle.BoardGamesX.GameMaster;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for registering commands and finding them by their patterns.
+ */
+public class CommandRegistryTest extends TestCase {
+	// Registering and matching never ask the plugin for permissions
+	private final CommandRegistry registry = new CommandRegistry(null);
+
+	public void testMatchingCommandsInRegistrationOrder() {
+		registry.register(JoinCommand.class);
+		registry.register(JoinAnyCommand.class);
+		registry.register(SetupCommand.class);
+
+		List<CommandDescriptor> matching = registry.getMatching("join");
+		assertEquals(2, matching.size());
+		assertEquals("join", matching.get(0).getName());
+		assertEquals("joinany", matching.get(1).getName());
+		assertEquals("joinany", registry.getMatching("joinrandom").get(0).getName());
+		assertEquals("setup", registry.getMatching("setup").get(0).getName());
+		assertEquals("setup", registry.getMatching("configure").get(0).getName());
+		assertTrue(registry.getMatching("jo").isEmpty());
+		assertEquals(3, registry.getCommands().size());
+	}
+
+	public void testPermissionsShareSlots() {
+		registry.register(JoinCommand.class);
+		registry.register(SetupCommand.class);
+		registry.register(JoinAnyCommand.class);
+
+		List<CommandDescriptor> commands = registry.getCommands();
+		assertEquals(0, commands.get(0).getPermissionSlot());
+		assertEquals(1, commands.get(1).getPermissionSlot());
+		assertEquals(0, commands.get(2).getPermissionSlot());
+		assertEquals(CommandDescriptor.Tier.SETUP, commands.get(1).getTier());
+	}
+
+	public void testCommandsWithoutInfoAreIgnored() {
+		registry.register(UnnamedCommand.class);
+		assertTrue(registry.getCommands().isEmpty());
+		assertTrue(registry.getMatching("unnamed").isEmpty());
+	}
+
+	@CommandInfo(name = "join", pattern = "join|j", usage = "/bg join <game>", desc = "join a game", permission = "boardgames.join")
+	public static class JoinCommand extends TestCommand {
+	}
+
+	@CommandInfo(name = "joinany", pattern = "join.*", usage = "/bg joinany", desc = "join any game", permission = "boardgames.join")
+	public static class JoinAnyCommand extends TestCommand {
+	}
+
+	@CommandInfo(name = "setup", pattern = "set(up)?|conf(igure)?", usage = "/bg setup <game>", desc = "set up a game", permission = "boardgames.setup.setup")
+	public static class SetupCommand extends TestCommand {
+	}
+
+	public static class UnnamedCommand extends TestCommand {
+	}
+
+	private abstract static class TestCommand implements Command {
+		@Override
+		public boolean execute(GameMaster gm, CommandSender sender, String... args) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.cptingle.BoardGamesX.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for config-file validation.
+ */
+public class ConfigLoaderTest extends TestCase {
+
+	public void testReportsEveryTab() {
+		List<String> errors = new ArrayList<>();
+		ConfigLoader.findTabs("a: 1\n\tb: 2\r\nc: 3\n  d:\t4", errors);
+
+		assertEquals(2, errors.size());
+		assertTrue(errors.get(0).startsWith("Found tab in config-file on line 2."));
+		assertTrue(errors.get(0).endsWith("\tb: 2\n^"));
+		assertTrue(errors.get(1).startsWith("Found tab in config-file on line 4."));
+		assertTrue(errors.get(1).endsWith("\n    ^"));
+	}
+
+	public void testNoTabs() {
+		List<String> errors = new ArrayList<>();
+		ConfigLoader.findTabs("a: 1\nb: 2\n", errors);
+		assertTrue(errors.isEmpty());
+	}
+
+	public void testSections() {
+		assertEquals("", ConfigSnapshot.sectionOf("enabled"));
+		assertEquals("global-settings", ConfigSnapshot.sectionOf("global-settings.prefix"));
+		assertEquals("games.chess", ConfigSnapshot.sectionOf("games.chess.turn-time"));
+		assertEquals("games.chess", ConfigSnapshot.sectionOf("games.chess.board.width"));
+	}
+}
@@ -0,0 +1,238 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.framework.ai.SearchEngine;
+import com.cptingle.BoardGamesX.framework.ai.SearchLimits;
+import com.cptingle.BoardGamesX.framework.ai.SearchResult;
+import com.cptingle.BoardGamesX.persistence.MoveLog;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for computer opponents whose search goes wrong, the view of the
+ * board other threads read, the clocks of the players, recording moves and
+ * reporting them.
+ */
+public class BoardGameTest extends TestCase {
+	private final TestGame game = new TestGame();
+
+	// Runs the file operations of move logs when the test says so
+	private final List<Runnable> ioTasks = new ArrayList<>();
+	private final Executor io = new Executor() {
+		@Override
+		public void execute(Runnable task) {
+			ioTasks.add(task);
+		}
+	};
+
+	public void testFailedSearchFallsBackToLegalMove() {
+		TestEngine engine = new TestEngine(null);
+		game.setComputer(0, engine, SearchLimits.millis(100L));
+
+		game.tick(0L);
+		game.tick(1L);
+		assertEquals(1, game.getBoard().get(0));
+		assertEquals(1, game.getBoard().getSideToMove());
+		assertEquals(1, engine.searches);
+	}
+
+	public void testNoMoveIsNotSearchedAgain() {
+		TestEngine engine = new TestEngine(new SearchResult(SearchResult.NO_MOVE, 0, 0, 0L, 0L));
+		game.setComputer(0, engine, SearchLimits.millis(100L));
+
+		for (int tick = 0; tick < 5; tick++) {
+			game.tick(tick);
+		}
+		assertEquals(1, engine.searches);
+		assertEquals(1, game.noMoves);
+
+		// A new position is searched again
+		game.makeMove(3);
+		game.makeMove(4);
+		game.tick(5L);
+		assertEquals(2, engine.searches);
+	}
+
+	public void testViewFollowsBoard() {
+		BoardView before = game.getView();
+		game.makeMove(2);
+		assertEquals(0, before.get(2));
+		assertEquals(1, game.getView().get(2));
+
+		// Changes made to the board directly are published with the next tick
+		game.getBoard().clear();
+		assertEquals(1, game.getView().get(2));
+		game.tick(0L);
+		assertEquals(0, game.getView().get(2));
+	}
+
+	public void testClockOfPlayerToMove() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		game.addPlayer(a);
+		game.addPlayer(b);
+		GamePlayer first = game.getGamePlayer(a);
+		GamePlayer second = game.getGamePlayer(b);
+
+		// Started by the first tick after sitting down
+		game.tick(System.nanoTime());
+		assertTrue(first.isOnTurn());
+		assertFalse(second.isOnTurn());
+
+		game.makeMove(1);
+		assertEquals(1, first.getMoves());
+		assertFalse(first.isOnTurn());
+		assertTrue(second.isOnTurn());
+		assertTrue(first.getTurnNanos(System.nanoTime()) > 0L);
+	}
+
+	public void testMoveLogIsContinuedOnlyWhereItEnded() throws Exception {
+		Path file = Files.createTempFile("bgx", ".moves");
+		try {
+			game.setMoveLog(file, 4, io, Logger.getLogger("test"));
+			game.makeMove(1);
+			game.makeMove(2);
+			game.closeMoveLog();
+
+			// Nothing is written on the thread of the game
+			assertEquals(0L, Files.size(file));
+			runIo();
+			assertEquals(2, moveCount(file));
+
+			// Restarted in the middle of the match
+			TestGame restarted = new TestGame();
+			restarted.makeMove(1);
+			restarted.makeMove(2);
+			restarted.setMoveLog(file, 4, io, Logger.getLogger("test"));
+			restarted.makeMove(3);
+			restarted.closeMoveLog();
+			runIo();
+			assertEquals(3, moveCount(file));
+
+			// A new match replaces the log
+			TestGame next = new TestGame();
+			next.setMoveLog(file, 4, io, Logger.getLogger("test"));
+			next.makeMove(7);
+			next.closeMoveLog();
+			runIo();
+			assertEquals(1, moveCount(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	public void testLastMoveHasNoNextSide() {
+		// Ends once the last cell is taken
+		TestGame match = new TestGame(new ToggleRules() {
+			@Override
+			public boolean isFinished(Gameboard board) {
+				return board.get(15) != Gameboard.EMPTY;
+			}
+		});
+		final List<Integer> nextSides = new ArrayList<>();
+		match.setObserver(new GameObserver() {
+			@Override
+			public void onStateChange(Game game, GameState from, GameState to) {
+			}
+
+			@Override
+			public void onPlayerJoin(Game game, UUID player) {
+			}
+
+			@Override
+			public void onPlayerLeave(Game game, UUID player) {
+			}
+
+			@Override
+			public void onMoveMade(Game game, int side, int move, int nextSide) {
+				nextSides.add(nextSide);
+			}
+
+			@Override
+			public void onGameEnded(Game game, int winner) {
+			}
+		});
+
+		match.makeMove(0);
+		match.makeMove(15);
+		assertEquals(Arrays.asList(1, -1), nextSides);
+	}
+
+	private void runIo() {
+		for (Runnable task : ioTasks) {
+			task.run();
+		}
+		ioTasks.clear();
+	}
+
+	private static int moveCount(Path file) throws Exception {
+		try (MoveLog log = MoveLog.open(file)) {
+			return log.getMoveCount();
+		}
+	}
+
+	private static class TestGame extends BoardGame {
+		private int noMoves;
+
+		TestGame() {
+			this(new ToggleRules());
+		}
+
+		TestGame(GameRules rules) {
+			super("test", rules);
+		}
+
+		@Override
+		protected void onNoLegalMove(int side) {
+			noMoves++;
+		}
+	}
+
+	/**
+	 * Completes every search at once, with a result or, given null, with an
+	 * error.
+	 */
+	private static class TestEngine implements SearchEngine {
+		private final SearchResult result;
+		private int searches;
+
+		TestEngine(SearchResult result) {
+			this.result = result;
+		}
+
+		@Override
+		public SearchResult search(GameRules rules, Gameboard board, SearchLimits limits) {
+			return searchAsync(rules, board, limits).join();
+		}
+
+		@Override
+		public CompletableFuture<SearchResult> searchAsync(GameRules rules, Gameboard board, SearchLimits limits) {
+			searches++;
+			CompletableFuture<SearchResult> future = new CompletableFuture<>();
+			if (result == null) {
+				future.completeExceptionally(new IllegalStateException("Engine failed"));
+			} else {
+				future.complete(result);
+			}
+			return future;
+		}
+
+		@Override
+		public int getThreads() {
+			return 1;
+		}
+
+		@Override
+		public void shutdown() {
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for reusing player sessions.
+ */
+public class GamePlayerPoolTest extends TestCase {
+	private final GamePlayerPool pool = new GamePlayerPool(4);
+	private final Game game = new Game("test", pool) {
+		@Override
+		public void forceEnd() {
+		}
+	};
+
+	public void testSessionIsReusedAndCleared() {
+		UUID first = UUID.randomUUID();
+		game.addPlayer(first);
+		GamePlayer session = game.getGamePlayer(first);
+		session.startTurn(100L);
+		session.endTurn(400L);
+		assertEquals(300L, session.getTurnNanos(500L));
+		int generation = session.getGeneration();
+
+		game.removePlayer(first);
+		assertFalse(session.isBound());
+		assertEquals(1, pool.size());
+
+		UUID second = UUID.randomUUID();
+		game.addPlayer(second);
+		assertSame(session, game.getGamePlayer(second));
+		assertEquals(second, session.getId());
+		assertEquals(0, session.getMoves());
+		assertEquals(generation + 1, session.getGeneration());
+		assertEquals(1L, pool.getCreated());
+		assertEquals(1L, pool.getReused());
+	}
+
+	public void testLowestFreeSide() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		UUID c = UUID.randomUUID();
+		game.addPlayer(a);
+		game.addPlayer(b);
+		game.removePlayer(a);
+		game.addPlayer(c);
+		assertEquals(0, game.getGamePlayer(c).getSide());
+		assertEquals(1, game.getGamePlayer(b).getSide());
+		assertFalse(game.addPlayer(a, 1));
+	}
+
+	public void testSidesSurviveLeaveAndRestore() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		game.addPlayer(a);
+		game.addPlayer(b);
+		game.removePlayer(a);
+		game.addPlayer(a);
+
+		// Side 0 is a's again, though b joined first now
+		UUID[] sides = game.getPlayersBySide();
+		assertEquals(a, sides[0]);
+		assertEquals(b, sides[1]);
+
+		game.removePlayer(a);
+		GameSnapshot snapshot = game.snapshot();
+		game.restore(snapshot);
+		assertNull(game.getPlayerOnSide(0));
+		assertEquals(b, game.getPlayerOnSide(1).getId());
+	}
+
+	public void testCapacityZeroDoesNotPool() {
+		GamePlayerPool none = new GamePlayerPool(0);
+		GamePlayer session = none.acquire(game, UUID.randomUUID(), 0, 0L);
+		none.release(session);
+		assertEquals(0, none.size());
+		try {
+			none.release(session);
+			fail("Released twice");
+		} catch (IllegalStateException e) {
+			// Expected
+		}
+	}
+}
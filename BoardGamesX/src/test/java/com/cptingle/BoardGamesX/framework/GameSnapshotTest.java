@@ -0,0 +1,43 @@
+package com.cptingle.BoardGamesX.framework;
+
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for saving games.
+ */
+public class GameSnapshotTest extends TestCase {
+
+	public void testRoundTrip() throws Exception {
+		UUID player = UUID.randomUUID();
+		int[] cells = { 0, 1, 2, 0, 0, 2 };
+		GameSnapshot snapshot = new GameSnapshot("Chess", GameState.RUNNING, new UUID[] { player }, 3, 2, 2, 1,
+				cells, 4500L);
+
+		GameSnapshot copy = GameSnapshot.decode(snapshot.encode());
+		assertEquals("Chess", copy.getName());
+		assertEquals(GameState.RUNNING, copy.getState());
+		assertEquals(player, copy.getPlayers()[0]);
+		assertEquals(3, copy.getWidth());
+		assertEquals(1, copy.getSideToMove());
+		assertEquals(2, copy.getCells()[5]);
+		assertEquals(4500L, copy.getTurnRemaining());
+	}
+
+	public void testFreeSides() throws Exception {
+		UUID player = UUID.randomUUID();
+		GameSnapshot snapshot = new GameSnapshot("Chess", GameState.RUNNING, new UUID[] { null, player });
+		UUID[] players = GameSnapshot.decode(snapshot.encode()).getPlayers();
+		assertEquals(2, players.length);
+		assertNull(players[0]);
+		assertEquals(player, players[1]);
+	}
+
+	public void testWithoutBoard() throws Exception {
+		GameSnapshot snapshot = new GameSnapshot("Lobby", GameState.WAITING, new UUID[0]);
+		GameSnapshot copy = GameSnapshot.decode(snapshot.encode());
+		assertFalse(copy.hasBoard());
+		assertEquals(GameState.WAITING, copy.getState());
+	}
+}
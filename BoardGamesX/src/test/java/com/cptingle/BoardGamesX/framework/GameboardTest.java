@@ -0,0 +1,110 @@
+package com.cptingle.BoardGamesX.framework;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the bitboard and array boards.
+ */
+public class GameboardTest extends TestCase {
+
+	public void testCreatePicksImplementation() {
+		assertTrue(Gameboard.create(8, 8, 2) instanceof BitGameboard);
+		assertTrue(Gameboard.create(15, 15, 2) instanceof ArrayGameboard);
+	}
+
+	public void testSetAndGet() {
+		for (Gameboard board : boards()) {
+			board.set(2, 3, 1);
+			board.set(0, 0, 2);
+			assertEquals(1, board.get(2, 3));
+			assertEquals(2, board.get(0));
+			assertEquals(Gameboard.EMPTY, board.get(1, 1));
+		}
+	}
+
+	public void testUndoRevertsWholeMove() {
+		for (Gameboard board : boards()) {
+			board.set(0, 1);
+
+			board.beginMove();
+			board.set(0, 2);
+			board.set(5, 1);
+			board.endMove();
+
+			board.beginMove();
+			board.set(5, Gameboard.EMPTY);
+			board.endMove();
+
+			assertEquals(2, board.getMoveCount());
+			assertTrue(board.undo());
+			assertEquals(1, board.get(5));
+			assertTrue(board.undo());
+			assertEquals(1, board.get(0));
+			assertEquals(Gameboard.EMPTY, board.get(5));
+			assertFalse(board.undo());
+		}
+	}
+
+	public void testBitboards() {
+		BitGameboard board = new BitGameboard(7, 6, 2);
+		board.set(0, 1);
+		board.set(41, 2);
+		assertEquals(1L, board.getPieces(1));
+		assertEquals(1L << 41, board.getPieces(2));
+		assertEquals(1L | (1L << 41), board.getOccupied());
+		assertEquals(40, Long.bitCount(board.getEmpty()));
+	}
+
+	public void testCopyIsIndependent() {
+		for (Gameboard board : boards()) {
+			board.set(3, 1);
+			Gameboard copy = board.copy();
+			copy.set(3, 2);
+			assertEquals(1, board.get(3));
+			assertEquals(2, copy.get(3));
+		}
+	}
+
+	public void testHashIsIncremental() {
+		for (Gameboard board : boards()) {
+			long empty = board.getHash();
+
+			board.beginMove();
+			board.set(4, 1);
+			board.setSideToMove(1);
+			board.endMove();
+			long afterMove = board.getHash();
+			assertFalse(empty == afterMove);
+
+			// Same position reached through another route hashes the same
+			Gameboard other = board.copy();
+			other.clear();
+			other.setSideToMove(1);
+			other.set(4, 2);
+			other.set(4, 1);
+			assertEquals(afterMove, other.getHash());
+
+			board.undo();
+			assertEquals(empty, board.getHash());
+			assertEquals(0, board.getSideToMove());
+		}
+	}
+
+	public void testRepetitions() {
+		Gameboard board = Gameboard.create(3, 3, 1);
+		for (int i = 0; i < 2; i++) {
+			board.beginMove();
+			board.set(0, 1);
+			board.endMove();
+			board.beginMove();
+			board.set(0, Gameboard.EMPTY);
+			board.endMove();
+		}
+		assertEquals(2, board.countRepetitions());
+	}
+
+	private Gameboard[] boards() {
+		return new Gameboard[] { new BitGameboard(8, 8, 2), new ArrayGameboard(8, 8, 2),
+				new ArrayGameboard(8, 8, 300) };
+	}
+}
@@ -0,0 +1,49 @@
+package com.cptingle.BoardGamesX.framework;
+
+/**
+ * Rules for tests on a 4x4 board: every move toggles a cell between empty and
+ * the mover's piece, and the game never ends.
+ */
+public class ToggleRules implements GameRules {
+	@Override
+	public int getSides() {
+		return 2;
+	}
+
+	@Override
+	public Gameboard createBoard() {
+		return Gameboard.create(4, 4, 2);
+	}
+
+	@Override
+	public int generateMoves(Gameboard board, int[] moves) {
+		for (int i = 0; i < board.getCellCount(); i++) {
+			moves[i] = i;
+		}
+		return board.getCellCount();
+	}
+
+	@Override
+	public void makeMove(Gameboard board, int move) {
+		int side = board.getSideToMove();
+		board.beginMove();
+		board.set(move, (board.get(move) == Gameboard.EMPTY) ? side + 1 : Gameboard.EMPTY);
+		board.setSideToMove(1 - side);
+		board.endMove();
+	}
+
+	@Override
+	public boolean isFinished(Gameboard board) {
+		return false;
+	}
+
+	@Override
+	public int getWinner(Gameboard board) {
+		return -1;
+	}
+
+	@Override
+	public int evaluate(Gameboard board) {
+		return 0;
+	}
+}
@@ -0,0 +1,47 @@
+package com.cptingle.BoardGamesX.framework;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the transposition table.
+ */
+public class TranspositionTableTest extends TestCase {
+
+	public void testStoreAndProbe() {
+		TranspositionTable table = new TranspositionTable(1);
+		table.store(12345L, 42, -300, 7, TranspositionTable.LOWER);
+
+		long data = table.probe(12345L);
+		assertEquals(42, TranspositionTable.move(data));
+		assertEquals(-300, TranspositionTable.score(data));
+		assertEquals(7, TranspositionTable.depth(data));
+		assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+		assertEquals(1, table.getHits());
+	}
+
+	public void testMissAndCollision() {
+		TranspositionTable table = new TranspositionTable(1);
+		assertEquals(0L, table.probe(1L));
+		assertEquals(0, table.getCollisions());
+
+		// Same bucket, different key
+		long other = 1L + ((long) table.capacity() << 8);
+		table.store(1L, 1, 0, 1, TranspositionTable.EXACT);
+		assertEquals(0L, table.probe(other));
+		assertEquals(2, table.getMisses());
+		assertEquals(1, table.getCollisions());
+	}
+
+	public void testDepthPreferredSlot() {
+		TranspositionTable table = new TranspositionTable(1);
+		long step = (long) table.capacity() << 8;
+		table.store(1L, 1, 0, 10, TranspositionTable.EXACT);
+		table.store(1L + step, 2, 0, 2, TranspositionTable.EXACT);
+		table.store(1L + 2 * step, 3, 0, 3, TranspositionTable.EXACT);
+
+		// The deep entry survives, the shallow ones share the other slot
+		assertEquals(1, TranspositionTable.move(table.probe(1L)));
+		assertEquals(0L, table.probe(1L + step));
+		assertEquals(3, TranspositionTable.move(table.probe(1L + 2 * step)));
+	}
+}
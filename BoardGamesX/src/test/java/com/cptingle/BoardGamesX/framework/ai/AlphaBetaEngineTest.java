@@ -0,0 +1,164 @@
+package com.cptingle.BoardGamesX.framework.ai;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.framework.ToggleRules;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the alpha-beta engine, on tic-tac-toe and on a game that
+ * never ends.
+ */
+public class AlphaBetaEngineTest extends TestCase {
+	private final TicTacToe rules = new TicTacToe();
+	private AlphaBetaEngine engine;
+
+	@Override
+	protected void setUp() {
+		engine = new AlphaBetaEngine(2, 1);
+	}
+
+	@Override
+	protected void tearDown() {
+		engine.shutdown();
+	}
+
+	public void testWinsInOne() {
+		// X . .    X to move wins with 2, instead of blocking 5
+		// O O .
+		// . . .
+		Gameboard board = position(new int[] { 0, 1 }, new int[] { 3, 4 });
+		SearchResult result = engine.search(rules, board, new SearchLimits(5000, 4));
+		assertEquals(2, result.getMove());
+		assertEquals(AlphaBetaEngine.WIN - 1, result.getScore());
+	}
+
+	public void testFixedDepth() {
+		// X . .    X to move must block 5, every other move loses at depth 2
+		// O O .
+		// . . X
+		Gameboard board = position(new int[] { 0, 8 }, new int[] { 3, 4 });
+		SearchResult result = engine.search(rules, board, new SearchLimits(5000, 2));
+		assertEquals(2, result.getDepth());
+		assertEquals(5, result.getMove());
+		assertEquals(0, result.getScore());
+	}
+
+	public void testConcurrentSearchesFinish() throws Exception {
+		// More background searches than threads, each with a helper
+		List<CompletableFuture<SearchResult>> futures = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			futures.add(engine.searchAsync(rules, rules.createBoard(), new SearchLimits(200, 0)));
+		}
+		for (CompletableFuture<SearchResult> future : futures) {
+			SearchResult result = future.get(10, TimeUnit.SECONDS);
+			assertTrue(result.hasMove());
+		}
+	}
+
+	public void testSearchKeepsItsBudgetOnABusyPool() throws Exception {
+		// A game that never ends, so every search uses its whole budget
+		AlphaBetaEngine busy = new AlphaBetaEngine(4, 1);
+		ToggleRules toggle = new ToggleRules();
+		try {
+			// The helpers of two long searches take every thread of the pool
+			List<CompletableFuture<SearchResult>> slow = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				slow.add(busy.searchAsync(toggle, toggle.createBoard(), new SearchLimits(1500, 0)));
+			}
+			Thread.sleep(100L);
+
+			SearchResult result = busy.searchAsync(toggle, toggle.createBoard(), new SearchLimits(100, 0)).get(10,
+					TimeUnit.SECONDS);
+			assertTrue(result.hasMove());
+			assertTrue("Took " + result.getNanos() / 1000000 + " ms",
+					result.getNanos() < TimeUnit.MILLISECONDS.toNanos(100 + 150));
+			for (CompletableFuture<SearchResult> future : slow) {
+				assertTrue(future.get(10, TimeUnit.SECONDS).hasMove());
+			}
+		} finally {
+			busy.shutdown();
+		}
+	}
+
+	private Gameboard position(int[] x, int[] o) {
+		Gameboard board = rules.createBoard();
+		for (int cell : x) {
+			board.set(cell, 1);
+		}
+		for (int cell : o) {
+			board.set(cell, 2);
+		}
+		return board;
+	}
+
+	private static class TicTacToe implements GameRules {
+		private static final int[][] LINES = { { 0, 1, 2 }, { 3, 4, 5 }, { 6, 7, 8 }, { 0, 3, 6 }, { 1, 4, 7 },
+				{ 2, 5, 8 }, { 0, 4, 8 }, { 2, 4, 6 } };
+
+		@Override
+		public int getSides() {
+			return 2;
+		}
+
+		@Override
+		public Gameboard createBoard() {
+			return Gameboard.create(3, 3, 2);
+		}
+
+		@Override
+		public int generateMoves(Gameboard board, int[] moves) {
+			int count = 0;
+			for (int cell = 0; cell < board.getCellCount(); cell++) {
+				if (board.get(cell) == Gameboard.EMPTY) {
+					moves[count++] = cell;
+				}
+			}
+			return count;
+		}
+
+		@Override
+		public void makeMove(Gameboard board, int move) {
+			int side = board.getSideToMove();
+			board.beginMove();
+			board.set(move, side + 1);
+			board.setSideToMove(1 - side);
+			board.endMove();
+		}
+
+		@Override
+		public boolean isFinished(Gameboard board) {
+			if (getWinner(board) >= 0) {
+				return true;
+			}
+			for (int cell = 0; cell < board.getCellCount(); cell++) {
+				if (board.get(cell) == Gameboard.EMPTY) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int getWinner(Gameboard board) {
+			for (int[] line : LINES) {
+				int piece = board.get(line[0]);
+				if (piece != Gameboard.EMPTY && board.get(line[1]) == piece && board.get(line[2]) == piece) {
+					return piece - 1;
+				}
+			}
+			return -1;
+		}
+
+		@Override
+		public int evaluate(Gameboard board) {
+			return 0;
+		}
+	}
+}
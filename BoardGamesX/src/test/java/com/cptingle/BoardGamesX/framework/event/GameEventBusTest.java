@@ -0,0 +1,85 @@
+package com.cptingle.BoardGamesX.framework.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.cptingle.BoardGamesX.framework.Game;
+import com.cptingle.BoardGamesX.framework.GameListener;
+import com.cptingle.BoardGamesX.metrics.MetricsRegistry;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the game event bus.
+ */
+public class GameEventBusTest extends TestCase {
+	private final MetricsRegistry metrics = new MetricsRegistry(true);
+	private final Game game = new Game("test") {
+		@Override
+		public void forceEnd() {
+		}
+	};
+
+	public void testOnlyOverriddenMethodsAreRegistered() {
+		GameEventBus bus = bus();
+		final List<Integer> moves = new ArrayList<>();
+		bus.register(new GameListener() {
+			@Override
+			public void onMoveMade(MoveMadeEvent event) {
+				moves.add(event.getMove());
+			}
+		}, false);
+
+		assertTrue(bus.hasListeners(GameEventType.MOVE_MADE));
+		assertFalse(bus.hasListeners(GameEventType.GAME_ENDED));
+
+		bus.moveMade(game, 0, 7);
+		bus.gameEnded(game, 0);
+		assertEquals(1, moves.size());
+		assertEquals(7, (int) moves.get(0));
+		assertEquals(1, bus.getFired());
+	}
+
+	public void testNestedEventsDoNotShareFlyweights() {
+		final GameEventBus bus = bus();
+		final List<Integer> seen = new ArrayList<>();
+		bus.register(new GameListener() {
+			@Override
+			public void onMoveMade(MoveMadeEvent event) {
+				if (event.getMove() == 1) {
+					bus.moveMade(game, 1, 2);
+				}
+				seen.add(event.getMove());
+			}
+		}, false);
+
+		bus.moveMade(game, 0, 1);
+		assertEquals(2, (int) seen.get(0));
+		assertEquals(1, (int) seen.get(1));
+	}
+
+	public void testAsyncListenersGetCopies() throws Exception {
+		GameEventBus bus = bus();
+		final CountDownLatch latch = new CountDownLatch(1);
+		final int[] winner = new int[1];
+		bus.register(new GameListener() {
+			@Override
+			public void onGameEnded(GameEndedEvent event) {
+				winner[0] = event.getWinner();
+				latch.countDown();
+			}
+		}, true);
+
+		bus.gameEnded(game, 1);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals(1, winner[0]);
+		bus.shutdown();
+	}
+
+	private GameEventBus bus() {
+		return new GameEventBus(Logger.getLogger("test"), 16, metrics.counter("bgx_events_dropped_total"));
+	}
+}
@@ -0,0 +1,75 @@
+package com.cptingle.BoardGamesX.matchmaking;
+
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the local matchmaking queue.
+ */
+public class InMemoryBackendTest extends TestCase {
+	private final InMemoryBackend backend = new InMemoryBackend();
+
+	public void testBucketsKeepOrder() {
+		QueueTicket a = ticket(5);
+		QueueTicket b = ticket(5);
+		QueueTicket c = ticket(3);
+		assertTrue(backend.enqueue(a));
+		assertTrue(backend.enqueue(b));
+		assertTrue(backend.enqueue(c));
+		assertFalse(backend.enqueue(new QueueTicket(a.getPlayer(), 0, 0, 0L)));
+
+		int[] buckets = backend.getBuckets();
+		assertEquals(2, buckets.length);
+		assertEquals(3, buckets[0]);
+
+		QueueTicket[] out = new QueueTicket[4];
+		assertEquals(2, backend.take(5, out, 4));
+		assertSame(a, out[0]);
+		assertSame(b, out[1]);
+		assertFalse(backend.isQueued(a.getPlayer()));
+		assertEquals(1, backend.size());
+	}
+
+	public void testRemovedTicketsAreSkipped() {
+		QueueTicket a = ticket(1);
+		QueueTicket b = ticket(1);
+		backend.enqueue(a);
+		backend.enqueue(b);
+		assertTrue(backend.remove(a.getPlayer()));
+
+		// Queued again, behind b
+		QueueTicket again = new QueueTicket(a.getPlayer(), 1, 1, 1L);
+		backend.enqueue(again);
+
+		QueueTicket[] out = new QueueTicket[4];
+		assertEquals(2, backend.take(1, out, 4));
+		assertSame(b, out[0]);
+		assertSame(again, out[1]);
+		assertEquals(0, backend.getBuckets().length);
+	}
+
+	public void testPutBackGoesToFront() {
+		QueueTicket a = ticket(2);
+		QueueTicket b = ticket(2);
+		QueueTicket c = ticket(2);
+		backend.enqueue(a);
+		backend.enqueue(b);
+		backend.enqueue(c);
+
+		QueueTicket[] out = new QueueTicket[2];
+		assertEquals(2, backend.take(2, out, 2));
+		backend.putBack(out, 2);
+		assertEquals(3, backend.size());
+
+		QueueTicket[] all = new QueueTicket[3];
+		assertEquals(3, backend.take(2, all, 3));
+		assertSame(a, all[0]);
+		assertSame(b, all[1]);
+		assertSame(c, all[2]);
+	}
+
+	private static QueueTicket ticket(int bucket) {
+		return new QueueTicket(UUID.randomUUID(), bucket * 100, bucket, System.currentTimeMillis());
+	}
+}
@@ -0,0 +1,125 @@
+package com.cptingle.BoardGamesX.matchmaking;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import com.cptingle.BoardGamesX.framework.Game;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for picking tables for queued players, and seating them on the
+ * game's thread.
+ */
+public class MatchmakerTest extends TestCase {
+	private final Matchmaker matchmaker = new Matchmaker(null, new InMemoryBackend(), 100, 64);
+	private final TestGame a = new TestGame("a");
+	private final TestGame b = new TestGame("b");
+
+	public void testEmptyTableOnlyForBatchThatFillsIt() {
+		matchmaker.collectTables(Arrays.<Game>asList(a, b));
+		assertNull(matchmaker.pick(ticket(10), 1, ALL));
+
+		QueueTicket first = ticket(10);
+		assertSame(a, matchmaker.pick(first, 2, ALL));
+		seat(a, first);
+		// The second player of the batch joins the table that was opened
+		assertSame(a, matchmaker.pick(ticket(10), 1, ALL));
+	}
+
+	public void testPartlyFilledTableOfSameBucketFirst() {
+		matchmaker.collectTables(Arrays.<Game>asList(a, b));
+		seat(a, ticket(10));
+		seat(b, ticket(12));
+
+		assertSame(b, matchmaker.pick(ticket(12), 1, ALL));
+		assertSame(a, matchmaker.pick(ticket(10), 5, ALL));
+		// Better than waiting for a table of one's own
+		assertSame(a, matchmaker.pick(ticket(20), 1, ALL));
+	}
+
+	public void testForbiddenAndFullTablesAreSkipped() {
+		matchmaker.collectTables(Arrays.<Game>asList(a, b));
+		seat(a, ticket(10));
+		Predicate<Game> notA = new Predicate<Game>() {
+			@Override
+			public boolean test(Game game) {
+				return game != a;
+			}
+		};
+		assertNull(matchmaker.pick(ticket(10), 1, notA));
+
+		seat(a, ticket(10));
+		assertNull(matchmaker.pick(ticket(10), 1, ALL));
+	}
+
+	public void testBucketOfEmptiedTableIsForgotten() {
+		matchmaker.collectTables(Arrays.<Game>asList(a, b));
+		QueueTicket ticket = ticket(10);
+		seat(a, ticket);
+		a.removePlayer(ticket.getPlayer());
+
+		matchmaker.collectTables(Arrays.<Game>asList(a, b));
+		assertNull(matchmaker.pick(ticket(10), 1, ALL));
+	}
+
+	public void testDequeueAfterHandOffCancelsTheSeat() {
+		QueueTicket ticket = ticket(10);
+		matchmaker.hold(ticket.getPlayer());
+		assertTrue(matchmaker.isQueued(ticket.getPlayer()));
+
+		// Quits before the game's thread gets to the seat
+		assertTrue(matchmaker.dequeue(ticket.getPlayer()));
+		assertFalse(matchmaker.seatHeld(a, ticket));
+		assertEquals(0, a.getPlayerCount());
+		assertFalse(matchmaker.isQueued(ticket.getPlayer()));
+	}
+
+	public void testHeldPlayerIsSeatedOrQueuedAgain() {
+		QueueTicket first = ticket(10);
+		matchmaker.hold(first.getPlayer());
+		assertTrue(matchmaker.seatHeld(a, first));
+		assertTrue(a.hasPlayer(first.getPlayer()));
+		assertFalse(matchmaker.isQueued(first.getPlayer()));
+
+		// The table filled up in the meantime
+		seat(a, ticket(10));
+		QueueTicket late = ticket(10);
+		matchmaker.hold(late.getPlayer());
+		assertFalse(matchmaker.seatHeld(a, late));
+		assertTrue(matchmaker.isQueued(late.getPlayer()));
+	}
+
+	private void seat(Game table, QueueTicket ticket) {
+		matchmaker.claim(table, ticket);
+		table.addPlayer(ticket.getPlayer());
+	}
+
+	private static QueueTicket ticket(int bucket) {
+		return new QueueTicket(UUID.randomUUID(), bucket * 100, bucket, 0L);
+	}
+
+	private static final Predicate<Game> ALL = new Predicate<Game>() {
+		@Override
+		public boolean test(Game game) {
+			return true;
+		}
+	};
+
+	private static class TestGame extends Game {
+		TestGame(String name) {
+			super(name);
+			setEnabled(true);
+		}
+
+		@Override
+		public int getMaxPlayers() {
+			return 2;
+		}
+
+		@Override
+		public void forceEnd() {
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.cptingle.BoardGamesX.messaging;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for compiled messages.
+ */
+public class MsgTemplateTest extends TestCase {
+
+	public void testPercentTakesNextArgument() {
+		MsgTemplate template = MsgTemplate.compile("% beat % in %");
+		assertEquals("Ann beat Bob in c4", template.format("Ann", "Bob", "c4"));
+	}
+
+	public void testPositionalArguments() {
+		MsgTemplate template = MsgTemplate.compile("{1} after {0}, then {1}");
+		assertEquals("b after a, then b", template.format("a", "b"));
+	}
+
+	public void testMultiDigitIndex() {
+		MsgTemplate template = MsgTemplate.compile("{10}{0}");
+		assertEquals("ka", template.format("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k"));
+		assertEquals(-1, template.slotOf("10"));
+	}
+
+	public void testNamedArgumentsFollowPositionalOnes() {
+		MsgTemplate template = MsgTemplate.compile("{0} has {rating} after {games} games, {rating}!");
+		assertEquals(1, template.slotOf("rating"));
+		assertEquals(2, template.slotOf("games"));
+		assertEquals("Ann has 1200 after 30 games, 1200!", template.format("Ann", 1200, 30));
+
+		// Named only: numbered from the first argument
+		assertEquals(0, MsgTemplate.compile("{who} won").slotOf("who"));
+	}
+
+	public void testMixedPlaceholdersDoNotAlias() {
+		MsgTemplate template = MsgTemplate.compile("% {1} {name}");
+		assertEquals("a b c", template.format("a", "b", "c"));
+	}
+
+	public void testMissingArgumentsRenderAsNothing() {
+		MsgTemplate template = MsgTemplate.compile("[%] [%]");
+		assertEquals("[a] []", template.format("a"));
+	}
+
+	public void testBracesThatAreNotPlaceholders() {
+		MsgTemplate template = MsgTemplate.compile("{not one} {}");
+		assertFalse(template.hasPlaceholders());
+		assertEquals("{not one} {}", template.format("a"));
+	}
+
+	public void testSingleStringFillsEveryPercent() {
+		assertEquals("Game §echess§r finished! Type §e/ma j chess§r to join a new game!",
+				Msg.ARENA_END_GLOBAL.format("chess"));
+		assertEquals("chess chess chess", MsgTemplate.compile("% {0} %").formatSingle("chess"));
+
+		// More than one argument: each % takes the next
+		assertEquals("Game §echess§r finished! Type §e/ma j go§r to join a new game!",
+				Msg.ARENA_END_GLOBAL.format("chess", "go"));
+	}
+
+	public void testTopEntry() {
+		assertEquals("§e1.§r Ann §7(1200)", Msg.TOP_ENTRY.format(1, "Ann", 1200));
+	}
+
+	public void testSpectatorMove() {
+		assertEquals("Side §e2§r played §e5§r.", Msg.SPEC_MOVE.format(2, 5));
+	}
+}
@@ -0,0 +1,52 @@
+package com.cptingle.BoardGamesX.metrics;
+
+import java.nio.charset.StandardCharsets;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the latency histogram and its export.
+ */
+public class HistogramTest extends TestCase {
+
+	public void testQuantilesWithinBucketError() {
+		Histogram histogram = new Histogram("test", "");
+		for (long i = 1; i <= 100000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(100000, histogram.getCount());
+		assertEquals(100000000L, histogram.getMax());
+		assertNear(50000000L, histogram.getValueAt(0.5));
+		assertNear(99000000L, histogram.getValueAt(0.99));
+		assertEquals(histogram.getMax(), histogram.getValueAt(1.0));
+	}
+
+	public void testSmallValuesAreExact() {
+		for (long value = 0; value < 32; value++) {
+			assertEquals(value, Histogram.upperBound(Histogram.index(value)));
+		}
+	}
+
+	public void testDisabledRegistryTakesNoTimings() {
+		MetricsRegistry metrics = new MetricsRegistry(false);
+		Histogram histogram = metrics.histogram("bgx_test_nanos", "game", "a");
+		metrics.stop(histogram, metrics.start());
+		assertEquals(0, histogram.getCount());
+		assertSame(histogram, metrics.histogram("bgx_test_nanos", "game", "a"));
+	}
+
+	public void testPrometheusFormat() {
+		MetricsRegistry metrics = new MetricsRegistry(true);
+		metrics.counter("bgx_test_total", "kind", "x").add(3);
+		metrics.histogram("bgx_test_nanos", "game", "a").record(500);
+		String text = new String(PrometheusFormat.encode(metrics), StandardCharsets.UTF_8);
+		assertTrue(text, text.contains("bgx_test_total{kind=\"x\"} 3\n"));
+		assertTrue(text, text.contains("bgx_test_nanos_count{game=\"a\"} 1\n"));
+		assertTrue(text, text.contains("bgx_test_nanos{game=\"a\",quantile=\"0.5\"}"));
+	}
+
+	private static void assertNear(long expected, long actual) {
+		// Buckets are at most 1/16 wide
+		assertTrue(expected + " ~ " + actual, Math.abs(actual - expected) <= expected / 16);
+	}
+}
@@ -0,0 +1,103 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.cptingle.BoardGamesX.framework.GameRules;
+import com.cptingle.BoardGamesX.framework.Gameboard;
+import com.cptingle.BoardGamesX.framework.ToggleRules;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the binary move log.
+ */
+public class MoveLogTest extends TestCase {
+	private static final GameRules TOGGLE = new ToggleRules();
+
+	public void testSeekMatchesReplay() throws Exception {
+		Path file = Files.createTempFile("bgx", ".log");
+		try {
+			Gameboard board = TOGGLE.createBoard();
+			long[] hashes = new long[201];
+			int[] moves = new int[200];
+			hashes[0] = board.getHash();
+			try (MoveLogWriter writer = MoveLogWriter.create(file, board, 16)) {
+				for (int i = 0; i < moves.length; i++) {
+					moves[i] = (i * 7) % board.getCellCount();
+					TOGGLE.makeMove(board, moves[i]);
+					writer.append(moves[i], board);
+					hashes[i + 1] = board.getHash();
+				}
+			}
+
+			try (MoveLog log = MoveLog.open(file)) {
+				assertEquals(200, log.getMoveCount());
+				assertEquals(16, log.getSnapshotInterval());
+				for (int i = 0; i < moves.length; i++) {
+					assertEquals(moves[i], log.readMoves()[i]);
+				}
+
+				Gameboard replay = TOGGLE.createBoard();
+				for (int n : new int[] { 0, 1, 15, 16, 17, 100, 199, 200 }) {
+					log.seek(n, replay, TOGGLE);
+					assertEquals("move " + n, hashes[n], replay.getHash());
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	public void testTornRecordIsCutOff() throws Exception {
+		Path file = Files.createTempFile("bgx", ".log");
+		try {
+			Gameboard board = TOGGLE.createBoard();
+			try (MoveLogWriter writer = MoveLogWriter.create(file, board, 4)) {
+				writer.append(3, board);
+				writer.append(1000, board);
+			}
+
+			// Drop the last byte of the two-byte move
+			try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+				raf.setLength(raf.length() - 1);
+			}
+
+			try (MoveLogWriter writer = MoveLogWriter.append(file)) {
+				assertEquals(1, writer.getMoveCount());
+				writer.append(5, board);
+			}
+			try (MoveLog log = MoveLog.open(file)) {
+				assertEquals(2, log.getMoveCount());
+				assertEquals(5, log.readMoves()[1]);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	public void testReadLogKeepsNothingOfTheFile() throws Exception {
+		Path file = Files.createTempFile("bgx", ".log");
+		try {
+			Gameboard board = TOGGLE.createBoard();
+			try (MoveLogWriter writer = MoveLogWriter.create(file, board, 4)) {
+				writer.append(3, board);
+				writer.append(9, board);
+			}
+			long length = Files.size(file);
+
+			try (MoveLog log = MoveLog.read(file)) {
+				assertEquals(length, log.getValidLength());
+
+				// Still readable after the file is emptied
+				try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+					raf.setLength(0L);
+				}
+				assertEquals(9, log.readMoves()[1]);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
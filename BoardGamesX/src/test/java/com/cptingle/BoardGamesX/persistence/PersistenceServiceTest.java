@@ -0,0 +1,73 @@
+package com.cptingle.BoardGamesX.persistence;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the write-behind persistence service.
+ */
+public class PersistenceServiceTest extends TestCase {
+	private Path dir;
+	private PersistenceService service;
+
+	@Override
+	protected void setUp() throws Exception {
+		dir = Files.createTempDirectory("bgx-persistence");
+		service = new PersistenceService(Logger.getLogger("test"), 10000L);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		service.shutdown();
+		for (File file : dir.toFile().listFiles()) {
+			file.delete();
+		}
+		Files.delete(dir);
+	}
+
+	public void testWritesAreCoalesced() throws Exception {
+		Path target = dir.resolve("a.yml");
+		service.write(target, content("one"));
+		service.write(target, content("two"));
+		service.flush();
+
+		assertEquals("two", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+		assertEquals(1, service.getWritten());
+		assertEquals(1, service.getCoalesced());
+		assertFalse(Files.exists(dir.resolve("a.yml.tmp")));
+	}
+
+	public void testUnchangedContentIsSkipped() throws Exception {
+		Path target = dir.resolve("b.yml");
+		Files.write(target, "same".getBytes(StandardCharsets.UTF_8));
+
+		service.write(target, content("same"));
+		service.flush();
+		assertEquals(0, service.getWritten());
+		assertEquals(1, service.getSkipped());
+	}
+
+	public void testDelete() throws Exception {
+		Path target = dir.resolve("c.dat");
+		service.write(target, content("x"));
+		service.flush();
+		service.delete(target);
+		service.flush();
+		assertFalse(Files.exists(target));
+	}
+
+	private static Callable<byte[]> content(final String s) {
+		return new Callable<byte[]>() {
+			@Override
+			public byte[] call() {
+				return s.getBytes(StandardCharsets.UTF_8);
+			}
+		};
+	}
+}
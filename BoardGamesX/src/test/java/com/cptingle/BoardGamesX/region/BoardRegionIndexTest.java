@@ -0,0 +1,81 @@
+package com.cptingle.BoardGamesX.region;
+
+import java.util.UUID;
+
+import com.cptingle.BoardGamesX.framework.Game;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for finding boards in the world.
+ */
+public class BoardRegionIndexTest extends TestCase {
+	private final UUID world = UUID.randomUUID();
+
+	public void testRegionAcrossChunks() {
+		Game game = new TestGame("Reversi");
+		BoardRegion region = new BoardRegion(game, world, 12, 64, -3, 8, 8);
+		BoardRegionIndex index = new BoardRegionIndex();
+		index.add(region);
+
+		assertSame(region, index.regionAt(world, 12, 64, -3));
+		assertSame(region, index.regionAt(world, 19, 64, 4));
+		assertEquals(63, region.cellAt(19, 64, 4));
+		assertEquals(9, region.cellAt(13, 64, -2));
+		assertNull(index.regionAt(world, 20, 64, 0));
+		assertNull(index.regionAt(world, 12, 65, -3));
+		assertNull(index.regionAt(UUID.randomUUID(), 12, 64, -3));
+	}
+
+	public void testRemoveAll() {
+		Game first = new TestGame("First");
+		Game second = new TestGame("Second");
+		BoardRegionIndex index = new BoardRegionIndex();
+		index.add(new BoardRegion(first, world, 0, 64, 0, 20, 20));
+		index.add(new BoardRegion(second, world, 8, 70, 8, 3, 3));
+		assertEquals(2, index.size());
+
+		index.removeAll(first);
+		assertEquals(1, index.size());
+		assertNull(index.regionAt(world, 0, 64, 0));
+		assertSame(second, index.regionAt(world, 9, 70, 9).getGame());
+		assertFalse(index.hasRegions(world, 1, 1));
+	}
+
+	public void testOverlapRejected() {
+		BoardRegionIndex index = new BoardRegionIndex();
+		index.add(new BoardRegion(new TestGame("First"), world, 0, 64, 0, 8, 8));
+		try {
+			index.add(new BoardRegion(new TestGame("Second"), world, 7, 64, 7, 8, 8));
+			fail("Overlapping board added");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		assertEquals(1, index.size());
+		assertNull(index.regionAt(world, 10, 64, 10));
+	}
+
+	public void testMove() {
+		Game game = new TestGame("Checkers");
+		BoardRegion from = new BoardRegion(game, world, -40, 10, -40, 8, 8);
+		BoardRegion to = new BoardRegion(game, world, 100, 10, 100, 8, 8);
+		BoardRegionIndex index = new BoardRegionIndex();
+		index.add(from);
+		index.move(from, to);
+
+		assertNull(index.regionAt(world, -40, 10, -40));
+		assertSame(to, index.regionAt(world, 107, 10, 107));
+		assertFalse(index.hasRegions(world, -3, -3));
+		assertEquals(1, index.getRegions(game).length);
+	}
+
+	private static class TestGame extends Game {
+		TestGame(String name) {
+			super(name);
+		}
+
+		@Override
+		public void forceEnd() {
+		}
+	}
+}
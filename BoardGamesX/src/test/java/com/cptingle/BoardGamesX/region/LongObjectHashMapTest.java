@@ -0,0 +1,42 @@
+package com.cptingle.BoardGamesX.region;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the primitive map of the board index.
+ */
+public class LongObjectHashMapTest extends TestCase {
+
+	public void testAgainstHashMap() {
+		Random random = new Random(42);
+		LongObjectHashMap<Integer> map = new LongObjectHashMap<>(4);
+		Map<Long, Integer> expected = new HashMap<>();
+
+		// Few distinct keys, so removals hit probe chains often
+		for (int i = 0; i < 100000; i++) {
+			long key = BoardRegionIndex.chunkKey(random.nextInt(64) - 32, random.nextInt(64) - 32);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), map.remove(key));
+			} else {
+				assertEquals(expected.put(key, i), map.put(key, i));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+	}
+
+	public void testZeroKey() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>();
+		assertNull(map.get(0L));
+		map.put(0L, "origin");
+		assertTrue(map.containsKey(0L));
+		assertEquals("origin", map.remove(0L));
+		assertTrue(map.isEmpty());
+	}
+}
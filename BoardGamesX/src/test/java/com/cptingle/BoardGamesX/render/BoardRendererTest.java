@@ -0,0 +1,154 @@
+package com.cptingle.BoardGamesX.render;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.framework.BoardGame;
+import com.cptingle.BoardGamesX.framework.ToggleRules;
+import com.cptingle.BoardGamesX.region.BoardRegion;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for sending boards to players.
+ */
+public class BoardRendererTest extends TestCase {
+	private final List<Player> players = new ArrayList<>();
+	private final World world = (World) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] { World.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					switch (method.getName()) {
+					case "getPlayers":
+						return players;
+					case "getBlockAt":
+						return realBlock;
+					default:
+						return null;
+					}
+				}
+			});
+	private final BlockData real = block();
+	private final Block realBlock = (Block) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] { Block.class }, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					return method.getName().equals("getBlockData") ? real : null;
+				}
+			});
+
+	private TestGame game;
+	private BoardRenderer renderer;
+
+	@Override
+	protected void setUp() {
+		game = new TestGame();
+		BlockData[] palette = new BlockData[] { block(), block(), block() };
+		renderer = new BoardRenderer(game, new BoardRegion(game, UUID.randomUUID(), 0, 64, 0, 4, 4), palette);
+	}
+
+	public void testNewViewerGetsWholeBoard() {
+		int[] sent = addPlayer(2.0);
+		RenderStats stats = render(true);
+		assertEquals(16, sent[0]);
+		assertEquals(16, stats.updates);
+		assertEquals(1, renderer.getViewerCount());
+	}
+
+	public void testMovesWithinTickAreCoalesced() {
+		int[] sent = addPlayer(2.0);
+		render(true);
+
+		game.makeMove(3);
+		game.makeMove(5);
+		game.makeMove(3);
+		RenderStats stats = render(false);
+		assertEquals(17, sent[0]);
+		assertEquals(1, stats.batches);
+
+		// Nothing changed since
+		stats = render(true);
+		assertEquals(0, stats.updates);
+	}
+
+	public void testDistantPlayersAreCulled() {
+		int[] near = addPlayer(2.0);
+		int[] far = addPlayer(500.0);
+		game.makeMove(0);
+		RenderStats stats = render(true);
+		assertEquals(16, near[0]);
+		assertEquals(0, far[0]);
+		assertEquals(1, stats.culled);
+		assertEquals(16L * RenderStats.BLOCK_CHANGE_BYTES, stats.bytes);
+	}
+
+	public void testHiddenBoardShowsRealBlocks() {
+		int[] sent = addPlayer(2.0);
+		render(true);
+		renderer.hide(world);
+		assertEquals(16, sent[1]);
+		assertEquals(0, renderer.getViewerCount());
+
+		// Shown as a new viewer when scanned again
+		render(true);
+		assertEquals(32, sent[0]);
+	}
+
+	private RenderStats render(boolean scan) {
+		RenderStats stats = new RenderStats();
+		renderer.render(world, 48.0, scan, stats);
+		return stats;
+	}
+
+	private int[] addPlayer(final double distance) {
+		// Board blocks sent, real blocks sent
+		final int[] sent = new int[2];
+		final UUID id = UUID.randomUUID();
+		players.add((Player) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Player.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						switch (method.getName()) {
+						case "getLocation":
+							return new Location(world, distance, 64, 2.0);
+						case "getUniqueId":
+							return id;
+						case "isOnline":
+							return true;
+						case "sendBlockChange":
+							sent[args[1] == real ? 1 : 0]++;
+							return null;
+						default:
+							return null;
+						}
+					}
+				}));
+		return sent;
+	}
+
+	private static BlockData block() {
+		return (BlockData) Proxy.newProxyInstance(BoardRendererTest.class.getClassLoader(),
+				new Class<?>[] { BlockData.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						return null;
+					}
+				});
+	}
+
+	private static class TestGame extends BoardGame {
+		TestGame() {
+			super("test", new ToggleRules());
+		}
+	}
+}
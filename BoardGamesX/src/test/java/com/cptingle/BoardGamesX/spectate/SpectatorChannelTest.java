@@ -0,0 +1,140 @@
+package com.cptingle.BoardGamesX.spectate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+import com.cptingle.BoardGamesX.framework.Game;
+
+import junit.framework.TestCase;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+
+/**
+ * Unit tests for sending game updates to spectators.
+ */
+public class SpectatorChannelTest extends TestCase {
+	private SpectatorChannel channel;
+	private SpectatorStats stats;
+
+	@Override
+	protected void setUp() {
+		channel = new SpectatorChannel(new TestGame(), 2);
+		stats = new SpectatorStats();
+	}
+
+	public void testUpdatesWithinTickAreCoalesced() {
+		int[] a = subscribe();
+		int[] b = subscribe();
+		tick(10);
+
+		channel.chat("one");
+		channel.chat("two");
+		channel.actionBar("Side 1 to move");
+		channel.actionBar("Side 2 to move");
+		assertEquals(2, tick(10));
+
+		// One batch of both lines and one action bar each
+		assertEquals(1, a[0]);
+		assertEquals(2, a[1]);
+		assertEquals(1, a[2]);
+		assertEquals(1, b[0]);
+		assertEquals(2, b[1]);
+		assertEquals(1, b[2]);
+		assertEquals(1, channel.getFrame());
+	}
+
+	public void testLinesBeyondLimitAreDropped() {
+		int[] a = subscribe();
+		tick(10);
+
+		channel.chat("one");
+		channel.chat("two");
+		channel.chat("three");
+		tick(10);
+		assertEquals(2, a[1]);
+		assertEquals(1, channel.getDropped());
+	}
+
+	public void testLaggingSpectatorsCatchUpFirst() {
+		int[] a = subscribe();
+		int[] b = subscribe();
+		tick(10);
+
+		// Only room for one; the other misses the lines
+		channel.chat("one");
+		assertEquals(1, tick(1));
+		assertEquals(1, a[1]);
+		assertEquals(0, b[1]);
+		assertEquals(1, channel.getBehind());
+
+		// The one who is behind goes first, and old lines are not sent
+		channel.chat("two");
+		assertEquals(1, tick(1));
+		assertEquals(1, b[1]);
+		assertEquals(1, a[1]);
+		assertEquals(1, channel.getBehind());
+	}
+
+	public void testNothingIsSentWithoutUpdates() {
+		subscribe();
+		tick(10);
+		assertEquals(0, tick(10));
+	}
+
+	private int tick(int budget) {
+		stats.reset();
+		channel.encode();
+		return channel.deliver(budget, stats);
+	}
+
+	/**
+	 * @return the number of batches, lines and action bars the spectator got
+	 */
+	private int[] subscribe() {
+		final int[] sent = new int[3];
+		final UUID id = UUID.randomUUID();
+		final Player.Spigot spigot = new Player.Spigot() {
+			@Override
+			public void sendMessage(ChatMessageType position, BaseComponent... components) {
+				if (position == ChatMessageType.ACTION_BAR) {
+					sent[2]++;
+				}
+			}
+		};
+		channel.subscribe((Player) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Player.class },
+				new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						switch (method.getName()) {
+						case "getUniqueId":
+							return id;
+						case "isOnline":
+							return true;
+						case "sendMessage":
+							sent[0]++;
+							sent[1] += ((String[]) args[0]).length;
+							return null;
+						case "spigot":
+							return spigot;
+						default:
+							return null;
+						}
+					}
+				}));
+		return sent;
+	}
+
+	private static class TestGame extends Game {
+		TestGame() {
+			super("test");
+		}
+
+		@Override
+		public void forceEnd() {
+		}
+	}
+}
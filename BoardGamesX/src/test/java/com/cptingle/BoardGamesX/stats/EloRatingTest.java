@@ -0,0 +1,32 @@
+package com.cptingle.BoardGamesX.stats;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for Elo ratings.
+ */
+public class EloRatingTest extends TestCase {
+
+	public void testDuelBetweenEquals() {
+		double[] ratings = { 1000.0, 1000.0 };
+		EloRating.update(ratings, 1, 32.0);
+		assertEquals(984.0, ratings[0], 1e-9);
+		assertEquals(1016.0, ratings[1], 1e-9);
+	}
+
+	public void testDrawBetweenEqualsChangesNothing() {
+		double[] ratings = { 1200.0, 1200.0, 1200.0 };
+		EloRating.update(ratings, -1, 32.0);
+		for (double rating : ratings) {
+			assertEquals(1200.0, rating, 1e-9);
+		}
+	}
+
+	public void testUpsetMovesMoreAndSumsToZero() {
+		double[] ratings = { 1400.0, 1000.0, 1100.0 };
+		EloRating.update(ratings, 1, 32.0);
+		assertTrue(ratings[1] - 1000.0 > 16.0);
+		assertTrue(ratings[0] < 1400.0);
+		assertEquals(3500.0, ratings[0] + ratings[1] + ratings[2], 1e-9);
+	}
+}
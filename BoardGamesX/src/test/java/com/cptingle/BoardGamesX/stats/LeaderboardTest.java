@@ -0,0 +1,58 @@
+package com.cptingle.BoardGamesX.stats;
+
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for the leaderboard and the ratings on it.
+ */
+public class LeaderboardTest extends TestCase {
+
+	public void testKeepsBestPlayers() {
+		Leaderboard board = new Leaderboard(3);
+		UUID[] ids = new UUID[5];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = UUID.randomUUID();
+			board.update(ids[i], "p" + i, 1000 + i * 10);
+		}
+
+		Leaderboard.Entry[] top = board.getTop();
+		assertEquals(3, top.length);
+		assertEquals("p4", top[0].getName());
+		assertEquals("p2", top[2].getName());
+
+		// Climbing past the leader
+		board.update(ids[0], "p0", 2000);
+		assertEquals("p0", board.getTop()[0].getName());
+		assertEquals(3, board.getTop().length);
+		assertFalse(board.isIncomplete());
+	}
+
+	public void testDropToBottomIsIncomplete() {
+		Leaderboard board = new Leaderboard(2);
+		UUID a = UUID.randomUUID();
+		board.update(a, "a", 1500);
+		board.update(UUID.randomUUID(), "b", 1400);
+		board.update(UUID.randomUUID(), "c", 1300);
+
+		// c is gone, so the board cannot know who follows a now
+		board.update(a, "a", 1000);
+		assertTrue(board.isIncomplete());
+
+		board.reset(new Leaderboard.Entry[] { new Leaderboard.Entry(UUID.randomUUID(), "b", 1400) });
+		assertFalse(board.isIncomplete());
+		assertEquals(1, board.getTop().length);
+	}
+
+	public void testEloIsZeroSum() {
+		double[] ratings = { 1200, 1000 };
+		EloRating.update(ratings, 1, 32);
+		assertTrue(ratings[1] > 1000);
+		assertEquals(2200.0, ratings[0] + ratings[1], 1e-9);
+
+		double[] draw = { 1000, 1000, 1000 };
+		EloRating.update(draw, -1, 32);
+		assertEquals(1000.0, draw[0], 1e-9);
+	}
+}
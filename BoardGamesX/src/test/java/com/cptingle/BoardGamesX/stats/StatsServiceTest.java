@@ -0,0 +1,53 @@
+package com.cptingle.BoardGamesX.stats;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for recording results. The database is never opened, so stats
+ * stay in memory.
+ */
+public class StatsServiceTest extends TestCase {
+	private final StatsService stats = new StatsService(Logger.getLogger("test"), new File("unused.db"), 10, 1000L,
+			32.0);
+
+	public void testWinnerIsCreditedBySide() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		// a left side 0 and rejoined after b; sides, not join order, decide
+		stats.recordResult("Chess", new UUID[] { a, b }, 0);
+		stats.shutdown(5000L);
+
+		assertEquals(1, stats.get(a).getWins());
+		assertEquals(1, stats.get(b).getLosses());
+		assertEquals(1016.0, stats.get(a).getRating(), 1e-9);
+		assertEquals(984.0, stats.get(b).getRating(), 1e-9);
+		assertEquals(1L, stats.getResults());
+	}
+
+	public void testFreeSidesAreSkipped() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		stats.recordResult("Chess", new UUID[] { null, a, b }, 2);
+		stats.recordResult("Chess", new UUID[] { a, null }, 0);
+		stats.shutdown(5000L);
+
+		assertEquals(1, stats.get(b).getWins());
+		assertEquals(1, stats.get(a).getLosses());
+		// A match with one player does not count
+		assertEquals(1, stats.get(a).getGamesPlayed());
+	}
+
+	public void testDraw() {
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		stats.recordResult("Chess", new UUID[] { a, b }, -1);
+		stats.shutdown(5000L);
+
+		assertEquals(1, stats.get(a).getDraws());
+		assertEquals(PlayerStats.DEFAULT_RATING, stats.get(b).getRating(), 1e-9);
+	}
+}